@@ -0,0 +1,296 @@
+package com.rich.ai.aiTools;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.rich.ai.monitor.MonitorContext;
+import com.rich.ai.monitor.MonitorContextHolder;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 工具调用并发调度器
+ * 模型一轮回复中请求的多个工具调用，互不冲突的在虚拟线程上并发执行，执行结果仍按请求顺序回传。
+ * 冲突规则：
+ * - 文件类工具按路径判断，同一文件（或目录与其下的文件）的调用按请求顺序串行执行；
+ * - 无共享状态的工具（网络搜索、图片搜索、思考等）可与任意调用并发；
+ * - 其余工具（构建、退出、任务计划、MCP 工具等）独占执行，与前后所有调用串行。
+ * 调用线程上的监控上下文会传递到执行工具的虚拟线程，工具侧的监控指标仍能拿到产物、用户维度。
+ * 默认调度器的并发上限由 ai.tool-execution.max-concurrency 配置。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+public class ToolExecutionScheduler {
+
+    /**
+     * 默认最大并发数
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    /**
+     * 无共享状态、可与任意调用并发执行的工具
+     */
+    private static final Set<String> INDEPENDENT_TOOLS = Set.of(
+            "searchWeb",          // 网络搜索
+            "scrapeWebPage",      // 网页抓取
+            "searchImages",       // 图片搜索
+            "aiGeneratorImage",   // AI 生成图片
+            "searchCodeExample",  // 知识库代码示例搜索
+            "diffContent",        // 文本差异比较
+            "think",              // 思考记录
+            "sendMessage"         // 发送消息
+    );
+
+    /**
+     * 文件类工具及其路径参数名
+     */
+    private static final Map<String, List<String>> FILE_TOOL_PATH_PARAMS = Map.of(
+            "readFile", List.of("relativeFilePath"),
+            "creatAndWrite", List.of("relativeFilePath"),
+            "modifyFile", List.of("relativeFilePath"),
+            "deleteFile", List.of("relativeFilePath"),
+            "diffFiles", List.of("filePath1", "filePath2"),
+            "readDir", List.of("relativeDirPath")
+    );
+
+    private static volatile ToolExecutionScheduler defaultInstance = new ToolExecutionScheduler(DEFAULT_MAX_CONCURRENCY);
+
+    /**
+     * 工具执行线程（每个调用一个虚拟线程）
+     */
+    private static final ExecutorService TOOL_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 最大并发数
+     */
+    private final int maxConcurrency;
+
+    public ToolExecutionScheduler(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("最大并发数必须大于0");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * 默认调度器
+     *
+     * @return 调度器
+     */
+    public static ToolExecutionScheduler getDefault() {
+        return defaultInstance;
+    }
+
+    /**
+     * 设置默认调度器的最大并发数
+     *
+     * @param maxConcurrency 最大并发数
+     */
+    public static void configureDefault(int maxConcurrency) {
+        defaultInstance = new ToolExecutionScheduler(maxConcurrency);
+        log.info("工具调用默认最大并发数: {}", maxConcurrency);
+    }
+
+    /**
+     * 最大并发数
+     *
+     * @return 最大并发数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 执行一轮工具调用
+     * 结果按请求顺序在调用线程上回传；某个调用失败时，先回传它之前的结果，再抛出该调用的异常，
+     * 依赖它的后续调用不再执行
+     *
+     * @param requests       工具调用请求（按模型给出的顺序）
+     * @param toolExecutor   执行单个工具调用，返回执行结果
+     * @param resultConsumer 按请求顺序接收执行结果
+     */
+    public void executeAll(List<ToolExecutionRequest> requests,
+                           Function<ToolExecutionRequest, String> toolExecutor,
+                           BiConsumer<ToolExecutionRequest, String> resultConsumer) {
+        if (requests.size() <= 1) {
+            // 单个调用无需调度，直接在当前线程执行
+            for (ToolExecutionRequest request : requests) {
+                resultConsumer.accept(request, toolExecutor.apply(request));
+            }
+            return;
+        }
+
+        List<ToolResource> resources = requests.stream().map(ToolExecutionScheduler::resolveResource).toList();
+        // 监控上下文存于调用线程的 ThreadLocal，需带到执行线程
+        MonitorContext monitorContext = MonitorContextHolder.getContext();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<String>> futures = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            // 等待之前所有与之冲突的调用完成后再执行
+            List<CompletableFuture<String>> dependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (resources.get(i).conflictsWith(resources.get(j))) {
+                    dependencies.add(futures.get(j));
+                }
+            }
+            ToolExecutionRequest request = requests.get(i);
+            CompletableFuture<String> future = CompletableFuture
+                    .allOf(dependencies.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(ignored -> executeWithPermit(request, toolExecutor, permits, monitorContext), TOOL_EXECUTOR);
+            futures.add(future);
+        }
+        log.debug("本轮共 {} 个工具调用，并发调度执行", requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            String result;
+            try {
+                result = futures.get(i).join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+            resultConsumer.accept(requests.get(i), result);
+        }
+    }
+
+    private static String executeWithPermit(ToolExecutionRequest request,
+                                            Function<ToolExecutionRequest, String> toolExecutor,
+                                            Semaphore permits,
+                                            MonitorContext monitorContext) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待执行工具被中断：" + request.name(), e);
+        }
+        if (monitorContext != null) {
+            MonitorContextHolder.setContext(monitorContext);
+        }
+        try {
+            return toolExecutor.apply(request);
+        } finally {
+            MonitorContextHolder.clearContext();
+            permits.release();
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+
+    /**
+     * 解析工具调用占用的资源
+     *
+     * @param request 工具调用请求
+     * @return 占用的资源
+     */
+    static ToolResource resolveResource(ToolExecutionRequest request) {
+        String toolName = request.name();
+        if (INDEPENDENT_TOOLS.contains(toolName)) {
+            return ToolResource.NONE;
+        }
+        List<String> pathParams = FILE_TOOL_PATH_PARAMS.get(toolName);
+        if (pathParams == null) {
+            return ToolResource.EXCLUSIVE;
+        }
+        try {
+            JSONObject arguments = JSONUtil.parseObj(StrUtil.blankToDefault(request.arguments(), "{}"));
+            List<String> paths = new ArrayList<>();
+            for (String pathParam : pathParams) {
+                String path = arguments.getStr(pathParam);
+                // 读取目录时路径为空表示整个项目
+                if (path == null && !"readDir".equals(toolName)) {
+                    return ToolResource.EXCLUSIVE;
+                }
+                paths.add(normalizePath(path));
+            }
+            return new ToolResource(false, paths);
+        } catch (Exception e) {
+            // 参数无法解析时保守处理，独占执行
+            return ToolResource.EXCLUSIVE;
+        }
+    }
+
+    /**
+     * 规范化相对路径：统一分隔符，去掉首尾分隔符、"." 与多余的分隔符，解析 ".."
+     */
+    private static String normalizePath(String path) {
+        if (StrUtil.isBlank(path)) {
+            return "";
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.trim().replace('\\', '/').split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                if (!segments.isEmpty()) {
+                    segments.remove(segments.size() - 1);
+                }
+                continue;
+            }
+            segments.add(segment);
+        }
+        return String.join("/", segments);
+    }
+
+    /**
+     * 工具调用占用的资源
+     *
+     * @param exclusive 是否独占执行
+     * @param paths     占用的文件或目录路径（规范化后的相对路径，空串表示项目根目录）
+     */
+    record ToolResource(boolean exclusive, List<String> paths) {
+
+        static final ToolResource NONE = new ToolResource(false, List.of());
+
+        static final ToolResource EXCLUSIVE = new ToolResource(true, List.of());
+
+        boolean conflictsWith(ToolResource other) {
+            if (exclusive || other.exclusive) {
+                return true;
+            }
+            for (String path : paths) {
+                for (String otherPath : other.paths) {
+                    if (overlaps(path, otherPath)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 路径相同，或一个是另一个的上级目录
+         */
+        private static boolean overlaps(String path, String otherPath) {
+            return isSameOrAncestor(path, otherPath) || isSameOrAncestor(otherPath, path);
+        }
+
+        private static boolean isSameOrAncestor(String ancestor, String path) {
+            return ancestor.isEmpty()
+                    || path.equals(ancestor)
+                    || (path.startsWith(ancestor) && path.charAt(ancestor.length()) == '/');
+        }
+    }
+}
@@ -52,13 +52,19 @@ public class RagConfig {
 
         // 构建 DashScope 文本向量模型适配器
         // 内部使用 DashScope 原生 TextEmbedding API，支持 text-embedding-v4 批量处理
+        // 多个批次并发发送，失败的批次按指数退避重试
         EmbeddingModel model = new DashScopeTextEmbeddingModel(
                 embeddingProps.getModelName(),   // 模型名称（text-embedding-v4）
                 embeddingProps.getApiKey(),       // DashScope API 密钥
-                dimension                        // 请求的向量维度（与 PGVector 存储维度一致）
+                dimension,                       // 请求的向量维度（与 PGVector 存储维度一致）
+                embeddingProps.getBaseUrl(),      // 接口地址（为空时使用 SDK 默认地址）
+                embeddingProps.getMaxConcurrency(),     // 最大并发批次数
+                embeddingProps.getMaxRetries(),         // 单批次最大重试次数
+                embeddingProps.getRetryBackoffMillis()  // 首次重试退避时间
         );
 
-        log.info("【RAG】Embedding 向量模型初始化完成，请求向量维度: {}", dimension);
+        log.info("【RAG】Embedding 向量模型初始化完成，请求向量维度: {}，最大并发批次数: {}",
+                dimension, embeddingProps.getMaxConcurrency());
         return model;
     }
 
@@ -1,10 +1,16 @@
 package com.rich.ai.config;
 
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import com.rich.ai.memory.AppendOnlyRedisChatMemoryStore;
+import com.rich.common.constant.AiServiceConstant;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPooled;
 
 /**
  * redis 整合 Langchain4j 配置
@@ -47,60 +53,57 @@ public class RedisChatMemoryConfig {
      */
     private long ttl;
 
+    /**
+     * AI 消息压缩阈值（序列化后的字符数），小于等于 0 表示不压缩
+     */
+    @Value("${chat-memory.compress-threshold:4096}")
+    private int compressThreshold = 4096;
+
+    /**
+     * 本节点缓存的对话消息最大总字符数
+     */
+    @Value("${chat-memory.local-cache-max-size:33554432}")
+    private long localCacheMaxSize = 32L * 1024 * 1024;
+
     /**
      * Redis整合Langchain4j配置
      * 创建Redis聊天记忆存储，用于持久化AI对话历史
+     * 消息按条增量追加、按窗口上限在 Redis 端裁剪，较大的 AI 消息压缩存储
      * 支持TTL（生存时间）配置，自动清理过期的对话记录
      *
-     * @return dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore Redis聊天记忆存储实例
+     * @return dev.langchain4j.store.memory.chat.ChatMemoryStore Redis聊天记忆存储实例
      * @author DuRuiChi
      * @create 2025/12/18
      **/
     @Bean
-    public RedisChatMemoryStore redisChatMemoryStore() {
-        // 构建Redis聊天记忆存储
-        RedisChatMemoryStore.Builder builder = RedisChatMemoryStore.builder();
-
-        // 设置Redis主机地址（必需参数）
-        if (host != null && !host.trim().isEmpty()) {
-            builder.host(host);
-        } else {
-            // 如果未配置主机地址，使用默认值localhost
-            builder.host("localhost");
-        }
+    public ChatMemoryStore redisChatMemoryStore() {
+        DefaultJedisClientConfig.Builder clientConfig = DefaultJedisClientConfig.builder();
 
-        // 设置Redis端口（必需参数）
-        if (port > 0 && port <= 65535) {
-            builder.port(port);
-        } else {
-            // 如果端口无效，使用默认值6379
-            builder.port(6379);
-        }
+        // 设置Redis主机地址（必需参数），未配置时使用默认值localhost
+        String redisHost = host != null && !host.trim().isEmpty() ? host : "localhost";
+
+        // 设置Redis端口（必需参数），端口无效时使用默认值6379
+        int redisPort = port > 0 && port <= 65535 ? port : 6379;
 
         // 设置Redis数据库索引（可选参数，默认为0）
         if (database >= 0 && database <= 15) {
-//            builder.database(database);
+//            clientConfig.database(database);
         }
 
         // 设置用户名（可选参数，生产环境建议启用）
         // 注意：当前已注释，上线时需要取消注释以启用认证
         // if (user != null && !user.trim().isEmpty()) {
-        //     builder.user(user);
+        //     clientConfig.user(user);
         // }
 
         // 设置密码（可选参数，生产环境建议启用）
-        // 注意：当前已注释，上线时需要取消注释以启用认证
-         if (password != null && !password.trim().isEmpty()) {
-             builder.password(password);
-         }
-
-        // 设置TTL（生存时间，单位：秒）
-        // TTL用于自动清理过期的对话记录，避免Redis内存占用过高
-        if (ttl > 0) {
-            builder.ttl(ttl);
+        if (password != null && !password.trim().isEmpty()) {
+            clientConfig.password(password);
         }
 
-        // 构建并返回Redis聊天记忆存储实例
-        return builder.build();
+        // TTL（生存时间，单位：秒）用于自动清理过期的对话记录，避免Redis内存占用过高
+        JedisPooled jedis = new JedisPooled(new HostAndPort(redisHost, redisPort), clientConfig.build());
+        return new AppendOnlyRedisChatMemoryStore(jedis, AiServiceConstant.CHAT_MEMORY_MAX_MESSAGES, ttl,
+                compressThreshold, localCacheMaxSize);
     }
 }
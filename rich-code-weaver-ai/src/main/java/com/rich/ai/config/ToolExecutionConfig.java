@@ -0,0 +1,28 @@
+package com.rich.ai.config;
+
+import com.rich.ai.aiTools.ToolExecutionScheduler;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 工具调用并发调度配置
+ * 流式响应处理器不由 Spring 管理，启动时将配置写入默认调度器
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Configuration
+public class ToolExecutionConfig {
+
+    /**
+     * 一轮回复中工具调用的最大并发数
+     */
+    @Value("${ai.tool-execution.max-concurrency:" + ToolExecutionScheduler.DEFAULT_MAX_CONCURRENCY + "}")
+    private int maxConcurrency;
+
+    @PostConstruct
+    public void init() {
+        ToolExecutionScheduler.configureDefault(maxConcurrency);
+    }
+}
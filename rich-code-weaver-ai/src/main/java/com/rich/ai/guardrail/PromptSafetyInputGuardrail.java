@@ -24,6 +24,10 @@ public class PromptSafetyInputGuardrail implements InputGuardrail {
     private static final int MAX_INPUT_LENGTH = 10000;
     private static final int MIN_INPUT_LENGTH = 1;
 
+    // 简单的Base64模式检测
+    private static final Pattern BASE64_PATTERN = Pattern.compile("^[A-Za-z0-9+/]{20,}={0,2}$");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
     /**
      * 提示护轨验证
      *
@@ -107,63 +111,18 @@ public class PromptSafetyInputGuardrail implements InputGuardrail {
     }
 
     /**
-     * 敏感词检测 - 使用常量类中的敏感词汇
-     * 验证输入是否包含敏感词汇，使用常量类中的敏感词汇
+     * 敏感词检测 - 使用敏感词匹配器
+     * 验证输入是否包含敏感词汇，所有类别的敏感词在一次遍历中完成匹配，按类别优先级返回结果
      *
      * @param input 用户输入的文本
      * @return 验证结果，成功则返回成功状态，否则返回失败状态
      */
     private InputGuardrailResult validateSensitiveWords(String input) {
-        String lowerInput = input.toLowerCase();
-
-        // 检测提示词注入敏感词
-        for (String word : SensitiveWordsConstant.PROMPT_INJECTION_WORDS) {
-            if (lowerInput.contains(word.toLowerCase())) {
-                log.warn("检测到提示词注入敏感词: {}", word);
-                return fatal("输入包含不当内容，请修改后重试");
-            }
-        }
-
-        // 检测政治敏感词
-        for (String word : SensitiveWordsConstant.POLITICAL_SENSITIVE_WORDS) {
-            if (lowerInput.contains(word.toLowerCase())) {
-                log.warn("检测到政治敏感词: {}", word);
-                return fatal("输入包含敏感内容，请避免涉及政治相关话题");
-            }
+        SensitiveWordMatcher.Match match = SensitiveWordMatcher.getInstance().match(input);
+        if (match != null) {
+            log.warn("检测到{}: {}", match.category().getText(), match.word());
+            return fatal(match.category().getMessage());
         }
-
-        // 检测辱骂词汇
-        for (String word : SensitiveWordsConstant.ABUSIVE_WORDS) {
-            if (lowerInput.contains(word.toLowerCase())) {
-                log.warn("检测到辱骂词汇: {}", word);
-                return fatal("请使用文明用语，避免辱骂和仇恨言论");
-            }
-        }
-
-        // 检测色情内容
-        for (String word : SensitiveWordsConstant.SEXUAL_CONTENT_WORDS) {
-            if (lowerInput.contains(word.toLowerCase())) {
-                log.warn("检测到色情内容词汇: {}", word);
-                return fatal("请避免涉及成人或色情相关内容");
-            }
-        }
-
-        // 检测暴力内容
-        for (String word : SensitiveWordsConstant.VIOLENCE_WORDS) {
-            if (lowerInput.contains(word.toLowerCase())) {
-                log.warn("检测到暴力内容词汇: {}", word);
-                return fatal("请避免涉及暴力、危险或非法活动相关内容");
-            }
-        }
-
-        // 检测违法内容
-        for (String word : SensitiveWordsConstant.ILLEGAL_CONTENT_WORDS) {
-            if (lowerInput.contains(word.toLowerCase())) {
-                log.warn("检测到违法内容词汇: {}", word);
-                return fatal("请避免涉及违法违规活动相关内容");
-            }
-        }
-
         return success();
     }
 
@@ -272,12 +231,10 @@ public class PromptSafetyInputGuardrail implements InputGuardrail {
      * @return 如果存在潜在的Base64编码注入，则返回true；否则返回false
      */
     private boolean isPotentialBase64Injection(String input) {
-        // 简单的Base64模式检测
-        Pattern base64Pattern = Pattern.compile("^[A-Za-z0-9+/]{20,}={0,2}$");
-        String[] words = input.split("\\s+");
+        String[] words = WHITESPACE_PATTERN.split(input);
 
         for (String word : words) {
-            if (word.length() > 20 && base64Pattern.matcher(word).matches()) {
+            if (word.length() > 20 && BASE64_PATTERN.matcher(word).matches()) {
                 return true;
             }
         }
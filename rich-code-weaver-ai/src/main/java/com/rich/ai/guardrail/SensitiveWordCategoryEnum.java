@@ -0,0 +1,56 @@
+package com.rich.ai.guardrail;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 敏感词类别
+ * 声明顺序即检测优先级：输入同时命中多个类别时，按排在最前的类别拒绝
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Getter
+public enum SensitiveWordCategoryEnum {
+
+    PROMPT_INJECTION("提示词注入敏感词", "prompt_injection", "输入包含不当内容，请修改后重试"),
+    POLITICAL_SENSITIVE("政治敏感词", "political_sensitive", "输入包含敏感内容，请避免涉及政治相关话题"),
+    ABUSIVE("辱骂词汇", "abusive", "请使用文明用语，避免辱骂和仇恨言论"),
+    SEXUAL_CONTENT("色情内容词汇", "sexual_content", "请避免涉及成人或色情相关内容"),
+    VIOLENCE("暴力内容词汇", "violence", "请避免涉及暴力、危险或非法活动相关内容"),
+    ILLEGAL_CONTENT("违法内容词汇", "illegal_content", "请避免涉及违法违规活动相关内容");
+
+    private final String text;
+
+    private final String value;
+
+    /**
+     * 命中该类别时返回给用户的提示
+     */
+    private final String message;
+
+    SensitiveWordCategoryEnum(String text, String value, String message) {
+        this.text = text;
+        this.value = value;
+        this.message = message;
+    }
+
+    /**
+     * 常量类中内置的各类别敏感词
+     *
+     * @return 类别 -> 敏感词
+     */
+    public static Map<SensitiveWordCategoryEnum, Set<String>> defaultWords() {
+        Map<SensitiveWordCategoryEnum, Set<String>> words = new LinkedHashMap<>();
+        words.put(PROMPT_INJECTION, SensitiveWordsConstant.PROMPT_INJECTION_WORDS);
+        words.put(POLITICAL_SENSITIVE, SensitiveWordsConstant.POLITICAL_SENSITIVE_WORDS);
+        words.put(ABUSIVE, SensitiveWordsConstant.ABUSIVE_WORDS);
+        words.put(SEXUAL_CONTENT, SensitiveWordsConstant.SEXUAL_CONTENT_WORDS);
+        words.put(VIOLENCE, SensitiveWordsConstant.VIOLENCE_WORDS);
+        words.put(ILLEGAL_CONTENT, SensitiveWordsConstant.ILLEGAL_CONTENT_WORDS);
+        return words;
+    }
+}
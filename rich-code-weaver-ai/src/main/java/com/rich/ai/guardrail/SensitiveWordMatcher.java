@@ -0,0 +1,262 @@
+package com.rich.ai.guardrail;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 敏感词多模式匹配器（Aho-Corasick 自动机）
+ * 由全部类别的敏感词一次性构建，检测时只需遍历一遍输入，即可得到命中的最高优先级类别，
+ * 耗时与输入长度成正比，与敏感词数量无关。
+ * 匹配语义与逐词 {@code input.toLowerCase().contains(word.toLowerCase())} 一致。
+ * 实例构建后不可变，可被多线程共享；敏感词更新时通过 {@link #reload} 整体替换当前实例。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+public final class SensitiveWordMatcher {
+
+    /**
+     * 无命中
+     */
+    private static final int NO_CATEGORY = -1;
+
+    /**
+     * 当前使用的匹配器（热更新时整体替换）
+     */
+    private static volatile SensitiveWordMatcher current = build(SensitiveWordCategoryEnum.defaultWords());
+
+    /**
+     * 节点出边在 edgeChars / edgeTargets 中的起始下标，长度为节点数 + 1
+     */
+    private final int[] edgeOffsets;
+
+    /**
+     * 出边字符（同一节点的出边按字符升序排列）
+     */
+    private final char[] edgeChars;
+
+    /**
+     * 出边目标节点
+     */
+    private final int[] edgeTargets;
+
+    /**
+     * 失配指针
+     */
+    private final int[] failures;
+
+    /**
+     * 到达该节点时命中的最高优先级类别（枚举序号，包含失配链上的后缀词）
+     */
+    private final int[] categories;
+
+    /**
+     * 到达该节点时命中的敏感词（与 categories 对应，用于日志）
+     */
+    private final String[] matchedWords;
+
+    /**
+     * 敏感词总数
+     */
+    private final int wordCount;
+
+    private SensitiveWordMatcher(int[] edgeOffsets, char[] edgeChars, int[] edgeTargets,
+                                 int[] failures, int[] categories, String[] matchedWords, int wordCount) {
+        this.edgeOffsets = edgeOffsets;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.failures = failures;
+        this.categories = categories;
+        this.matchedWords = matchedWords;
+        this.wordCount = wordCount;
+    }
+
+    /**
+     * 获取当前使用的匹配器
+     *
+     * @return 匹配器
+     */
+    public static SensitiveWordMatcher getInstance() {
+        return current;
+    }
+
+    /**
+     * 热更新敏感词：构建新的匹配器后整体替换，正在进行的检测不受影响
+     *
+     * @param words 类别 -> 敏感词
+     */
+    public static void reload(Map<SensitiveWordCategoryEnum, ? extends Collection<String>> words) {
+        SensitiveWordMatcher matcher = build(words);
+        current = matcher;
+        log.info("敏感词匹配器已重新加载，敏感词数量: {}，节点数量: {}", matcher.wordCount, matcher.failures.length);
+    }
+
+    /**
+     * 构建匹配器
+     *
+     * @param words 类别 -> 敏感词
+     * @return 匹配器
+     */
+    public static SensitiveWordMatcher build(Map<SensitiveWordCategoryEnum, ? extends Collection<String>> words) {
+        // 1. 构建字典树
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> ownCategories = new ArrayList<>();
+        List<String> ownWords = new ArrayList<>();
+        children.add(new TreeMap<>());
+        ownCategories.add(NO_CATEGORY);
+        ownWords.add(null);
+        int wordCount = 0;
+        for (Map.Entry<SensitiveWordCategoryEnum, ? extends Collection<String>> entry : words.entrySet()) {
+            int category = entry.getKey().ordinal();
+            for (String word : entry.getValue()) {
+                String lowerWord = word.toLowerCase();
+                int node = 0;
+                for (int i = 0; i < lowerWord.length(); i++) {
+                    Integer next = children.get(node).get(lowerWord.charAt(i));
+                    if (next == null) {
+                        next = children.size();
+                        children.add(new TreeMap<>());
+                        ownCategories.add(NO_CATEGORY);
+                        ownWords.add(null);
+                        children.get(node).put(lowerWord.charAt(i), next);
+                    }
+                    node = next;
+                }
+                // 同一个词出现在多个类别时，取优先级最高的类别
+                if (isHigherPriority(category, ownCategories.get(node))) {
+                    ownCategories.set(node, category);
+                    ownWords.set(node, word);
+                }
+                wordCount++;
+            }
+        }
+
+        // 2. 压缩出边
+        int nodeCount = children.size();
+        int[] edgeOffsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            edgeOffsets[node + 1] = edgeOffsets[node] + children.get(node).size();
+        }
+        char[] edgeChars = new char[edgeOffsets[nodeCount]];
+        int[] edgeTargets = new int[edgeOffsets[nodeCount]];
+        for (int node = 0; node < nodeCount; node++) {
+            int edge = edgeOffsets[node];
+            for (Map.Entry<Character, Integer> child : children.get(node).entrySet()) {
+                edgeChars[edge] = child.getKey();
+                edgeTargets[edge] = child.getValue();
+                edge++;
+            }
+        }
+
+        // 3. 按层构建失配指针，并沿失配链合并命中类别
+        int[] failures = new int[nodeCount];
+        int[] categories = new int[nodeCount];
+        String[] matchedWords = new String[nodeCount];
+        categories[0] = ownCategories.get(0);
+        matchedWords[0] = ownWords.get(0);
+        SensitiveWordMatcher matcher = new SensitiveWordMatcher(edgeOffsets, edgeChars, edgeTargets,
+                failures, categories, matchedWords, wordCount);
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+                int child = edgeTargets[edge];
+                failures[child] = node == 0 ? 0 : matcher.transition(failures[node], edgeChars[edge]);
+                int failure = failures[child];
+                if (isHigherPriority(ownCategories.get(child), categories[failure])) {
+                    categories[child] = ownCategories.get(child);
+                    matchedWords[child] = ownWords.get(child);
+                } else {
+                    categories[child] = categories[failure];
+                    matchedWords[child] = matchedWords[failure];
+                }
+                queue.add(child);
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * 检测输入中命中的最高优先级敏感词类别
+     *
+     * @param input 用户输入的文本
+     * @return 命中结果，未命中返回 null
+     */
+    public Match match(String input) {
+        String lowerInput = input.toLowerCase();
+        int bestCategory = categories[0];
+        String bestWord = matchedWords[0];
+        int node = 0;
+        for (int i = 0; i < lowerInput.length() && bestCategory != 0; i++) {
+            node = transition(node, lowerInput.charAt(i));
+            if (isHigherPriority(categories[node], bestCategory)) {
+                bestCategory = categories[node];
+                bestWord = matchedWords[node];
+            }
+        }
+        return bestCategory == NO_CATEGORY
+                ? null
+                : new Match(SensitiveWordCategoryEnum.values()[bestCategory], bestWord);
+    }
+
+    /**
+     * 敏感词总数
+     *
+     * @return 敏感词总数
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * 自动机状态转移：沿失配链查找字符 c 的出边
+     */
+    private int transition(int node, char c) {
+        while (true) {
+            int next = child(node, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = failures[node];
+        }
+    }
+
+    private int child(int node, char c) {
+        int from = edgeOffsets[node];
+        int to = edgeOffsets[node + 1];
+        if (from == to) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(edgeChars, from, to, c);
+        return index >= 0 ? edgeTargets[index] : -1;
+    }
+
+    /**
+     * 类别序号越小优先级越高
+     */
+    private static boolean isHigherPriority(int category, int than) {
+        return category != NO_CATEGORY && (than == NO_CATEGORY || category < than);
+    }
+
+    /**
+     * 命中结果
+     *
+     * @param category 命中的类别
+     * @param word     命中的敏感词
+     */
+    public record Match(SensitiveWordCategoryEnum category, String word) {
+    }
+}
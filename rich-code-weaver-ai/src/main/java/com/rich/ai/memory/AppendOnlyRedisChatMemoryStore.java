@@ -0,0 +1,491 @@
+package com.rich.ai.memory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.UnifiedJedis;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 增量追加的 Redis 对话记忆存储
+ * MessageWindowChatMemory 每次变更都会以完整消息列表调用 updateMessages，直接整体序列化写入时每轮对话的开销与历史长度成正比。
+ * 本存储为每条消息分配递增序号，只传输变化的部分：
+ * 1. 写入：根据消息对象对应的序号区分已有消息与新增消息，仅追加新增消息、按序号删除被窗口淘汰的消息，Redis 端再按窗口上限裁剪，一次 Lua 往返完成；
+ * 2. 读取：只返回序号列表与本节点尚未缓存的消息内容，其余消息直接复用本地已反序列化的对象；
+ * 3. 较大的 AI 消息以 gzip 压缩后存储；
+ * 4. 系统消息单独存储并固定在列表首位，不占用裁剪顺序。
+ * 多个节点、多个线程并发写入同一会话时，未被调用方看到的并发追加消息不会被误删，列表长度始终不超过窗口上限。
+ * <p>
+ * Redis 数据结构（同一会话的 key 使用相同 hash tag）：
+ * - chat_memory:{id}:ids  LIST，按写入顺序保存消息序号
+ * - chat_memory:{id}:msgs HASH，序号 -> 消息内容，另含 system_seq / system 两个字段保存系统消息
+ * - chat_memory:{id}:seq  STRING，序号计数器（删除会话时保留，保证序号单调递增）
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+public class AppendOnlyRedisChatMemoryStore implements ChatMemoryStore {
+
+    private static final String KEY_PREFIX = "chat_memory:{";
+
+    private static final String IDS_SUFFIX = "}:ids";
+
+    private static final String MESSAGES_SUFFIX = "}:msgs";
+
+    private static final String SEQ_SUFFIX = "}:seq";
+
+    /**
+     * 未压缩的消息内容前缀
+     */
+    private static final char JSON_FORMAT = 'j';
+
+    /**
+     * gzip 压缩后 Base64 编码的消息内容前缀
+     */
+    private static final char GZIP_FORMAT = 'z';
+
+    private static final String SYSTEM_KEEP = "keep";
+
+    private static final String SYSTEM_SET = "set";
+
+    private static final String SYSTEM_DELETE = "del";
+
+    /**
+     * 本地消息缓存锁分段数
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * 写入脚本
+     * KEYS: ids, msgs, seq
+     * ARGV: ttl, 窗口上限, 系统消息操作(keep/set/del), 系统消息内容, 删除数量 n, n 个删除序号, 追加的消息内容...
+     * 返回: {追加消息的序号列表, 当前序号列表, 当前系统消息序号}
+     */
+    private static final String UPDATE_SCRIPT = """
+            local removedCount = tonumber(ARGV[5])
+            for i = 1, removedCount do
+              redis.call('LREM', KEYS[1], 0, ARGV[5 + i])
+              redis.call('HDEL', KEYS[2], ARGV[5 + i])
+            end
+            if ARGV[3] == 'set' then
+              local systemSeq = redis.call('INCR', KEYS[3])
+              redis.call('HSET', KEYS[2], 'system_seq', systemSeq, 'system', ARGV[4])
+            elseif ARGV[3] == 'del' then
+              redis.call('HDEL', KEYS[2], 'system_seq', 'system')
+            end
+            local appended = {}
+            for i = 6 + removedCount, #ARGV do
+              local seq = redis.call('INCR', KEYS[3])
+              redis.call('RPUSH', KEYS[1], seq)
+              redis.call('HSET', KEYS[2], seq, ARGV[i])
+              appended[#appended + 1] = seq
+            end
+            local systemSeq = redis.call('HGET', KEYS[2], 'system_seq') or '0'
+            local capacity = tonumber(ARGV[2])
+            if systemSeq ~= '0' then
+              capacity = capacity - 1
+            end
+            local overflow = redis.call('LLEN', KEYS[1]) - math.max(capacity, 0)
+            if overflow > 0 then
+              local evicted = redis.call('LRANGE', KEYS[1], 0, overflow - 1)
+              redis.call('LTRIM', KEYS[1], overflow, -1)
+              redis.call('HDEL', KEYS[2], unpack(evicted))
+            end
+            local ttl = tonumber(ARGV[1])
+            if ttl > 0 then
+              redis.call('EXPIRE', KEYS[1], ttl)
+              redis.call('EXPIRE', KEYS[2], ttl)
+              redis.call('EXPIRE', KEYS[3], ttl)
+            end
+            return {appended, redis.call('LRANGE', KEYS[1], 0, -1), systemSeq}
+            """;
+
+    /**
+     * 读取脚本
+     * KEYS: ids, msgs
+     * ARGV: 本地已知的系统消息序号, 本地已缓存的消息序号...
+     * 返回: {系统消息序号, 系统消息内容（本地已缓存时为空串）, 当前序号列表, 本地缺失的序号列表, 缺失序号对应的消息内容}
+     */
+    private static final String READ_SCRIPT = """
+            local known = {}
+            for i = 2, #ARGV do
+              known[ARGV[i]] = true
+            end
+            local systemSeq = redis.call('HGET', KEYS[2], 'system_seq') or '0'
+            local system = ''
+            if systemSeq ~= '0' and systemSeq ~= ARGV[1] then
+              system = redis.call('HGET', KEYS[2], 'system') or ''
+            end
+            local ids = redis.call('LRANGE', KEYS[1], 0, -1)
+            local missing = {}
+            for _, id in ipairs(ids) do
+              if not known[id] then
+                missing[#missing + 1] = id
+              end
+            end
+            local payloads = {}
+            if #missing > 0 then
+              payloads = redis.call('HMGET', KEYS[2], unpack(missing))
+            end
+            return {systemSeq, system, ids, missing, payloads}
+            """;
+
+    private final UnifiedJedis jedis;
+
+    /**
+     * 窗口上限（含系统消息），应不小于使用本存储的 MessageWindowChatMemory 的 maxMessages
+     */
+    private final int maxMessages;
+
+    /**
+     * 过期时间（秒），小于等于 0 表示不过期
+     */
+    private final long ttlSeconds;
+
+    /**
+     * AI 消息压缩阈值（序列化后的字符数），小于等于 0 表示不压缩
+     */
+    private final int compressThreshold;
+
+    /**
+     * 本节点已知的会话消息快照（会话 ID -> 快照），按消息内容长度限制总大小
+     */
+    private final Cache<String, MemorySnapshot> snapshots;
+
+    /**
+     * 消息对象 -> 序号（按对象引用比较，弱引用）
+     * getMessages 返回的消息对象与本地快照共享，据此区分调用方列表中的已有消息与新增消息
+     */
+    private final Cache<ChatMessage, Long> messageSeqs = Caffeine.newBuilder().weakKeys().build();
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * @param jedis             Redis 客户端
+     * @param maxMessages       窗口上限（含系统消息）
+     * @param ttlSeconds        过期时间（秒）
+     * @param compressThreshold AI 消息压缩阈值（字符数）
+     * @param localCacheMaxSize 本地消息快照的最大总字符数
+     */
+    public AppendOnlyRedisChatMemoryStore(UnifiedJedis jedis, int maxMessages, long ttlSeconds,
+                                          int compressThreshold, long localCacheMaxSize) {
+        if (maxMessages <= 0) {
+            throw new IllegalArgumentException("窗口上限必须大于0");
+        }
+        this.jedis = jedis;
+        this.maxMessages = maxMessages;
+        this.ttlSeconds = ttlSeconds;
+        this.compressThreshold = compressThreshold;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(Math.max(localCacheMaxSize, 1L))
+                .weigher((String key, MemorySnapshot snapshot) -> snapshot.weight())
+                .build();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        String id = String.valueOf(memoryId);
+        synchronized (lockFor(id)) {
+            MemorySnapshot snapshot = read(id, snapshots.getIfPresent(id));
+            snapshots.put(id, snapshot);
+            return snapshot.toMessages();
+        }
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        String id = String.valueOf(memoryId);
+        synchronized (lockFor(id)) {
+            MemorySnapshot known = snapshots.getIfPresent(id);
+            if (known == null) {
+                known = read(id, null);
+            }
+
+            SystemMessage systemMessage = null;
+            List<ChatMessage> chatMessages = new ArrayList<>(messages.size());
+            for (ChatMessage message : messages) {
+                if (message instanceof SystemMessage system && systemMessage == null) {
+                    systemMessage = system;
+                } else {
+                    chatMessages.add(message);
+                }
+            }
+
+            // 系统消息变化时整体替换
+            String systemMode = SYSTEM_KEEP;
+            String systemPayload = "";
+            if (systemMessage == null && known.systemMessage() != null) {
+                systemMode = SYSTEM_DELETE;
+            } else if (systemMessage != null && !systemMessage.equals(known.systemMessage())) {
+                systemMode = SYSTEM_SET;
+                systemPayload = encode(systemMessage);
+            }
+
+            // 调用方列表中已分配序号的消息保持不变，未分配序号的消息为新增；
+            // 序号小于调用方所见最大序号、且不在调用方列表中的已知消息视为被窗口淘汰，
+            // 序号更大的已知消息是调用方读取之后其他调用方的并发追加，予以保留
+            long maxSeenSeq = 0;
+            Set<Long> seenSeqs = new HashSet<>();
+            List<ChatMessage> appendedMessages = new ArrayList<>();
+            for (ChatMessage message : chatMessages) {
+                Long seq = messageSeqs.getIfPresent(message);
+                if (seq == null) {
+                    appendedMessages.add(message);
+                } else {
+                    seenSeqs.add(seq);
+                    maxSeenSeq = Math.max(maxSeenSeq, seq);
+                }
+            }
+            List<Entry> knownEntries = known.entries();
+            List<String> removedSeqs = new ArrayList<>();
+            for (Entry entry : knownEntries) {
+                if (entry.seq() < maxSeenSeq && !seenSeqs.contains(entry.seq())) {
+                    removedSeqs.add(String.valueOf(entry.seq()));
+                }
+            }
+            if (removedSeqs.isEmpty() && appendedMessages.isEmpty() && SYSTEM_KEEP.equals(systemMode)) {
+                return;
+            }
+
+            List<String> args = new ArrayList<>(5 + removedSeqs.size() + appendedMessages.size());
+            args.add(String.valueOf(ttlSeconds));
+            args.add(String.valueOf(maxMessages));
+            args.add(systemMode);
+            args.add(systemPayload);
+            args.add(String.valueOf(removedSeqs.size()));
+            args.addAll(removedSeqs);
+            for (ChatMessage message : appendedMessages) {
+                args.add(encode(message));
+            }
+            List<?> result = (List<?>) jedis.eval(UPDATE_SCRIPT, List.of(idsKey(id), messagesKey(id), seqKey(id)), args);
+
+            // 以 Redis 返回的序号列表重建本地快照，其他调用方并发追加的消息在下次读取时补齐
+            Map<Long, ChatMessage> bySeq = new HashMap<>();
+            for (Entry entry : knownEntries) {
+                bySeq.put(entry.seq(), entry.message());
+            }
+            List<?> appendedSeqs = toList(result.get(0));
+            for (int i = 0; i < appendedSeqs.size(); i++) {
+                long seq = toLong(appendedSeqs.get(i));
+                bySeq.put(seq, appendedMessages.get(i));
+                messageSeqs.put(appendedMessages.get(i), seq);
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (Object seqValue : toList(result.get(1))) {
+                long seq = toLong(seqValue);
+                ChatMessage message = bySeq.get(seq);
+                if (message != null) {
+                    entries.add(new Entry(seq, message, weightOf(message)));
+                }
+            }
+            long systemSeq = toLong(result.get(2));
+            SystemMessage currentSystem = SYSTEM_SET.equals(systemMode) ? systemMessage
+                    : SYSTEM_DELETE.equals(systemMode) ? null : known.systemMessage();
+            snapshots.put(id, new MemorySnapshot(systemSeq, systemSeq == 0 ? null : currentSystem, entries));
+        }
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        String id = String.valueOf(memoryId);
+        synchronized (lockFor(id)) {
+            jedis.del(idsKey(id), messagesKey(id));
+            snapshots.invalidate(id);
+        }
+    }
+
+    /**
+     * 读取会话消息，只拉取本地快照中没有的消息内容
+     */
+    private MemorySnapshot read(String id, MemorySnapshot known) {
+        List<String> args = new ArrayList<>();
+        Map<Long, Entry> knownEntries = new HashMap<>();
+        if (known == null) {
+            args.add("-1");
+        } else {
+            args.add(String.valueOf(known.systemSeq()));
+            for (Entry entry : known.entries()) {
+                args.add(String.valueOf(entry.seq()));
+                knownEntries.put(entry.seq(), entry);
+            }
+        }
+        List<?> result = (List<?>) jedis.eval(READ_SCRIPT, List.of(idsKey(id), messagesKey(id)), args);
+
+        long systemSeq = toLong(result.get(0));
+        String systemPayload = toStr(result.get(1));
+        SystemMessage systemMessage = null;
+        if (systemSeq != 0) {
+            systemMessage = systemPayload.isEmpty() && known != null
+                    ? known.systemMessage()
+                    : (SystemMessage) decode(systemPayload);
+        }
+
+        List<?> missingSeqs = toList(result.get(3));
+        List<?> payloads = toList(result.get(4));
+        Map<Long, ChatMessage> fetched = new HashMap<>();
+        for (int i = 0; i < missingSeqs.size(); i++) {
+            String payload = toStr(payloads.get(i));
+            if (payload != null) {
+                fetched.put(toLong(missingSeqs.get(i)), decode(payload));
+            }
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (Object seqValue : toList(result.get(2))) {
+            long seq = toLong(seqValue);
+            Entry entry = knownEntries.get(seq);
+            if (entry == null && fetched.containsKey(seq)) {
+                ChatMessage message = fetched.get(seq);
+                entry = new Entry(seq, message, weightOf(message));
+                messageSeqs.put(message, seq);
+            }
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return new MemorySnapshot(systemSeq, systemMessage, entries);
+    }
+
+    /**
+     * 序列化消息，超过阈值的 AI 消息以 gzip 压缩
+     */
+    private String encode(ChatMessage message) {
+        String json = ChatMessageSerializer.messageToJson(message);
+        if (compressThreshold > 0 && message instanceof AiMessage && json.length() >= compressThreshold) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(json.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return GZIP_FORMAT + Base64.getEncoder().encodeToString(bytes.toByteArray());
+        }
+        return JSON_FORMAT + json;
+    }
+
+    private static ChatMessage decode(String payload) {
+        if (payload.charAt(0) == GZIP_FORMAT) {
+            byte[] compressed = Base64.getDecoder().decode(payload.substring(1));
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                return ChatMessageDeserializer.messageFromJson(new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return ChatMessageDeserializer.messageFromJson(payload.substring(1));
+    }
+
+    /**
+     * 估算消息在本地缓存中的大小
+     */
+    private static int weightOf(ChatMessage message) {
+        if (message instanceof AiMessage aiMessage) {
+            return 64 + (aiMessage.text() == null ? 0 : aiMessage.text().length())
+                    + aiMessage.toolExecutionRequests().stream()
+                    .mapToInt(request -> Objects.toString(request.arguments(), "").length())
+                    .sum();
+        }
+        return 64 + message.toString().length();
+    }
+
+    private Object lockFor(String id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String idsKey(String id) {
+        return KEY_PREFIX + id + IDS_SUFFIX;
+    }
+
+    private static String messagesKey(String id) {
+        return KEY_PREFIX + id + MESSAGES_SUFFIX;
+    }
+
+    private static String seqKey(String id) {
+        return KEY_PREFIX + id + SEQ_SUFFIX;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.parseLong(toStr(value));
+    }
+
+    /**
+     * 脚本返回的空表在部分 Redis 实现中不是数组，统一按空列表处理
+     */
+    private static List<?> toList(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static String toStr(Object value) {
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 单条消息：序号、消息、本地缓存大小
+     */
+    private record Entry(long seq, ChatMessage message, int weight) {
+    }
+
+    /**
+     * 会话消息快照（不可变）
+     */
+    private record MemorySnapshot(long systemSeq, SystemMessage systemMessage, List<Entry> entries) {
+
+        private int weight() {
+            int weight = systemMessage == null ? 0 : systemMessage.text().length();
+            for (Entry entry : entries) {
+                weight += entry.weight();
+            }
+            return weight;
+        }
+
+        /**
+         * 系统消息在首位；跳过开头因裁剪失去对应工具调用请求的工具执行结果
+         */
+        private List<ChatMessage> toMessages() {
+            List<ChatMessage> messages = new ArrayList<>(entries.size() + 1);
+            if (systemMessage != null) {
+                messages.add(systemMessage);
+            }
+            boolean leading = true;
+            for (Entry entry : entries) {
+                if (leading && entry.message() instanceof ToolExecutionResultMessage) {
+                    continue;
+                }
+                leading = false;
+                messages.add(entry.message());
+            }
+            return messages;
+        }
+    }
+}
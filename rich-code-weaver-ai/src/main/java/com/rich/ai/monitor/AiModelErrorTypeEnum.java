@@ -0,0 +1,115 @@
+package com.rich.ai.monitor;
+
+import dev.langchain4j.exception.AuthenticationException;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.InvalidRequestException;
+import dev.langchain4j.exception.ModelNotFoundException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.exception.UnresolvedModelServerException;
+import dev.langchain4j.exception.UnsupportedFeatureException;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * AI 模型调用错误类别
+ * 作为错误指标的标签值，取值固定，避免以原始错误信息作为标签导致时间序列数量无限增长
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Getter
+public enum AiModelErrorTypeEnum {
+
+    TIMEOUT("请求超时", "timeout"),
+    RATE_LIMITED("触发模型限流", "rate_limited"),
+    AUTHENTICATION("鉴权失败", "authentication"),
+    INVALID_REQUEST("请求参数错误", "invalid_request"),
+    SERVER_ERROR("模型服务端错误", "server_error"),
+    NETWORK("网络异常", "network"),
+    UNKNOWN("未知错误", "unknown");
+
+    /**
+     * 向上查找错误原因的最大层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 10;
+
+    private final String text;
+
+    private final String value;
+
+    AiModelErrorTypeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据异常判断错误类别（沿异常原因链查找第一个可识别的异常）
+     *
+     * @param error 异常
+     * @return 错误类别
+     */
+    public static AiModelErrorTypeEnum fromThrowable(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            AiModelErrorTypeEnum type = classify(current);
+            if (type != null) {
+                return type;
+            }
+            current = current.getCause();
+        }
+        return UNKNOWN;
+    }
+
+    private static AiModelErrorTypeEnum classify(Throwable error) {
+        if (error instanceof TimeoutException
+                || error instanceof java.util.concurrent.TimeoutException
+                || error instanceof InterruptedIOException) {
+            // SocketTimeoutException、HttpTimeoutException 均属于 InterruptedIOException
+            return TIMEOUT;
+        }
+        if (error instanceof RateLimitException) {
+            return RATE_LIMITED;
+        }
+        if (error instanceof AuthenticationException) {
+            return AUTHENTICATION;
+        }
+        if (error instanceof InvalidRequestException
+                || error instanceof ModelNotFoundException
+                || error instanceof UnsupportedFeatureException) {
+            return INVALID_REQUEST;
+        }
+        if (error instanceof InternalServerException) {
+            return SERVER_ERROR;
+        }
+        if (error instanceof HttpException httpException) {
+            return fromStatusCode(httpException.statusCode());
+        }
+        if (error instanceof UnresolvedModelServerException || error instanceof IOException) {
+            return NETWORK;
+        }
+        return null;
+    }
+
+    private static AiModelErrorTypeEnum fromStatusCode(int statusCode) {
+        if (statusCode == 408) {
+            return TIMEOUT;
+        }
+        if (statusCode == 429) {
+            return RATE_LIMITED;
+        }
+        if (statusCode == 401 || statusCode == 403) {
+            return AUTHENTICATION;
+        }
+        if (statusCode >= 400 && statusCode < 500) {
+            return INVALID_REQUEST;
+        }
+        if (statusCode >= 500) {
+            return SERVER_ERROR;
+        }
+        return UNKNOWN;
+    }
+}
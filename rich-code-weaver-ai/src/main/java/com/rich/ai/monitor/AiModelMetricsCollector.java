@@ -1,19 +1,31 @@
 package com.rich.ai.monitor;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * AI 模型指标收集器
  * 负责收集 AI 模型调用的各类业务指标（包括请求次数、错误次数、Token 消耗、响应时间），统计后以暴露端点的形式上报给 Prometheus。
+ * 指标标签只取自有限集合（模型、生成模式、状态、错误类别、Token 类型），时间序列数量有上界：
+ * 模型名称与生成模式各自只保留前若干个不同取值，其余归入 "other"；用户与产物不作为标签，
+ * 而是通过 Top-K 高频项统计只暴露 Token 消耗最多的若干用户和产物。
  *
  * @author DuRuiChi
  * @create 2026/03/31
@@ -23,6 +35,41 @@ import java.util.concurrent.ConcurrentMap;
 @Slf4j
 public class AiModelMetricsCollector {
 
+    /**
+     * 超出取值数量上限或无法识别的标签值
+     */
+    public static final String OTHER_TAG_VALUE = "other";
+
+    /**
+     * 模型名称标签的最大取值数量
+     */
+    public static final int MAX_MODEL_NAMES = 32;
+
+    /**
+     * 生成模式标签的最大取值数量
+     */
+    public static final int MAX_GEN_MODES = 16;
+
+    /**
+     * 标签值的最大长度
+     */
+    private static final int MAX_TAG_VALUE_LENGTH = 64;
+
+    /**
+     * 请求状态（标签取值）
+     */
+    private static final List<String> REQUEST_STATUSES = List.of("started", "success", "error");
+
+    /**
+     * Token 类型（标签取值）
+     */
+    private static final List<String> TOKEN_TYPES = List.of("input", "output", "total");
+
+    /**
+     * 统计 Top-K 时使用的 Token 类型
+     */
+    private static final String TOP_K_TOKEN_TYPE = "total";
+
     /**
      * Micrometer 指标注册表
      * 用于注册和管理各类监控指标，由 Spring Boot Actuator 自动配置。
@@ -32,67 +79,69 @@ public class AiModelMetricsCollector {
     private MeterRegistry meterRegistry;
 
     /**
-     * 请求计数器缓存
-     * 缓存已创建的请求计数器，避免重复创建相同维度的 Counter 对象。
+     * Token 消耗 Top-K 统计的用户 / 产物数量，0 表示不统计
+     */
+    @Value("${ai.monitor.top-k:20}")
+    private int topK = 20;
+
+    /**
+     * 指标句柄：模型名称 + 生成模式 -> 该维度下预先创建好的全部指标
+     */
+    private final ConcurrentMap<MeterKey, MeterHandles> meterHandlesCache = new ConcurrentHashMap<>();
+
+    /**
+     * 已出现的模型名称（有上限）
      */
-    private final ConcurrentMap<String, Counter> requestCountersCache = new ConcurrentHashMap<>();
+    private final Set<String> modelNames = new HashSet<>();
 
     /**
-     * 错误计数器缓存
-     * 缓存已创建的错误计数器，避免重复创建相同维度的 Counter 对象。
+     * 已出现的生成模式（有上限）
      */
-    private final ConcurrentMap<String, Counter> errorCountersCache = new ConcurrentHashMap<>();
+    private final Set<String> genModes = new HashSet<>();
 
     /**
-     * Token 计数器缓存
-     * 缓存已创建的 Token 计数器，避免重复创建相同维度的 Counter 对象。
-     * Key 格式：userId_appId_modelName_genMode_tokenType
+     * 用户 Token 消耗 Top-K
      */
-    private final ConcurrentMap<String, Counter> tokenCountersCache = new ConcurrentHashMap<>();
+    private TopKGauges topUsers;
 
     /**
-     * 响应时间计时器缓存
-     * 缓存已创建的响应时间计时器，避免重复创建相同维度的 Timer 对象。
+     * 产物 Token 消耗 Top-K
      */
-    private final ConcurrentMap<String, Timer> responseTimersCache = new ConcurrentHashMap<>();
+    private TopKGauges topApps;
+
+    @PostConstruct
+    public void init() {
+        if (topK > 0) {
+            topUsers = new TopKGauges("ai_model_top_user_tokens", "Token消耗最多的用户（估计值）", "user_id", topK);
+            topApps = new TopKGauges("ai_model_top_app_tokens", "Token消耗最多的产物（估计值）", "app_id", topK);
+        }
+    }
 
     /**
      * 记录 AI 模型请求次数
      * 统计 AI 模型的总请求次数，支持按状态分类统计。
      *
-     * @param userId    用户ID，用于按用户维度统计
-     * @param appId     产物ID，用于按产物维度统计
+     * @param userId    用户ID（不作为标签）
+     * @param appId     产物ID（不作为标签）
      * @param modelName 模型名称
      * @param genMode   代码生成模式，"workflow" 或 "agent"
      * @param status    请求状态，"started"（开始）、"success"（成功）、"error"（失败）
      */
     public void recordRequest(String userId, String appId, String modelName, String genMode, String status) {
-        // 参数校验：确保所有参数都不为空，避免创建无效的指标
-        if (userId == null || appId == null || modelName == null || genMode == null || status == null) {
+        // 参数校验：确保维度参数都不为空，避免创建无效的指标
+        if (modelName == null || genMode == null || status == null) {
             log.warn("记录请求次数时参数不完整，跳过记录: userId={}, appId={}, modelName={}, genMode={}, status={}",
                     userId, appId, modelName, genMode, status);
             return;
         }
+        int statusIndex = REQUEST_STATUSES.indexOf(status);
+        if (statusIndex < 0) {
+            log.warn("未知的请求状态，跳过记录: status={}", status);
+            return;
+        }
 
         try {
-            // 生成缓存键：使用下划线连接所有维度，确保唯一性
-            String cacheKey = String.format("%s_%s_%s_%s_%s", userId, appId, modelName, genMode, status);
-
-            // 从缓存中获取或创建 Counter
-            // computeIfAbsent 是线程安全的，多个线程同时调用时只会创建一次
-            Counter counter = requestCountersCache.computeIfAbsent(cacheKey, key ->
-                    Counter.builder("ai_model_requests")
-                            .description("AI模型总请求次数")
-                            .tag("user_id", userId)
-                            .tag("app_id", appId)
-                            .tag("model_name", modelName)
-                            .tag("gen_mode", genMode)
-                            .tag("status", status)
-                            .register(meterRegistry)
-            );
-
-            // 计数器加 1
-            counter.increment();
+            getMeterHandles(modelName, genMode).requestCounters[statusIndex].increment();
 
             log.debug("记录请求次数: userId={}, appId={}, modelName={}, genMode={}, status={}",
                     userId, appId, modelName, genMode, status);
@@ -105,62 +154,41 @@ public class AiModelMetricsCollector {
 
     /**
      * 记录 AI 模型错误次数
-     * 统计 AI 模型调用失败的次数和错误类型。
+     * 统计 AI 模型调用失败的次数，按错误类别分类（原始错误信息只输出到日志，不作为标签）。
      *
-     * @param userId       用户ID，用于按用户维度统计
-     * @param appId        产物ID，用于按产物维度统计
-     * @param modelName    模型名称
-     * @param genMode      代码生成模式，"workflow" 或 "agent"
-     * @param errorMessage 错误信息，建议使用简短的错误类型而非完整的堆栈信息
+     * @param userId    用户ID（不作为标签）
+     * @param appId     产物ID（不作为标签）
+     * @param modelName 模型名称
+     * @param genMode   代码生成模式，"workflow" 或 "agent"
+     * @param error     异常，为 null 时按未知错误统计
      */
-    public void recordError(String userId, String appId, String modelName, String genMode, String errorMessage) {
-        // 参数校验：确保所有参数都不为空
-        if (userId == null || appId == null || modelName == null || genMode == null || errorMessage == null) {
-            log.warn("记录错误次数时参数不完整，跳过记录: userId={}, appId={}, modelName={}, genMode={}, errorMessage={}",
-                    userId, appId, modelName, genMode, errorMessage);
+    public void recordError(String userId, String appId, String modelName, String genMode, Throwable error) {
+        // 参数校验：确保维度参数都不为空
+        if (modelName == null || genMode == null) {
+            log.warn("记录错误次数时参数不完整，跳过记录: userId={}, appId={}, modelName={}, genMode={}",
+                    userId, appId, modelName, genMode);
             return;
         }
 
         try {
-            // 错误信息截断：避免错误信息过长导致标签基数爆炸
-            // Prometheus 建议标签值不要超过 100 个字符
-            String truncatedError = errorMessage.length() > 100
-                    ? errorMessage.substring(0, 100) + "..."
-                    : errorMessage;
-
-            // 生成缓存键
-            String cacheKey = String.format("%s_%s_%s_%s_%s", userId, appId, modelName, genMode, truncatedError);
-
-            // 从缓存中获取或创建 Counter
-            Counter counter = errorCountersCache.computeIfAbsent(cacheKey, key ->
-                    Counter.builder("ai_model_errors")
-                            .description("AI模型错误次数")
-                            .tag("user_id", userId)
-                            .tag("app_id", appId)
-                            .tag("model_name", modelName)
-                            .tag("gen_mode", genMode)
-                            .tag("error_message", truncatedError)
-                            .register(meterRegistry)
-            );
-
-            // 计数器加 1
-            counter.increment();
-
-            log.debug("记录错误次数: userId={}, appId={}, modelName={}, genMode={}, errorMessage={}",
-                    userId, appId, modelName, genMode, truncatedError);
+            AiModelErrorTypeEnum errorType = AiModelErrorTypeEnum.fromThrowable(error);
+            getMeterHandles(modelName, genMode).errorCounters.get(errorType).increment();
+
+            log.debug("记录错误次数: userId={}, appId={}, modelName={}, genMode={}, errorType={}",
+                    userId, appId, modelName, genMode, errorType.getValue());
         } catch (Exception e) {
             // 捕获异常，避免监控逻辑影响业务流程
-            log.error("记录错误次数失败: userId={}, appId={}, modelName={}, genMode={}, errorMessage={}",
-                    userId, appId, modelName, genMode, errorMessage, e);
+            log.error("记录错误次数失败: userId={}, appId={}, modelName={}, genMode={}",
+                    userId, appId, modelName, genMode, e);
         }
     }
 
     /**
      * 记录 AI 模型 Token 消耗
-     * 统计 AI 模型的 Token 使用情况，支持按类型分类统计。
+     * 统计 AI 模型的 Token 使用情况，支持按类型分类统计；总计 Token 同时计入用户与产物的 Top-K 统计。
      *
-     * @param userId     用户ID，用于按用户维度统计
-     * @param appId      产物ID，用于按产物维度统计
+     * @param userId     用户ID，用于 Top-K 统计
+     * @param appId      产物ID，用于 Top-K 统计
      * @param modelName  模型名称
      * @param genMode    代码生成模式，"workflow" 或 "agent"
      * @param tokenType  Token 类型，"input"（输入）、"output"（输出）、"total"（总计）
@@ -168,8 +196,8 @@ public class AiModelMetricsCollector {
      */
     public void recordTokenUsage(String userId, String appId, String modelName, String genMode,
                                  String tokenType, long tokenCount) {
-        // 参数校验：确保所有参数都不为空，且 Token 数量为非负数
-        if (userId == null || appId == null || modelName == null || genMode == null || tokenType == null) {
+        // 参数校验：确保维度参数都不为空，且 Token 数量为非负数
+        if (modelName == null || genMode == null || tokenType == null) {
             log.warn("记录Token消耗时参数不完整，跳过记录: userId={}, appId={}, modelName={}, genMode={}, tokenType={}, tokenCount={}",
                     userId, appId, modelName, genMode, tokenType, tokenCount);
             return;
@@ -181,24 +209,23 @@ public class AiModelMetricsCollector {
             return;
         }
 
+        int tokenTypeIndex = TOKEN_TYPES.indexOf(tokenType);
+        if (tokenTypeIndex < 0) {
+            log.warn("未知的Token类型，跳过记录: tokenType={}", tokenType);
+            return;
+        }
+
         try {
-            // 生成缓存键
-            String cacheKey = String.format("%s_%s_%s_%s_%s", userId, appId, modelName, genMode, tokenType);
-
-            // 从缓存中获取或创建 Counter
-            Counter counter = tokenCountersCache.computeIfAbsent(cacheKey, key ->
-                    Counter.builder("ai_model_tokens")
-                            .description("AI模型Token消耗总数")
-                            .tag("user_id", userId)
-                            .tag("app_id", appId)
-                            .tag("model_name", modelName)
-                            .tag("gen_mode", genMode)
-                            .tag("token_type", tokenType)
-                            .register(meterRegistry)
-            );
-
-            // 计数器增加指定数量
-            counter.increment(tokenCount);
+            getMeterHandles(modelName, genMode).tokenCounters[tokenTypeIndex].increment(tokenCount);
+
+            if (TOP_K_TOKEN_TYPE.equals(tokenType)) {
+                if (topUsers != null && userId != null) {
+                    topUsers.offer(userId, tokenCount);
+                }
+                if (topApps != null && appId != null) {
+                    topApps.offer(appId, tokenCount);
+                }
+            }
 
             log.debug("记录Token消耗: userId={}, appId={}, modelName={}, genMode={}, tokenType={}, tokenCount={}",
                     userId, appId, modelName, genMode, tokenType, tokenCount);
@@ -213,15 +240,15 @@ public class AiModelMetricsCollector {
      * 记录 AI 模型响应时间
      * 统计 AI 模型的响应时间，支持计算平均值、最大值、分位数等统计指标。
      *
-     * @param userId    用户ID，用于按用户维度统计
-     * @param appId     产物ID，用于按产物维度统计
+     * @param userId    用户ID（不作为标签）
+     * @param appId     产物ID（不作为标签）
      * @param modelName 模型名称
      * @param genMode   代码生成模式，"workflow" 或 "agent"
      * @param duration  响应时长，必须为非负数
      */
     public void recordResponseTime(String userId, String appId, String modelName, String genMode, Duration duration) {
-        // 参数校验：确保所有参数都不为空，且响应时间为非负数
-        if (userId == null || appId == null || modelName == null || genMode == null || duration == null) {
+        // 参数校验：确保维度参数都不为空，且响应时间为非负数
+        if (modelName == null || genMode == null || duration == null) {
             log.warn("记录响应时间时参数不完整，跳过记录: userId={}, appId={}, modelName={}, genMode={}, duration={}",
                     userId, appId, modelName, genMode, duration);
             return;
@@ -234,34 +261,7 @@ public class AiModelMetricsCollector {
         }
 
         try {
-            // 生成缓存键（响应时间不区分 token_type，所以维度较少）
-            String cacheKey = String.format("%s_%s_%s_%s", userId, appId, modelName, genMode);
-
-            // 从缓存中获取或创建 Timer
-            Timer timer = responseTimersCache.computeIfAbsent(cacheKey, key ->
-                    Timer.builder("ai_model_response_duration_seconds")
-                            .description("AI模型响应时间")
-                            .tag("user_id", userId)
-                            .tag("app_id", appId)
-                            .tag("model_name", modelName)
-                            .tag("gen_mode", genMode)
-                            .publishPercentileHistogram()
-                            .serviceLevelObjectives(
-                                    Duration.ofMillis(100),
-                                    Duration.ofMillis(300),
-                                    Duration.ofMillis(500),
-                                    Duration.ofSeconds(1),
-                                    Duration.ofSeconds(3),
-                                    Duration.ofSeconds(5),
-                                    Duration.ofSeconds(10),
-                                    Duration.ofSeconds(30),
-                                    Duration.ofSeconds(60)
-                            )
-                            .register(meterRegistry)
-            );
-
-            // 记录响应时间
-            timer.record(duration);
+            getMeterHandles(modelName, genMode).responseTimer.record(duration);
 
             log.debug("记录响应时间: userId={}, appId={}, modelName={}, genMode={}, duration={}ms",
                     userId, appId, modelName, genMode, duration.toMillis());
@@ -271,4 +271,161 @@ public class AiModelMetricsCollector {
                     userId, appId, modelName, genMode, duration, e);
         }
     }
+
+    /**
+     * 获取模型名称 + 生成模式维度下的指标句柄（首次使用时一次性创建该维度的全部指标）
+     */
+    private MeterHandles getMeterHandles(String modelName, String genMode) {
+        MeterHandles handles = meterHandlesCache.get(new MeterKey(modelName, genMode));
+        if (handles != null) {
+            return handles;
+        }
+        // 未命中时先将取值收敛到有限集合，缓存只以收敛后的维度为键，归入 "other" 的取值不会使缓存增长
+        MeterKey boundedKey = new MeterKey(
+                boundTagValue(modelNames, modelName, MAX_MODEL_NAMES),
+                boundTagValue(genModes, genMode, MAX_GEN_MODES));
+        return meterHandlesCache.computeIfAbsent(boundedKey, MeterHandles::new);
+    }
+
+    /**
+     * 将标签值收敛到有限集合：已出现过或未达上限时保留原值，否则归入 "other"
+     */
+    private static String boundTagValue(Set<String> seenValues, String value, int maxValues) {
+        if (value.isEmpty() || value.length() > MAX_TAG_VALUE_LENGTH) {
+            return OTHER_TAG_VALUE;
+        }
+        synchronized (seenValues) {
+            if (seenValues.contains(value)) {
+                return value;
+            }
+            if (seenValues.size() < maxValues) {
+                seenValues.add(value);
+                return value;
+            }
+        }
+        return OTHER_TAG_VALUE;
+    }
+
+    /**
+     * 指标维度
+     *
+     * @param modelName 模型名称
+     * @param genMode   生成模式
+     */
+    private record MeterKey(String modelName, String genMode) {
+    }
+
+    /**
+     * 一个模型名称 + 生成模式维度下的全部指标
+     */
+    private class MeterHandles {
+
+        /**
+         * 请求计数器（按 REQUEST_STATUSES 顺序）
+         */
+        private final Counter[] requestCounters = new Counter[REQUEST_STATUSES.size()];
+
+        /**
+         * 错误计数器（按错误类别）
+         */
+        private final Map<AiModelErrorTypeEnum, Counter> errorCounters = new EnumMap<>(AiModelErrorTypeEnum.class);
+
+        /**
+         * Token 计数器（按 TOKEN_TYPES 顺序）
+         */
+        private final Counter[] tokenCounters = new Counter[TOKEN_TYPES.size()];
+
+        /**
+         * 响应时间计时器
+         */
+        private final Timer responseTimer;
+
+        private MeterHandles(MeterKey key) {
+            for (int i = 0; i < REQUEST_STATUSES.size(); i++) {
+                requestCounters[i] = Counter.builder("ai_model_requests")
+                        .description("AI模型总请求次数")
+                        .tag("model_name", key.modelName())
+                        .tag("gen_mode", key.genMode())
+                        .tag("status", REQUEST_STATUSES.get(i))
+                        .register(meterRegistry);
+            }
+            for (AiModelErrorTypeEnum errorType : AiModelErrorTypeEnum.values()) {
+                errorCounters.put(errorType, Counter.builder("ai_model_errors")
+                        .description("AI模型错误次数")
+                        .tag("model_name", key.modelName())
+                        .tag("gen_mode", key.genMode())
+                        .tag("error_type", errorType.getValue())
+                        .register(meterRegistry));
+            }
+            for (int i = 0; i < TOKEN_TYPES.size(); i++) {
+                tokenCounters[i] = Counter.builder("ai_model_tokens")
+                        .description("AI模型Token消耗总数")
+                        .tag("model_name", key.modelName())
+                        .tag("gen_mode", key.genMode())
+                        .tag("token_type", TOKEN_TYPES.get(i))
+                        .register(meterRegistry);
+            }
+            responseTimer = Timer.builder("ai_model_response_duration_seconds")
+                    .description("AI模型响应时间")
+                    .tag("model_name", key.modelName())
+                    .tag("gen_mode", key.genMode())
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(
+                            Duration.ofMillis(100),
+                            Duration.ofMillis(300),
+                            Duration.ofMillis(500),
+                            Duration.ofSeconds(1),
+                            Duration.ofSeconds(3),
+                            Duration.ofSeconds(5),
+                            Duration.ofSeconds(10),
+                            Duration.ofSeconds(30),
+                            Duration.ofSeconds(60)
+                    )
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Top-K 统计及其对应的 Gauge
+     * 只为当前在统计表中的项注册 Gauge，项被替换出统计表时同步移除，Gauge 数量不超过 K
+     */
+    private class TopKGauges {
+
+        private final String name;
+
+        private final String description;
+
+        private final String tagKey;
+
+        private final HeavyHitterTracker tracker;
+
+        /**
+         * 已注册的 Gauge（统计项标识 -> Gauge）
+         */
+        private final Map<String, Gauge> gauges = new HashMap<>();
+
+        private TopKGauges(String name, String description, String tagKey, int capacity) {
+            this.name = name;
+            this.description = description;
+            this.tagKey = tagKey;
+            this.tracker = new HeavyHitterTracker(capacity);
+        }
+
+        private synchronized void offer(String id, long weight) {
+            String evicted = tracker.offer(id, weight);
+            if (evicted != null) {
+                Gauge gauge = gauges.remove(evicted);
+                if (gauge != null) {
+                    meterRegistry.remove(gauge);
+                }
+            }
+            if (!gauges.containsKey(id)) {
+                gauges.put(id, Gauge.builder(name, tracker, t -> t.estimate(id))
+                        .description(description)
+                        .tag(tagKey, id)
+                        .strongReference(true)
+                        .register(meterRegistry));
+            }
+        }
+    }
 }
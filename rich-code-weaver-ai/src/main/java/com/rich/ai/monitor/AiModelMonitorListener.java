@@ -134,7 +134,7 @@ public class AiModelMonitorListener implements ChatModelListener {
      *
      * 从请求属性中获取监控上下文
      * 记录请求失败的指标（status=error）
-     * 记录错误信息和错误次数
+     * 按错误类别记录错误次数
      * 记录响应时间（即使是错误响应也需要记录）
      *
      * @param errorContext AI 模型错误上下文，包含错误信息和请求属性
@@ -157,7 +157,7 @@ public class AiModelMonitorListener implements ChatModelListener {
             String genMode = context.getGenMode();
             String modelName = errorContext.chatRequest().modelName();
 
-            // 3. 提取错误信息（可能为 null）
+            // 3. 提取错误信息（可能为 null，仅用于日志）
             String errorMessage = errorContext.error() != null && errorContext.error().getMessage() != null
                     ? errorContext.error().getMessage()
                     : "Unknown error";
@@ -165,8 +165,8 @@ public class AiModelMonitorListener implements ChatModelListener {
             // 4. 记录请求失败指标
             aiModelMetricsCollector.recordRequest(userId, appId, modelName, genMode, "error");
 
-            // 5. 记录错误信息
-            aiModelMetricsCollector.recordError(userId, appId, modelName, genMode, errorMessage);
+            // 5. 按错误类别记录错误次数
+            aiModelMetricsCollector.recordError(userId, appId, modelName, genMode, errorContext.error());
 
             // 6. 记录响应时间（即使是错误响应）
             recordResponseTime(attributes, userId, appId, modelName, genMode);
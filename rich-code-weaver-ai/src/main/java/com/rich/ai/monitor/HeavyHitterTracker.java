@@ -0,0 +1,113 @@
+package com.rich.ai.monitor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top-K 高频项统计（Space-Saving 算法）
+ * 只保留固定数量的统计项：统计表已满时，新出现的项替换当前计数最小的项，并继承其计数作为估计误差。
+ * 任何真实累计量超过 总量 / 容量 的项都一定在统计表中，估计值不小于真实值，且与真实值之差不超过记录的误差。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public class HeavyHitterTracker {
+
+    /**
+     * 统计表容量
+     */
+    private final int capacity;
+
+    /**
+     * 统计项：id -> {估计累计量, 误差上界}
+     */
+    private final Map<String, long[]> counters;
+
+    public HeavyHitterTracker(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("统计表容量必须大于0");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 累加一个统计项
+     *
+     * @param id     统计项标识
+     * @param weight 累加量
+     * @return 本次被替换出统计表的项，未发生替换时返回 null
+     */
+    public synchronized String offer(String id, long weight) {
+        long[] counter = counters.get(id);
+        if (counter != null) {
+            counter[0] += weight;
+            return null;
+        }
+        if (counters.size() < capacity) {
+            counters.put(id, new long[]{weight, 0L});
+            return null;
+        }
+        // 统计表已满：替换计数最小的项
+        String minId = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minId = entry.getKey();
+            }
+        }
+        counters.remove(minId);
+        counters.put(id, new long[]{minCount + weight, minCount});
+        return minId;
+    }
+
+    /**
+     * 统计项的估计累计量
+     *
+     * @param id 统计项标识
+     * @return 估计累计量，不在统计表中时返回 0
+     */
+    public synchronized long estimate(String id) {
+        long[] counter = counters.get(id);
+        return counter == null ? 0L : counter[0];
+    }
+
+    /**
+     * 统计项是否在统计表中
+     *
+     * @param id 统计项标识
+     * @return 是否在统计表中
+     */
+    public synchronized boolean contains(String id) {
+        return counters.containsKey(id);
+    }
+
+    /**
+     * 按估计累计量降序返回前 k 个统计项
+     *
+     * @param k 数量
+     * @return 统计项标识
+     */
+    public synchronized List<String> top(int k) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed());
+        List<String> top = new ArrayList<>(Math.min(k, entries.size()));
+        for (int i = 0; i < entries.size() && i < k; i++) {
+            top.add(entries.get(i).getKey());
+        }
+        return top;
+    }
+
+    /**
+     * 统计表容量
+     *
+     * @return 容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,278 @@
+package com.rich.ai.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BM25 词法索引（不可变快照）
+ * 与向量检索互补：组件名、CSS 属性、API 名等标识符类查询在向量空间中区分度低，按词项精确匹配更可靠
+ * 分词规则：
+ * - 英文、数字组成的标识符整体作为一个词项，同时按 - . _ 与驼峰拆分出子词项（如 localStorage → localstorage、local、storage）；
+ * - 连续的中日韩字符按二元组切分（单字时保留单字）。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagLexicalIndex 持有当前快照
+ **/
+public final class Bm25Index {
+
+    /**
+     * 词频饱和参数
+     */
+    private static final double K1 = 1.2D;
+
+    /**
+     * 文档长度归一化参数
+     */
+    private static final double B = 0.75D;
+
+    /**
+     * 空索引
+     */
+    public static final Bm25Index EMPTY = build(List.of());
+
+    /**
+     * 已索引片段
+     */
+    private final List<IndexedSegment> segments;
+
+    /**
+     * 词项 -> 倒排表（片段序号、词频交替存放）
+     */
+    private final Map<String, int[]> postings;
+
+    /**
+     * 片段长度（词项数）
+     */
+    private final int[] lengths;
+
+    /**
+     * 平均片段长度
+     */
+    private final double averageLength;
+
+    private Bm25Index(List<IndexedSegment> segments, Map<String, int[]> postings, int[] lengths, double averageLength) {
+        this.segments = segments;
+        this.postings = postings;
+        this.lengths = lengths;
+        this.averageLength = averageLength;
+    }
+
+    /**
+     * 构建索引
+     *
+     * @param segments 片段（ID 与向量存储中的片段 ID 一致）
+     * @return 索引
+     */
+    public static Bm25Index build(List<IndexedSegment> segments) {
+        List<IndexedSegment> indexed = List.copyOf(segments);
+        Map<String, List<int[]>> termPostings = new HashMap<>();
+        int[] lengths = new int[indexed.size()];
+        long totalLength = 0;
+        for (int i = 0; i < indexed.size(); i++) {
+            List<String> tokens = tokenize(indexed.get(i).segment().text());
+            lengths[i] = tokens.size();
+            totalLength += tokens.size();
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                termPostings.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(new int[]{i, entry.getValue()});
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(termPostings.size() * 2);
+        for (Map.Entry<String, List<int[]>> entry : termPostings.entrySet()) {
+            List<int[]> list = entry.getValue();
+            int[] flat = new int[list.size() * 2];
+            for (int i = 0; i < list.size(); i++) {
+                flat[2 * i] = list.get(i)[0];
+                flat[2 * i + 1] = list.get(i)[1];
+            }
+            postings.put(entry.getKey(), flat);
+        }
+        double averageLength = indexed.isEmpty() ? 0D : (double) totalLength / indexed.size();
+        return new Bm25Index(indexed, postings, lengths, averageLength);
+    }
+
+    /**
+     * 检索
+     *
+     * @param query      查询文本
+     * @param filter     元数据过滤条件，为 null 时不过滤
+     * @param maxResults 最大返回数量
+     * @return 按 BM25 分数降序排列的结果（分数大于 0）
+     */
+    public List<ScoredSegment> search(String query, Filter filter, int maxResults) {
+        if (segments.isEmpty() || maxResults <= 0) {
+            return List.of();
+        }
+        double[] scores = new double[segments.size()];
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            int[] posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            double idf = idf(posting.length / 2);
+            for (int i = 0; i < posting.length; i += 2) {
+                int index = posting[i];
+                int frequency = posting[i + 1];
+                double norm = K1 * (1 - B + B * lengths[index] / averageLength);
+                scores[index] += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+        List<ScoredSegment> results = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0 && (filter == null || filter.test(segments.get(i).segment().metadata()))) {
+                results.add(new ScoredSegment(segments.get(i), scores[i]));
+            }
+        }
+        results.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return results.size() > maxResults ? List.copyOf(results.subList(0, maxResults)) : results;
+    }
+
+    /**
+     * 计算查询词项在片段中的覆盖率（按 IDF 加权），用于重排
+     *
+     * @param queryTerms 查询词项（去重）
+     * @param text       片段文本
+     * @return 覆盖率，取值 [0, 1]
+     */
+    public double coverage(Set<String> queryTerms, String text) {
+        if (queryTerms.isEmpty()) {
+            return 0D;
+        }
+        Set<String> segmentTerms = new LinkedHashSet<>(tokenize(text));
+        double total = 0D;
+        double matched = 0D;
+        for (String term : queryTerms) {
+            int[] posting = postings.get(term);
+            if (posting == null) {
+                // 语料中不存在的词项对所有片段相同，不参与计算
+                continue;
+            }
+            double weight = idf(posting.length / 2);
+            total += weight;
+            if (segmentTerms.contains(term)) {
+                matched += weight;
+            }
+        }
+        return total <= 0D ? 0D : matched / total;
+    }
+
+    /**
+     * 已索引片段数
+     *
+     * @return 片段数
+     */
+    public int size() {
+        return segments.size();
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (segments.size() - documentFrequency + 0.5D) / (documentFrequency + 0.5D));
+    }
+
+    /**
+     * 分词
+     *
+     * @param text 文本
+     * @return 词项（按出现顺序，可重复）
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isIdentifierChar(c)) {
+                int start = i;
+                while (i < length && (isIdentifierChar(text.charAt(i))
+                        || (isJoinChar(text.charAt(i)) && i + 1 < length && isIdentifierChar(text.charAt(i + 1))))) {
+                    i++;
+                }
+                addIdentifierTokens(text.substring(start, i), tokens);
+            } else if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(String.valueOf(c));
+                }
+                for (int j = start; j + 1 < i; j++) {
+                    tokens.add(text.substring(j, j + 2));
+                }
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 标识符整体及其子词项
+     */
+    private static void addIdentifierTokens(String identifier, List<String> tokens) {
+        String whole = identifier.toLowerCase(Locale.ROOT);
+        tokens.add(whole);
+        List<String> parts = new ArrayList<>();
+        for (String piece : identifier.split("[-._]")) {
+            // 驼峰拆分：localStorage → local、Storage；JSONParse → JSON、Parse
+            parts.addAll(Arrays.asList(piece.split("(?<=[a-z0-9])(?=[A-Z])|(?<=[A-Z])(?=[A-Z][a-z])")));
+        }
+        if (parts.size() > 1) {
+            for (String part : parts) {
+                if (part.length() > 1) {
+                    tokens.add(part.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isJoinChar(char c) {
+        return c == '-' || c == '.' || c == '_';
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 已索引片段
+     *
+     * @param id      片段 ID
+     * @param segment 片段
+     */
+    public record IndexedSegment(String id, TextSegment segment) {
+    }
+
+    /**
+     * 带分数的检索结果
+     *
+     * @param indexed 片段
+     * @param score   BM25 分数
+     */
+    public record ScoredSegment(IndexedSegment indexed, double score) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.rich.ai.rag;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带缓存的向量检索器
+ * 检索逻辑与 EmbeddingStoreContentRetriever 一致，查询向量与检索结果经 {@link RagRetrievalCache} 缓存
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public class CachingEmbeddingStoreContentRetriever implements ContentRetriever {
+
+    private final RagRetrievalCache retrievalCache;
+
+    private final EmbeddingModel embeddingModel;
+
+    private final EmbeddingStore<TextSegment> embeddingStore;
+
+    private final Filter filter;
+
+    private final int maxResults;
+
+    private final double minScore;
+
+    public CachingEmbeddingStoreContentRetriever(RagRetrievalCache retrievalCache, EmbeddingModel embeddingModel,
+                                                 EmbeddingStore<TextSegment> embeddingStore, Filter filter,
+                                                 int maxResults, double minScore) {
+        this.retrievalCache = retrievalCache;
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.filter = filter;
+        this.maxResults = maxResults;
+        this.minScore = minScore;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        String normalizedQuery = RagRetrievalCache.normalizeQuery(query.text());
+        String queryDigest = RagRetrievalCache.digest(normalizedQuery);
+        return retrievalCache.getContents(queryDigest, filter, maxResults, minScore,
+                () -> search(normalizedQuery, queryDigest));
+    }
+
+    /**
+     * 向量化查询（优先使用缓存的查询向量）并检索
+     *
+     * @param normalizedQuery 规范化后的查询文本
+     * @param queryDigest     查询文本摘要
+     * @return 检索结果
+     */
+    private List<Content> search(String normalizedQuery, String queryDigest) {
+        Embedding queryEmbedding = retrievalCache.getEmbedding(queryDigest,
+                () -> embeddingModel.embed(normalizedQuery).content());
+        EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
+                .queryEmbedding(queryEmbedding)
+                .maxResults(maxResults)
+                .minScore(minScore)
+                .filter(filter)
+                .build();
+        return embeddingStore.search(searchRequest).matches().stream()
+                .map(match -> Content.from(match.embedded(), Map.of(
+                        ContentMetadata.SCORE, match.score(),
+                        ContentMetadata.EMBEDDING_ID, match.embeddingId())))
+                .toList();
+    }
+}
@@ -4,6 +4,9 @@ import com.alibaba.dashscope.embeddings.TextEmbedding;
 import com.alibaba.dashscope.embeddings.TextEmbeddingParam;
 import com.alibaba.dashscope.embeddings.TextEmbeddingResult;
 import com.alibaba.dashscope.embeddings.TextEmbeddingResultItem;
+import com.alibaba.dashscope.exception.ApiException;
+import com.alibaba.dashscope.exception.InputRequiredException;
+import com.alibaba.dashscope.exception.NoApiKeyException;
 import com.rich.ai.config.RagConfig;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
@@ -14,6 +17,12 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +38,9 @@ import java.util.stream.Collectors;
  * 通过 {@link TextEmbeddingParam#builder()}.texts() 方法原生支持批量文本向量化，
  * 单次请求最多处理 {@value #MAX_BATCH_SIZE} 条文本，大幅减少网络往返次数。
  *
+ * 多个批次并发发送，同一实例同时在途的请求数不超过 maxConcurrency（多个调用方共享该上限，超出时排队等待），
+ * 每个批次在限流、服务端错误、网络异常时按指数退避重试，结果按输入顺序返回。
+ *
  * @author DuRuiChi
  * @create 2026/3/27
  * @see RagConfig RAG 核心配置（创建本适配器实例）
@@ -43,6 +55,36 @@ public class DashScopeTextEmbeddingModel implements EmbeddingModel {
      **/
     private static final int MAX_BATCH_SIZE = 10;
 
+    /**
+     * 默认最大并发批次数
+     **/
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    /**
+     * 默认单批次最大重试次数
+     **/
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    /**
+     * 默认首次重试退避时间（毫秒），之后每次翻倍
+     **/
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 500L;
+
+    /**
+     * 单次退避时间上限（毫秒）
+     **/
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 10_000L;
+
+    /**
+     * 限流 HTTP 状态码
+     **/
+    private static final int TOO_MANY_REQUESTS_STATUS = 429;
+
+    /**
+     * 批次执行器，批次大部分时间阻塞在网络 IO 上，使用虚拟线程，并发数由 {@link #permits} 控制
+     **/
+    private static final ExecutorService BATCH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     /**
      * DashScope 文本向量 API 客户端
      * 线程安全，可复用
@@ -65,22 +107,65 @@ public class DashScopeTextEmbeddingModel implements EmbeddingModel {
      **/
     private final int requestDimension;
 
+    /**
+     * 单批次最大重试次数
+     **/
+    private final int maxRetries;
+
+    /**
+     * 首次重试退避时间（毫秒）
+     **/
+    private final long retryBackoffMillis;
+
+    /**
+     * 最大并发批次数
+     **/
+    private final int maxConcurrency;
+
+    /**
+     * 在途请求许可，限制同一实例同时发送的批次数
+     **/
+    private final Semaphore permits;
+
     /**
      * @param modelName        向量模型名称（如 text-embedding-v4）
      * @param apiKey           DashScope API 密钥
      * @param requestDimension 请求的向量维度（text-embedding-v4 支持 64~2048），<=0 时使用模型默认维度
      **/
     public DashScopeTextEmbeddingModel(String modelName, String apiKey, int requestDimension) {
+        this(modelName, apiKey, requestDimension, null,
+                DEFAULT_MAX_CONCURRENCY, DEFAULT_MAX_RETRIES, DEFAULT_RETRY_BACKOFF_MILLIS);
+    }
+
+    /**
+     * @param modelName          向量模型名称（如 text-embedding-v4）
+     * @param apiKey             DashScope API 密钥
+     * @param requestDimension   请求的向量维度（text-embedding-v4 支持 64~2048），<=0 时使用模型默认维度
+     * @param baseUrl            DashScope HTTP 接口地址，为空时使用 SDK 默认地址
+     * @param maxConcurrency     最大并发批次数
+     * @param maxRetries         单批次最大重试次数
+     * @param retryBackoffMillis 首次重试退避时间（毫秒），之后每次翻倍
+     **/
+    public DashScopeTextEmbeddingModel(String modelName, String apiKey, int requestDimension, String baseUrl,
+                                       int maxConcurrency, int maxRetries, long retryBackoffMillis) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("最大并发批次数必须大于0");
+        }
         this.modelName = modelName;
         this.apiKey = apiKey;
         this.requestDimension = requestDimension;
-        this.textEmbedding = new TextEmbedding();
+        this.maxConcurrency = maxConcurrency;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMillis = Math.max(0L, retryBackoffMillis);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.textEmbedding = baseUrl == null || baseUrl.isBlank() ? new TextEmbedding() : new TextEmbedding(baseUrl);
     }
 
     /**
      * 批量将文本片段转换为向量表示
      * 利用 DashScope TextEmbedding API 的原生批量能力（texts() 方法），
-     * 单次请求最多处理 {@value #MAX_BATCH_SIZE} 条文本，超出时自动分批
+     * 单次请求最多处理 {@value #MAX_BATCH_SIZE} 条文本，超出时自动分批并发发送
+     * 任一批次重试耗尽后取消其余批次并抛出异常
      *
      * @param textSegments 待向量化的文本片段列表
      * @return 包含所有向量的响应对象，向量顺序与输入一一对应
@@ -93,37 +178,124 @@ public class DashScopeTextEmbeddingModel implements EmbeddingModel {
             return Response.from(Collections.emptyList());
         }
 
-        log.info("【RAG Embedding】开始批量向量化，共 {} 条文本，分批大小: {}",
-                textSegments.size(), MAX_BATCH_SIZE);
-
         // 提取所有文本内容
         List<String> allTexts = textSegments.stream()
                 .map(TextSegment::text)
                 .collect(Collectors.toList());
-
-        // 分批调用 DashScope API（每批最多 MAX_BATCH_SIZE 条）
-        List<Embedding> allEmbeddings = new ArrayList<>(allTexts.size());
         int totalBatches = (allTexts.size() + MAX_BATCH_SIZE - 1) / MAX_BATCH_SIZE;
 
+        // 单批次（如检索时的查询向量化）直接在当前线程执行
+        if (totalBatches == 1) {
+            return Response.from(embedBatchWithRetry(allTexts, 0, 1));
+        }
+
+        log.info("【RAG Embedding】开始批量向量化，共 {} 条文本，分 {} 批，最大并发 {}",
+                allTexts.size(), totalBatches, maxConcurrency);
+        long startTime = System.currentTimeMillis();
+
+        // 各批次并发提交，在途请求数由许可控制
+        List<Future<List<Embedding>>> futures = new ArrayList<>(totalBatches);
         for (int batchIndex = 0; batchIndex < totalBatches; batchIndex++) {
             int fromIndex = batchIndex * MAX_BATCH_SIZE;
             int toIndex = Math.min(fromIndex + MAX_BATCH_SIZE, allTexts.size());
             List<String> batchTexts = allTexts.subList(fromIndex, toIndex);
+            int currentBatch = batchIndex;
+            futures.add(BATCH_EXECUTOR.submit(() -> embedBatchWithRetry(batchTexts, currentBatch, totalBatches)));
+        }
 
-            log.info("【RAG Embedding】处理第 {}/{} 批，本批 {} 条文本（总进度 {}/{}）",
-                    batchIndex + 1, totalBatches, batchTexts.size(), fromIndex, allTexts.size());
+        // 按批次顺序收集结果，保证向量顺序与输入一致
+        List<Embedding> allEmbeddings = new ArrayList<>(allTexts.size());
+        try {
+            for (Future<List<Embedding>> future : futures) {
+                allEmbeddings.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("DashScope TextEmbedding 批量调用失败: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("DashScope TextEmbedding 批量调用被中断", e);
+        }
 
+        log.info("【RAG Embedding】批量向量化完成，共生成 {} 个向量，耗时 {} ms",
+                allEmbeddings.size(), System.currentTimeMillis() - startTime);
+        return Response.from(allEmbeddings);
+    }
+
+    /**
+     * 向量化单个批次，可重试的异常按指数退避重试
+     * 退避等待期间不占用在途请求许可
+     *
+     * @param batchTexts   本批文本
+     * @param batchIndex   批次序号（从 0 开始）
+     * @param totalBatches 总批次数
+     * @return 本批向量，顺序与输入一致
+     */
+    private List<Embedding> embedBatchWithRetry(List<String> batchTexts, int batchIndex, int totalBatches) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("DashScope TextEmbedding 批量调用被中断", e);
+            }
             try {
-                List<Embedding> batchEmbeddings = callBatchEmbedding(batchTexts);
-                allEmbeddings.addAll(batchEmbeddings);
+                return callBatchEmbedding(batchTexts);
             } catch (Exception e) {
-                log.error("【RAG Embedding】第 {}/{} 批向量化失败: {}", batchIndex + 1, totalBatches, e.getMessage(), e);
-                throw new RuntimeException("DashScope TextEmbedding 批量调用失败: " + e.getMessage(), e);
+                if (attempt >= maxRetries || !isRetryable(e)) {
+                    log.error("【RAG Embedding】第 {}/{} 批向量化失败（已尝试 {} 次）: {}",
+                            batchIndex + 1, totalBatches, attempt + 1, e.getMessage(), e);
+                    throw new RuntimeException("DashScope TextEmbedding 批量调用失败: " + e.getMessage(), e);
+                }
+                log.warn("【RAG Embedding】第 {}/{} 批向量化失败，准备第 {} 次重试: {}",
+                        batchIndex + 1, totalBatches, attempt + 1, e.getMessage());
+            } finally {
+                permits.release();
             }
+            sleepBeforeRetry(attempt);
         }
+    }
 
-        log.info("【RAG Embedding】批量向量化完成，共生成 {} 个向量", allEmbeddings.size());
-        return Response.from(allEmbeddings);
+    /**
+     * 判断异常是否可重试
+     * 参数错误、鉴权失败等客户端错误（除限流外的 4xx）重试也不会成功，直接失败
+     *
+     * @param e 异常
+     * @return 是否可重试
+     */
+    private boolean isRetryable(Exception e) {
+        if (e instanceof NoApiKeyException || e instanceof InputRequiredException) {
+            return false;
+        }
+        if (e instanceof ApiException apiException && apiException.getStatus() != null) {
+            int statusCode = apiException.getStatus().getStatusCode();
+            return statusCode == TOO_MANY_REQUESTS_STATUS || statusCode < 400 || statusCode >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * 重试前退避等待：首次为 retryBackoffMillis，之后每次翻倍，并加入随机抖动避免并发批次同时重试
+     *
+     * @param attempt 已失败的次数（从 0 开始）
+     */
+    private void sleepBeforeRetry(int attempt) {
+        long backoff = Math.min(retryBackoffMillis * (1L << Math.min(attempt, 10)), MAX_RETRY_BACKOFF_MILLIS);
+        if (backoff <= 0) {
+            return;
+        }
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        try {
+            Thread.sleep(jittered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("DashScope TextEmbedding 批量调用被中断", e);
+        }
     }
 
     /**
@@ -170,6 +342,10 @@ public class DashScopeTextEmbeddingModel implements EmbeddingModel {
         if (resultItems == null || resultItems.isEmpty()) {
             throw new RuntimeException("DashScope 返回空的 embedding 结果，requestId: " + result.getRequestId());
         }
+        if (resultItems.size() != texts.size()) {
+            throw new RuntimeException("DashScope 返回的 embedding 数量与输入不一致：期望 " + texts.size()
+                    + " 条，实际 " + resultItems.size() + " 条，requestId: " + result.getRequestId());
+        }
 
         // 按 textIndex 排序，确保输出顺序与输入一一对应
         resultItems.sort((a, b) -> {
@@ -0,0 +1,152 @@
+package com.rich.ai.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 混合检索器（向量 + BM25 词法）
+ * 1. 向量检索与词法检索各取 maxResults × candidateMultiplier 个候选，词法候选丢弃已不在共享索引中的片段；
+ * 2. 倒数排名融合（RRF）：score = Σ 1 / (rrfK + rank)，两路均命中的片段排名靠前；
+ * 3. 本地重排：融合分数与查询词项覆盖率（IDF 加权）加权求和；仅词法命中的片段未经过向量 minScore，
+ *    词项覆盖率低于 lexicalOnlyMinCoverage 时丢弃；
+ * 4. 截断：最多 maxResults 条，且丢弃低于最高分 minRelativeScore 倍的片段，减少注入提示词的 Token
+ * 词法索引为空时直接返回向量检索结果
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see Bm25Index 词法索引
+ **/
+public class HybridContentRetriever implements ContentRetriever {
+
+    private final ContentRetriever vectorRetriever;
+
+    private final RagLexicalIndex lexicalIndex;
+
+    private final Filter filter;
+
+    private final int maxResults;
+
+    private final RagProperties.HybridRetrievalProperties hybridProps;
+
+    /**
+     * @param vectorRetriever 向量检索器（返回数量应为 maxResults × candidateMultiplier）
+     * @param lexicalIndex    词法索引
+     * @param filter          元数据过滤条件，与向量检索一致
+     * @param maxResults      最大返回数量
+     * @param hybridProps     混合检索配置
+     */
+    public HybridContentRetriever(ContentRetriever vectorRetriever, RagLexicalIndex lexicalIndex, Filter filter,
+                                  int maxResults, RagProperties.HybridRetrievalProperties hybridProps) {
+        this.vectorRetriever = vectorRetriever;
+        this.lexicalIndex = lexicalIndex;
+        this.filter = filter;
+        this.maxResults = maxResults;
+        this.hybridProps = hybridProps;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        List<Content> vectorContents = vectorRetriever.retrieve(query);
+        Bm25Index index = lexicalIndex.snapshot();
+        if (index.size() == 0) {
+            return vectorContents.size() > maxResults ? vectorContents.subList(0, maxResults) : vectorContents;
+        }
+        String queryText = RagRetrievalCache.normalizeQuery(query.text());
+        int candidates = maxResults * Math.max(1, hybridProps.getCandidateMultiplier());
+        List<Bm25Index.ScoredSegment> lexicalResults = index.search(queryText, filter, candidates);
+
+        // 倒数排名融合，以片段 ID 合并两路结果
+        Map<String, Candidate> fused = new LinkedHashMap<>();
+        int rrfK = hybridProps.getRrfK();
+        for (int rank = 0; rank < vectorContents.size(); rank++) {
+            Content content = vectorContents.get(rank);
+            Object embeddingId = content.metadata().get(ContentMetadata.EMBEDDING_ID);
+            String id = embeddingId != null ? embeddingId.toString() : content.textSegment().text();
+            Candidate candidate = fused.computeIfAbsent(id, key -> new Candidate(key, content.textSegment()));
+            candidate.fusedScore += 1D / (rrfK + rank + 1);
+            candidate.vectorHit = true;
+            candidate.vectorScore = content.metadata().get(ContentMetadata.SCORE);
+        }
+        int lexicalRank = 0;
+        for (Bm25Index.ScoredSegment scored : lexicalResults) {
+            Bm25Index.IndexedSegment indexed = scored.indexed();
+            if (!lexicalIndex.isLive(indexed.id())) {
+                continue;
+            }
+            int rank = lexicalRank++;
+            Candidate candidate = fused.computeIfAbsent(indexed.id(), key -> new Candidate(key, indexed.segment()));
+            candidate.fusedScore += 1D / (rrfK + rank + 1);
+        }
+
+        // 本地重排：融合分数归一化到 [0, 1]（两路均排第一时为 1）后与词项覆盖率加权
+        Set<String> queryTerms = new LinkedHashSet<>(Bm25Index.tokenize(queryText));
+        double maxFusedScore = 2D / (rrfK + 1);
+        double coverageWeight = hybridProps.getCoverageWeight();
+        double lexicalOnlyMinCoverage = hybridProps.getLexicalOnlyMinCoverage();
+        List<Candidate> ranked = new ArrayList<>(fused.size());
+        for (Candidate candidate : fused.values()) {
+            double coverage = index.coverage(queryTerms, candidate.segment.text());
+            if (!candidate.vectorHit && coverage < lexicalOnlyMinCoverage) {
+                continue;
+            }
+            ranked.add(candidate);
+            candidate.finalScore = (1 - coverageWeight) * candidate.fusedScore / maxFusedScore + coverageWeight * coverage;
+        }
+        ranked.sort((a, b) -> Double.compare(b.finalScore, a.finalScore));
+
+        List<Content> results = new ArrayList<>(Math.min(maxResults, ranked.size()));
+        double threshold = ranked.isEmpty() ? 0D : ranked.get(0).finalScore * hybridProps.getMinRelativeScore();
+        for (Candidate candidate : ranked) {
+            if (results.size() >= maxResults || candidate.finalScore < threshold) {
+                break;
+            }
+            results.add(candidate.toContent());
+        }
+        return results;
+    }
+
+    /**
+     * 融合候选
+     */
+    private static final class Candidate {
+
+        private final String id;
+
+        private final TextSegment segment;
+
+        private boolean vectorHit;
+
+        private Object vectorScore;
+
+        private double fusedScore;
+
+        private double finalScore;
+
+        private Candidate(String id, TextSegment segment) {
+            this.id = id;
+            this.segment = segment;
+        }
+
+        private Content toContent() {
+            Map<ContentMetadata, Object> metadata = new HashMap<>();
+            metadata.put(ContentMetadata.EMBEDDING_ID, id);
+            metadata.put(ContentMetadata.RERANKED_SCORE, finalScore);
+            if (vectorScore != null) {
+                metadata.put(ContentMetadata.SCORE, vectorScore);
+            }
+            return Content.from(segment, metadata);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.rich.ai.rag;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内 RAG 索引清单存储
+ * 未注入其他 {@link RagIndexStateStore} 实现时的兜底方案，清单随进程重启丢失
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public class InMemoryRagIndexStateStore implements RagIndexStateStore {
+
+    private final Map<String, RagIndexEntry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @Override
+    public Map<String, RagIndexEntry> loadAll() {
+        return new HashMap<>(entries);
+    }
+
+    @Override
+    public void save(RagIndexEntry entry) {
+        entries.put(entry.getDocKey(), entry);
+    }
+
+    @Override
+    public void remove(String docKey) {
+        entries.remove(docKey);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    @Override
+    public long incrementGeneration() {
+        return generation.incrementAndGet();
+    }
+}
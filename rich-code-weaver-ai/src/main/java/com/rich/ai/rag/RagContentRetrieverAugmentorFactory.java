@@ -89,6 +89,24 @@ public class RagContentRetrieverAugmentorFactory {
     @Resource(name = RagAiConstant.RAG_EMBEDDING_STORE_BEAN)
     private EmbeddingStore<TextSegment> embeddingStore;
 
+    /**
+     * 检索缓存（查询向量与检索结果），未启用时直接调用 Embedding 模型并检索 PGVector
+     **/
+    @Autowired(required = false)
+    private RagRetrievalCache ragRetrievalCache;
+
+    /**
+     * 进程内词法索引，启用混合检索时与向量检索结果融合
+     **/
+    @Autowired(required = false)
+    private RagLexicalIndex ragLexicalIndex;
+
+    /**
+     * RAG 配置属性
+     **/
+    @Resource
+    private RagProperties ragProperties;
+
     /**
      * Agent 模式专用的 codeGenType 标识
      * Agent 模式下检索此类型的 RAG 文档，与工作流模式的类型完全隔离
@@ -275,6 +293,7 @@ public class RagContentRetrieverAugmentorFactory {
 
     /**
      * 构建基础内容检索器
+     * 启用混合检索时向量检索扩大候选数量，与词法检索结果融合重排后最多返回 maxResults 条
      *
      * @param metadataFilter 元数据过滤器
      * @param maxResults 最大返回数量
@@ -282,6 +301,29 @@ public class RagContentRetrieverAugmentorFactory {
      * @return 内容检索器
      */
     private ContentRetriever buildDelegateContentRetriever(Filter metadataFilter, int maxResults, double minScore) {
+        if (ragLexicalIndex == null || !ragProperties.getHybrid().isEnabled()) {
+            return buildVectorContentRetriever(metadataFilter, maxResults, minScore);
+        }
+        RagProperties.HybridRetrievalProperties hybridProps = ragProperties.getHybrid();
+        int candidates = maxResults * Math.max(1, hybridProps.getCandidateMultiplier());
+        return new HybridContentRetriever(buildVectorContentRetriever(metadataFilter, candidates, minScore),
+                ragLexicalIndex, metadataFilter, maxResults, hybridProps);
+    }
+
+    /**
+     * 构建向量内容检索器
+     * 启用检索缓存时相同查询（规范化后）不再重复向量化与检索
+     *
+     * @param metadataFilter 元数据过滤器
+     * @param maxResults 最大返回数量
+     * @param minScore 最低分数
+     * @return 内容检索器
+     */
+    private ContentRetriever buildVectorContentRetriever(Filter metadataFilter, int maxResults, double minScore) {
+        if (ragRetrievalCache != null && ragRetrievalCache.isEnabled()) {
+            return new CachingEmbeddingStoreContentRetriever(ragRetrievalCache, embeddingModel, embeddingStore,
+                    metadataFilter, maxResults, minScore);
+        }
         return EmbeddingStoreContentRetriever.builder()
                 .embeddingStore(embeddingStore)
                 .embeddingModel(embeddingModel)
@@ -1,5 +1,6 @@
 package com.rich.ai.rag;
 
+import cn.hutool.crypto.digest.DigestUtil;
 import com.rich.ai.config.RagConfig;
 import com.rich.common.constant.RagConstant;
 import com.rich.model.enums.RagDocumentBizTypeEnum;
@@ -9,10 +10,11 @@ import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.document.loader.FileSystemDocumentLoader;
 import dev.langchain4j.data.document.parser.TextDocumentParser;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,17 +23,26 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
 /**
  * RAG 知识库 索引创建服务
  * 负责 ：文档收集与切割（ETL） + 向量转换与存储
+ * 索引按文档增量同步：每个文档记录内容哈希与片段 ID（见 {@link RagIndexStateStore}），
+ * 同步时只对新增、变化文档中新出现的片段调用 Embedding 模型，并删除变化、删除文档中不再存在的片段
  *
  * @author DuRuiChi
  * @create 2026/3/26
@@ -81,14 +92,19 @@ public class RagDocumentIndexCreationService {
     private static final int TITLE_SCAN_LIMIT = 5;
 
     /**
-     * 检测向量存储是否已有数据时使用的测试文本
+     * 增量同步日志标识
      */
-    private static final String EMBEDDING_STORE_TEST_QUERY = "网页开发代码规范";
+    private static final String SYNC_LOG_TAG = "RAG 增量同步";
 
     /**
-     * 统计片段失败时的兜底数量
+     * 哈希内容的字段分隔符
      */
-    private static final int FALLBACK_SEGMENT_COUNT = 1;
+    private static final String HASH_FIELD_SEPARATOR = "\u0000";
+
+    /**
+     * 同名文档标识的去重后缀
+     */
+    private static final String DUPLICATE_KEY_SUFFIX = "#";
 
     /**
      * 代码生成业务类型标识
@@ -139,9 +155,44 @@ public class RagDocumentIndexCreationService {
     private RagParamProvider ragParamProvider;
 
     /**
-     * 应用启动完成后自动执行文档摄入检查
+     * 索引清单存储（可选注入，未提供时使用进程内存储）
+     **/
+    @Autowired(required = false)
+    private RagIndexStateStore ragIndexStateStore;
+
+    /**
+     * 进程内词法索引（可选注入），同步后以全部片段重建
+     **/
+    @Autowired(required = false)
+    private RagLexicalIndex ragLexicalIndex;
+
+    /**
+     * 检索缓存（可选注入），索引变化后失效检索结果
+     **/
+    @Autowired(required = false)
+    private RagRetrievalCache ragRetrievalCache;
+
+    /**
+     * 本进程最近一次同步结果
+     **/
+    private volatile RagIndexSyncResult lastSyncResult;
+
+    /**
+     * 将词法索引绑定到索引清单：其他实例同步（索引代次变化）后，本实例按共享清单重建词法索引
+     */
+    @PostConstruct
+    public void init() {
+        if (ragLexicalIndex != null) {
+            ragLexicalIndex.bind(getStateStore(), this::refreshLexicalIndex,
+                    ragProperties.getHybrid().getGenerationCheckIntervalMillis());
+        }
+    }
+
+    /**
+     * 应用启动完成后自动执行增量同步
      * 使用 {@link ApplicationReadyEvent} 而非 {@code @PostConstruct}，
      * 确保所有 Bean 和外部资源（数据库连接等）都已就绪
+     * 文档未变化时只读取索引清单，不调用 Embedding 模型
      *
      * @author DuRuiChi
      * @create 2026/3/26
@@ -154,17 +205,12 @@ public class RagDocumentIndexCreationService {
             return;
         }
 
-        log.info("【{}】应用启动完成，开始检查知识库状态...", INGEST_LOG_TAG);
+        log.info("【{}】应用启动完成，开始同步知识库索引...", INGEST_LOG_TAG);
         try {
-            // 检查向量存储中是否已有数据，避免重复摄入
-            if (isEmbeddingStorePopulated()) {
-                log.info("【{}】知识库已有数据，跳过自动摄入。如需重新索引，请调用 reindexAll() 方法", INGEST_LOG_TAG);
-                return;
-            }
-
-            // 知识库为空，执行首次文档摄入
-            log.info("【{}】知识库为空，开始首次文档摄入...", INGEST_LOG_TAG);
-            ingestDocuments();
+            syncIndex();
+        } catch (RagIndexSyncInProgressException e) {
+            // 多实例同时启动时只需一个实例同步，其余实例跳过
+            log.info("【{}】{}，本实例跳过启动同步", INGEST_LOG_TAG, e.getMessage());
         } catch (Exception e) {
             // 摄入失败不影响主应用启动，仅记录错误日志
             // AI 服务在没有 RAG 的情况下仍可正常工作，只是不会检索知识库
@@ -174,89 +220,346 @@ public class RagDocumentIndexCreationService {
     }
 
     /**
-     * 执行完整的文档摄入流程
-     * 读取配置路径下的所有 Markdown 文档，经过切分、元数据标注、向量化后存入 PGVector
+     * 增量同步索引
+     * 读取全部文档并与索引清单比对：
+     * - 内容哈希未变化的文档直接跳过；
+     * - 新增、变化的文档重新切分，仅向量化清单中不存在的片段，并删除不再存在的旧片段；
+     * - 清单中存在但已不在文档来源中的文档，删除其全部片段。
+     * 索引清单为空（首次启动或清单丢失）时，先清空向量存储再全量写入，避免残留无法追踪的片段
+     * 同步在索引清单存储提供的同步锁内执行（见 {@link RagIndexStateStore#withSyncLock}），多实例不会并发清空或写入
      *
+     * @return 同步结果，文档来源不可用时返回 null
+     * @throws RagIndexSyncInProgressException 其他实例正在同步时
      * @author DuRuiChi
-     * @create 2026/3/26
+     * @create 2026/10/18
      **/
-    public void ingestDocuments() {
-        List<Document> enrichedDocuments = loadDocumentsForIngestion();
-        if (enrichedDocuments == null) {
-            return;
-        }
+    public synchronized RagIndexSyncResult syncIndex() {
+        return getStateStore().withSyncLock(this::doSyncIndex);
+    }
 
-        // 构建文档切分器
-        // 使用递归分割器，按照 Markdown 文档结构进行智能切分
-        // 切分优先级：段落（\n\n）→ 行（\n）→ 空格 → 字符
-        // 这样能最大程度保持文档的语义完整性
-        DocumentSplitter splitter = buildDocumentSplitter();
+    /**
+     * 增量同步索引（调用方已持有同步锁）
+     *
+     * @return 同步结果，文档来源不可用时返回 null
+     */
+    private RagIndexSyncResult doSyncIndex() {
+        List<Document> documents = loadDocumentsForIngestion();
+        if (documents == null) {
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        RagIndexStateStore stateStore = getStateStore();
+        Map<String, RagIndexEntry> previousEntries = stateStore.loadAll();
+        RagIndexSyncResult result = new RagIndexSyncResult();
+        if (previousEntries.isEmpty()) {
+            // 清单为空时向量存储中的片段无法与文档对应，清空后全量写入
+            log.info("【{}】索引清单为空，清空向量存储后全量写入", SYNC_LOG_TAG);
+            embeddingStore.removeAll();
+            result.setFullRebuild(true);
+        }
 
-        // 使用 EmbeddingStoreIngestor 执行摄入管道
-        // EmbeddingStoreIngestor 是 langchain4j 提供的标准摄入工具，封装了：
-        //   文档切分（DocumentSplitter）→ 向量化（EmbeddingModel）→ 存储（EmbeddingStore）
-        EmbeddingStoreIngestor ingestor = buildEmbeddingStoreIngestor(splitter);
+        int maxSegmentSize = getMaxSegmentSize();
+        int maxOverlapSize = getMaxOverlapSize();
+        DocumentSplitter splitter = DocumentSplitters.recursive(maxSegmentSize, maxOverlapSize);
+        String splitterFingerprint = maxSegmentSize + ":" + maxOverlapSize;
+
+        // 词法索引包含全部片段（含未变化文档），同步后整体重建
+        List<Bm25Index.IndexedSegment> lexicalSegments = new ArrayList<>();
+        for (Map.Entry<String, Document> entry : keyDocuments(documents).entrySet()) {
+            String docKey = entry.getKey();
+            Document document = entry.getValue();
+            String metadataFingerprint = buildMetadataFingerprint(document);
+            String contentHash = DigestUtil.sha256Hex(
+                    splitterFingerprint + HASH_FIELD_SEPARATOR + metadataFingerprint + HASH_FIELD_SEPARATOR + document.text());
+            RagIndexEntry previous = previousEntries.remove(docKey);
+            if (previous != null && contentHash.equals(previous.getContentHash())) {
+                result.setUnchangedDocuments(result.getUnchangedDocuments() + 1);
+                if (ragLexicalIndex != null) {
+                    lexicalSegments.addAll(splitDocument(docKey, document, metadataFingerprint, splitter));
+                }
+                continue;
+            }
+            List<Bm25Index.IndexedSegment> segments = splitDocument(docKey, document, metadataFingerprint, splitter);
+            indexDocument(docKey, contentHash, segments, previous, result);
+            lexicalSegments.addAll(segments);
+            if (previous == null) {
+                result.setAddedDocuments(result.getAddedDocuments() + 1);
+            } else {
+                result.setUpdatedDocuments(result.getUpdatedDocuments() + 1);
+            }
+        }
 
-        // 执行摄入：遍历所有文档，切分为片段，向量化后批量存入 PGVector
-        ingestor.ingest(enrichedDocuments);
+        // 剩余清单条目对应的文档已删除或停用
+        for (RagIndexEntry removed : previousEntries.values()) {
+            removeSegments(removed.getSegmentIds(), result);
+            stateStore.remove(removed.getDocKey());
+            result.setRemovedDocuments(result.getRemovedDocuments() + 1);
+            log.info("【{}】文档已删除或停用，移除其 {} 个片段: {}", SYNC_LOG_TAG,
+                    removed.getSegmentIds().size(), removed.getDocKey());
+        }
 
-        // 统计摄入结果
-        int totalSegments = countTotalSegments(enrichedDocuments, splitter);
-        log.info("【{}】摄入完成！共处理 {} 个文档，预计生成约 {} 个文本片段，已全部存入 PGVector",
-                INGEST_LOG_TAG, enrichedDocuments.size(), totalSegments);
+        result.setFinishTime(System.currentTimeMillis());
+        result.setCostMillis(result.getFinishTime() - startTime);
+        lastSyncResult = result;
+        // 索引变化时递增共享代次，其他实例据此重建各自的词法索引
+        long generation = isIndexChanged(result) ? stateStore.incrementGeneration() : stateStore.getGeneration();
+        if (ragLexicalIndex != null) {
+            ragLexicalIndex.rebuild(lexicalSegments, generation);
+        }
+        if (ragRetrievalCache != null && isIndexChanged(result)) {
+            ragRetrievalCache.invalidateRetrievals();
+        }
+        log.info("【{}】同步完成：新增 {} 个、变化 {} 个、删除 {} 个、未变化 {} 个文档，向量化 {} 个片段，删除 {} 个片段，耗时 {} ms",
+                SYNC_LOG_TAG, result.getAddedDocuments(), result.getUpdatedDocuments(), result.getRemovedDocuments(),
+                result.getUnchangedDocuments(), result.getEmbeddedSegments(), result.getRemovedSegments(),
+                result.getCostMillis());
+        return result;
     }
 
     /**
      * 重新索引所有文档（先清空再重新摄入）
-     * 适用于知识库文档内容更新后需要同步更新向量存储的场景
+     * 清空索引清单后执行同步，所有片段都会重新向量化
+     * 日常文档变更应使用 {@link #syncIndex()}，仅在更换 Embedding 模型等场景下使用
      *
+     * @return 同步结果，文档来源不可用时返回 null
+     * @throws RagIndexSyncInProgressException 其他实例正在同步时
      * @author DuRuiChi
      * @create 2026/3/26
      **/
-    public void reindexAll() {
-        log.info("【{}】开始清空已有向量数据并重新摄入...", REINDEX_LOG_TAG);
-
-        // 清空向量存储中的所有数据
-        embeddingStore.removeAll();
-        log.info("【{}】已清空向量存储", REINDEX_LOG_TAG);
-
-        // 重新执行文档摄入
-        ingestDocuments();
-        log.info("【{}】重新索引完成", REINDEX_LOG_TAG);
+    public synchronized RagIndexSyncResult reindexAll() {
+        RagIndexStateStore stateStore = getStateStore();
+        return stateStore.withSyncLock(() -> {
+            log.info("【{}】开始清空已有向量数据并重新摄入...", REINDEX_LOG_TAG);
+            stateStore.clear();
+            if (ragRetrievalCache != null) {
+                ragRetrievalCache.invalidateEmbeddings();
+            }
+            RagIndexSyncResult result = doSyncIndex();
+            log.info("【{}】重新索引完成", REINDEX_LOG_TAG);
+            return result;
+        });
     }
 
     /**
-     * 检查向量存储中是否已有数据
-     * 通过执行一次测试性的向量搜索来判断，搜索返回结果则表示已有数据
+     * 按共享索引清单重建词法索引（不写入向量存储）
+     * 只保留清单中记录的片段，文档来源中尚未同步的变化不会进入词法索引，与向量存储保持一致
      *
-     * 使用嵌入一段通用文本（"代码规范"）作为测试查询，
-     * 如果能检索到至少一条结果，说明向量存储已被填充。
+     * @author DuRuiChi
+     * @create 2026/10/18
+     **/
+    public synchronized void refreshLexicalIndex() {
+        if (ragLexicalIndex == null) {
+            return;
+        }
+        RagIndexStateStore stateStore = getStateStore();
+        // 先读取代次：读取清单期间若有新的同步，快照以旧代次标记，下次检查时再次重建
+        long generation = stateStore.getGeneration();
+        Map<String, RagIndexEntry> entries = stateStore.loadAll();
+        List<Document> documents = entries.isEmpty() ? List.of() : loadDocumentsForIngestion();
+        if (documents == null) {
+            return;
+        }
+        DocumentSplitter splitter = DocumentSplitters.recursive(getMaxSegmentSize(), getMaxOverlapSize());
+        List<Bm25Index.IndexedSegment> lexicalSegments = new ArrayList<>();
+        for (Map.Entry<String, Document> entry : keyDocuments(documents).entrySet()) {
+            RagIndexEntry indexed = entries.get(entry.getKey());
+            if (indexed == null) {
+                continue;
+            }
+            Set<String> indexedIds = new HashSet<>(indexed.getSegmentIds());
+            for (Bm25Index.IndexedSegment segment : splitDocument(entry.getKey(), entry.getValue(),
+                    buildMetadataFingerprint(entry.getValue()), splitter)) {
+                if (indexedIds.contains(segment.id())) {
+                    lexicalSegments.add(segment);
+                }
+            }
+        }
+        ragLexicalIndex.rebuild(lexicalSegments, generation);
+    }
+
+    /**
+     * 查询索引状态
+     * 仅读取索引清单，不调用 Embedding 模型
      *
-     * @return true 表示已有数据，false 表示为空
+     * @return 索引状态
      * @author DuRuiChi
-     * @create 2026/3/26
+     * @create 2026/10/18
      **/
-    private boolean isEmbeddingStorePopulated() {
-        try {
-            // 使用一段与知识库内容相关的通用文本作为测试查询
-            var testEmbedding = embeddingModel.embed(EMBEDDING_STORE_TEST_QUERY).content();
-
-            // 在向量存储中搜索，只取 1 条结果，不设最低分数阈值
-            var searchResult = embeddingStore.search(
-                    dev.langchain4j.store.embedding.EmbeddingSearchRequest.builder()
-                            .queryEmbedding(testEmbedding)
-                            .maxResults(1)
-                            .build()
-            );
-
-            // 如果搜索返回了结果，说明存储中已有数据
-            return !searchResult.matches().isEmpty();
-        } catch (Exception e) {
-            // 搜索异常（如表不存在）视为无数据，后续会自动创建表并摄入
-            log.debug("【{}】检测向量存储状态时异常（可能是首次启动，表尚未创建）: {}",
-                    INGEST_LOG_TAG, e.getMessage());
-            return false;
+    public RagIndexStatus getIndexStatus() {
+        RagIndexStatus status = new RagIndexStatus();
+        for (RagIndexEntry entry : getStateStore().loadAll().values()) {
+            status.setDocumentCount(status.getDocumentCount() + 1);
+            status.setSegmentCount(status.getSegmentCount() + entry.getSegmentIds().size());
+            status.setLastIndexedTime(Math.max(status.getLastIndexedTime(), entry.getIndexedTime()));
         }
+        status.setLastSyncResult(lastSyncResult);
+        return status;
+    }
+
+    /**
+     * 本次同步是否改变了向量存储内容
+     *
+     * @param result 同步结果
+     * @return 是否改变
+     */
+    private boolean isIndexChanged(RagIndexSyncResult result) {
+        return result.isFullRebuild() || result.getAddedDocuments() > 0
+                || result.getUpdatedDocuments() > 0 || result.getRemovedDocuments() > 0;
+    }
+
+    /**
+     * 切分文档并为每个片段生成确定的片段 ID
+     * 片段 ID 由文档标识、元数据与片段文本确定，内容不变的片段在不同次同步中 ID 相同
+     *
+     * @param docKey              文档标识
+     * @param document            文档
+     * @param metadataFingerprint 文档元数据指纹
+     * @param splitter            文档切分器
+     * @return 带 ID 的片段
+     */
+    private List<Bm25Index.IndexedSegment> splitDocument(String docKey, Document document, String metadataFingerprint,
+                                                         DocumentSplitter splitter) {
+        List<TextSegment> segments = splitter.split(document);
+        List<Bm25Index.IndexedSegment> indexed = new ArrayList<>(segments.size());
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (TextSegment segment : segments) {
+            // 同一文档内重复的片段文本按出现次序区分
+            int occurrence = occurrences.merge(segment.text(), 1, Integer::sum);
+            indexed.add(new Bm25Index.IndexedSegment(
+                    buildSegmentId(docKey, metadataFingerprint, segment.text(), occurrence), segment));
+        }
+        return indexed;
+    }
+
+    /**
+     * 写入单个新增或变化的文档
+     * 旧清单中已存在的片段无需重新向量化；先写入新片段再删除旧片段，同步过程中文档始终可被检索到
+     *
+     * @param docKey      文档标识
+     * @param contentHash 文档内容哈希
+     * @param segments    带 ID 的片段
+     * @param previous    旧清单条目，新增文档为 null
+     * @param result      同步结果
+     */
+    private void indexDocument(String docKey, String contentHash, List<Bm25Index.IndexedSegment> segments,
+                               RagIndexEntry previous, RagIndexSyncResult result) {
+        Set<String> previousIds = previous == null ? Set.of() : new HashSet<>(previous.getSegmentIds());
+        List<String> segmentIds = new ArrayList<>(segments.size());
+        List<String> idsToEmbed = new ArrayList<>();
+        List<TextSegment> segmentsToEmbed = new ArrayList<>();
+        for (Bm25Index.IndexedSegment segment : segments) {
+            segmentIds.add(segment.id());
+            if (!previousIds.contains(segment.id())) {
+                idsToEmbed.add(segment.id());
+                segmentsToEmbed.add(segment.segment());
+            }
+        }
+
+        if (!segmentsToEmbed.isEmpty()) {
+            List<Embedding> embeddings = embeddingModel.embedAll(segmentsToEmbed).content();
+            embeddingStore.addAll(idsToEmbed, embeddings, segmentsToEmbed);
+            result.setEmbeddedSegments(result.getEmbeddedSegments() + segmentsToEmbed.size());
+        }
+        if (previous != null) {
+            Set<String> currentIds = new HashSet<>(segmentIds);
+            List<String> staleIds = previous.getSegmentIds().stream()
+                    .filter(id -> !currentIds.contains(id))
+                    .toList();
+            removeSegments(staleIds, result);
+        }
+        getStateStore().save(new RagIndexEntry(docKey, contentHash, segmentIds, System.currentTimeMillis()));
+        log.info("【{}】{}文档: {} → 共 {} 个片段，向量化 {} 个", SYNC_LOG_TAG, previous == null ? "新增" : "更新",
+                docKey, segments.size(), segmentsToEmbed.size());
+    }
+
+    /**
+     * 从向量存储删除片段
+     *
+     * @param segmentIds 片段 ID
+     * @param result     同步结果
+     */
+    private void removeSegments(List<String> segmentIds, RagIndexSyncResult result) {
+        if (segmentIds == null || segmentIds.isEmpty()) {
+            return;
+        }
+        embeddingStore.removeAll(segmentIds);
+        result.setRemovedSegments(result.getRemovedSegments() + segmentIds.size());
+    }
+
+    /**
+     * 为文档分配稳定标识
+     * 优先使用 docId 元数据，其次为来源、文件名；标识重复时按出现次序追加后缀
+     *
+     * @param documents 文档列表
+     * @return 文档标识 -> 文档（保持原有顺序）
+     */
+    private Map<String, Document> keyDocuments(List<Document> documents) {
+        Map<String, Document> keyed = new LinkedHashMap<>();
+        for (Document document : documents) {
+            String baseKey = resolveDocKey(document);
+            String docKey = baseKey;
+            for (int i = 2; keyed.containsKey(docKey); i++) {
+                docKey = baseKey + DUPLICATE_KEY_SUFFIX + i;
+            }
+            keyed.put(docKey, document);
+        }
+        return keyed;
+    }
+
+    /**
+     * 解析文档标识
+     *
+     * @param document 文档
+     * @return 文档标识
+     */
+    private String resolveDocKey(Document document) {
+        Metadata metadata = document.metadata();
+        String docId = metadata.getString(RagConstant.METADATA_DOC_ID);
+        if (docId != null && !docId.isBlank()) {
+            return docId;
+        }
+        String source = metadata.getString(RagConstant.METADATA_SOURCE);
+        if (source != null && !source.isBlank()) {
+            return source;
+        }
+        return getFileNameOrDefault(document);
+    }
+
+    /**
+     * 构建元数据指纹（按键排序，元数据变化时片段需要重新写入）
+     *
+     * @param document 文档
+     * @return 元数据指纹
+     */
+    private String buildMetadataFingerprint(Document document) {
+        return new TreeMap<>(document.metadata().toMap()).toString();
+    }
+
+    /**
+     * 根据片段内容生成确定的片段 ID（UUID 格式，兼容 PGVector 主键类型）
+     *
+     * @param docKey              文档标识
+     * @param metadataFingerprint 文档元数据指纹
+     * @param text                片段文本
+     * @param occurrence          片段文本在文档内的出现次序
+     * @return 片段 ID
+     */
+    private String buildSegmentId(String docKey, String metadataFingerprint, String text, int occurrence) {
+        String source = docKey + HASH_FIELD_SEPARATOR + metadataFingerprint + HASH_FIELD_SEPARATOR
+                + occurrence + HASH_FIELD_SEPARATOR + text;
+        return UUID.nameUUIDFromBytes(source.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * 获取索引清单存储，未注入时使用进程内存储
+     *
+     * @return 索引清单存储
+     */
+    private synchronized RagIndexStateStore getStateStore() {
+        if (ragIndexStateStore == null) {
+            ragIndexStateStore = new InMemoryRagIndexStateStore();
+        }
+        return ragIndexStateStore;
     }
 
     /**
@@ -292,15 +595,15 @@ public class RagDocumentIndexCreationService {
      * 加载待摄入文档
      * 优先使用数据库文档来源，没有时回退到文件系统
      *
-     * @return 待摄入文档列表
+     * @return 待摄入文档列表（数据库无启用文档时为空列表），文档来源不可用时返回 null
      */
     private List<Document> loadDocumentsForIngestion() {
         if (ragDocumentProvider != null) {
             log.info("【{}】使用数据库文档来源（RagDocumentProvider）加载文档...", INGEST_LOG_TAG);
             List<Document> enrichedDocuments = ragDocumentProvider.loadDocuments();
             if (enrichedDocuments.isEmpty()) {
-                log.warn("【{}】数据库中无已启用的 RAG 文档（isEnabled=1），跳过摄入", INGEST_LOG_TAG);
-                return null;
+                log.warn("【{}】数据库中无已启用的 RAG 文档（isEnabled=1），将移除已有索引", INGEST_LOG_TAG);
+                return enrichedDocuments;
             }
             log.info("【{}】从数据库加载到 {} 个文档，开始处理...", INGEST_LOG_TAG, enrichedDocuments.size());
             return enrichedDocuments;
@@ -311,29 +614,21 @@ public class RagDocumentIndexCreationService {
     }
 
     /**
-     * 构建文档切分器
+     * 获取切片最大字符数
      *
-     * @return 文档切分器
+     * @return 切片最大字符数
      */
-    private DocumentSplitter buildDocumentSplitter() {
-        int maxSegmentSize = ragParamProvider != null ? ragParamProvider.getMaxSegmentSize() : RagConstant.DEFAULT_MAX_SEGMENT_SIZE;
-        int maxOverlapSize = ragParamProvider != null ? ragParamProvider.getMaxOverlapSize() : RagConstant.DEFAULT_MAX_OVERLAP_SIZE;
-//        log.info("【{}】切分参数：maxSegmentSize={}, maxOverlapSize={}", INGEST_LOG_TAG, maxSegmentSize, maxOverlapSize);
-        return DocumentSplitters.recursive(maxSegmentSize, maxOverlapSize);
+    private int getMaxSegmentSize() {
+        return ragParamProvider != null ? ragParamProvider.getMaxSegmentSize() : RagConstant.DEFAULT_MAX_SEGMENT_SIZE;
     }
 
     /**
-     * 构建 EmbeddingStoreIngestor
+     * 获取切片重叠字符数
      *
-     * @param splitter 文档切分器
-     * @return 摄入器
+     * @return 切片重叠字符数
      */
-    private EmbeddingStoreIngestor buildEmbeddingStoreIngestor(DocumentSplitter splitter) {
-        return EmbeddingStoreIngestor.builder()
-                .documentSplitter(splitter)
-                .embeddingModel(embeddingModel)
-                .embeddingStore(embeddingStore)
-                .build();
+    private int getMaxOverlapSize() {
+        return ragParamProvider != null ? ragParamProvider.getMaxOverlapSize() : RagConstant.DEFAULT_MAX_OVERLAP_SIZE;
     }
 
     /**
@@ -398,28 +693,6 @@ public class RagDocumentIndexCreationService {
         return RagConstant.DEFAULT_DOCUMENT_TITLE;
     }
 
-    /**
-     * 统计文档切分后生成的总片段数（用于日志输出）
-     * 仅为预估值，实际数量由 EmbeddingStoreIngestor 内部处理
-     *
-     * @param documents 文档列表
-     * @param splitter  文档切分器
-     * @return 预估的总片段数
-     **/
-    private int countTotalSegments(List<Document> documents, DocumentSplitter splitter) {
-        int total = 0;
-        for (Document doc : documents) {
-            try {
-                List<TextSegment> segments = splitter.split(doc);
-                total += segments.size();
-            } catch (Exception e) {
-                // 统计失败不影响主流程
-                total += FALLBACK_SEGMENT_COUNT;
-            }
-        }
-        return total;
-    }
-
     /**
      * 获取文件名元数据，没有时使用默认值
      *
@@ -446,6 +719,7 @@ public class RagDocumentIndexCreationService {
         enrichedMetadata.put(RagConstant.METADATA_CODE_GEN_TYPE, codeGenType);
         enrichedMetadata.put(RagConstant.METADATA_SOURCE, fileName);
         enrichedMetadata.put(RagConstant.METADATA_TITLE, docTitle);
+        enrichedMetadata.put(RagConstant.METADATA_DOC_ID, fileName);
         return enrichedMetadata;
     }
 }
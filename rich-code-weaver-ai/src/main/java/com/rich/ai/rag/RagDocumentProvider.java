@@ -21,6 +21,7 @@ public interface RagDocumentProvider {
      * - codeGenType: 代码生成类型（HTML / MULTI_FILE / VUE_PROJECT / GENERAL）
      * - source: 来源标识（文件名或文档标题）
      * - title: 文档标题
+     * - docId: 文档稳定标识（可选，用于增量索引比对；缺省时使用 source）
      *
      * @return 文档列表（已附加元数据）
      */
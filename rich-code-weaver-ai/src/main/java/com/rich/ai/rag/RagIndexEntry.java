@@ -0,0 +1,42 @@
+package com.rich.ai.rag;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RAG 索引清单条目
+ * 记录单个文档最近一次写入向量存储时的内容哈希与片段 ID，用于增量索引时判断文档是否变化
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagIndexStateStore 索引清单存储
+ **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RagIndexEntry {
+
+    /**
+     * 文档标识（数据库文档为 ID，文件系统文档为文件名）
+     **/
+    private String docKey;
+
+    /**
+     * 文档内容哈希（覆盖文本、元数据与切分参数）
+     **/
+    private String contentHash;
+
+    /**
+     * 文档切分后写入向量存储的片段 ID
+     **/
+    private List<String> segmentIds = new ArrayList<>();
+
+    /**
+     * 最近一次索引时间（毫秒时间戳）
+     **/
+    private long indexedTime;
+}
@@ -0,0 +1,70 @@
+package com.rich.ai.rag;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * RAG 索引清单存储接口
+ * 保存每个文档已写入向量存储的内容哈希与片段 ID，使增量索引和索引状态查询都无需调用 Embedding 模型
+ * 未提供实现时使用进程内存储（重启后首次同步会重建全部索引）
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagDocumentIndexCreationService 消费此接口比对文档变化
+ */
+public interface RagIndexStateStore {
+
+    /**
+     * 加载全部索引清单条目
+     *
+     * @return 文档标识 -> 索引清单条目
+     */
+    Map<String, RagIndexEntry> loadAll();
+
+    /**
+     * 保存（覆盖）单个文档的索引清单条目
+     *
+     * @param entry 索引清单条目
+     */
+    void save(RagIndexEntry entry);
+
+    /**
+     * 删除单个文档的索引清单条目
+     *
+     * @param docKey 文档标识
+     */
+    void remove(String docKey);
+
+    /**
+     * 清空索引清单
+     */
+    void clear();
+
+    /**
+     * 当前索引代次
+     * 每次同步改变了索引内容后递增，各实例据此判断本地词法索引是否已过期
+     *
+     * @return 索引代次，从未同步时为 0
+     */
+    long getGeneration();
+
+    /**
+     * 递增索引代次
+     *
+     * @return 递增后的索引代次
+     */
+    long incrementGeneration();
+
+    /**
+     * 持有同步锁执行索引同步
+     * 清单与向量存储为多实例共享时，实现类应使用分布式锁保证同一时刻只有一个实例在同步，
+     * 锁被其他实例持有时抛出 {@link RagIndexSyncInProgressException}；默认实现直接执行（仅进程内互斥）
+     *
+     * @param action 同步动作
+     * @param <T>    同步结果类型
+     * @return 同步结果
+     */
+    default <T> T withSyncLock(Supplier<T> action) {
+        return action.get();
+    }
+}
@@ -0,0 +1,34 @@
+package com.rich.ai.rag;
+
+import lombok.Data;
+
+/**
+ * RAG 索引状态
+ * 完全由索引清单统计得出，查询时不调用 Embedding 模型，也不检索向量存储
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Data
+public class RagIndexStatus {
+
+    /**
+     * 已索引文档数
+     **/
+    private int documentCount;
+
+    /**
+     * 已索引片段数
+     **/
+    private int segmentCount;
+
+    /**
+     * 最近一次文档写入时间（毫秒时间戳），未索引时为 0
+     **/
+    private long lastIndexedTime;
+
+    /**
+     * 本进程最近一次同步结果，未同步过时为 null
+     **/
+    private RagIndexSyncResult lastSyncResult;
+}
@@ -0,0 +1,16 @@
+package com.rich.ai.rag;
+
+/**
+ * RAG 索引同步进行中异常
+ * 其他实例正持有同步锁时抛出，调用方可稍后重试
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagIndexStateStore#withSyncLock
+ */
+public class RagIndexSyncInProgressException extends RuntimeException {
+
+    public RagIndexSyncInProgressException(String message) {
+        super(message);
+    }
+}
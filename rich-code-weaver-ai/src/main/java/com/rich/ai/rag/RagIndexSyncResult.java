@@ -0,0 +1,58 @@
+package com.rich.ai.rag;
+
+import lombok.Data;
+
+/**
+ * RAG 索引同步结果
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Data
+public class RagIndexSyncResult {
+
+    /**
+     * 是否为全量重建（索引清单为空时清空向量存储后重新写入）
+     **/
+    private boolean fullRebuild;
+
+    /**
+     * 新增文档数
+     **/
+    private int addedDocuments;
+
+    /**
+     * 内容变化的文档数
+     **/
+    private int updatedDocuments;
+
+    /**
+     * 已删除（或停用）的文档数
+     **/
+    private int removedDocuments;
+
+    /**
+     * 未变化、跳过处理的文档数
+     **/
+    private int unchangedDocuments;
+
+    /**
+     * 本次调用 Embedding 模型向量化的片段数
+     **/
+    private int embeddedSegments;
+
+    /**
+     * 本次从向量存储删除的片段数
+     **/
+    private int removedSegments;
+
+    /**
+     * 同步耗时（毫秒）
+     **/
+    private long costMillis;
+
+    /**
+     * 同步完成时间（毫秒时间戳）
+     **/
+    private long finishTime;
+}
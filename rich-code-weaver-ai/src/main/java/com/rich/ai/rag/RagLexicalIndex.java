@@ -0,0 +1,188 @@
+package com.rich.ai.rag;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RAG 进程内词法索引
+ * 持有与向量存储相同片段（相同片段 ID）的 BM25 索引快照，由索引同步整体替换，检索时无锁读取
+ * 应用启动时未执行同步（rag.auto-ingest-on-startup=false）则为空索引，混合检索退化为纯向量检索
+ * 快照记录构建时的索引代次（见 {@link RagIndexStateStore#getGeneration()}）：检索时按固定间隔比对共享代次，
+ * 其他实例同步后先按共享清单过滤已删除的片段，再在后台按共享清单重建快照
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagDocumentIndexCreationService 同步后重建索引
+ * @see HybridContentRetriever 混合检索
+ **/
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = RagAiConstant.RAG_CONFIG_PREFIX,
+        name = RagAiConstant.RAG_ENABLED_NAME,
+        havingValue = RagAiConstant.RAG_ENABLED_VALUE)
+public class RagLexicalIndex {
+
+    /**
+     * 未构建快照时的代次
+     */
+    private static final long UNKNOWN_GENERATION = -1L;
+
+    private volatile Bm25Index snapshot = Bm25Index.EMPTY;
+
+    /**
+     * 当前快照对应的索引代次
+     */
+    private volatile long generation = UNKNOWN_GENERATION;
+
+    /**
+     * 快照过期后仍在共享清单中的片段 ID，为 null 时快照中的片段全部有效
+     */
+    private volatile Set<String> liveIds;
+
+    /**
+     * 上次检查代次的时间
+     */
+    private volatile long lastCheckTime;
+
+    /**
+     * 是否正在后台重建
+     */
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    /**
+     * 共享索引清单存储，未绑定时不检查代次（单实例）
+     */
+    private volatile RagIndexStateStore stateStore;
+
+    /**
+     * 按共享清单重建快照的动作
+     */
+    private volatile Runnable reloader;
+
+    private volatile long checkIntervalMillis;
+
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rag-lexical-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 绑定共享索引清单，开启代次检查
+     *
+     * @param stateStore          索引清单存储
+     * @param reloader            按共享清单重建快照的动作（应调用 {@link #rebuild(List, long)}）
+     * @param checkIntervalMillis 检查代次的最小间隔（毫秒）
+     */
+    public void bind(RagIndexStateStore stateStore, Runnable reloader, long checkIntervalMillis) {
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.reloader = reloader;
+        this.stateStore = stateStore;
+    }
+
+    /**
+     * 以全部片段重建索引
+     *
+     * @param segments   片段
+     * @param generation 片段对应的索引代次
+     */
+    public void rebuild(List<Bm25Index.IndexedSegment> segments, long generation) {
+        long startTime = System.currentTimeMillis();
+        Bm25Index index = Bm25Index.build(segments);
+        synchronized (this) {
+            snapshot = index;
+            this.generation = generation;
+            liveIds = null;
+        }
+        log.info("【RAG 词法索引】重建完成，代次 {}，共 {} 个片段，耗时 {} ms", generation, segments.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 当前索引快照
+     * 距上次检查超过间隔时比对共享代次，过期则过滤已删除的片段并触发后台重建
+     *
+     * @return 索引快照
+     */
+    public Bm25Index snapshot() {
+        checkGeneration();
+        return snapshot;
+    }
+
+    /**
+     * 片段是否仍在共享索引中
+     * 快照过期且尚未重建完成时，已被其他实例删除的片段不应再被召回
+     *
+     * @param segmentId 片段 ID
+     * @return 是否有效
+     */
+    public boolean isLive(String segmentId) {
+        Set<String> ids = liveIds;
+        return ids == null || ids.contains(segmentId);
+    }
+
+    /**
+     * 比对共享代次，代次变化时按共享清单限制有效片段并触发后台重建
+     * 读取共享存储失败时保留当前快照，下个间隔重试
+     */
+    private void checkGeneration() {
+        RagIndexStateStore store = stateStore;
+        long now = System.currentTimeMillis();
+        if (store == null || now - lastCheckTime < checkIntervalMillis) {
+            return;
+        }
+        lastCheckTime = now;
+        try {
+            long current = store.getGeneration();
+            if (current == generation) {
+                return;
+            }
+            if (snapshot.size() > 0) {
+                Set<String> ids = new HashSet<>();
+                store.loadAll().values().forEach(entry -> ids.addAll(entry.getSegmentIds()));
+                synchronized (this) {
+                    if (current != generation) {
+                        liveIds = ids;
+                    }
+                }
+            }
+            log.info("【RAG 词法索引】索引代次 {} -> {}，后台按共享清单重建", generation, current);
+            triggerReload();
+        } catch (Exception e) {
+            log.warn("【RAG 词法索引】检查索引代次失败，继续使用当前快照: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在后台线程执行重建，同一时刻最多一个重建任务
+     */
+    private void triggerReload() {
+        Runnable action = reloader;
+        if (action == null || !reloading.compareAndSet(false, true)) {
+            return;
+        }
+        reloadExecutor.execute(() -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("【RAG 词法索引】后台重建失败，下个间隔重试: {}", e.getMessage(), e);
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        reloadExecutor.shutdownNow();
+    }
+}
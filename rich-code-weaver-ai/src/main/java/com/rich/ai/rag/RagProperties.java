@@ -47,6 +47,16 @@ public class RagProperties {
      **/
     private EmbeddingModelProperties embeddingModel = new EmbeddingModelProperties();
 
+    /**
+     * 检索缓存配置（查询向量与检索结果）
+     **/
+    private RetrievalCacheProperties cache = new RetrievalCacheProperties();
+
+    /**
+     * 混合检索配置（向量 + BM25 词法）
+     **/
+    private HybridRetrievalProperties hybrid = new HybridRetrievalProperties();
+
     /**
      * PGVector 向量数据库连接参数
      * PostgreSQL 需预先安装 pgvector 扩展：CREATE EXTENSION IF NOT EXISTS vector;
@@ -118,5 +128,95 @@ public class RagProperties {
          * 推荐：text-embedding-v4（通义实验室基于 Qwen3 训练，支持 64~2048 自定义维度）
          **/
         private String modelName = "text-embedding-v4";
+
+        /**
+         * DashScope HTTP 接口地址，为空时使用 SDK 默认地址
+         **/
+        private String baseUrl;
+
+        /**
+         * 最大并发批次数（每批最多 10 条文本）
+         **/
+        private int maxConcurrency = DashScopeTextEmbeddingModel.DEFAULT_MAX_CONCURRENCY;
+
+        /**
+         * 单批次最大重试次数（仅限流、服务端错误、网络异常时重试）
+         **/
+        private int maxRetries = DashScopeTextEmbeddingModel.DEFAULT_MAX_RETRIES;
+
+        /**
+         * 首次重试退避时间（毫秒），之后每次翻倍
+         **/
+        private long retryBackoffMillis = DashScopeTextEmbeddingModel.DEFAULT_RETRY_BACKOFF_MILLIS;
+    }
+
+    /**
+     * 检索缓存配置
+     * 查询向量只与查询文本相关，不随索引变化失效；检索结果在索引同步后失效，并按过期时间兜底（多实例部署时其他节点的索引变化）
+     **/
+    @Data
+    public static class RetrievalCacheProperties {
+        /**
+         * 是否启用检索缓存
+         **/
+        private boolean enabled = true;
+
+        /**
+         * 查询向量缓存最大条目数
+         **/
+        private long embeddingMaxSize = 2000;
+
+        /**
+         * 检索结果缓存最大条目数
+         **/
+        private long retrievalMaxSize = 2000;
+
+        /**
+         * 检索结果缓存过期时间（秒）
+         **/
+        private long retrievalTtlSeconds = 600;
+    }
+
+    /**
+     * 混合检索配置
+     * 向量检索与进程内 BM25 词法检索的结果经倒数排名融合与本地重排后注入，
+     * 标识符类查询（组件名、CSS 属性、API 名）不再依赖调大 maxResults 才能命中
+     **/
+    @Data
+    public static class HybridRetrievalProperties {
+        /**
+         * 是否启用混合检索，关闭时为纯向量检索
+         **/
+        private boolean enabled = true;
+
+        /**
+         * 每路候选数量 = maxResults × candidateMultiplier
+         **/
+        private int candidateMultiplier = 3;
+
+        /**
+         * 倒数排名融合常数，越大排名差异的影响越小
+         **/
+        private int rrfK = 60;
+
+        /**
+         * 重排时查询词项覆盖率的权重，取值 [0, 1]
+         **/
+        private double coverageWeight = 0.5D;
+
+        /**
+         * 相对分数阈值：低于最高分该倍数的片段不注入，取值 [0, 1]
+         **/
+        private double minRelativeScore = 0.6D;
+
+        /**
+         * 仅词法命中（未达到向量 minScore）的片段要求的最低查询词项覆盖率，取值 [0, 1]
+         **/
+        private double lexicalOnlyMinCoverage = 0.5D;
+
+        /**
+         * 检查索引代次的最小间隔（毫秒），其他实例同步后本实例最迟在该间隔后重建词法索引
+         **/
+        private long generationCheckIntervalMillis = 5000L;
     }
 }
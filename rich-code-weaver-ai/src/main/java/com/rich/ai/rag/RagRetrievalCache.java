@@ -0,0 +1,210 @@
+package com.rich.ai.rag;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.store.embedding.filter.Filter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * RAG 检索缓存
+ * 两级缓存，均以规范化后的查询文本摘要为键：
+ * - 查询向量缓存：相同查询不再重复调用 Embedding 模型，与索引内容无关，不随增量同步失效；
+ *   键额外包含 Embedding 模型名称与向量维度，全量重建索引（如更换模型）时整体清空；
+ * - 检索结果缓存：键额外包含元数据过滤条件（bizType / codeGenType）与 maxResults、minScore，
+ *   索引同步后通过递增代次整体失效，并按过期时间兜底其他节点的索引变化。
+ * 命中率通过 Micrometer 暴露（cache_gets{cache="rag_query_embedding|rag_retrieval", result="hit|miss"}）
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagContentRetrieverAugmentorFactory 使用缓存构建检索器
+ * @see RagDocumentIndexCreationService 索引同步后失效检索结果
+ **/
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = RagAiConstant.RAG_CONFIG_PREFIX,
+        name = RagAiConstant.RAG_ENABLED_NAME,
+        havingValue = RagAiConstant.RAG_ENABLED_VALUE)
+public class RagRetrievalCache {
+
+    /**
+     * 查询向量缓存名称
+     */
+    public static final String EMBEDDING_CACHE_NAME = "rag_query_embedding";
+
+    /**
+     * 检索结果缓存名称
+     */
+    public static final String RETRIEVAL_CACHE_NAME = "rag_retrieval";
+
+    /**
+     * 连续空白字符
+     */
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    @Resource
+    private RagProperties ragProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 索引代次，检索结果缓存键包含代次，索引变化后旧代次的条目不再被读取
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 查询向量缓存：模型名称:向量维度:查询文本摘要 -> 查询向量
+     */
+    private Cache<String, Embedding> embeddingCache;
+
+    /**
+     * 检索结果缓存
+     */
+    private Cache<RetrievalKey, List<Content>> retrievalCache;
+
+    /**
+     * 检索结果失效次数
+     */
+    private Counter invalidationCounter;
+
+    @PostConstruct
+    public void init() {
+        RagProperties.RetrievalCacheProperties cacheProps = ragProperties.getCache();
+        embeddingCache = Caffeine.newBuilder()
+                .maximumSize(cacheProps.getEmbeddingMaxSize())
+                .recordStats()
+                .build();
+        retrievalCache = Caffeine.newBuilder()
+                .maximumSize(cacheProps.getRetrievalMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(cacheProps.getRetrievalTtlSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, embeddingCache, EMBEDDING_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, retrievalCache, RETRIEVAL_CACHE_NAME);
+        invalidationCounter = Counter.builder("rag_retrieval_cache_invalidations")
+                .description("RAG 检索结果缓存因索引变化失效的次数")
+                .register(meterRegistry);
+        log.info("【RAG 检索缓存】初始化完成，查询向量缓存容量 {}，检索结果缓存容量 {}，过期时间 {} 秒",
+                cacheProps.getEmbeddingMaxSize(), cacheProps.getRetrievalMaxSize(), cacheProps.getRetrievalTtlSeconds());
+    }
+
+    /**
+     * 是否启用检索缓存
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return ragProperties.getCache().isEnabled();
+    }
+
+    /**
+     * 获取查询向量，未命中时调用加载函数并缓存
+     *
+     * @param queryDigest 规范化查询文本的摘要
+     * @param loader      加载函数（调用 Embedding 模型）
+     * @return 查询向量
+     */
+    public Embedding getEmbedding(String queryDigest, Supplier<Embedding> loader) {
+        return embeddingCache.get(buildEmbeddingKey(queryDigest), key -> loader.get());
+    }
+
+    /**
+     * 获取检索结果，未命中时调用加载函数并缓存
+     *
+     * @param queryDigest 规范化查询文本的摘要
+     * @param filter      元数据过滤条件
+     * @param maxResults  最大返回数量
+     * @param minScore    最低相似度
+     * @param loader      加载函数（向量检索）
+     * @return 检索结果（不可修改）
+     */
+    public List<Content> getContents(String queryDigest, Filter filter, int maxResults, double minScore,
+                                     Supplier<List<Content>> loader) {
+        RetrievalKey key = new RetrievalKey(generation.get(), queryDigest, filter, maxResults, minScore);
+        return retrievalCache.get(key, k -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * 索引变化后失效全部检索结果（查询向量保留）
+     * 先递增代次，正在加载的旧代次结果即使写入缓存也不会再被读取
+     */
+    public void invalidateRetrievals() {
+        generation.incrementAndGet();
+        retrievalCache.invalidateAll();
+        invalidationCounter.increment();
+        log.info("【RAG 检索缓存】索引已变化，检索结果缓存已失效");
+    }
+
+    /**
+     * 失效全部查询向量
+     * 全量重建索引（如更换 Embedding 模型）后调用，避免旧模型的查询向量与新索引混用
+     */
+    public void invalidateEmbeddings() {
+        embeddingCache.invalidateAll();
+        log.info("【RAG 检索缓存】索引已全量重建，查询向量缓存已失效");
+    }
+
+    /**
+     * 构建查询向量缓存键，不同模型或维度生成的向量不共用
+     *
+     * @param queryDigest 规范化查询文本的摘要
+     * @return 缓存键
+     */
+    private String buildEmbeddingKey(String queryDigest) {
+        return ragProperties.getEmbeddingModel().getModelName() + ":"
+                + ragProperties.getPgvector().getDimension() + ":" + queryDigest;
+    }
+
+    /**
+     * 规范化查询文本：Unicode 兼容归一（全角转半角等）、合并连续空白并去除首尾空白
+     *
+     * @param query 查询文本
+     * @return 规范化后的查询文本
+     */
+    public static String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC);
+        return WHITESPACE_PATTERN.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * 计算规范化查询文本的摘要，避免长查询文本直接作为缓存键占用内存
+     *
+     * @param normalizedQuery 规范化后的查询文本
+     * @return 摘要
+     */
+    public static String digest(String normalizedQuery) {
+        return DigestUtil.sha256Hex(normalizedQuery);
+    }
+
+    /**
+     * 检索结果缓存键
+     *
+     * @param generation  索引代次
+     * @param queryDigest 规范化查询文本摘要
+     * @param filter      元数据过滤条件
+     * @param maxResults  最大返回数量
+     * @param minScore    最低相似度
+     */
+    private record RetrievalKey(long generation, String queryDigest, Filter filter, int maxResults, double minScore) {
+    }
+}
@@ -1,5 +1,6 @@
 package dev.langchain4j.service;
 
+import com.rich.ai.aiTools.ToolExecutionScheduler;
 import dev.langchain4j.Internal;
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.agent.tool.ToolSpecification;
@@ -117,22 +118,26 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         addToMemory(aiMessage);
 
         if (aiMessage.hasToolExecutionRequests()) {
-            for (ToolExecutionRequest toolExecutionRequest : aiMessage.toolExecutionRequests()) {
-                String toolName = toolExecutionRequest.name();
-                ToolExecutor toolExecutor = toolExecutors.get(toolName);
-                String toolExecutionResult = toolExecutor.execute(toolExecutionRequest, memoryId);
-                ToolExecutionResultMessage toolExecutionResultMessage =
-                        ToolExecutionResultMessage.from(toolExecutionRequest, toolExecutionResult);
-                addToMemory(toolExecutionResultMessage);
-
-                if (toolExecutionHandler != null) {
-                    ToolExecution toolExecution = ToolExecution.builder()
-                            .request(toolExecutionRequest)
-                            .result(toolExecutionResult)
-                            .build();
-                    toolExecutionHandler.accept(toolExecution);
-                }
-            }
+            // 互不冲突的工具调用并发执行，执行结果按请求顺序写入记忆
+            ToolExecutionScheduler.getDefault().executeAll(
+                    aiMessage.toolExecutionRequests(),
+                    toolExecutionRequest -> {
+                        ToolExecutor toolExecutor = toolExecutors.get(toolExecutionRequest.name());
+                        return toolExecutor.execute(toolExecutionRequest, memoryId);
+                    },
+                    (toolExecutionRequest, toolExecutionResult) -> {
+                        ToolExecutionResultMessage toolExecutionResultMessage =
+                                ToolExecutionResultMessage.from(toolExecutionRequest, toolExecutionResult);
+                        addToMemory(toolExecutionResultMessage);
+
+                        if (toolExecutionHandler != null) {
+                            ToolExecution toolExecution = ToolExecution.builder()
+                                    .request(toolExecutionRequest)
+                                    .result(toolExecutionResult)
+                                    .build();
+                            toolExecutionHandler.accept(toolExecution);
+                        }
+                    });
 
             ChatRequest chatRequest = ChatRequest.builder()
                     .messages(messagesToSend(memoryId))
@@ -16,4 +16,12 @@ public interface InnerSystemPromptService {
      * @return 提示词内容，若不存在则返回 null
      */
     String getPromptContentByKey(String promptKey);
+
+    /**
+     * 获取系统提示词版本号
+     * 管理后台每次新增、修改、删除提示词后版本号都会变化，调用方据此判断本地缓存是否需要失效
+     *
+     * @return 版本号（仅比较是否相等，不保证单调递增）
+     */
+    long getPromptVersion();
 }
@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static com.rich.common.constant.UserConstant.ADMIN_ROLE;
 import static com.rich.common.constant.UserConstant.USER_LOGIN_STATE;
@@ -63,6 +64,15 @@ public interface InnerUserService {
      **/
     List<User> listByIds(Collection<? extends Serializable> ids);
 
+    /**
+     * 批量获取脱敏后的用户信息
+     * 一次远程调用返回全部用户，列表场景避免逐条调用 getById + getUserVO
+     *
+     * @param ids 用户 ID 集合
+     * @return 用户 ID -> 脱敏用户信息（不存在的用户不包含在内，永远非null）
+     **/
+    Map<Long, UserVO> getUserVOMapByIds(Collection<Long> ids);
+
     /**
      * 获取用户信息
      *
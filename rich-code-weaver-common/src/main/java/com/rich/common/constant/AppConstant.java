@@ -38,6 +38,16 @@ public interface AppConstant {
      */
     String APP_SCREENSHOT_DIR = System.getProperty("user.dir") + "/sysCache/screenshots";
 
+    /**
+     * Web 工程构建缓存目录（依赖与构建产物）
+     */
+    String NPM_BUILD_CACHE_DIR = System.getProperty("user.dir") + "/sysCache/npm_build_cache";
+
+    /**
+     * 代码下载压缩包缓存目录
+     */
+    String CODE_ZIP_CACHE_DIR = System.getProperty("user.dir") + "/sysCache/code_zip_cache";
+
     /**
      * 产物部署域名
      */
@@ -38,6 +38,11 @@ public final class RagConstant {
      */
     public static final String METADATA_TITLE = "title";
 
+    /**
+     * 文档元数据 docId 键（文档的稳定标识，用于增量索引比对）
+     */
+    public static final String METADATA_DOC_ID = "docId";
+
     /**
      * 最大分段长度参数 key
      */
@@ -98,6 +103,11 @@ public final class RagConstant {
      */
     public static final String RAG_REINDEX_SUCCESS_MESSAGE = "向量库重新索引完成，已同步最新知识库文档";
 
+    /**
+     * RAG 增量同步索引成功提示
+     */
+    public static final String RAG_SYNC_SUCCESS_MESSAGE = "向量库增量同步完成";
+
     /**
      * 默认最大分段长度
      */
@@ -2,18 +2,22 @@ package com.rich.common.utils.deployWebProjectUtils;
 
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static com.rich.common.utils.deployWebProjectUtils.ExecuteSysCommandUtil.executeNpmCommand;
 
 /**
  * 打包构建 web 工程项目执行器
+ * 构建前查询 NpmBuildCache：源码未变化时直接恢复 dist，依赖声明相同时复用已安装的 node_modules
  *
  * @author DuRuiChi
  * @create 2025/12/29
@@ -31,6 +35,16 @@ public class BuildWebProjectExecutor {
      */
     private static final int MAX_RETRIES = 3;
 
+    /**
+     * 构建阶段名称
+     */
+    public static final String PHASE_INSTALL = "npm install";
+
+    public static final String PHASE_BUILD = "npm run build";
+
+    @Resource
+    private NpmBuildCache npmBuildCache;
+
     /**
      * 异步打包构建项目（Npm 包管理器下的前端 Web 工程项目）
      *
@@ -64,6 +78,18 @@ public class BuildWebProjectExecutor {
      * @return BuildResult 包含是否成功、阶段信息和详细日志
      */
     public BuildResult buildProjectWithLog(String projectPath) {
+        return buildProjectWithLog(projectPath, phase -> {
+        });
+    }
+
+    /**
+     * 同步构建项目并返回详细结果日志
+     *
+     * @param projectPath  项目路径
+     * @param phaseStarted 阶段开始回调（PHASE_INSTALL / PHASE_BUILD），命中缓存而跳过的阶段不回调
+     * @return BuildResult 包含是否成功、阶段信息和详细日志
+     */
+    public BuildResult buildProjectWithLog(String projectPath, Consumer<String> phaseStarted) {
         File projectDir = validateProject(projectPath);
         if (projectDir == null) {
             return new BuildResult(false, "install", "项目目录不存在或缺少 package.json: " + projectPath);
@@ -72,24 +98,35 @@ public class BuildWebProjectExecutor {
         log.info("开始带日志的构建，项目路径: {}", projectPath);
         ensureEsmConfig(projectDir);
 
-        String npmCmd = System.getProperty("os.name").toLowerCase().contains("win") ? "npm.cmd install" : "npm install";
-        ExecuteSysCommandUtil.CommandResult installResult =
-                ExecuteSysCommandUtil.executeCommandWithLog(projectDir, npmCmd, 300);
-        if (!installResult.success()) {
-            return new BuildResult(false, "npm install", installResult.log());
+        Path projectRoot = projectDir.toPath();
+        String sourceKey = npmBuildCache.sourceKey(projectRoot);
+        if (npmBuildCache.restoreOutput(projectRoot, sourceKey)) {
+            return new BuildResult(true, "完成", "源码未变化，已复用缓存的构建产物：" + projectPath + "/dist");
         }
 
-        String buildCmd = System.getProperty("os.name").toLowerCase().contains("win") ? "npm.cmd run build" : "npm run build";
+        String dependencyKey = npmBuildCache.dependencyKey(projectRoot);
+        if (!npmBuildCache.restoreDependencies(projectRoot, dependencyKey)) {
+            phaseStarted.accept(PHASE_INSTALL);
+            ExecuteSysCommandUtil.CommandResult installResult =
+                    ExecuteSysCommandUtil.executeCommandWithLog(projectDir, npmCommand(npmBuildCache.installArgs()), 300);
+            if (!installResult.success()) {
+                return new BuildResult(false, PHASE_INSTALL, installResult.log());
+            }
+            npmBuildCache.storeDependencies(projectRoot, dependencyKey);
+        }
+
+        phaseStarted.accept(PHASE_BUILD);
         ExecuteSysCommandUtil.CommandResult buildResult =
-                ExecuteSysCommandUtil.executeCommandWithLog(projectDir, buildCmd, 300);
+                ExecuteSysCommandUtil.executeCommandWithLog(projectDir, npmCommand("run build"), 300);
         if (!buildResult.success()) {
-            return new BuildResult(false, "npm run build", buildResult.log());
+            return new BuildResult(false, PHASE_BUILD, buildResult.log());
         }
 
         boolean distExists = verifyDistDirectory(projectDir);
         if (!distExists) {
             return new BuildResult(false, "dist验证", "构建命令执行成功但未找到 dist 目录，请检查 vite.config.js 的 outDir 配置");
         }
+        npmBuildCache.storeOutput(projectRoot, sourceKey);
 
         return new BuildResult(true, "完成", "构建成功！dist 目录已生成：" + projectPath + "/dist");
     }
@@ -117,20 +154,35 @@ public class BuildWebProjectExecutor {
         // 步骤2：确保 package.json 中配置了 ESM 模块类型
         ensureEsmConfig(projectDir);
 
-        // 步骤3：执行 npm install 安装依赖（最多重试 3 次）
-        if (!executeNpmCommand(projectDir, "install", MAX_RETRIES)) {
-            log.error("依赖安装失败，已重试 {} 次", MAX_RETRIES);
-            return false;
+        // 步骤3：源码未变化时直接恢复缓存的构建产物
+        Path projectRoot = projectDir.toPath();
+        String sourceKey = npmBuildCache.sourceKey(projectRoot);
+        if (npmBuildCache.restoreOutput(projectRoot, sourceKey)) {
+            return true;
+        }
+
+        // 步骤4：依赖缓存未命中时执行 npm install 安装依赖（最多重试 3 次）
+        String dependencyKey = npmBuildCache.dependencyKey(projectRoot);
+        if (!npmBuildCache.restoreDependencies(projectRoot, dependencyKey)) {
+            if (!executeNpmCommand(projectDir, npmBuildCache.installArgs(), MAX_RETRIES)) {
+                log.error("依赖安装失败，已重试 {} 次", MAX_RETRIES);
+                return false;
+            }
+            npmBuildCache.storeDependencies(projectRoot, dependencyKey);
         }
 
-        // 步骤4：执行 npm run build 构建项目（最多重试 3 次）
+        // 步骤5：执行 npm run build 构建项目（最多重试 3 次）
         if (!executeNpmCommand(projectDir, "run build", MAX_RETRIES)) {
             log.error("项目打包构建失败，已重试 {} 次", MAX_RETRIES);
             return false;
         }
 
-        // 步骤5：验证构建输出目录是否生成
-        return verifyDistDirectory(projectDir);
+        // 步骤6：验证构建输出目录是否生成，并写入构建产物缓存
+        if (!verifyDistDirectory(projectDir)) {
+            return false;
+        }
+        npmBuildCache.storeOutput(projectRoot, sourceKey);
+        return true;
     }
 
     /**
@@ -191,6 +243,13 @@ public class BuildWebProjectExecutor {
         return false;
     }
 
+    /**
+     * 根据平台系统拼装 npm 命令
+     */
+    private static String npmCommand(String args) {
+        return (System.getProperty("os.name").toLowerCase().contains("win") ? "npm.cmd " : "npm ") + args;
+    }
+
     private void ensureEsmConfig(File projectDir) {
         try {
             // 读取 package.json 文件
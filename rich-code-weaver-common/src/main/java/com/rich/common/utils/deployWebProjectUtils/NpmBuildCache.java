@@ -0,0 +1,419 @@
+package com.rich.common.utils.deployWebProjectUtils;
+
+import cn.hutool.core.util.StrUtil;
+import com.rich.common.constant.AppConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Web 工程构建缓存（内容寻址）
+ * 1. 依赖缓存：以 package.json 与 lockfile 的哈希为键保存 node_modules，不同产物的相同依赖声明共用，命中时跳过 npm install；
+ * 2. 产物缓存：以源码树（不含 node_modules、dist）的哈希为键保存 dist，源码未变化的项目直接恢复 dist，跳过安装与构建。
+ * node_modules 以硬链接方式与缓存共享（跨文件系统时退化为复制），dist 体积小且会被后续构建覆盖，直接复制；
+ * 写入缓存时先写入临时目录再原子重命名，并发构建不会读到写了一半的条目；
+ * 配置本地包镜像目录后 npm install 以离线模式运行，只从该目录读取依赖包
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class NpmBuildCache {
+
+    /**
+     * 依赖缓存标记文件：存在于 node_modules 中表示其文件与缓存条目共享，重新安装前需整体删除；
+     * 内容为该依赖树对应的依赖哈希（每行一个）
+     */
+    static final String CACHE_KEY_FILE = ".build-cache-key";
+
+    private static final String NODE_MODULES_DIR = "node_modules";
+
+    private static final String DIST_DIR = "dist";
+
+    private static final String DEPENDENCY_CACHE_DIR = "deps";
+
+    private static final String OUTPUT_CACHE_DIR = "dist";
+
+    private static final String LOCK_FILE = "package-lock.json";
+
+    /**
+     * 计算源码哈希时跳过的目录与文件（构建产物、依赖及由安装生成的 lockfile）
+     */
+    private static final Set<String> SOURCE_EXCLUDES = Set.of(NODE_MODULES_DIR, DIST_DIR, ".git", LOCK_FILE);
+
+    /**
+     * 是否启用构建缓存
+     */
+    @Value("${npm-build-cache.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * 缓存根目录，为空时使用 AppConstant.NPM_BUILD_CACHE_DIR
+     */
+    @Value("${npm-build-cache.root-dir:}")
+    private String rootDir = "";
+
+    /**
+     * 本地包镜像目录（npm 缓存目录），配置后 npm install 只从该目录离线安装
+     */
+    @Value("${npm-build-cache.offline-mirror-dir:}")
+    private String offlineMirrorDir = "";
+
+    /**
+     * 保留的依赖缓存条目数
+     */
+    @Value("${npm-build-cache.max-dependency-entries:20}")
+    private int maxDependencyEntries = 20;
+
+    /**
+     * 保留的构建产物缓存条目数
+     */
+    @Value("${npm-build-cache.max-output-entries:200}")
+    private int maxOutputEntries = 200;
+
+    /**
+     * 组装 npm install 的参数（配置本地包镜像时以离线模式运行）
+     */
+    public String installArgs() {
+        if (StrUtil.isBlank(offlineMirrorDir)) {
+            return "install";
+        }
+        return "install --offline --no-audit --no-fund --cache \"" + Paths.get(offlineMirrorDir).toAbsolutePath() + "\"";
+    }
+
+    /**
+     * 计算依赖哈希（package.json + package-lock.json）
+     *
+     * @return 哈希值，缓存未启用或计算失败时返回 null
+     */
+    public String dependencyKey(Path projectDir) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            MessageDigest digest = sha256();
+            for (String name : List.of("package.json", LOCK_FILE)) {
+                Path file = projectDir.resolve(name);
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                if (Files.isRegularFile(file)) {
+                    digest.update(Files.readAllBytes(file));
+                }
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            log.warn("计算依赖哈希失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 计算源码哈希（按相对路径排序后依次计入路径与文件内容）
+     *
+     * @return 哈希值，缓存未启用或计算失败时返回 null
+     */
+    public String sourceKey(Path projectDir) {
+        if (!enabled) {
+            return null;
+        }
+        try (Stream<Path> files = Files.walk(projectDir)) {
+            List<Path> sources = files
+                    .filter(path -> !isExcludedSource(projectDir.relativize(path)))
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(path -> projectDir.relativize(path).toString().replace('\\', '/')))
+                    .toList();
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[8192];
+            for (Path file : sources) {
+                digest.update(projectDir.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(Files.size(file)).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                try (InputStream in = Files.newInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            log.warn("计算源码哈希失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 从缓存恢复 node_modules
+     *
+     * @return 是否命中（命中时无需 npm install）
+     */
+    public boolean restoreDependencies(Path projectDir, String dependencyKey) {
+        if (dependencyKey == null) {
+            return false;
+        }
+        Path nodeModules = projectDir.resolve(NODE_MODULES_DIR);
+        try {
+            if (readCacheKeys(nodeModules).contains(dependencyKey)) {
+                return true;
+            }
+            Path entry = cacheDir(DEPENDENCY_CACHE_DIR).resolve(dependencyKey);
+            if (!Files.isDirectory(entry)) {
+                // 未命中：与缓存共享文件的旧依赖不能交给 npm 原地修改，删除后重新安装
+                if (!readCacheKeys(nodeModules).isEmpty()) {
+                    deleteTree(nodeModules);
+                }
+                return false;
+            }
+            deleteTree(nodeModules);
+            copyTree(entry, nodeModules, true);
+            touch(entry);
+            log.info("依赖缓存命中，跳过 npm install: {}", projectDir);
+            return true;
+        } catch (IOException e) {
+            log.warn("恢复依赖缓存失败，回退为 npm install: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 将安装完成的 node_modules 写入缓存
+     * npm install 可能生成或更新 lockfile，依赖树同时以安装前后的依赖哈希保存：
+     * 相同 package.json 的新项目按安装前的哈希命中，已安装过的项目按安装后的哈希命中
+     *
+     * @param keyBeforeInstall 安装前计算的依赖哈希
+     */
+    public void storeDependencies(Path projectDir, String keyBeforeInstall) {
+        if (keyBeforeInstall == null) {
+            return;
+        }
+        Path nodeModules = projectDir.resolve(NODE_MODULES_DIR);
+        if (!Files.isDirectory(nodeModules)) {
+            return;
+        }
+        String keyAfterInstall = dependencyKey(projectDir);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(keyBeforeInstall);
+        if (keyAfterInstall != null) {
+            keys.add(keyAfterInstall);
+        }
+        try {
+            // 写入后项目与缓存共享文件，项目侧同样带有标记（先删除再写入，不修改可能与缓存共享的旧文件）
+            Files.deleteIfExists(nodeModules.resolve(CACHE_KEY_FILE));
+            Files.writeString(nodeModules.resolve(CACHE_KEY_FILE), String.join("\n", keys), StandardCharsets.UTF_8);
+            boolean stored = false;
+            for (String key : keys) {
+                stored |= store(DEPENDENCY_CACHE_DIR, key, nodeModules, true);
+            }
+            if (stored) {
+                prune(DEPENDENCY_CACHE_DIR, maxDependencyEntries);
+            }
+        } catch (IOException e) {
+            log.warn("写入依赖缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从缓存恢复 dist
+     *
+     * @return 是否命中（命中时无需安装与构建）
+     */
+    public boolean restoreOutput(Path projectDir, String sourceKey) {
+        if (sourceKey == null) {
+            return false;
+        }
+        Path entry = cacheDir(OUTPUT_CACHE_DIR).resolve(sourceKey);
+        if (!Files.isDirectory(entry)) {
+            return false;
+        }
+        try {
+            Path dist = projectDir.resolve(DIST_DIR);
+            deleteTree(dist);
+            copyTree(entry, dist, false);
+            touch(entry);
+            log.info("构建产物缓存命中，跳过安装与构建: {}", projectDir);
+            return true;
+        } catch (IOException e) {
+            log.warn("恢复构建产物缓存失败，回退为完整构建: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 将构建生成的 dist 写入缓存
+     *
+     * @param sourceKey 构建前计算的源码哈希
+     */
+    public void storeOutput(Path projectDir, String sourceKey) {
+        if (sourceKey == null) {
+            return;
+        }
+        Path dist = projectDir.resolve(DIST_DIR);
+        if (!Files.isDirectory(dist)) {
+            return;
+        }
+        try {
+            if (store(OUTPUT_CACHE_DIR, sourceKey, dist, false)) {
+                prune(OUTPUT_CACHE_DIR, maxOutputEntries);
+            }
+        } catch (IOException e) {
+            log.warn("写入构建产物缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 写入缓存条目：先复制到临时目录再原子重命名，已存在时丢弃
+     *
+     * @return 是否新增了条目
+     */
+    private boolean store(String level, String key, Path source, boolean hardLink) throws IOException {
+        Path dir = cacheDir(level);
+        Path entry = dir.resolve(key);
+        if (Files.isDirectory(entry)) {
+            return false;
+        }
+        Files.createDirectories(dir);
+        Path staging = dir.resolve(".tmp-" + key + "-" + UUID.randomUUID());
+        try {
+            copyTree(source, staging, hardLink);
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // 并发构建已写入相同条目
+            return false;
+        } catch (IOException e) {
+            if (Files.isDirectory(entry)) {
+                return false;
+            }
+            throw e;
+        } finally {
+            deleteTree(staging);
+        }
+    }
+
+    /**
+     * 按最近使用时间淘汰多余的缓存条目
+     */
+    private void prune(String level, int maxEntries) throws IOException {
+        Path dir = cacheDir(level);
+        List<Path> entries;
+        try (Stream<Path> children = Files.list(dir)) {
+            entries = children
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .sorted(Comparator.comparing(NpmBuildCache::lastModified).reversed())
+                    .toList();
+        }
+        for (Path entry : entries.subList(Math.min(maxEntries, entries.size()), entries.size())) {
+            deleteTree(entry);
+            log.info("淘汰构建缓存条目: {}", entry);
+        }
+    }
+
+    private Path cacheDir(String level) {
+        String root = StrUtil.isBlank(rootDir) ? AppConstant.NPM_BUILD_CACHE_DIR : rootDir;
+        return Paths.get(root, level);
+    }
+
+    private static boolean isExcludedSource(Path relative) {
+        for (Path part : relative) {
+            if (SOURCE_EXCLUDES.contains(part.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> readCacheKeys(Path nodeModules) throws IOException {
+        Path keyFile = nodeModules.resolve(CACHE_KEY_FILE);
+        if (!Files.isRegularFile(keyFile)) {
+            return Set.of();
+        }
+        return Set.copyOf(StrUtil.splitTrim(Files.readString(keyFile, StandardCharsets.UTF_8), '\n'));
+    }
+
+    /**
+     * 复制目录树，符号链接原样重建
+     *
+     * @param hardLink 是否以硬链接代替复制文件（无法创建硬链接时复制）
+     */
+    static void copyTree(Path source, Path target, boolean hardLink) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path dest = target.resolve(source.relativize(path).toString());
+                if (Files.isSymbolicLink(path)) {
+                    Files.createSymbolicLink(dest, Files.readSymbolicLink(path));
+                } else if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(dest);
+                } else if (!hardLink || !tryCreateLink(dest, path)) {
+                    Files.copy(path, dest, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+
+    private static boolean tryCreateLink(Path link, Path existing) {
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            return false;
+        }
+    }
+
+    static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // 仅影响淘汰顺序
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.rich.common.utils.deployWebProjectUtils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Web 工程构建缓存测试
+ * 使用真实的 npm 离线构建（依赖为本地 tarball，包镜像目录为空的 npm 缓存目录），
+ * 通过项目的 postinstall / build 脚本写入的计数文件判断安装与构建是否被跳过
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class NpmBuildCacheTest {
+
+    private static final String PACKAGE_JSON = """
+            {
+              "name": "%s",
+              "version": "1.0.0",
+              "dependencies": {
+                "local-lib": "file:../lib/local-lib-1.0.0.tgz"
+              },
+              "scripts": {
+                "postinstall": "node count.cjs install",
+                "build": "node count.cjs build && node build.cjs"
+              }
+            }
+            """;
+
+    @TempDir
+    Path workDir;
+
+    private BuildWebProjectExecutor executor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        assumeTrue(ExecuteSysCommandUtil.executeCommand(workDir.toFile(), npm("--version"), 30), "npm 不可用");
+
+        // 本地依赖包
+        Path lib = Files.createDirectories(workDir.resolve("lib"));
+        Files.writeString(lib.resolve("package.json"), """
+                {"name": "local-lib", "version": "1.0.0", "main": "index.js"}
+                """);
+        Files.writeString(lib.resolve("index.js"), "module.exports = 'lib';\n");
+        assertTrue(ExecuteSysCommandUtil.executeCommand(lib.toFile(), npm("pack"), 60));
+
+        NpmBuildCache cache = new NpmBuildCache();
+        ReflectionTestUtils.setField(cache, "rootDir", workDir.resolve("cache").toString());
+        ReflectionTestUtils.setField(cache, "offlineMirrorDir",
+                Files.createDirectories(workDir.resolve("mirror")).toString());
+        executor = new BuildWebProjectExecutor();
+        ReflectionTestUtils.setField(executor, "npmBuildCache", cache);
+    }
+
+    /**
+     * 源码未变化时直接恢复 dist，安装与构建均被跳过；源码变化后只重新构建，依赖不重新安装
+     */
+    @Test
+    public void testUnchangedSourceSkipsInstallAndBuild() throws Exception {
+        Path project = createProject("app-1", "hello");
+        List<String> phases = new ArrayList<>();
+
+        BuildWebProjectExecutor.BuildResult first = executor.buildProjectWithLog(project.toString(), phases::add);
+        assertTrue(first.success(), first.log());
+        assertEquals(List.of(BuildWebProjectExecutor.PHASE_INSTALL, BuildWebProjectExecutor.PHASE_BUILD), phases);
+        assertEquals(1, count("install"));
+        assertEquals(1, count("build"));
+        assertEquals("lib:hello", dist(project));
+
+        // 源码未变化：即使 dist 被删除也从缓存恢复
+        phases.clear();
+        deleteDist(project);
+        assertTrue(executor.buildProjectWithLog(project.toString(), phases::add).success());
+        assertEquals(List.of(), phases);
+        assertTrue(executor.buildProject(project.toString()));
+        assertEquals(1, count("install"));
+        assertEquals(1, count("build"));
+        assertEquals("lib:hello", dist(project));
+
+        // 源码变化：重新构建，依赖仍可复用
+        Files.writeString(project.resolve("src/main.txt"), "changed");
+        phases.clear();
+        assertTrue(executor.buildProjectWithLog(project.toString(), phases::add).success());
+        assertEquals(List.of(BuildWebProjectExecutor.PHASE_BUILD), phases);
+        assertEquals(1, count("install"));
+        assertEquals(2, count("build"));
+        assertEquals("lib:changed", dist(project));
+
+        // 恢复为之前的源码：命中之前的构建产物
+        Files.writeString(project.resolve("src/main.txt"), "hello");
+        assertTrue(executor.buildProject(project.toString()));
+        assertEquals(2, count("build"));
+        assertEquals("lib:hello", dist(project));
+    }
+
+    /**
+     * 依赖声明相同的不同项目共用已安装的依赖；依赖声明变化后重新安装
+     */
+    @Test
+    public void testDependenciesAreSharedAcrossProjects() throws Exception {
+        assertTrue(executor.buildProject(createProject("app", "one").toString()));
+        assertEquals(1, count("install"));
+
+        Path second = workDir.resolve("app-2");
+        copyProject(workDir.resolve("app"), second, "two");
+        List<String> phases = new ArrayList<>();
+        assertTrue(executor.buildProjectWithLog(second.toString(), phases::add).success());
+        assertEquals(List.of(BuildWebProjectExecutor.PHASE_BUILD), phases);
+        assertEquals(1, count("install"));
+        assertEquals(2, count("build"));
+        assertEquals("lib:two", dist(second));
+        assertTrue(Files.isRegularFile(second.resolve("node_modules/local-lib/index.js")));
+
+        // 依赖声明变化：重新安装（不修改与缓存共享的依赖文件）
+        Path packageJson = second.resolve("package.json");
+        Files.writeString(packageJson, Files.readString(packageJson).replace("\"1.0.0\"", "\"1.0.1\""));
+        assertTrue(executor.buildProject(second.toString()));
+        assertEquals(2, count("install"));
+        assertEquals(3, count("build"));
+        assertEquals("module.exports = 'lib';\n", Files.readString(workDir.resolve("app/node_modules/local-lib/index.js")));
+    }
+
+    private Path createProject(String name, String source) throws IOException {
+        Path project = Files.createDirectories(workDir.resolve(name));
+        Files.writeString(project.resolve("package.json"), PACKAGE_JSON.formatted(name));
+        // 计数文件写在项目目录之外，不影响源码哈希
+        Files.writeString(project.resolve("count.cjs"), """
+                const fs = require('fs');
+                fs.appendFileSync('../' + process.argv[2] + '.count', 'x');
+                """);
+        Files.writeString(project.resolve("build.cjs"), """
+                const fs = require('fs');
+                fs.mkdirSync('dist', {recursive: true});
+                fs.writeFileSync('dist/index.html', require('local-lib') + ':' + fs.readFileSync('src/main.txt', 'utf8'));
+                """);
+        Files.createDirectories(project.resolve("src"));
+        Files.writeString(project.resolve("src/main.txt"), source);
+        return project;
+    }
+
+    /**
+     * 复制源码（不含依赖与构建产物）得到依赖声明相同的另一个项目
+     */
+    private void copyProject(Path from, Path to, String source) throws IOException {
+        Files.createDirectories(to.resolve("src"));
+        for (String file : List.of("package.json", "count.cjs", "build.cjs")) {
+            Files.copy(from.resolve(file), to.resolve(file));
+        }
+        Files.writeString(to.resolve("src/main.txt"), source);
+    }
+
+    private int count(String phase) throws IOException {
+        Path file = workDir.resolve(phase + ".count");
+        return Files.exists(file) ? Files.readString(file).length() : 0;
+    }
+
+    private static String dist(Path project) throws IOException {
+        return Files.readString(project.resolve("dist/index.html"), StandardCharsets.UTF_8);
+    }
+
+    private static void deleteDist(Path project) throws IOException {
+        NpmBuildCache.deleteTree(project.resolve("dist"));
+    }
+
+    private static String npm(String args) {
+        return (System.getProperty("os.name").toLowerCase().contains("win") ? "npm.cmd " : "npm ") + args;
+    }
+}
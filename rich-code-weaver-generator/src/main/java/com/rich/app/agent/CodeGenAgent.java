@@ -1,7 +1,7 @@
 package com.rich.app.agent;
 
-import cn.hutool.core.util.StrUtil;
 import com.rich.ai.agent.AiCodeGenAgentService;
+import com.rich.ai.model.msgResponse.StreamMsgResponse;
 import com.rich.app.factory.AiCodeGenAgentServiceFactory;
 import com.rich.app.service.ChatHistoryService;
 import com.rich.app.utils.ConvertTokenStreamToFluxUtils.ConvertAgentTokenStreamToFluxUtils;
@@ -20,8 +20,8 @@ import reactor.core.publisher.Flux;
  * 调用链：
  * CodeGenAgent.executeAgent()
  *   → AiCodeGenAgentService.chatStream()  [Langchain4j 内部处理 ReAct 循环]
- *   → ConvertAgentTokenStreamToFluxUtils  [TokenStream → Flux<String>]
- *   → JsonStreamHandler                   [Flux<String> → SSE 事件]
+ *   → ConvertAgentTokenStreamToFluxUtils  [TokenStream → Flux<StreamMsgResponse>]
+ *   → JsonStreamHandler                   [Flux<StreamMsgResponse> → SSE 事件]
  *
  * 说明：
  * - Langchain4j AiServices 内部完整处理 ReAct 循环（Think → Act → Observe → Think...）
@@ -67,12 +67,12 @@ public class CodeGenAgent {
         // 2. 调用 Langchain4j AiServices（框架内部托管完整 ReAct 循环）
         TokenStream tokenStream = agentService.chatStream(userMessage, appId);
 
-        // 3. 将 TokenStream 转换为 Flux<String>
-        Flux<String> agentFlux = convertAgentTokenStreamToFluxUtils.convertTokenStreamToFlux(tokenStream, appId);
+        // 3. 将 TokenStream 转换为类型化消息流
+        Flux<StreamMsgResponse> agentFlux = convertAgentTokenStreamToFluxUtils.convertTokenStreamToFlux(tokenStream, appId);
 
-        // 4. 通过 JsonStreamHandler 解析 JSON 消息块，封装为 SSE 事件（同时保存对话历史）
+        // 4. 通过 JsonStreamHandler 解析消息，封装为 SSE 事件（同时保存对话历史）
         return jsonStreamHandler.handleStream(
-                agentFlux.filter(StrUtil::isNotEmpty),
+                agentFlux,
                 chatHistoryService,
                 appId,
                 userId
@@ -1,5 +1,6 @@
 package com.rich.app.aop;
 
+import com.rich.app.utils.rateLimit.DistributedRateLimiter;
 import com.rich.client.innerService.InnerUserService;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
@@ -12,21 +13,15 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.redisson.api.RRateLimiter;
-import org.redisson.api.RateIntervalUnit;
-import org.redisson.api.RateType;
-import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.lang.reflect.Method;
-import java.time.Duration;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 限制接口的请求速率的切面类
- * 基于Redisson实现分布式限流，支持按用户、IP、API三种维度进行限流
+ * 基于 Redis 滑动窗口实现分布式限流（本地令牌桶预检），支持按用户、IP、API三种维度进行限流
  *
  * @author DuRuiChi
  * @since 2026-03-08
@@ -36,18 +31,10 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class RateLimitInterceptor {
     /**
-     * 默认的限流器过期时间（小时）
-     */
-    private static final long DEFAULT_EXPIRE_HOURS = 1L;
-    /**
-     * 获取令牌的最大等待时间（毫秒）
-     */
-    private static final long ACQUIRE_TIMEOUT_MS = 100L;
-    /**
-     * 获取分布式限流器
+     * 分布式限流器
      */
     @Resource
-    private RedissonClient redissonClient;
+    private DistributedRateLimiter distributedRateLimiter;
 
     /**
      * 限制接口的请求速率的切面方法，防止系统过载
@@ -100,36 +87,17 @@ public class RateLimitInterceptor {
      * @author DuRuiChi
      */
     private void executeRateLimiting(String key, RateLimit rateLimit, JoinPoint joinPoint) {
-        // 获取 Redisson 分布式限流器实例
-        RRateLimiter rateLimiter = redissonClient.getRateLimiter(key);
-
         try {
-            // 设置限流器的过期时间（防止Redis中的key永久存在）
-            boolean expireSet = rateLimiter.expire(Duration.ofHours(DEFAULT_EXPIRE_HOURS));
-            if (!expireSet) {
-                log.warn("限流器过期时间设置失败: {}", key);
-            }
-
-            // 设置限流规则：作用范围(OVERALL)、窗口时间内的最大请求数、窗口时间、时间单位(秒)
-            boolean rateSet = rateLimiter.trySetRate(
-                    RateType.OVERALL,
-                    rateLimit.rate(),
-                    rateLimit.window(),
-                    RateIntervalUnit.SECONDS);
-            if (!rateSet) {
-                log.warn("限流规则设置失败，限流key: {}", key);
-            }
-
-            // 尝试获取一个令牌，设置超时时间避免长时间阻塞
-            boolean available = rateLimiter.tryAcquire(1, ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            // 判断与扣减在一次 Redis 往返中原子完成，明显超限的调用方由本地预检直接拒绝
+            boolean available = distributedRateLimiter.tryAcquire(key, rateLimit.rate(), rateLimit.window());
             if (!available) {
-                // 获取令牌失败，说明请求过于频繁，触发限流
+                // 获取许可失败，说明请求过于频繁，触发限流
                 log.warn("接口 {} 被限流，限流key: {}", joinPoint.getSignature().getName(), key);
                 throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "接口访问过于频繁，请稍后再试");
             }
 
         } catch (Exception e) {
-            // 处理 Redisson 操作异常
+            // 处理 Redis 操作异常
             if (e instanceof BusinessException) {
                 // 业务异常直接向上抛出
                 throw (BusinessException) e;
@@ -22,10 +22,9 @@ import com.rich.model.entity.User;
 import com.rich.model.vo.AppVO;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.apache.dubbo.config.annotation.DubboReference;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -118,16 +117,16 @@ public class AppController {
      * 预览指定产物
      * URL：/api/app/{appId}[/{fileName}]
      *
-     * @param appId   产物浏览标识，用于定位产物输出目录
-     * @param request 请求对象
-     * @return 产物资源
+     * @param appId    产物浏览标识，用于定位产物输出目录
+     * @param request  请求对象
+     * @param response 响应对象
      * @author DuRuiChi
      * @create 2026/8/9
      **/
     @GetMapping("/view/{appId}/**")
-    public ResponseEntity<FileSystemResource> viewApp(@PathVariable Long appId, HttpServletRequest request) {
+    public void viewApp(@PathVariable Long appId, HttpServletRequest request, HttpServletResponse response) {
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "产物ID无效");
-        return appService.serverStaticResource(appId, request);
+        appService.serverStaticResource(appId, request, response);
     }
 
     /**
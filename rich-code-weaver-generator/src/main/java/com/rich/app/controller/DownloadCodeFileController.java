@@ -6,6 +6,7 @@ import com.rich.common.exception.ErrorCode;
 import com.rich.common.exception.ThrowUtils;
 import com.rich.model.entity.App;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -29,15 +30,17 @@ public class DownloadCodeFileController {
 
     /**
      * 下载代码文件
+     * 支持 ETag / If-None-Match 条件请求与 Range 断点续传
      *
      * @param appId    产物 ID
+     * @param request  请求对象
      * @param response 响应对象
      * @author DuRuiChi
      */
 //    @RateLimit(type = RateLimitTypeEnum.API, rate = 30, window = 10)
     @GetMapping("/code/zip/{appId}")
     public void downloadCodeZipFile(@PathVariable Long appId,
-//                                    HttpServletRequest request,
+                                    HttpServletRequest request,
                                     HttpServletResponse response) {
         // 参数校验：验证产物ID有效性
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "产物ID无效");
@@ -53,6 +56,6 @@ public class DownloadCodeFileController {
 //                ErrorCode.NO_AUTH_ERROR, "您无权下载此代码");
 
         // 执行代码文件下载（打包为ZIP并通过HTTP响应返回）
-        downloadCodeFileService.downloadCodeZipFile(targetApp, response);
+        downloadCodeFileService.downloadCodeZipFile(targetApp, request, response);
     }
 }
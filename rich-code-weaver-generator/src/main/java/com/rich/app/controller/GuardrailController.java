@@ -0,0 +1,70 @@
+package com.rich.app.controller;
+
+import com.rich.ai.guardrail.SensitiveWordCategoryEnum;
+import com.rich.app.utils.guardrail.SensitiveWordReloader;
+import com.rich.common.constant.UserConstant;
+import com.rich.common.exception.BusinessException;
+import com.rich.common.exception.ErrorCode;
+import com.rich.common.exception.ThrowUtils;
+import com.rich.common.model.BaseResponse;
+import com.rich.common.utils.ResultUtils;
+import com.rich.model.annotation.AuthCheck;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 输入护轨管理接口
+ * 修改敏感词后所有节点在一个轮询间隔内重新加载，无需重启
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+@RestController
+@RequestMapping("/generator/guardrail")
+public class GuardrailController {
+
+    @Resource
+    private SensitiveWordReloader sensitiveWordReloader;
+
+    /**
+     * 覆盖指定类别的敏感词（管理员）
+     * 请求体为 类别名（如 PROMPT_INJECTION） -> 敏感词列表，未包含的类别保持不变
+     */
+    @PostMapping("/sensitive-words/update")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Boolean> updateSensitiveWords(@RequestBody Map<String, List<String>> wordsByCategory) {
+        ThrowUtils.throwIf(wordsByCategory == null || wordsByCategory.isEmpty(), ErrorCode.PARAMS_ERROR);
+        Map<SensitiveWordCategoryEnum, List<String>> words = new EnumMap<>(SensitiveWordCategoryEnum.class);
+        wordsByCategory.forEach((categoryName, categoryWords) -> {
+            ThrowUtils.throwIf(categoryWords == null, ErrorCode.PARAMS_ERROR, "敏感词列表不能为空: " + categoryName);
+            try {
+                words.put(SensitiveWordCategoryEnum.valueOf(categoryName), categoryWords);
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "未知的敏感词类别: " + categoryName);
+            }
+        });
+        log.info("【输入护轨】管理员修改敏感词类别: {}", words.keySet());
+        sensitiveWordReloader.update(words);
+        return ResultUtils.success(true);
+    }
+
+    /**
+     * 恢复内置敏感词表（管理员）
+     */
+    @PostMapping("/sensitive-words/reset")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Boolean> resetSensitiveWords() {
+        log.info("【输入护轨】管理员恢复内置敏感词表");
+        sensitiveWordReloader.reset();
+        return ResultUtils.success(true);
+    }
+}
@@ -1,7 +1,9 @@
 package com.rich.app.controller;
 
+import com.rich.app.langGraph.metrics.WorkflowMetrics;
 import com.rich.common.model.BaseResponse;
 import com.rich.common.utils.ResultUtils;
+import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,6 +18,9 @@ import java.util.Map;
 @RequestMapping("/generator/app/health")
 public class HealthController {
 
+    @Resource
+    private WorkflowMetrics workflowMetrics;
+
     @GetMapping("/check")
     public BaseResponse<Map<String, Object>> healthCheck() {
         Map<String, Object> result = new HashMap<>();
@@ -24,4 +29,12 @@ public class HealthController {
         result.put("timestamp", System.currentTimeMillis());
         return ResultUtils.success(result);
     }
+
+    /**
+     * 工作流编译与运行耗时概览（编译耗时只在启动时产生，运行耗时按工作流和结果状态分别统计）
+     */
+    @GetMapping("/workflow")
+    public BaseResponse<Map<String, Object>> workflowStats() {
+        return ResultUtils.success(workflowMetrics.snapshot());
+    }
 }
@@ -3,6 +3,8 @@ package com.rich.app.controller;
 import cn.hutool.core.bean.BeanUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.rich.ai.rag.RagDocumentIndexCreationService;
+import com.rich.ai.rag.RagIndexStatus;
+import com.rich.ai.rag.RagIndexSyncResult;
 import com.rich.app.service.RagDocumentService;
 import com.rich.common.constant.RagConstant;
 import com.rich.common.constant.UserConstant;
@@ -132,24 +134,41 @@ public class RagDocumentController {
 
     /**
      * 手动触发向量库重新索引（管理员）
-     * 清空现有向量数据，重新从数据库读取所有启用文档并写入 PGVector
-     * 适用于：文档内容更新、新增/删除文档后需要同步向量库
+     * 默认增量同步：只重新向量化新增、变化文档中的新片段，并移除已删除文档的片段
+     * full=true 时清空现有向量数据，重新写入所有启用文档（如更换 Embedding 模型后）
      */
     @PostMapping("/reindex")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
-    public BaseResponse<String> reindexAll() {
+    public BaseResponse<String> reindexAll(@RequestParam(defaultValue = "false") boolean full) {
         ThrowUtils.throwIf(ragDocumentIndexCreationService == null,
                 ErrorCode.OPERATION_ERROR, RagConstant.RAG_DISABLED_MESSAGE);
         try {
-            log.info("【RAG 重新索引】管理员手动触发向量库重新索引...");
-            ragDocumentIndexCreationService.reindexAll();
-            return ResultUtils.success(RagConstant.RAG_REINDEX_SUCCESS_MESSAGE);
+            if (full) {
+                log.info("【RAG 重新索引】管理员手动触发向量库全量重新索引...");
+                ragDocumentIndexCreationService.reindexAll();
+                return ResultUtils.success(RagConstant.RAG_REINDEX_SUCCESS_MESSAGE);
+            }
+            log.info("【RAG 重新索引】管理员手动触发向量库增量同步...");
+            RagIndexSyncResult result = ragDocumentIndexCreationService.syncIndex();
+            return ResultUtils.success(buildSyncSuccessMessage(result));
         } catch (Exception e) {
             log.error("【RAG 重新索引】重新索引失败: {}", e.getMessage(), e);
             throw new BusinessException(ErrorCode.OPERATION_ERROR, buildReindexFailedMessage(e));
         }
     }
 
+    /**
+     * 查询向量库索引状态（管理员）
+     * 只读取索引清单，不调用 Embedding 模型
+     */
+    @GetMapping("/index/status")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<RagIndexStatus> getIndexStatus() {
+        ThrowUtils.throwIf(ragDocumentIndexCreationService == null,
+                ErrorCode.OPERATION_ERROR, RagConstant.RAG_DISABLED_MESSAGE);
+        return ResultUtils.success(ragDocumentIndexCreationService.getIndexStatus());
+    }
+
     /**
      * 按 ID 查询知识库文档，不存在时抛异常
      *
@@ -172,6 +191,21 @@ public class RagDocumentController {
         return "重新索引失败：" + e.getMessage();
     }
 
+    /**
+     * 组装增量同步成功提示
+     *
+     * @param result 同步结果，文档来源不可用时为 null
+     * @return 成功提示
+     */
+    private String buildSyncSuccessMessage(RagIndexSyncResult result) {
+        if (result == null) {
+            return RagConstant.RAG_SYNC_SUCCESS_MESSAGE;
+        }
+        return String.format("%s：新增 %d 个、更新 %d 个、删除 %d 个、未变化 %d 个文档，向量化 %d 个片段",
+                RagConstant.RAG_SYNC_SUCCESS_MESSAGE, result.getAddedDocuments(), result.getUpdatedDocuments(),
+                result.getRemovedDocuments(), result.getUnchangedDocuments(), result.getEmbeddedSegments());
+    }
+
     /**
      * 构建文档实体
      *
@@ -6,12 +6,12 @@ import com.rich.ai.agent.AiCodeGenAgentService;
 import com.rich.ai.aiTools.ToolsManager;
 import com.rich.ai.rag.RagContentRetrieverAugmentorFactory;
 import com.rich.app.service.ChatHistoryService;
-import com.rich.client.innerService.InnerSystemPromptService;
+import com.rich.app.utils.prompt.SystemPromptCache;
 import com.rich.common.constant.AiServiceConstant;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.common.utils.SpringContextUtil;
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
@@ -21,7 +21,6 @@ import dev.langchain4j.service.AiServices;
 import dev.langchain4j.service.tool.ToolProvider;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 
@@ -64,7 +63,7 @@ public class AiCodeGenAgentServiceFactory {
      * Redis 类型的 ChatMemory 存储
      */
     @Resource
-    private RedisChatMemoryStore redisChatMemoryStore;
+    private ChatMemoryStore redisChatMemoryStore;
 
     /**
      * 对话历史服务，用于从数据库加载历史消息
@@ -73,10 +72,10 @@ public class AiCodeGenAgentServiceFactory {
     private ChatHistoryService chatHistoryService;
 
     /**
-     * 系统提示词内部服务（通过 Dubbo 远程调用 prompt 模块）
+     * 系统提示词本地缓存（按版本号失效，避免每次构建都远程调用 prompt 模块）
      */
-    @DubboReference
-    private InnerSystemPromptService innerSystemPromptService;
+    @Resource
+    private SystemPromptCache systemPromptCache;
 
     /**
      * RAG 检索增强器工厂（可选注入，RAG 未启用时为 null）
@@ -141,7 +140,7 @@ public class AiCodeGenAgentServiceFactory {
      * @return 系统提示词内容
      */
     private String loadAgentSystemPrompt() {
-        String systemPrompt = innerSystemPromptService.getPromptContentByKey(AiServiceConstant.AGENT_SYSTEM_PROMPT_KEY);
+        String systemPrompt = systemPromptCache.getPromptContentByKey(AiServiceConstant.AGENT_SYSTEM_PROMPT_KEY);
         if (systemPrompt == null || systemPrompt.isBlank()) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "未找到 Agent 系统提示词，promptKey=" + AiServiceConstant.AGENT_SYSTEM_PROMPT_KEY + "，请在管理后台配置");
@@ -6,13 +6,13 @@ import com.rich.ai.aiTools.ToolsManager;
 import com.rich.ai.rag.RagContentRetrieverAugmentorFactory;
 import com.rich.ai.service.AiCodeGeneratorService;
 import com.rich.app.service.ChatHistoryService;
-import com.rich.client.innerService.InnerSystemPromptService;
+import com.rich.app.utils.prompt.SystemPromptCache;
 import com.rich.common.constant.AiServiceConstant;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.common.utils.SpringContextUtil;
 import com.rich.model.enums.CodeGeneratorTypeEnum;
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
@@ -23,7 +23,6 @@ import dev.langchain4j.service.AiServices;
 import dev.langchain4j.service.tool.ToolProvider;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 
@@ -84,7 +83,7 @@ public class AiCodeGenWorkflowServiceFactory {
      * Redis 类型的 ChatMemory 存储，用于存储对话历史
      **/
     @Resource
-    private RedisChatMemoryStore redisChatMemoryStore;
+    private ChatMemoryStore redisChatMemoryStore;
 
     /**
      * 对话历史服务，用于从数据库加载和保存对话历史
@@ -93,10 +92,10 @@ public class AiCodeGenWorkflowServiceFactory {
     private ChatHistoryService chatHistoryService;
 
     /**
-     * 系统提示词内部服务（通过 Dubbo 远程调用 prompt 模块）
+     * 系统提示词本地缓存（按版本号失效，避免每次构建都远程调用 prompt 模块）
      **/
-    @DubboReference
-    private InnerSystemPromptService innerSystemPromptService;
+    @Resource
+    private SystemPromptCache systemPromptCache;
 
     /**
      * RAG 知识库检索增强工厂
@@ -202,7 +201,7 @@ public class AiCodeGenWorkflowServiceFactory {
      */
     private String loadSystemPromptContent(CodeGeneratorTypeEnum codeGenTypeEnum) {
         String promptKey = getPromptKeyByCodeGenType(codeGenTypeEnum);
-        String systemPromptContent = innerSystemPromptService.getPromptContentByKey(promptKey);
+        String systemPromptContent = systemPromptCache.getPromptContentByKey(promptKey);
         if (systemPromptContent == null || systemPromptContent.isBlank()) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "未找到系统提示词，promptKey=" + promptKey + "，请在管理后台配置");
@@ -1,14 +1,13 @@
 package com.rich.app.factory;
 
 import com.rich.ai.service.AiCodeGeneratorTypeStrategyService;
-import com.rich.client.innerService.InnerSystemPromptService;
+import com.rich.app.utils.prompt.SystemPromptCache;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.service.AiServices;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,10 +29,10 @@ public class AiCodeGeneratorTypeStrategyServiceFactory {
     private ChatModel codeGeneratorTypeStrategyChatModel;
 
     /**
-     * 系统提示词内部服务（通过 Dubbo 远程调用 prompt 模块）
+     * 系统提示词本地缓存（按版本号失效，避免每次构建都远程调用 prompt 模块）
      **/
-    @DubboReference
-    private InnerSystemPromptService innerSystemPromptService;
+    @Resource
+    private SystemPromptCache systemPromptCache;
 
     /**
      * 创建 AI 代码生成策略选择服务实例
@@ -44,7 +43,7 @@ public class AiCodeGeneratorTypeStrategyServiceFactory {
      */
     @Bean
     public AiCodeGeneratorTypeStrategyService aiCodeGeneratorTypeStrategyService() {
-        String systemPromptContent = innerSystemPromptService.getPromptContentByKey("code-generation-strategy-system-prompt");
+        String systemPromptContent = systemPromptCache.getPromptContentByKey("code-generation-strategy-system-prompt");
         if (systemPromptContent == null || systemPromptContent.isBlank()) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "未找到系统提示词，promptKey=code-generation-strategy-system-prompt，请在管理后台配置");
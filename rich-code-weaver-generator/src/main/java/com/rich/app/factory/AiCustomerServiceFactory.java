@@ -5,13 +5,13 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.rich.ai.rag.RagContentRetrieverAugmentorFactory;
 import com.rich.ai.service.AiCustomerService;
 import com.rich.app.service.CustomerServiceMessageService;
-import com.rich.client.innerService.InnerSystemPromptService;
+import com.rich.app.utils.prompt.SystemPromptCache;
 import com.rich.common.constant.AiServiceConstant;
 import com.rich.common.constant.CustomerServiceConstant;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.common.utils.SpringContextUtil;
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.StreamingChatModel;
@@ -19,7 +19,6 @@ import dev.langchain4j.rag.RetrievalAugmentor;
 import dev.langchain4j.service.AiServices;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 
@@ -49,13 +48,13 @@ public class AiCustomerServiceFactory {
             .build();
 
     @Resource
-    private RedisChatMemoryStore redisChatMemoryStore;
+    private ChatMemoryStore redisChatMemoryStore;
 
     @Resource
     private CustomerServiceMessageService customerServiceMessageService;
 
-    @DubboReference
-    private InnerSystemPromptService innerSystemPromptService;
+    @Resource
+    private SystemPromptCache systemPromptCache;
 
     @Autowired(required = false)
     private RagContentRetrieverAugmentorFactory ragContentRetrieverAugmentorFactory;
@@ -110,7 +109,7 @@ public class AiCustomerServiceFactory {
      * @return 系统提示词内容
      */
     private String loadCustomerServicePrompt() {
-        String systemPrompt = innerSystemPromptService.getPromptContentByKey(CustomerServiceConstant.CUSTOMER_SERVICE_PROMPT_KEY);
+        String systemPrompt = systemPromptCache.getPromptContentByKey(CustomerServiceConstant.CUSTOMER_SERVICE_PROMPT_KEY);
         if (systemPrompt == null || systemPrompt.isBlank()) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "未找到 AI 客服系统提示词，promptKey=" + CustomerServiceConstant.CUSTOMER_SERVICE_PROMPT_KEY + "，请在管理后台配置");
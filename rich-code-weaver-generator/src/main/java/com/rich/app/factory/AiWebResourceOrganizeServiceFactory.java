@@ -3,14 +3,13 @@ package com.rich.app.factory;
 import com.rich.ai.aiTools.webOperate.AiWebScrapingTool;
 import com.rich.ai.aiTools.webOperate.AiWebSearchTool;
 import com.rich.ai.service.AiWebResourceOrganizeService;
-import com.rich.client.innerService.InnerSystemPromptService;
+import com.rich.app.utils.prompt.SystemPromptCache;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.service.AiServices;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -44,10 +43,10 @@ public class AiWebResourceOrganizeServiceFactory {
     private AiWebSearchTool aiWebSearchTool;
 
     /**
-     * 系统提示词内部服务（通过 Dubbo 远程调用 prompt 模块）
+     * 系统提示词本地缓存（按版本号失效，避免每次构建都远程调用 prompt 模块）
      **/
-    @DubboReference
-    private InnerSystemPromptService innerSystemPromptService;
+    @Resource
+    private SystemPromptCache systemPromptCache;
 
     /**
      * 创建网络资源整理 AI 服务实例
@@ -58,7 +57,7 @@ public class AiWebResourceOrganizeServiceFactory {
      */
     @Bean
     public AiWebResourceOrganizeService createAiWebResourceOrganizeService() {
-        String systemPromptContent = innerSystemPromptService.getPromptContentByKey("web-resource-organize-system-prompt");
+        String systemPromptContent = systemPromptCache.getPromptContentByKey("web-resource-organize-system-prompt");
         if (systemPromptContent == null || systemPromptContent.isBlank()) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "未找到系统提示词，promptKey=web-resource-organize-system-prompt，请在管理后台配置");
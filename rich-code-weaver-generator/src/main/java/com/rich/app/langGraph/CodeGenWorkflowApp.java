@@ -2,6 +2,7 @@ package com.rich.app.langGraph;
 
 import cn.hutool.core.util.StrUtil;
 import com.rich.ai.model.CodeReviewResponse;
+import com.rich.app.langGraph.metrics.WorkflowMetrics;
 import com.rich.app.langGraph.node.*;
 import com.rich.app.langGraph.state.WorkflowContext;
 import com.rich.app.service.ChatHistoryService;
@@ -10,6 +11,7 @@ import com.rich.app.utils.streamHandle.JsonStreamHandler;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.model.enums.CodeGeneratorTypeEnum;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.bsc.langgraph4j.CompiledGraph;
@@ -26,6 +28,7 @@ import reactor.core.publisher.FluxSink;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.bsc.langgraph4j.StateGraph.END;
 import static org.bsc.langgraph4j.StateGraph.START;
@@ -60,15 +63,78 @@ public class CodeGenWorkflowApp {
             // 代码审查未通过，返回到提示词增强节点
             "code_review_failed", "prompt_enhancer"
     );
+    /**
+     * 工作流名称（用于指标标签）
+     */
+    private static final String WORKFLOW_GENERATION = "generation";
+    private static final String WORKFLOW_MODIFICATION = "modification";
+
     @Resource
     private CommonStreamHandler commonStreamHandler;
 
     @Resource
     private JsonStreamHandler jsonStreamHandler;
 
+    @Resource
+    private WorkflowMetrics workflowMetrics;
+
+    /**
+     * 编译后的完整工作流（启动时编译一次，所有请求共享；节点无状态，单次运行的状态隔离在 WorkflowContext 中）
+     */
+    private CompiledGraph<MessagesState<String>> generationWorkflow;
+
+    /**
+     * 编译后的二次修改工作流（同上）
+     */
+    private CompiledGraph<MessagesState<String>> modificationWorkflow;
+
+    /**
+     * 启动时编译工作流，并单独记录编译耗时、输出一次工作流图
+     *
+     * @author DuRuiChi
+     */
+    @PostConstruct
+    public void initWorkflows() {
+        generationWorkflow = compileAndRecord(WORKFLOW_GENERATION, this::createWorkflow);
+        modificationWorkflow = compileAndRecord(WORKFLOW_MODIFICATION, this::createModificationWorkflow);
+    }
+
+    /**
+     * 获取编译后的完整工作流
+     */
+    public CompiledGraph<MessagesState<String>> getGenerationWorkflow() {
+        return generationWorkflow;
+    }
+
+    /**
+     * 获取编译后的二次修改工作流
+     */
+    public CompiledGraph<MessagesState<String>> getModificationWorkflow() {
+        return modificationWorkflow;
+    }
+
+    /**
+     * 编译工作流并记录编译耗时
+     *
+     * @param workflowName 工作流名称
+     * @param compiler     工作流构建与编译逻辑
+     * @return CompiledGraph<MessagesState < String>> 编译后的工作流实例
+     */
+    private CompiledGraph<MessagesState<String>> compileAndRecord(String workflowName,
+                                                                 Supplier<CompiledGraph<MessagesState<String>>> compiler) {
+        long startTime = System.currentTimeMillis();
+        CompiledGraph<MessagesState<String>> workflow = compiler.get();
+        workflowMetrics.recordCompile(workflowName, System.currentTimeMillis() - startTime);
+        // 生成可视化工作流图（仅在编译时输出一次）
+        GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
+        log.info("\n工作流图（{}）:\n{}", workflowName, graph.content());
+        return workflow;
+    }
+
     /**
      * 创建完整的工作流
      * 工作流包含以下步骤：资源收集(并行) → 提示词增强 → 代码类型策略 → 代码生成 → AI代码审查 → 项目构建(条件性)
+     * 仅在启动时由 initWorkflows 调用一次，运行时复用编译结果
      *
      * @return CompiledGraph<MessagesState < String>> 编译后的工作流实例
      * @throws BusinessException 当工作流创建失败时抛出
@@ -117,6 +183,7 @@ public class CodeGenWorkflowApp {
     /**
      * 创建二次修改专用的简化工作流
      * 跳过资源收集和类型策略节点，直接进入：提示词增强 → 代码生成 → 代码审查 → 项目构建(条件性)
+     * 仅在启动时由 initWorkflows 调用一次，运行时复用编译结果
      */
     public CompiledGraph<MessagesState<String>> createModificationWorkflow() {
         try {
@@ -161,10 +228,13 @@ public class CodeGenWorkflowApp {
                                                          boolean isModification) {
         // 每次执行使用局部 StringBuilder，避免并发问题
         StringBuilder aiResponseBuilder = new StringBuilder();
+        String workflowName = isModification ? WORKFLOW_MODIFICATION : WORKFLOW_GENERATION;
         // 构建 Agent 工作流风格的响应流
         Flux<String> fluxStream = Flux.create(sink -> {
             // 使用虚拟线程执行工作流，避免阻塞主线程
             Thread.startVirtualThread(() -> {
+                long runStartTime = System.currentTimeMillis();
+                String runStatus = WorkflowMetrics.STATUS_FAILURE;
                 try {
                     // 初始化工作流上下文
                     WorkflowContext initialContext = WorkflowContext.builder()
@@ -178,31 +248,25 @@ public class CodeGenWorkflowApp {
                             .build();
 
                     // 注册流式输出发射器，使代码生成节点能将 AI 流式内容实时转发到前端
-                    if (type == CodeGeneratorTypeEnum.VUE_PROJECT) {
-                        Set<String> seenToolIds = new HashSet<>();
-                        CodeGeneratorNode.registerStreamEmitter(appId, chunk -> {
-                            String parsed = jsonStreamHandler.parseJsonChunk(chunk, seenToolIds);
-                            if (StrUtil.isNotEmpty(parsed)) {
-                                sink.next(parsed);
-                                aiResponseBuilder.append(parsed);
-                            }
-                        });
-                    } else {
-                        CodeGeneratorNode.registerStreamEmitter(appId, chunk -> {
-                            sink.next(chunk);
-                            aiResponseBuilder.append(chunk);
-                        });
-                    }
+                    // 各生成类型均输出类型化消息，直接解析为展示文本，无需 JSON 往返
+                    Set<String> seenToolIds = new HashSet<>();
+                    CodeGeneratorNode.registerStreamEmitter(appId, message -> {
+                        String parsed = jsonStreamHandler.parseMessage(message, seenToolIds);
+                        if (StrUtil.isNotEmpty(parsed)) {
+                            sink.next(parsed);
+                            aiResponseBuilder.append(parsed);
+                        }
+                    });
 
-                    // 根据是否为二次修改选择不同的工作流
+                    // 根据是否为二次修改选择不同的工作流（复用启动时编译好的实例）
                     CompiledGraph<MessagesState<String>> workflow;
                     if (isModification) {
-                        workflow = createModificationWorkflow();
+                        workflow = modificationWorkflow;
                         emitStreamBlock(sink, aiResponseBuilder, "\n\n<!-- WORKFLOW_START -->\n\n" +
                                 "# \uD83D\uDD04 代码修改 Agent 启动\n\n" +
                                 "---\n\n");
                     } else {
-                        workflow = createWorkflow();
+                        workflow = generationWorkflow;
                         // 发送工作流开始事件 - 使用结构化格式
                         String startInfo = "\n\n<!-- WORKFLOW_START -->\n\n" +
                                 "# \uD83D\uDE80 代码生成 Agent 启动\n\n" +
@@ -229,10 +293,6 @@ public class CodeGenWorkflowApp {
                                 "---\n\n");
                     }
 
-                    // 生成可视化工作流图
-                    GraphRepresentation graph = workflow.getGraph(GraphRepresentation.Type.MERMAID);
-                    log.info("\n工作流图:\n{}", graph.content());
-
                     for (NodeOutput<MessagesState<String>> step : workflow.stream(
                             Map.of(WorkflowContext.WORKFLOW_CONTEXT_KEY, initialContext))) {
 
@@ -375,6 +435,7 @@ public class CodeGenWorkflowApp {
                     emitStreamBlock(sink, aiResponseBuilder, completeInfo);
 
                     log.info("代码生成工作流执行完成！产物ID: {}", appId);
+                    runStatus = WorkflowMetrics.STATUS_SUCCESS;
                     sink.complete();
                 } catch (Throwable e) {
                     log.error("工作流执行失败，产物ID: {}，错误信息: {}", appId, e.getMessage(), e);
@@ -399,6 +460,8 @@ public class CodeGenWorkflowApp {
                 } finally {
                     // 确保流式输出发射器被注销，防止内存泄漏
                     CodeGeneratorNode.unregisterStreamEmitter(appId);
+                    // 记录运行耗时（不含编译耗时）
+                    workflowMetrics.recordRun(workflowName, runStatus, System.currentTimeMillis() - runStartTime);
                 }
             });
         });
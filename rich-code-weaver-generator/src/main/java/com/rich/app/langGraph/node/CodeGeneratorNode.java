@@ -1,5 +1,6 @@
 package com.rich.app.langGraph.node;
 
+import com.rich.ai.model.msgResponse.StreamMsgResponse;
 import com.rich.ai.monitor.MonitorContext;
 import com.rich.ai.monitor.MonitorContextHolder;
 import com.rich.app.langGraph.state.WorkflowContext;
@@ -29,17 +30,17 @@ public class CodeGeneratorNode {
 
     /**
      * 流式输出发射器注册表，用于在工作流模式下将代码生成流实时转发到前端
-     * key: appId, value: 接收流式文本块的消费者
+     * key: appId, value: 接收流式消息的消费者
      */
-    private static final ConcurrentHashMap<Long, Consumer<String>> STREAM_EMITTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Long, Consumer<StreamMsgResponse>> STREAM_EMITTERS = new ConcurrentHashMap<>();
 
     /**
      * 注册流式输出发射器（由 CodeGenWorkflowApp 在工作流启动前调用）
      *
      * @param appId   产物ID
-     * @param emitter 接收每个流式文本块的消费者
+     * @param emitter 接收每条流式消息的消费者
      */
-    public static void registerStreamEmitter(Long appId, Consumer<String> emitter) {
+    public static void registerStreamEmitter(Long appId, Consumer<StreamMsgResponse> emitter) {
         // 将流式输出发射器注册到映射表中，用于实时转发代码生成流到前端
         STREAM_EMITTERS.put(appId, emitter);
     }
@@ -83,13 +84,13 @@ public class CodeGeneratorNode {
                 }
 
                 // 执行 AI 代码生成逻辑，返回流式代码生成结果
-                Flux<String> codeStream = aIGenerateCodeAndSaveToFileUtils
+                Flux<StreamMsgResponse> codeStream = aIGenerateCodeAndSaveToFileUtils
                         .aiGenerateAndSaveCodeStream(enhancedPrompt, generationType, appId);
 
                 // 获取注册的流式输出发射器，将代码生成流实时转发到前端
-                Consumer<String> emitter = STREAM_EMITTERS.get(appId);
+                Consumer<StreamMsgResponse> emitter = STREAM_EMITTERS.get(appId);
                 if (emitter != null) {
-                    // 工作流模式：将每个流式文本块转发到前端，实现与普通流式输出相同的实时展示效果
+                    // 工作流模式：将每条流式消息转发到前端，实现与普通流式输出相同的实时展示效果
                     // 使用 doOnNext 在每个元素发出时执行发射器，blockLast 等待流完成（最多10分钟）
                     codeStream.doOnNext(emitter).blockLast(Duration.ofMinutes(10));
                 } else {
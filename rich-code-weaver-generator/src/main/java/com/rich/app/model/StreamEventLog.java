@@ -0,0 +1,205 @@
+package com.rich.app.model;
+
+import cn.hutool.core.util.StrUtil;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SSE 流式事件日志（有界环形缓冲区 + 多播唤醒信号）
+ * 事件按追加顺序分配递增序号，超过容量时覆盖最旧事件；
+ * 每次追加或结束都会发出一次信号，跟随者仅在收到信号时读取增量，无需定时轮询。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public class StreamEventLog {
+
+    /**
+     * 事件ID中序号的分隔符（事件ID格式：sessionId-序号）
+     */
+    private static final char EVENT_SEQUENCE_SEPARATOR = '-';
+
+    /**
+     * 环形缓冲区
+     */
+    private final StreamEvent[] ring;
+
+    /**
+     * 缓冲区容量
+     */
+    private final int capacity;
+
+    /**
+     * 唤醒信号（replay latest 保证订阅时立即收到当前版本，订阅与首次读取之间不会漏事件）
+     */
+    private final Sinks.Many<Long> signalSink = Sinks.many().replay().latest();
+
+    /**
+     * 当前保留的最旧事件序号
+     */
+    private long headSequence = 1L;
+
+    /**
+     * 下一个待分配的事件序号
+     */
+    private long nextSequence = 1L;
+
+    /**
+     * 日志是否已关闭（会话完成、出错或被清理）
+     */
+    private boolean closed;
+
+    public StreamEventLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("事件日志容量必须大于0");
+        }
+        this.capacity = capacity;
+        this.ring = new StreamEvent[capacity];
+        signalSink.tryEmitNext(0L);
+    }
+
+    /**
+     * 追加事件，容量已满时覆盖最旧事件，并唤醒所有跟随者
+     *
+     * @param event 流式事件
+     * @return 事件序号，日志已关闭时返回 -1
+     */
+    public synchronized long append(StreamEvent event) {
+        if (closed) {
+            return -1L;
+        }
+        long sequence = nextSequence++;
+        ring[indexOf(sequence)] = event;
+        if (nextSequence - headSequence > capacity) {
+            headSequence = nextSequence - capacity;
+        }
+        signalSink.tryEmitNext(sequence);
+        return sequence;
+    }
+
+    /**
+     * 读取指定序号（含）之后的所有事件
+     * 若 fromSequence 对应的事件已被覆盖，则从当前保留的最旧事件开始读取
+     *
+     * @param fromSequence 起始序号
+     * @param target       读取结果追加到此列表
+     * @return 下一次读取的起始序号
+     */
+    public synchronized long readFrom(long fromSequence, List<StreamEvent> target) {
+        long sequence = Math.max(fromSequence, headSequence);
+        for (; sequence < nextSequence; sequence++) {
+            target.add(ring[indexOf(sequence)]);
+        }
+        return sequence;
+    }
+
+    /**
+     * 便捷方法：读取指定序号（含）之后的所有事件
+     *
+     * @param fromSequence 起始序号
+     * @return 事件列表
+     */
+    public List<StreamEvent> readFrom(long fromSequence) {
+        List<StreamEvent> events = new ArrayList<>();
+        readFrom(fromSequence, events);
+        return events;
+    }
+
+    /**
+     * 根据客户端最后收到的事件ID定位续传起点
+     * 优先按事件ID末尾的序号直接定位（O(1)），序号不匹配时退化为顺序查找；
+     * lastEventId 为空或已被覆盖时从当前保留的最旧事件开始（与原队列实现一致）
+     *
+     * @param lastEventId 最后收到的事件ID
+     * @return 续传起始序号
+     */
+    public synchronized long resolveResumeSequence(String lastEventId) {
+        if (StrUtil.isEmpty(lastEventId)) {
+            return headSequence;
+        }
+        long candidate = parseSequence(lastEventId);
+        if (matches(candidate, lastEventId)) {
+            return candidate + 1;
+        }
+        for (long sequence = headSequence; sequence < nextSequence; sequence++) {
+            if (matches(sequence, lastEventId)) {
+                return sequence + 1;
+            }
+        }
+        return headSequence;
+    }
+
+    /**
+     * 关闭日志：不再接受新事件，并通知跟随者结束
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        signalSink.tryEmitComplete();
+    }
+
+    /**
+     * 唤醒信号流：订阅时立即收到一次当前版本，之后每次追加收到一次，日志关闭后完成
+     *
+     * @return 信号流
+     */
+    public Flux<Long> signals() {
+        return signalSink.asFlux();
+    }
+
+    /**
+     * 当前保留的事件数量
+     *
+     * @return 事件数量
+     */
+    public synchronized int size() {
+        return (int) (nextSequence - headSequence);
+    }
+
+    /**
+     * 下一个待分配的事件序号
+     *
+     * @return 事件序号
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * 日志是否已关闭
+     *
+     * @return 是否已关闭
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private boolean matches(long sequence, String eventId) {
+        if (sequence < headSequence || sequence >= nextSequence) {
+            return false;
+        }
+        StreamEvent event = ring[indexOf(sequence)];
+        return event != null && eventId.equals(event.getEventId());
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private static long parseSequence(String eventId) {
+        int separatorIndex = eventId.lastIndexOf(EVENT_SEQUENCE_SEPARATOR);
+        if (separatorIndex < 0 || separatorIndex == eventId.length() - 1) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separatorIndex + 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
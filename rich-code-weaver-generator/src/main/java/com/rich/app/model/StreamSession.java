@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * SSE 流式会话实体，用于支持断线重连
@@ -45,9 +44,9 @@ public class StreamSession {
     private LocalDateTime lastAccessTime;
 
     /**
-     * 流式事件缓存队列（存储已生成的事件）
+     * 流式事件日志（有界环形缓冲区，追加时推送唤醒信号）
      */
-    private ConcurrentLinkedQueue<StreamEvent> eventQueue;
+    private StreamEventLog eventLog;
 
     /**
      * 流是否已完成
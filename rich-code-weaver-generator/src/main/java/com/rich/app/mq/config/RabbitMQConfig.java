@@ -7,9 +7,13 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * RabbitMQ配置类
  * 配置队列、交换机、绑定关系、消息转换器等
@@ -42,6 +46,31 @@ public class RabbitMQConfig {
     public static final String UPLOAD_FILE_ROUTING_KEY = "upload.file";
     public static final String DLX_ROUTING_KEY = "dlx";
     
+    // 构建重试常量
+    
+    public static final String BUILD_VUE_PROJECT_RETRY_QUEUE_PREFIX = "build.vue.project.retry.queue.";
+    public static final String BUILD_VUE_PROJECT_RETRY_ROUTING_KEY_PREFIX = "build.vue.project.retry.";
+    
+    /**
+     * 重试延迟级别数（延迟依次为 3s、6s、12s，超出级别数的重试使用最后一级）
+     */
+    public static final int BUILD_RETRY_LEVELS = 3;
+    public static final long BUILD_RETRY_INITIAL_INTERVAL_MS = 3000L;
+    
+    /**
+     * 第 level 级重试的延迟（毫秒）
+     */
+    public static long buildRetryDelayMillis(int level) {
+        return BUILD_RETRY_INITIAL_INTERVAL_MS << level;
+    }
+    
+    /**
+     * 第 level 级重试的路由键
+     */
+    public static String buildRetryRoutingKey(int level) {
+        return BUILD_VUE_PROJECT_RETRY_ROUTING_KEY_PREFIX + level;
+    }
+    
     // 消息转换器
     
     /**
@@ -111,6 +140,25 @@ public class RabbitMQConfig {
         return factory;
     }
     
+    /**
+     * 配置构建任务监听器容器工厂
+     * 监听线程只负责把消息交给构建线程池，预取数量等于构建并发上限：
+     * 同一时刻最多持有并发上限条未确认消息，其余消息留在队列中
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory buildListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${build.worker.concurrency:2}") int buildConcurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(buildConcurrency);
+        return factory;
+    }
+    
     // 死信交换机和队列
     
     /**
@@ -172,6 +220,28 @@ public class RabbitMQConfig {
                 .with(BUILD_VUE_PROJECT_ROUTING_KEY);
     }
     
+    /**
+     * Vue项目构建重试延迟队列
+     * 每个重试级别一个队列（队列级TTL，不同延迟的消息不会互相阻塞），队列没有消费者，
+     * 消息到期后经死信路由回构建队列，等待重试期间不占用消费线程
+     */
+    @Bean
+    public Declarables buildVueProjectRetryQueues() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int level = 0; level < BUILD_RETRY_LEVELS; level++) {
+            Queue retryQueue = QueueBuilder.durable(BUILD_VUE_PROJECT_RETRY_QUEUE_PREFIX + level)
+                    .withArgument("x-message-ttl", buildRetryDelayMillis(level))
+                    .withArgument("x-dead-letter-exchange", BUILD_EXCHANGE)
+                    .withArgument("x-dead-letter-routing-key", BUILD_VUE_PROJECT_ROUTING_KEY)
+                    .build();
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(retryQueue)
+                    .to(buildExchange())
+                    .with(buildRetryRoutingKey(level)));
+        }
+        return new Declarables(declarables);
+    }
+    
     // 截图生成队列配置
     
     /**
@@ -64,8 +64,7 @@ public class DeadLetterConsumer {
             // 尝试更新任务状态为失败
             if (appId != null) {
                 try {
-                    taskExecutionService.updateStatus(appId, "FAILED", 0);
-                    taskExecutionService.updateResult(appId, "任务超时进入死信队列");
+                    taskExecutionService.finishTask(appId, "FAILED", 0, "任务超时进入死信队列");
                 } catch (Exception e) {
                     log.warn("更新死信任务状态失败: appId={}", appId, e);
                 }
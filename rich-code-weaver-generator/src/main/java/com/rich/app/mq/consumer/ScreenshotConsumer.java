@@ -104,8 +104,7 @@ public class ScreenshotConsumer {
             }
 
             // 6. 更新任务状态为成功
-            taskExecutionService.updateStatus(message.getAppId(), "SUCCESS", 100);
-            taskExecutionService.updateResult(message.getAppId(), screenshotUrl);
+            taskExecutionService.finishTask(message.getAppId(), "SUCCESS", 100, screenshotUrl);
             webSocketNotifier.notifySuccess(message.getAppId(), screenshotUrl);
 
             // 7. 手动ACK
@@ -168,8 +167,7 @@ public class ScreenshotConsumer {
                 appService.updateById(updateApp);
 
                 String errorMessage = e.getMessage() != null ? e.getMessage() : "截图生成失败";
-                taskExecutionService.updateStatus(message.getAppId(), "FAILED", 0);
-                taskExecutionService.updateResult(message.getAppId(), "使用默认封面: " + errorMessage);
+                taskExecutionService.finishTask(message.getAppId(), "FAILED", 0, "使用默认封面: " + errorMessage);
                 
                 // 不推送失败通知，避免影响用户体验
                 log.info("截图失败已降级处理: appId={}", message.getAppId());
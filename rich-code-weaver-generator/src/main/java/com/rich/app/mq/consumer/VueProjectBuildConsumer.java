@@ -10,18 +10,22 @@ import com.rich.app.mq.notifier.WebSocketTaskNotifier;
 import com.rich.app.mq.producer.ScreenshotProducer;
 import com.rich.app.service.AppService;
 import com.rich.app.service.TaskExecutionService;
+import com.rich.app.utils.previewServe.PreviewFileCache;
 import com.rich.common.constant.AppConstant;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.common.utils.deployWebProjectUtils.BuildWebProjectExecutor;
-import com.rich.common.utils.deployWebProjectUtils.ExecuteSysCommandUtil;
 import com.rich.model.entity.App;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
@@ -29,10 +33,19 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Vue项目构建任务消费者
  * 负责消费Vue项目构建消息并执行构建任务
+ * 监听线程只把消息交给固定大小的构建线程池，同时执行的构建数不超过 build.worker.concurrency；
+ * 失败重试通过延迟队列重新投递，不占用监听线程和构建线程
  *
  * @author DuRuiChi
  * @create 2026-05-06
@@ -65,22 +78,89 @@ public class VueProjectBuildConsumer {
     @Resource
     private ScreenshotProducer screenshotProducer;
 
+    @Resource
+    private AmqpAdmin amqpAdmin;
+
+    @Resource
+    private PreviewFileCache previewFileCache;
+
+    /**
+     * 同时执行的构建数（与构建监听容器的预取数量一致）
+     */
+    @Value("${build.worker.concurrency:2}")
+    private int concurrency = 2;
+
     private static final String BUILD_LOCK_PREFIX = "build:lock:";
     private static final String TASK_TYPE = "BUILD_VUE_PROJECT";
-    private static final long RETRY_INITIAL_INTERVAL_MS = 3000L;
+
+    /**
+     * 队列深度的查询间隔（指标采集较频繁，避免每次都访问 Broker）
+     */
+    private static final long QUEUE_DEPTH_REFRESH_MS = 5000L;
+
+    private ExecutorService buildWorkers;
+
+    private Semaphore buildPermits;
+
+    private final AtomicInteger runningBuilds = new AtomicInteger();
+
+    private volatile long queueDepth;
+
+    private volatile long queueDepthCheckedAt;
+
+    @PostConstruct
+    public void init() {
+        buildPermits = new Semaphore(concurrency);
+        buildWorkers = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().name("vue-build-worker-", 0).daemon(true).factory());
+        taskMetrics.registerRunningTasks(TASK_TYPE, runningBuilds::get);
+        taskMetrics.registerQueueDepth(RabbitMQConfig.BUILD_VUE_PROJECT_QUEUE, this::queueDepth);
+        log.info("Vue构建线程池初始化完成: concurrency={}", concurrency);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        buildWorkers.shutdown();
+        if (!buildWorkers.awaitTermination(30, TimeUnit.SECONDS)) {
+            // 未确认的消息在通道关闭后由 Broker 重新投递
+            buildWorkers.shutdownNow();
+        }
+    }
 
     /**
      * 消费Vue项目构建任务
+     * 构建线程全部占用时在此等待（预取数量等于并发上限，正常情况下不会发生），其余消息留在队列中
+     */
+    @RabbitListener(queues = RabbitMQConfig.BUILD_VUE_PROJECT_QUEUE, containerFactory = "buildListenerContainerFactory")
+    public void consumeBuildTask(TaskMessage message, Channel channel,
+                                  @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException, InterruptedException {
+        buildPermits.acquire();
+        try {
+            buildWorkers.execute(() -> {
+                try {
+                    executeBuildTask(message, channel, deliveryTag);
+                } finally {
+                    buildPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 正在停机，消息放回队列
+            buildPermits.release();
+            channel.basicNack(deliveryTag, false, true);
+        }
+    }
+
+    /**
+     * 在构建线程中执行构建任务
      */
-    @RabbitListener(queues = RabbitMQConfig.BUILD_VUE_PROJECT_QUEUE)
-    public void consumeBuildTask(TaskMessage message, Channel channel, Message amqpMessage,
-                                  @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
-        String lockKey = BUILD_LOCK_PREFIX + message.getAppId();
+    private void executeBuildTask(TaskMessage message, Channel channel, long deliveryTag) {
         long startTime = taskMetrics.startTimer();
+        taskMetrics.recordQueueWait(TASK_TYPE, startTime - availableAt(message));
+        runningBuilds.incrementAndGet();
 
         try {
-            log.info("开始处理Vue构建任务: appId={}, messageId={}", 
-                    message.getAppId(), message.getMessageId());
+            log.info("开始处理Vue构建任务: appId={}, messageId={}, retryCount={}",
+                    message.getAppId(), message.getMessageId(), message.getRetryCount());
 
             // 1. 更新任务状态为执行中
             taskExecutionService.updateStatus(message.getAppId(), "RUNNING", 0);
@@ -97,43 +177,29 @@ public class VueProjectBuildConsumer {
                 throw new BusinessException(ErrorCode.PARAMS_ERROR, "项目目录不存在: " + projectPath);
             }
 
-            // 3. 执行npm install
-            log.info("开始安装依赖: appId={}, projectPath={}", message.getAppId(), projectPath);
-            taskExecutionService.updateStatus(message.getAppId(), "RUNNING", 30);
-            webSocketNotifier.notifyProgress(message.getAppId(), "RUNNING", 30, "安装依赖中");
-
-            String npmInstallCmd = System.getProperty("os.name").toLowerCase().contains("win") 
-                    ? "npm.cmd install" : "npm install";
-            
-            ExecuteSysCommandUtil.CommandResult installResult = 
-                    ExecuteSysCommandUtil.executeCommandWithLog(projectDir, npmInstallCmd, 300);
-
-            if (!installResult.success()) {
-                String errorLog = StrUtil.sub(installResult.log(), 0, 500);
-                throw new BusinessException(ErrorCode.OPERATION_ERROR, 
-                        "依赖安装失败: " + errorLog);
-            }
-
-            log.info("依赖安装完成: appId={}", message.getAppId());
-
-            // 4. 执行npm run build
+            // 3. 安装依赖并构建（源码未变化时复用缓存的构建产物，依赖声明相同时复用已安装的依赖）
             log.info("开始构建项目: appId={}, projectPath={}", message.getAppId(), projectPath);
-            taskExecutionService.updateStatus(message.getAppId(), "RUNNING", 60);
-            webSocketNotifier.notifyProgress(message.getAppId(), "RUNNING", 60, "构建项目中");
-
-            String npmBuildCmd = System.getProperty("os.name").toLowerCase().contains("win") 
-                    ? "npm.cmd run build" : "npm run build";
-            
-            ExecuteSysCommandUtil.CommandResult buildResult = 
-                    ExecuteSysCommandUtil.executeCommandWithLog(projectDir, npmBuildCmd, 300);
-
+            BuildWebProjectExecutor.BuildResult buildResult = buildExecutor.buildProjectWithLog(projectPath, phase -> {
+                if (BuildWebProjectExecutor.PHASE_INSTALL.equals(phase)) {
+                    taskExecutionService.updateStatus(message.getAppId(), "RUNNING", 30);
+                    webSocketNotifier.notifyProgress(message.getAppId(), "RUNNING", 30, "安装依赖中");
+                } else if (BuildWebProjectExecutor.PHASE_BUILD.equals(phase)) {
+                    taskExecutionService.updateStatus(message.getAppId(), "RUNNING", 60);
+                    webSocketNotifier.notifyProgress(message.getAppId(), "RUNNING", 60, "构建项目中");
+                }
+            });
+
+            // 4. 检查构建结果
             if (!buildResult.success()) {
                 String errorLog = StrUtil.sub(buildResult.log(), 0, 500);
-                throw new BusinessException(ErrorCode.OPERATION_ERROR, 
-                        "项目构建失败: " + errorLog);
+                String errorPrefix = BuildWebProjectExecutor.PHASE_INSTALL.equals(buildResult.phase())
+                        ? "依赖安装失败: " : "项目构建失败: ";
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, errorPrefix + errorLog);
             }
 
-            log.info("项目构建完成: appId={}", message.getAppId());
+            log.info("项目构建完成: appId={}, {}", message.getAppId(), buildResult.log());
+            // 构建产物已替换，清除预览缓存中的旧文件
+            previewFileCache.invalidate(projectDir.toPath());
 
             // 5. 验证dist目录
             File distDir = new File(projectDir, "dist");
@@ -167,16 +233,16 @@ public class VueProjectBuildConsumer {
 
             // 9. 更新任务状态为成功
             String result = appUrl != null ? appUrl : distDir.getAbsolutePath();
-            taskExecutionService.updateStatus(message.getAppId(), "SUCCESS", 100);
-            taskExecutionService.updateResult(message.getAppId(), result);
+            taskExecutionService.finishTask(message.getAppId(), "SUCCESS", 100, result);
             webSocketNotifier.notifySuccess(message.getAppId(), result);
 
             // 10. 手动ACK
             channel.basicAck(deliveryTag, false);
 
-            // 11. 记录监控指标
+            // 11. 记录监控指标并释放分布式锁
             taskMetrics.recordTaskSuccess(TASK_TYPE);
             taskMetrics.stopTimer(TASK_TYPE, startTime);
+            releaseBuildLock(message);
 
             log.info("Vue构建部署任务完成: appId={}, result={}", message.getAppId(), result);
 
@@ -186,13 +252,14 @@ public class VueProjectBuildConsumer {
             // 失败处理
             handleBuildFailure(message, channel, deliveryTag, e, startTime);
         } finally {
-            // 释放分布式锁
-            redisTemplate.delete(lockKey);
+            runningBuilds.decrementAndGet();
         }
     }
 
     /**
      * 处理构建失败
+     * 未达最大重试次数时投递到对应级别的延迟队列，到期后由 Broker 路由回构建队列；
+     * 等待重试期间保留分布式锁，避免同一产物被重复提交构建
      */
     private void handleBuildFailure(TaskMessage message, Channel channel, 
                                      long deliveryTag, Exception e, long startTime) {
@@ -202,45 +269,47 @@ public class VueProjectBuildConsumer {
 
             if (retryCount < maxRetries) {
                 // 指数退避: 3s, 6s, 12s
-                long backoffMs = RETRY_INITIAL_INTERVAL_MS * (1L << retryCount);
+                int retryLevel = Math.min(retryCount, RabbitMQConfig.BUILD_RETRY_LEVELS - 1);
+                long backoffMs = RabbitMQConfig.buildRetryDelayMillis(retryLevel);
                 log.warn("构建失败,准备重试: appId={}, retryCount={}/{}, backoff={}ms", 
                         message.getAppId(), retryCount + 1, maxRetries, backoffMs);
 
                 message.setRetryCount(retryCount + 1);
+                message.setAvailableAt(System.currentTimeMillis() + backoffMs);
                 taskExecutionService.updateStatus(message.getAppId(), "RETRYING", 0);
                 webSocketNotifier.notifyRetrying(message.getAppId(), retryCount + 1, maxRetries);
 
-                // 指数退避等待
-                Thread.sleep(backoffMs);
-
-                // 重新发布带有新retryCount的消息（解决NACK+requeue不持久化retryCount的问题）
+                // 发布带有新retryCount的消息到延迟队列（解决NACK+requeue不持久化retryCount的问题）
                 rabbitTemplate.convertAndSend(
                         RabbitMQConfig.BUILD_EXCHANGE,
-                        RabbitMQConfig.BUILD_VUE_PROJECT_ROUTING_KEY,
+                        RabbitMQConfig.buildRetryRoutingKey(retryLevel),
                         message
                 );
 
                 // ACK原始消息
                 channel.basicAck(deliveryTag, false);
+                taskMetrics.recordTaskRetry(TASK_TYPE);
 
             } else {
                 // 超过最大重试次数,标记为失败
                 log.error("构建失败且已达最大重试次数: appId={}", message.getAppId());
 
                 String errorMessage = e.getMessage() != null ? e.getMessage() : "未知错误";
-                taskExecutionService.updateStatus(message.getAppId(), "FAILED", 0);
-                taskExecutionService.updateResult(message.getAppId(), errorMessage);
+                taskExecutionService.finishTask(message.getAppId(), "FAILED", 0, errorMessage);
                 webSocketNotifier.notifyFailure(message.getAppId(), errorMessage);
 
                 // 确认消费,不再重试
                 channel.basicAck(deliveryTag, false);
 
-                // 记录监控指标
+                // 记录监控指标并释放分布式锁
                 taskMetrics.recordTaskFailure(TASK_TYPE);
                 taskMetrics.stopTimer(TASK_TYPE, startTime);
+                releaseBuildLock(message);
             }
         } catch (Exception ex) {
             log.error("重试处理失败: appId={}", message.getAppId(), ex);
+            // 消息进入死信队列，不再重试
+            releaseBuildLock(message);
             try {
                 channel.basicNack(deliveryTag, false, false);
             } catch (IOException nackEx) {
@@ -248,4 +317,43 @@ public class VueProjectBuildConsumer {
             }
         }
     }
+
+    /**
+     * 释放分布式锁（任务成功或最终失败时）
+     */
+    private void releaseBuildLock(TaskMessage message) {
+        redisTemplate.delete(BUILD_LOCK_PREFIX + message.getAppId());
+    }
+
+    /**
+     * 消息可被消费的时间（兼容未携带 availableAt 的旧消息）
+     */
+    private static long availableAt(TaskMessage message) {
+        if (message.getAvailableAt() != null) {
+            return message.getAvailableAt();
+        }
+        if (message.getCreateTime() != null) {
+            return message.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * 构建队列中待消费的消息数（不含已预取到本地的消息）
+     */
+    private long queueDepth() {
+        long now = System.currentTimeMillis();
+        if (now - queueDepthCheckedAt >= QUEUE_DEPTH_REFRESH_MS) {
+            queueDepthCheckedAt = now;
+            try {
+                QueueInformation info = amqpAdmin.getQueueInfo(RabbitMQConfig.BUILD_VUE_PROJECT_QUEUE);
+                if (info != null) {
+                    queueDepth = info.getMessageCount();
+                }
+            } catch (Exception e) {
+                log.warn("查询构建队列深度失败: {}", e.getMessage());
+            }
+        }
+        return queueDepth;
+    }
 }
@@ -1,6 +1,7 @@
 package com.rich.app.mq.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 任务执行监控指标收集器
@@ -34,6 +36,15 @@ public class TaskMetrics {
     // 任务执行耗时计时器缓存
     private final ConcurrentHashMap<String, Timer> durationTimers = new ConcurrentHashMap<>();
 
+    // 任务重试计数器缓存
+    private final ConcurrentHashMap<String, Counter> retryCounters = new ConcurrentHashMap<>();
+
+    // 任务排队等待耗时计时器缓存
+    private final ConcurrentHashMap<String, Timer> queueWaitTimers = new ConcurrentHashMap<>();
+
+    // 已注册的仪表（队列深度、执行中任务数）
+    private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
     public TaskMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
     }
@@ -91,6 +102,69 @@ public class TaskMetrics {
         log.debug("记录任务失败: taskType={}", taskType);
     }
 
+    /**
+     * 记录任务重试（重新投递到延迟队列）
+     *
+     * @param taskType 任务类型
+     */
+    public void recordTaskRetry(String taskType) {
+        Counter counter = retryCounters.computeIfAbsent(taskType, type ->
+                Counter.builder("task.retry.total")
+                        .description("任务重试总数")
+                        .tag("task_type", type)
+                        .register(meterRegistry)
+        );
+        counter.increment();
+        log.debug("记录任务重试: taskType={}", taskType);
+    }
+
+    /**
+     * 记录任务排队等待耗时（从消息可被消费到开始执行）
+     *
+     * @param taskType 任务类型
+     * @param waitMillis 等待时间(毫秒)
+     */
+    public void recordQueueWait(String taskType, long waitMillis) {
+        Timer timer = queueWaitTimers.computeIfAbsent(taskType, type ->
+                Timer.builder("task.queue.wait.seconds")
+                        .description("任务排队等待耗时")
+                        .tag("task_type", type)
+                        .register(meterRegistry)
+        );
+        timer.record(Math.max(waitMillis, 0), TimeUnit.MILLISECONDS);
+        log.debug("记录任务排队等待: taskType={}, wait={}ms", taskType, waitMillis);
+    }
+
+    /**
+     * 注册队列深度仪表
+     *
+     * @param queueName 队列名称
+     * @param depth 队列中待消费的消息数
+     */
+    public void registerQueueDepth(String queueName, Supplier<Number> depth) {
+        gauges.computeIfAbsent("task.queue.depth:" + queueName, key ->
+                Gauge.builder("task.queue.depth", depth)
+                        .description("队列中待消费的任务数")
+                        .tag("queue", queueName)
+                        .register(meterRegistry)
+        );
+    }
+
+    /**
+     * 注册执行中任务数仪表
+     *
+     * @param taskType 任务类型
+     * @param running 正在执行的任务数
+     */
+    public void registerRunningTasks(String taskType, Supplier<Number> running) {
+        gauges.computeIfAbsent("task.running:" + taskType, key ->
+                Gauge.builder("task.running", running)
+                        .description("正在执行的任务数")
+                        .tag("task_type", taskType)
+                        .register(meterRegistry)
+        );
+    }
+
     /**
      * 记录任务执行耗时
      *
@@ -64,6 +64,11 @@ public class TaskMessage implements Serializable {
      */
     private LocalDateTime createTime;
 
+    /**
+     * 消息可被消费的时间（毫秒时间戳，重试消息为延迟到期的时间），用于统计排队等待时间
+     */
+    private Long availableAt;
+
     /**
      * 链路追踪ID
      */
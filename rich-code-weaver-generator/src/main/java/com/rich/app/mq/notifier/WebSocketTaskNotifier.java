@@ -1,14 +1,27 @@
 package com.rich.app.mq.notifier;
 
 import com.rich.app.mq.model.TaskProgressMessage;
+import com.rich.app.utils.taskProgress.TaskProgressTracker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  * WebSocket任务进度通知器
- * 用于向前端推送任务进度更新
+ * 用于向前端推送任务进度更新，按产物限流：
+ * 状态变化与终态立即推送；同一状态下的进度在 push-interval-millis 内最多推送一次，
+ * 间隔内的后续进度只保留最新一条，在间隔结束时补推；
+ * 未等到终态的任务（进程崩溃、消息在别处进入死信等）其推送状态在空闲 state-ttl-millis 后清除
  *
  * @author DuRuiChi
  * @create 2026-05-06
@@ -20,6 +33,37 @@ public class WebSocketTaskNotifier {
     @Resource
     private SimpMessagingTemplate messagingTemplate;
 
+    /**
+     * 同一产物进度推送的最小间隔（毫秒）
+     */
+    @Value("${task-progress.push-interval-millis:500}")
+    private long pushIntervalMillis = 500;
+
+    /**
+     * 推送状态空闲多久后清除（毫秒）
+     */
+    @Value("${task-progress.state-ttl-millis:600000}")
+    private long stateTtlMillis = 600_000;
+
+    /**
+     * 各产物的推送状态（终态推送后或空闲超时后移除）
+     */
+    private final ConcurrentHashMap<Long, PushState> pushStates = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService pushScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-progress-push").daemon(true).factory());
+
+    @PostConstruct
+    public void init() {
+        pushScheduler.scheduleWithFixedDelay(this::evictIdleStates,
+                stateTtlMillis, stateTtlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pushScheduler.shutdownNow();
+    }
+
     /**
      * 推送任务进度
      *
@@ -42,22 +86,86 @@ public class WebSocketTaskNotifier {
      * @param result 任务结果
      */
     public void notifyProgress(Long appId, String status, Integer progress, String message, String result) {
-        try {
-            TaskProgressMessage progressMessage = TaskProgressMessage.builder()
-                    .appId(appId)
-                    .status(status)
-                    .progress(progress)
-                    .message(message)
-                    .result(result)
-                    .timestamp(System.currentTimeMillis())
-                    .build();
+        TaskProgressMessage progressMessage = TaskProgressMessage.builder()
+                .appId(appId)
+                .status(status)
+                .progress(progress)
+                .message(message)
+                .result(result)
+                .timestamp(System.currentTimeMillis())
+                .build();
 
+        PushState state = pushStates.computeIfAbsent(appId, id -> new PushState());
+        synchronized (state) {
+            long now = System.currentTimeMillis();
+            state.lastActiveAt = now;
+            boolean immediate = !status.equals(state.lastStatus) || TaskProgressTracker.isTerminal(status)
+                    || now - state.lastPushAt >= pushIntervalMillis;
+            if (immediate) {
+                // 立即推送，丢弃间隔内尚未补推的旧进度
+                cancelPending(state);
+                state.lastStatus = status;
+                state.lastPushAt = now;
+                send(progressMessage);
+            } else {
+                state.pending = progressMessage;
+                if (state.pendingPush == null) {
+                    state.pendingPush = pushScheduler.schedule(() -> flushPending(state),
+                            state.lastPushAt + pushIntervalMillis - now, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (TaskProgressTracker.isTerminal(status)) {
+                pushStates.remove(appId, state);
+            }
+        }
+    }
+
+    /**
+     * 补推间隔内最新的进度
+     */
+    private void flushPending(PushState state) {
+        synchronized (state) {
+            TaskProgressMessage pending = state.pending;
+            state.pending = null;
+            state.pendingPush = null;
+            if (pending != null) {
+                state.lastPushAt = System.currentTimeMillis();
+                send(pending);
+            }
+        }
+    }
+
+    /**
+     * 清除空闲超时且没有待补推进度的推送状态
+     */
+    private void evictIdleStates() {
+        long now = System.currentTimeMillis();
+        pushStates.forEach((appId, state) -> {
+            synchronized (state) {
+                if (state.pendingPush == null && now - state.lastActiveAt >= stateTtlMillis) {
+                    pushStates.remove(appId, state);
+                }
+            }
+        });
+    }
+
+    private static void cancelPending(PushState state) {
+        state.pending = null;
+        if (state.pendingPush != null) {
+            state.pendingPush.cancel(false);
+            state.pendingPush = null;
+        }
+    }
+
+    private void send(TaskProgressMessage progressMessage) {
+        Long appId = progressMessage.getAppId();
+        try {
             // 推送到指定产物的订阅者
             String destination = "/topic/task/progress/" + appId;
             messagingTemplate.convertAndSend(destination, progressMessage);
 
             log.debug("推送任务进度成功: appId={}, status={}, progress={}%, message={}", 
-                    appId, status, progress, message);
+                    appId, progressMessage.getStatus(), progressMessage.getProgress(), progressMessage.getMessage());
         } catch (Exception e) {
             log.error("推送任务进度失败: appId={}, error={}", appId, e.getMessage(), e);
         }
@@ -94,4 +202,20 @@ public class WebSocketTaskNotifier {
         String message = String.format("任务失败，正在重试 (%d/%d)", retryCount, maxRetries);
         notifyProgress(appId, "RETRYING", 0, message);
     }
+
+    /**
+     * 单个产物的推送状态
+     */
+    private static class PushState {
+
+        private String lastStatus;
+
+        private long lastPushAt;
+
+        private long lastActiveAt;
+
+        private TaskProgressMessage pending;
+
+        private ScheduledFuture<?> pendingPush;
+    }
 }
@@ -84,6 +84,7 @@ public class VueProjectBuildProducer {
                     .retryCount(0)
                     .maxRetries(3)
                     .createTime(LocalDateTime.now())
+                    .availableAt(System.currentTimeMillis())
                     .traceId(MDC.get("traceId"))
                     .build();
 
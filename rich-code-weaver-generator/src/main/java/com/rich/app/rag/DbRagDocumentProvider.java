@@ -27,6 +27,11 @@ import java.util.List;
 @ConditionalOnProperty(prefix = "rag", name = "enabled", havingValue = "true")
 public class DbRagDocumentProvider implements RagDocumentProvider {
 
+    /**
+     * 数据库文档标识前缀
+     */
+    private static final String DOC_ID_PREFIX = "db:";
+
     @Resource
     private RagDocumentService ragDocumentService;
 
@@ -54,7 +59,7 @@ public class DbRagDocumentProvider implements RagDocumentProvider {
             String title = getDocumentTitleOrDefault(dbDoc);
             String bizType = getBizTypeOrDefault(dbDoc);
 
-            Metadata metadata = buildMetadata(title, bizType, codeGenType);
+            Metadata metadata = buildMetadata(dbDoc.getId(), title, bizType, codeGenType);
 
             documents.add(Document.from(dbDoc.getDocContent(), metadata));
 
@@ -105,13 +110,17 @@ public class DbRagDocumentProvider implements RagDocumentProvider {
     /**
      * 构造文档元数据
      *
+     * @param id 文档 ID
      * @param title 文档标题
      * @param bizType 业务类型
      * @param codeGenType 代码生成类型
      * @return 元数据
      */
-    private Metadata buildMetadata(String title, String bizType, String codeGenType) {
+    private Metadata buildMetadata(Long id, String title, String bizType, String codeGenType) {
         Metadata metadata = new Metadata();
+        if (id != null) {
+            metadata.put(RagConstant.METADATA_DOC_ID, DOC_ID_PREFIX + id);
+        }
         metadata.put(RagConstant.METADATA_BIZ_TYPE, bizType);
         metadata.put(RagConstant.METADATA_CODE_GEN_TYPE, codeGenType);
         metadata.put(RagConstant.METADATA_SOURCE, title);
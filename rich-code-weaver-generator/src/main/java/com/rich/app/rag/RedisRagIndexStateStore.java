@@ -0,0 +1,136 @@
+package com.rich.app.rag;
+
+import cn.hutool.json.JSONUtil;
+import com.rich.ai.rag.RagIndexEntry;
+import com.rich.ai.rag.RagIndexStateStore;
+import com.rich.ai.rag.RagIndexSyncInProgressException;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 基于 Redis 的 RAG 索引清单存储
+ * 清单保存在一个 Hash 中（文档标识 -> 条目 JSON），与 PGVector 中的片段同样跨进程重启保留
+ * 同步使用 Redisson 分布式锁互斥，多实例不会同时清空向量存储或重复写入片段；
+ * 索引代次保存在独立的计数器中，各实例据此感知其他实例的同步并重建本地词法索引
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ * @see RagIndexStateStore 接口定义
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rag", name = "enabled", havingValue = "true")
+public class RedisRagIndexStateStore implements RagIndexStateStore {
+
+    /**
+     * 索引清单 Redis key
+     */
+    private static final String INDEX_STATE_KEY = "rag:index:state";
+
+    /**
+     * 索引代次 Redis key
+     */
+    private static final String GENERATION_KEY = "rag:index:generation";
+
+    /**
+     * 索引同步分布式锁 Redis key
+     */
+    private static final String SYNC_LOCK_KEY = "rag:index:sync:lock";
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 加载全部索引清单条目，无法解析的条目视为不存在（对应文档会被重新索引）
+     *
+     * @return 文档标识 -> 索引清单条目
+     */
+    @Override
+    public Map<String, RagIndexEntry> loadAll() {
+        Map<String, RagIndexEntry> entries = new HashMap<>();
+        for (Map.Entry<String, String> entry : getStateMap().readAllMap().entrySet()) {
+            try {
+                entries.put(entry.getKey(), JSONUtil.toBean(entry.getValue(), RagIndexEntry.class));
+            } catch (Exception e) {
+                log.warn("【RedisRagIndexStateStore】索引清单条目解析失败，忽略: {}", entry.getKey(), e);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void save(RagIndexEntry entry) {
+        getStateMap().fastPut(entry.getDocKey(), JSONUtil.toJsonStr(entry));
+    }
+
+    @Override
+    public void remove(String docKey) {
+        getStateMap().fastRemove(docKey);
+    }
+
+    @Override
+    public void clear() {
+        getStateMap().delete();
+    }
+
+    @Override
+    public long getGeneration() {
+        return getGenerationCounter().get();
+    }
+
+    @Override
+    public long incrementGeneration() {
+        return getGenerationCounter().incrementAndGet();
+    }
+
+    /**
+     * 持有分布式锁执行索引同步
+     * 不等待锁：其他实例正在同步时直接抛出异常，由调用方决定跳过或提示稍后重试；
+     * 未指定租约时间，由 Redisson 看门狗在同步期间自动续期，实例宕机后锁随看门狗停止而过期
+     *
+     * @param action 同步动作
+     * @param <T>    同步结果类型
+     * @return 同步结果
+     */
+    @Override
+    public <T> T withSyncLock(Supplier<T> action) {
+        RLock lock = redissonClient.getLock(SYNC_LOCK_KEY);
+        boolean locked;
+        try {
+            locked = lock.tryLock(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RagIndexSyncInProgressException("等待索引同步锁时被中断");
+        }
+        if (!locked) {
+            throw new RagIndexSyncInProgressException("其他实例正在同步知识库索引，请稍后重试");
+        }
+        try {
+            return action.get();
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private RAtomicLong getGenerationCounter() {
+        return redissonClient.getAtomicLong(GENERATION_KEY);
+    }
+
+    private RMap<String, String> getStateMap() {
+        return redissonClient.getMap(INDEX_STATE_KEY, StringCodec.INSTANCE);
+    }
+}
@@ -12,8 +12,7 @@ import com.rich.model.entity.App;
 import com.rich.model.entity.User;
 import com.rich.model.vo.AppVO;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.publisher.Flux;
 
@@ -153,11 +152,11 @@ public interface AppService extends IService<App> {
      * 预览指定产物
      *
      * @param appId   产物 ID
-     * @param request 请求对象
-     * @return org.springframework.http.ResponseEntity<org.springframework.core.io.FileSystemResource> 产物资源响应
+     * @param request  请求对象
+     * @param response 响应对象（直接写入产物资源）
      * @author DuRuiChi
      */
-    ResponseEntity<FileSystemResource> serverStaticResource(Long appId, HttpServletRequest request);
+    void serverStaticResource(Long appId, HttpServletRequest request, HttpServletResponse response);
 
     /**
      * 部署产物
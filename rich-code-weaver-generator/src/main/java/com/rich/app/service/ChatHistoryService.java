@@ -32,6 +32,18 @@ public interface ChatHistoryService extends IService<ChatHistory> {
      **/
     boolean addChatMessage(Long appId, String message, String messageType, Long userId);
 
+    /**
+     * 异步添加对话历史（批量写入，不等待落库）
+     *
+     * @param appId       产物 id
+     * @param message     消息
+     * @param messageType 消息类型
+     * @param userId      用户 id
+     * @author DuRuiChi
+     * @create 2026/10/18
+     **/
+    void addChatMessageAsync(Long appId, String message, String messageType, Long userId);
+
     /**
      * 根据产物 id 删除对话历史
      *
@@ -1,6 +1,7 @@
 package com.rich.app.service;
 
 import com.rich.model.entity.App;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
@@ -13,10 +14,12 @@ import jakarta.servlet.http.HttpServletResponse;
 public interface DownloadCodeFileService {
     /**
      * 下载代码文件（ZIP格式）
+     * 支持 ETag / If-None-Match 条件请求与 Range 断点续传
      *
      * @param app      产物实体
+     * @param request  请求对象
      * @param response 响应对象
      * @author DuRuiChi
      */
-    void downloadCodeZipFile(App app, HttpServletResponse response);
+    void downloadCodeZipFile(App app, HttpServletRequest request, HttpServletResponse response);
 }
@@ -3,6 +3,8 @@ package com.rich.app.service;
 import com.rich.app.model.StreamEvent;
 import com.rich.app.model.StreamSession;
 
+import reactor.core.publisher.Flux;
+
 import java.util.List;
 
 /**
@@ -57,6 +59,16 @@ public interface StreamSessionService {
      */
     List<StreamEvent> getEventsAfter(String sessionId, String lastEventId);
 
+    /**
+     * 跟随会话事件（推送模式）
+     * 先回放 lastEventId 之后的事件，之后仅在有新事件追加时推送，会话完成、出错或被清理后流结束
+     *
+     * @param sessionId   会话ID
+     * @param lastEventId 最后接收到的事件ID（为空则从最早保留的事件开始）
+     * @return 事件流，会话不存在时为空流
+     */
+    Flux<StreamEvent> followEvents(String sessionId, String lastEventId);
+
     /**
      * 标记会话完成
      *
@@ -23,6 +23,7 @@ public interface TaskExecutionService extends IService<TaskExecution> {
 
     /**
      * 更新任务状态和进度
+     * 同一状态下的进度变化只更新实时快照，状态变化与终态写入数据库
      *
      * @param appId 产物ID
      * @param status 任务状态
@@ -38,6 +39,16 @@ public interface TaskExecutionService extends IService<TaskExecution> {
      */
     void updateResult(Long appId, String result);
 
+    /**
+     * 结束任务：一次写入终态、进度与结果
+     *
+     * @param appId 产物ID
+     * @param status 任务状态(SUCCESS/FAILED)
+     * @param progress 任务进度
+     * @param result 任务结果
+     */
+    void finishTask(Long appId, String status, Integer progress, String result);
+
     /**
      * 根据产物ID查询最新的任务执行记录
      *
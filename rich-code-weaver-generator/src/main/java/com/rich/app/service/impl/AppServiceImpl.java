@@ -24,6 +24,7 @@ import com.rich.app.service.ChatHistoryService;
 import com.rich.app.service.MaterialService;
 import com.rich.app.service.StreamSessionService;
 import com.rich.app.utils.AIGenerateCodeAndSaveToFileUtils;
+import com.rich.app.utils.previewServe.PreviewResourceServer;
 import com.rich.client.innerService.InnerCollaboratorService;
 import com.rich.client.innerService.InnerScreenshotService;
 import com.rich.client.innerService.InnerUserService;
@@ -49,25 +50,22 @@ import com.rich.model.vo.AppVO;
 import com.rich.model.vo.UserVO;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.HandlerMapping;
 import reactor.core.publisher.Flux;
 
 import java.io.File;
-import java.time.Duration;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.rich.common.constant.AppConstant.CODE_DEPLOY_ROOT_DIR;
@@ -84,11 +82,6 @@ import static com.rich.common.constant.AppConstant.CODE_OUTPUT_ROOT_DIR;
 @Slf4j
 public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppService {
 
-    /**
-     * 跟随流轮询间隔
-     */
-    private static final long FOLLOW_POLL_INTERVAL_MILLIS = 100L;
-
     /**
      * 单次最大素材数量
      */
@@ -144,6 +137,11 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
      */
     private static final String LOCATION_HEADER = "Location";
 
+    /**
+     * Vue 工程构建产物目录
+     */
+    private static final String VUE_DIST_DIR = "/dist";
+
     /**
      * 部署密钥长度
      */
@@ -207,6 +205,9 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     @Resource
     private AIGenerateCodeAndSaveToFileUtils aiGenerateCodeAndSaveToFileUtils;
 
+    @Resource
+    private PreviewResourceServer previewResourceServer;
+
     @Resource
     private ChatHistoryService chatHistoryService;
 
@@ -276,9 +277,9 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         if (Boolean.TRUE.equals(reconnect)) {
             if (existingSession != null) {
                 // 会话存在，返回跟随流（从lastEventId之后继续推送）
-                int eventQueueSize = existingSession.getEventQueue() != null ? existingSession.getEventQueue().size() : 0;
+                int eventCount = existingSession.getEventLog() != null ? existingSession.getEventLog().size() : 0;
                 log.info("重连到现有会话: sessionKey={}, completed={}, hasError={}, eventCount={}",
-                        sessionKey, existingSession.isCompleted(), existingSession.isHasError(), eventQueueSize);
+                        sessionKey, existingSession.isCompleted(), existingSession.isHasError(), eventCount);
                 return createFollowFlux(sessionKey, lastEventId);
             } else {
                 // 会话不存在（已过期或已被清理），通知前端生成已结束
@@ -402,74 +403,42 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     }
 
     /**
-     * 创建跟随 Flux：轮询会话缓存，将事件实时推送给客户端。
-     * 无论客户端何时连接/重连，都能从 lastEventId 之后的位置继续接收。
+     * 创建跟随 Flux：订阅会话事件日志，将事件实时推送给客户端。
+     * 无论客户端何时连接/重连，都能从 lastEventId 之后的位置继续接收；
+     * 仅在有新事件追加时被唤醒，不再定时轮询。
      *
      * @param sessionKey  会话密钥
      * @param lastEventId 客户端最后接收到的事件ID（可为空）
      * @return 跟随 Flux
      */
     private Flux<ServerSentEvent<String>> createFollowFlux(String sessionKey, String lastEventId) {
-        // 使用原子引用跟踪最后发送的事件ID（线程安全）
-        AtomicReference<String> lastSentEventId = new AtomicReference<>(lastEventId);
-
-        // 每100毫秒轮询一次会话缓存，检查是否有新事件
-        return Flux.interval(Duration.ofMillis(FOLLOW_POLL_INTERVAL_MILLIS))
-                .flatMap(tick -> {
-                    // 获取会话对象
-                    StreamSession session = streamSessionService.getSession(sessionKey);
-                    if (session == null) {
-                        // 会话已被清理（可能已过期），发送结束事件
-                        log.debug("会话已被清理，发送结束事件: sessionKey={}", sessionKey);
-                        return buildEndEventFlux();
-                    }
-
-                    // 获取 lastSentEventId 之后的新事件（支持断点续传）
-                    List<StreamEvent> newEvents = streamSessionService.getEventsAfter(
-                            sessionKey, lastSentEventId.get());
-
-                    if (!newEvents.isEmpty()) {
-                        // 更新最后发送的事件ID（记录当前批次最后一个事件）
-                        StreamEvent lastEvent = newEvents.get(newEvents.size() - 1);
-                        lastSentEventId.set(lastEvent.getEventId());
-
-                        // 将新事件转换为SSE格式并推送给客户端
-                        return Flux.fromIterable(newEvents)
-                                .map(this::buildSseEvent);
-                    }
-
-                    // 没有新事件时，检查会话是否已结束
-                    if (session.isCompleted()) {
-                        // 再次检查是否有遗漏的事件（防止竞态条件：完成标记和最后事件之间的时间差）
-                        List<StreamEvent> remainingEvents = streamSessionService.getEventsAfter(
-                                sessionKey, lastSentEventId.get());
-                        if (!remainingEvents.isEmpty()) {
-                            // 发现遗漏事件，先推送这些事件
-                            StreamEvent lastRemaining = remainingEvents.get(remainingEvents.size() - 1);
-                            lastSentEventId.set(lastRemaining.getEventId());
-                            return Flux.fromIterable(remainingEvents)
-                                    .map(this::buildSseEvent);
-                        }
-                        // 所有事件已推送完毕，发送结束事件
-                        log.debug("会话已完成，发送结束事件: sessionKey={}", sessionKey);
-                        return buildEndEventFlux();
-                    }
-
-                    // 检查会话是否出错
-                    if (session.isHasError()) {
-                        String errorMsg = session.getErrorMessage() != null ? session.getErrorMessage() : UNKNOWN_ERROR_MESSAGE;
-                        log.warn("会话出错，发送错误事件: sessionKey={}, error={}", sessionKey, errorMsg);
-                        return Flux.just(buildErrorSseEvent(errorMsg));
-                    }
-
-                    // 生成仍在进行中，暂无新事件，返回空流（继续轮询）
-                    return Flux.empty();
-                })
-                // 收到 end 或 error 事件后自动终止流（避免无限轮询）
+        return streamSessionService.followEvents(sessionKey, lastEventId)
+                .map(this::buildSseEvent)
+                // 事件日志关闭（完成/出错/被清理）且剩余事件推送完毕后，根据会话最终状态补发结束或错误事件
+                .concatWith(Flux.defer(() -> buildTerminalEventFlux(sessionKey)))
+                // 收到 end 或 error 事件后终止流
                 .takeUntil(event -> StreamEventConstant.EVENT_END.equals(event.event())
                         || StreamEventConstant.EVENT_ERROR.equals(event.event()));
     }
 
+    /**
+     * 根据会话最终状态构造终止事件流
+     * 会话已完成或已被清理时发送结束事件，会话出错时发送错误事件
+     *
+     * @param sessionKey 会话密钥
+     * @return 终止事件流
+     */
+    private Flux<ServerSentEvent<String>> buildTerminalEventFlux(String sessionKey) {
+        StreamSession session = streamSessionService.getSession(sessionKey);
+        if (session != null && !session.isCompleted() && session.isHasError()) {
+            String errorMsg = session.getErrorMessage() != null ? session.getErrorMessage() : UNKNOWN_ERROR_MESSAGE;
+            log.warn("会话出错，发送错误事件: sessionKey={}, error={}", sessionKey, errorMsg);
+            return Flux.just(buildErrorSseEvent(errorMsg));
+        }
+        log.debug("会话已结束，发送结束事件: sessionKey={}", sessionKey);
+        return buildEndEventFlux();
+    }
+
     /**
      * 生成会话密钥（基于 appId + userId + message hash）
      * 确保相同的请求参数生成相同的会话 ID
@@ -494,27 +463,30 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
 
     /**
      * 预览指定产物
+     * 资源文件由 {@link PreviewResourceServer} 输出（路径穿越防护、ETag 条件请求、小文件缓存与大文件零拷贝传输）
      *
-     * @param appId   产物 ID
-     * @param request 请求对象
-     * @return org.springframework.http.ResponseEntity<jakarta.annotation.Resource> 产物资源
+     * @param appId    产物 ID
+     * @param request  请求对象
+     * @param response 响应对象
      * @author DuRuiChi
      * @create 2025/12/8
      **/
     @Override
-    public ResponseEntity<FileSystemResource> serverStaticResource(Long appId, HttpServletRequest request) {
+    public void serverStaticResource(Long appId, HttpServletRequest request, HttpServletResponse response) {
         try {
             // 参数校验：确保产物ID有效
             if (appId == null || appId <= 0) {
                 log.warn("预览产物失败：产物ID无效 - appId={}", appId);
-                return ResponseEntity.badRequest().build();
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
 
             // 查询产物信息
             App app = appService.getById(appId);
             if (app == null) {
                 log.warn("预览产物失败：产物不存在 - appId={}", appId);
-                return ResponseEntity.notFound().build();
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
 
             // viewKey：所有模式均使用 codeGenType_appId 命名（Agent/工作流模式一致）
@@ -525,7 +497,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
             String resourcePath = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
             if (resourcePath == null) {
                 log.warn("预览产物失败：无法获取资源路径 - appId={}", appId);
-                return ResponseEntity.badRequest().build();
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
 
             // 提取资源文件路径（去除前缀 /generator/app/view/{appId}）
@@ -534,7 +507,9 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
 
             // 当路径为空时自动添加斜杠，避免路径解析问题（重定向到根路径）
             if (resourcePath.isEmpty()) {
-                return buildRedirectResponse(request.getRequestURI() + "/");
+                response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
+                response.setHeader(LOCATION_HEADER, request.getRequestURI() + "/");
+                return;
             }
 
             // 默认访问 index.html（根路径）
@@ -543,34 +518,16 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
             }
 
             // vue_project 类型优先服务 dist/（构建产物），未构建时回退到根目录（兼容 Agent 模式构建中的预览）
-            String filePath = resolvePreviewFilePath(viewKey, codeGenType, resourcePath);
-            File file = new File(filePath);
-
-            // 安全检查：防止路径穿越攻击
-            String canonicalPath = file.getCanonicalPath();
-            String expectedBasePath = new File(CODE_OUTPUT_ROOT_DIR + File.separator + viewKey).getCanonicalPath();
-            if (!canonicalPath.startsWith(expectedBasePath)) {
-                log.warn("预览产物失败：检测到路径穿越攻击 - appId={}, path={}", appId, resourcePath);
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-            }
-
-            // 检查文件是否存在
-            if (!file.exists() || !file.isFile()) {
-                log.debug("预览产物失败：文件不存在 - appId={}, filePath={}", appId, filePath);
-                return ResponseEntity.notFound().build();
-            }
-
-            // 返回产物文件资源（禁用强缓存，确保 AI 修改代码后预览立即生效）
-            FileSystemResource fileSystemResource = new FileSystemResource(file);
-            return ResponseEntity.ok()
-                    .header("Content-Type", getContentTypeWithCharset(filePath))
-                    .header("Cache-Control", "no-cache, no-store, must-revalidate")
-                    .header("Pragma", "no-cache")
-                    .header("Expires", "0")
-                    .body(fileSystemResource);
+            List<String> candidates = CodeGeneratorTypeEnum.VUE_PROJECT.getValue().equals(codeGenType)
+                    ? List.of(VUE_DIST_DIR + resourcePath, resourcePath)
+                    : List.of(resourcePath);
+            previewResourceServer.serve(Path.of(CODE_OUTPUT_ROOT_DIR, viewKey), candidates,
+                    getContentTypeWithCharset(resourcePath), request, response);
         } catch (Exception e) {
             log.error("预览产物失败：系统错误 - appId={}, error={}", appId, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -1034,38 +991,6 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         return CONTENT_TYPE_OCTET_STREAM;
     }
 
-    /**
-     * 构造重定向响应
-     *
-     * @param redirectUrl 重定向地址
-     * @return 重定向响应
-     */
-    private ResponseEntity<FileSystemResource> buildRedirectResponse(String redirectUrl) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(LOCATION_HEADER, redirectUrl);
-        return new ResponseEntity<>(headers, HttpStatus.MOVED_PERMANENTLY);
-    }
-
-    /**
-     * 解析预览文件绝对路径
-     * Vue 项目优先读取 dist 目录，未构建时回退到根目录
-     *
-     * @param viewKey 预览目录 key
-     * @param codeGenType 代码生成类型
-     * @param resourcePath 资源相对路径
-     * @return 文件绝对路径
-     */
-    private String resolvePreviewFilePath(String viewKey, String codeGenType, String resourcePath) {
-        String normalizedPath = resourcePath.replace("/", File.separator);
-        String basePath = CODE_OUTPUT_ROOT_DIR + File.separator + viewKey;
-        if (CodeGeneratorTypeEnum.VUE_PROJECT.getValue().equals(codeGenType)) {
-            File distFile = new File(basePath + File.separator + "dist" + normalizedPath);
-            File rootFile = new File(basePath + normalizedPath);
-            return distFile.exists() ? distFile.getAbsolutePath() : rootFile.getAbsolutePath();
-        }
-        return basePath + normalizedPath;
-    }
-
     /**
      * 校验部署源码目录是否可用
      *
@@ -1436,21 +1361,13 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         ThrowUtils.throwIf(pageSize > MAX_MY_APP_PAGE_SIZE, ErrorCode.PARAMS_ERROR, "每页最多查询 20 个 AI 产物");
         long pageNum = appQueryRequest.getPageNum();
 
+        // 筛选、排序与分页均在数据库完成，只查询当前页的产物
         List<Long> collaboratedAppIds = listCollaboratedAppIds(loginUser.getId());
-        Map<Long, App> appMap = buildAccessibleAppMap(loginUser.getId(), collaboratedAppIds);
-
-        List<App> filteredApps = appMap.values().stream()
-                .filter(app -> matchesMyAppQuery(app, appQueryRequest))
-                .sorted(buildMyAppComparator(appQueryRequest))
-                .collect(Collectors.toList());
-
-        int fromIndex = (int) Math.max(0, (pageNum - 1) * pageSize);
-        int toIndex = (int) Math.min(filteredApps.size(), fromIndex + pageSize);
-        List<App> pageRecords = fromIndex >= filteredApps.size()
-                ? new ArrayList<>()
-                : filteredApps.subList(fromIndex, toIndex);
+        QueryWrapper queryWrapper = buildMyAppQueryWrapper(loginUser.getId(), collaboratedAppIds, appQueryRequest);
+        Page<App> appPage = this.page(Page.of(pageNum, pageSize), queryWrapper);
+        List<App> pageRecords = appPage.getRecords();
 
-        Page<AppVO> appVOPage = new Page<>(pageNum, pageSize, filteredApps.size());
+        Page<AppVO> appVOPage = new Page<>(pageNum, pageSize, appPage.getTotalRow());
         List<AppVO> appVOList = appService.getAppVOList(pageRecords);
         Set<Long> collaboratedAppIdSet = collaboratedAppIds.stream().collect(Collectors.toSet());
         fillOwnershipType(appVOList, loginUser.getId(), collaboratedAppIdSet);
@@ -1464,15 +1381,7 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         long safeLimit = limit <= 0 ? DEFAULT_USER_RELATED_LIMIT : Math.min(limit, MAX_USER_RELATED_LIMIT);
 
         List<Long> collaboratedAppIds = listCollaboratedAppIds(userId);
-        Map<Long, App> appMap = buildAccessibleAppMap(userId, collaboratedAppIds);
-
-        List<App> filteredApps = appMap.values().stream()
-                .sorted(Comparator
-                        .comparing(App::getUpdateTime, Comparator.nullsLast(LocalDateTime::compareTo))
-                        .thenComparing(App::getCreateTime, Comparator.nullsLast(LocalDateTime::compareTo))
-                        .reversed())
-                .limit(safeLimit)
-                .collect(Collectors.toList());
+        List<App> filteredApps = this.list(buildUserRelatedAppQueryWrapper(userId, collaboratedAppIds, safeLimit));
 
         Set<Long> collaboratedAppIdSet = collaboratedAppIds.stream().collect(Collectors.toSet());
         List<AppVO> appVOList = appService.getAppVOList(filteredApps);
@@ -1550,23 +1459,101 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     }
 
     /**
-     * 构建用户可访问的产物映射
-     * 包含自己的产物和协作中的产物，且按插入顺序去重
+     * 构建“我的产物”分页查询条件
+     * 自己的产物与协作中的产物在同一条查询中完成筛选、排序与分页。
+     * 排序值相同时依次按“自己的产物在前”、id 升序排列，与此前内存排序（稳定排序，自己的产物先于协作产物加入，各自按 id 升序）的结果一致
      *
-     * @param userId 用户 ID
+     * @param userId             用户 ID
+     * @param collaboratedAppIds 协作产物 ID 列表
+     * @param appQueryRequest    查询请求
+     * @return 查询条件
+     */
+    static QueryWrapper buildMyAppQueryWrapper(Long userId, List<Long> collaboratedAppIds, AppQueryRequest appQueryRequest) {
+        QueryWrapper queryWrapper = buildAccessibleAppQueryWrapper(userId, collaboratedAppIds)
+                .eq("id", appQueryRequest.getId(), appQueryRequest.getId() != null)
+                .eq("codeGenType", appQueryRequest.getCodeGenType(), StrUtil.isNotBlank(appQueryRequest.getCodeGenType()))
+                .eq("priority", appQueryRequest.getPriority(), appQueryRequest.getPriority() != null)
+                // 模糊查询按字面匹配，转义通配符
+                .like("appName", escapeLike(appQueryRequest.getAppName()), StrUtil.isNotBlank(appQueryRequest.getAppName()))
+                .like("cover", escapeLike(appQueryRequest.getCover()), StrUtil.isNotBlank(appQueryRequest.getCover()))
+                .like("initPrompt", escapeLike(appQueryRequest.getInitPrompt()), StrUtil.isNotBlank(appQueryRequest.getInitPrompt()))
+                .like("deployKey", escapeLike(appQueryRequest.getDeployKey()), StrUtil.isNotBlank(appQueryRequest.getDeployKey()));
+
+        String sortField = appQueryRequest.getSortField();
+        String direction = "ascend".equalsIgnoreCase(appQueryRequest.getSortOrder())
+                || "asc".equalsIgnoreCase(appQueryRequest.getSortOrder()) ? " ASC" : " DESC";
+        if ("appName".equals(sortField)) {
+            // 不区分大小写、按字符编码排序，不受列排序规则影响；排序表达式由常量拼接，不含用户输入
+            // 基本多文种平面内大小写一一对应的字符（ASCII、中文、常见拉丁扩展与希腊字母等）与 String.CASE_INSENSITIVE_ORDER 一致。
+            // 已接受的差异：增补平面字符（如 emoji）按 UTF-8 字节排在 U+E000 以后的字符之后，而 Java 按 UTF-16 代理项排在之前；
+            // ſ（U+017F）、ı（U+0131）等转大写后与其他字符相同的字符，Java 先转大写再比较视为与 s、i 相等，LOWER() 不改变它们
+            queryWrapper.orderByUnSafely("HEX(LOWER(COALESCE(appName, '')))" + direction);
+        } else if ("updateTime".equals(sortField) || "priority".equals(sortField)) {
+            queryWrapper.orderBy(sortField + direction);
+        } else {
+            queryWrapper.orderBy("createTime" + direction);
+        }
+        return orderByOwnershipAndId(queryWrapper, userId, collaboratedAppIds);
+    }
+
+    /**
+     * 构建用户相关产物查询条件：按更新时间、创建时间倒序取前 limit 个
+     *
+     * @param userId             用户 ID
      * @param collaboratedAppIds 协作产物 ID 列表
-     * @return 可访问产物映射
+     * @param limit              数量上限
+     * @return 查询条件
+     */
+    static QueryWrapper buildUserRelatedAppQueryWrapper(Long userId, List<Long> collaboratedAppIds, long limit) {
+        QueryWrapper queryWrapper = buildAccessibleAppQueryWrapper(userId, collaboratedAppIds)
+                .orderBy("updateTime DESC", "createTime DESC");
+        return orderByOwnershipAndId(queryWrapper, userId, collaboratedAppIds).limit(limit);
+    }
+
+    /**
+     * 用户可访问的产物：自己的产物和协作中的产物
+     *
+     * @param userId             用户 ID
+     * @param collaboratedAppIds 协作产物 ID 列表
+     * @return 查询条件
+     */
+    private static QueryWrapper buildAccessibleAppQueryWrapper(Long userId, List<Long> collaboratedAppIds) {
+        if (CollUtil.isEmpty(collaboratedAppIds)) {
+            return QueryWrapper.create().eq("userId", userId);
+        }
+        return QueryWrapper.create()
+                .and((Consumer<QueryWrapper>) qw -> qw
+                        .eq("userId", userId)
+                        .or((Consumer<QueryWrapper>) inner -> inner.in("id", collaboratedAppIds)));
+    }
+
+    /**
+     * 排序值相同时自己的产物在前，再按 id 升序；没有协作产物时只按 id 升序
+     *
+     * @param queryWrapper       查询条件
+     * @param userId             用户 ID
+     * @param collaboratedAppIds 协作产物 ID 列表
+     * @return 查询条件
+     */
+    private static QueryWrapper orderByOwnershipAndId(QueryWrapper queryWrapper, Long userId, List<Long> collaboratedAppIds) {
+        if (CollUtil.isNotEmpty(collaboratedAppIds)) {
+            // userId 为数值，直接拼接不存在注入风险
+            queryWrapper.orderByUnSafely("CASE WHEN userId = " + userId.longValue() + " THEN 0 ELSE 1 END");
+        }
+        return queryWrapper.orderBy("id ASC");
+    }
+
+    /**
+     * 转义 LIKE 通配符，按字面匹配
+     *
+     * @param value 查询值
+     * @return 转义后的查询值
      */
-    private Map<Long, App> buildAccessibleAppMap(Long userId, List<Long> collaboratedAppIds) {
-        List<App> ownedApps = this.list(QueryWrapper.create().where("userId = ?", userId));
-        List<App> collaboratedApps = CollUtil.isEmpty(collaboratedAppIds)
-                ? new ArrayList<>()
-                : this.list(QueryWrapper.create().in("id", collaboratedAppIds));
-
-        Map<Long, App> appMap = new LinkedHashMap<>();
-        ownedApps.forEach(app -> appMap.put(app.getId(), app));
-        collaboratedApps.forEach(app -> appMap.putIfAbsent(app.getId(), app));
-        return appMap;
+    private static String escapeLike(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     /**
@@ -1644,63 +1631,6 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         return message + materialPrompt;
     }
 
-    /**
-     * 判断产物是否匹配“我的产物”筛选条件
-     *
-     * @param app 产物实体
-     * @param appQueryRequest 查询请求
-     * @return 是否匹配
-     */
-    private boolean matchesMyAppQuery(App app, AppQueryRequest appQueryRequest) {
-        if (appQueryRequest.getId() != null && !appQueryRequest.getId().equals(app.getId())) {
-            return false;
-        }
-        if (StrUtil.isNotBlank(appQueryRequest.getAppName())
-                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getAppName()), appQueryRequest.getAppName())) {
-            return false;
-        }
-        if (StrUtil.isNotBlank(appQueryRequest.getCover())
-                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getCover()), appQueryRequest.getCover())) {
-            return false;
-        }
-        if (StrUtil.isNotBlank(appQueryRequest.getInitPrompt())
-                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getInitPrompt()), appQueryRequest.getInitPrompt())) {
-            return false;
-        }
-        if (StrUtil.isNotBlank(appQueryRequest.getCodeGenType())
-                && !appQueryRequest.getCodeGenType().equals(app.getCodeGenType())) {
-            return false;
-        }
-        if (StrUtil.isNotBlank(appQueryRequest.getDeployKey())
-                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getDeployKey()), appQueryRequest.getDeployKey())) {
-            return false;
-        }
-        return appQueryRequest.getPriority() == null || appQueryRequest.getPriority().equals(app.getPriority());
-    }
-
-    /**
-     * 构建“我的产物”列表排序器
-     *
-     * @param appQueryRequest 查询请求
-     * @return 排序器
-     */
-    private Comparator<App> buildMyAppComparator(AppQueryRequest appQueryRequest) {
-        String sortField = appQueryRequest.getSortField();
-        boolean asc = "ascend".equalsIgnoreCase(appQueryRequest.getSortOrder())
-                || "asc".equalsIgnoreCase(appQueryRequest.getSortOrder());
-        Comparator<App> comparator;
-        if ("appName".equals(sortField)) {
-            comparator = Comparator.comparing(app -> StrUtil.nullToEmpty(app.getAppName()), String.CASE_INSENSITIVE_ORDER);
-        } else if ("updateTime".equals(sortField)) {
-            comparator = Comparator.comparing(App::getUpdateTime, Comparator.nullsLast(LocalDateTime::compareTo));
-        } else if ("priority".equals(sortField)) {
-            comparator = Comparator.comparing(App::getPriority, Comparator.nullsLast(Integer::compareTo));
-        } else {
-            comparator = Comparator.comparing(App::getCreateTime, Comparator.nullsLast(LocalDateTime::compareTo));
-        }
-        return asc ? comparator : comparator.reversed();
-    }
-
     /**
      * 获取星标 AI 产物分页
      *
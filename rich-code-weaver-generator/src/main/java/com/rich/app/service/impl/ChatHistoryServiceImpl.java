@@ -8,6 +8,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.rich.app.mapper.ChatHistoryMapper;
 import com.rich.app.service.AppService;
 import com.rich.app.service.ChatHistoryService;
+import com.rich.app.utils.chatHistory.ChatHistoryBatchWriter;
 import com.rich.client.innerService.InnerUserService;
 import com.rich.common.exception.ErrorCode;
 import com.rich.common.exception.ThrowUtils;
@@ -17,6 +18,7 @@ import com.rich.model.entity.ChatHistory;
 import com.rich.model.entity.User;
 import com.rich.model.enums.ChatHistoryTypeEnum;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import jakarta.annotation.Resource;
@@ -43,6 +45,9 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Lazy
     private AppService appService;
 
+    @Resource
+    private ChatHistoryBatchWriter chatHistoryBatchWriter;
+
     /**
      * 添加对话消息
      *
@@ -56,6 +61,52 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
      **/
     @Override
     public boolean addChatMessage(Long appId, String message, String messageType, Long userId) {
+        ChatHistory chatHistory = buildChatHistory(appId, message, messageType, userId);
+
+        // 保存对话历史到数据库：经批量写入器立即写入，保证写在同一产物此前异步入队的消息之后
+        boolean saveSuccess = chatHistoryBatchWriter.write(chatHistory, true).join();
+
+        // 记录保存结果日志
+        if (saveSuccess) {
+            log.debug("保存对话消息成功: appId={}, userId={}, messageType={}, messageLength={}",
+                    appId, userId, messageType, message.length());
+        } else {
+            log.error("保存对话消息失败: appId={}, userId={}, messageType={}", appId, userId, messageType);
+        }
+
+        return saveSuccess;
+    }
+
+    /**
+     * 异步添加对话消息，由批量写入器合并写入，不阻塞调用线程
+     *
+     * @param appId       产物ID
+     * @param message     消息内容
+     * @param messageType 消息类型
+     * @param userId      用户ID
+     * @author DuRuiChi
+     * @create 2026/10/18
+     **/
+    @Override
+    public void addChatMessageAsync(Long appId, String message, String messageType, Long userId) {
+        ChatHistory chatHistory = buildChatHistory(appId, message, messageType, userId);
+        chatHistoryBatchWriter.write(chatHistory, false).thenAccept(saveSuccess -> {
+            if (!saveSuccess) {
+                log.error("保存对话消息失败: appId={}, userId={}, messageType={}", appId, userId, messageType);
+            }
+        });
+    }
+
+    /**
+     * 校验参数并构建对话消息实体
+     *
+     * @param appId       产物ID
+     * @param message     消息内容
+     * @param messageType 消息类型
+     * @param userId      用户ID
+     * @return com.rich.model.entity.ChatHistory
+     **/
+    private ChatHistory buildChatHistory(Long appId, String message, String messageType, Long userId) {
         // 参数校验：验证产物ID有效性
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "产物ID无效");
         // 参数校验：验证消息内容不为空
@@ -71,25 +122,12 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
                 "消息类型不合法，必须是 USER 或 AI: " + messageType);
 
         // 构建对话历史实体对象
-        ChatHistory chatHistory = ChatHistory.builder()
+        return ChatHistory.builder()
                 .appId(appId)
                 .message(message)
                 .messageType(messageType)
                 .userId(userId)
                 .build();
-
-        // 保存对话历史到数据库
-        boolean saveSuccess = this.save(chatHistory);
-
-        // 记录保存结果日志
-        if (saveSuccess) {
-            log.debug("保存对话消息成功: appId={}, userId={}, messageType={}, messageLength={}",
-                    appId, userId, messageType, message.length());
-        } else {
-            log.error("保存对话消息失败: appId={}, userId={}, messageType={}", appId, userId, messageType);
-        }
-
-        return saveSuccess;
     }
 
     /**
@@ -105,6 +143,9 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
         // 参数校验：验证产物ID有效性
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "产物ID无效");
 
+        // 先写完队列中尚未落库的消息，避免删除后又被写入
+        chatHistoryBatchWriter.flush();
+
         // 构建删除条件：根据产物ID删除所有相关对话历史（级联删除）
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .eq("appId", appId);
@@ -257,6 +298,12 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
                 return false;
             }
 
+            // Redis 中仍保留该产物的对话记忆（服务实例被回收后重建）时直接复用，无需从数据库重新加载
+            if (hasChatMessages(chatMemory)) {
+                log.info("加载对话历史：复用已持久化的对话记忆 - appId={}", appId);
+                return true;
+            }
+
             // 构建查询条件：跳过第1条（最新记录），加载后续 maxCount 条
             // 原因：排除当前未处理的最新消息，避免重复加载到上下文中
             QueryWrapper queryWrapper = QueryWrapper.create()
@@ -313,4 +360,14 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
             return false;
         }
     }
+
+    /**
+     * 对话记忆中是否已有对话消息（系统消息除外）
+     *
+     * @param chatMemory 对话记忆
+     * @return boolean 是否已有对话消息
+     **/
+    private boolean hasChatMessages(MessageWindowChatMemory chatMemory) {
+        return chatMemory.messages().stream().anyMatch(message -> !(message instanceof SystemMessage));
+    }
 }
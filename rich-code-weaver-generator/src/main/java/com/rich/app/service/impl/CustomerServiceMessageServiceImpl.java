@@ -13,6 +13,7 @@ import com.rich.model.entity.CustomerServiceMessage;
 import com.rich.model.enums.CustomerServiceMessageRoleEnum;
 import com.rich.model.vo.CustomerServiceMessageVO;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import org.springframework.stereotype.Service;
@@ -101,6 +102,10 @@ public class CustomerServiceMessageServiceImpl extends ServiceImpl<CustomerServi
             ThrowUtils.throwIf(conversationId == null || conversationId <= 0, ErrorCode.PARAMS_ERROR, "会话ID无效");
             ThrowUtils.throwIf(chatMemory == null, ErrorCode.PARAMS_ERROR, "聊天记忆对象不能为空");
             ThrowUtils.throwIf(maxCount <= 0, ErrorCode.PARAMS_ERROR, "加载数量必须大于 0");
+            // Redis 中仍保留该会话的对话记忆时直接复用，无需从数据库重新加载
+            if (chatMemory.messages().stream().anyMatch(message -> !(message instanceof SystemMessage))) {
+                return true;
+            }
             QueryWrapper queryWrapper = QueryWrapper.create().from(CustomerServiceMessage.class)
                     .where("conversationId = ?", conversationId)
                     .orderBy("createTime DESC")
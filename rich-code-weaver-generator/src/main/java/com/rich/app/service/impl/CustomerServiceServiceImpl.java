@@ -32,11 +32,9 @@ import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * AI 客服聚合 Service 实现
@@ -48,11 +46,6 @@ import java.util.concurrent.atomic.AtomicReference;
 @Service
 public class CustomerServiceServiceImpl implements CustomerServiceService {
 
-    /**
-     * 跟随流轮询间隔
-     */
-    private static final long FOLLOW_POLL_INTERVAL_MILLIS = 100L;
-
     /**
      * AI 客服默认错误文案
      */
@@ -223,34 +216,21 @@ public class CustomerServiceServiceImpl implements CustomerServiceService {
      * @return SSE 事件流
      */
     private Flux<ServerSentEvent<String>> createFollowFlux(String sessionKey, String lastEventId) {
-        AtomicReference<String> lastSentEventId = new AtomicReference<>(lastEventId);
-        return Flux.interval(Duration.ofMillis(FOLLOW_POLL_INTERVAL_MILLIS))
-                .flatMap(tick -> {
-                    streamSessionService.updateLastAccessTime(sessionKey);
+        return streamSessionService.followEvents(sessionKey, lastEventId)
+                .map(event -> ServerSentEvent.<String>builder()
+                        .id(event.getEventId())
+                        .event(event.getEventType())
+                        .data(event.getData())
+                        .build())
+                // 事件日志已关闭但未记录结束事件（如会话被清理）时，按会话最终状态补发
+                .concatWith(Flux.defer(() -> {
                     StreamSession session = streamSessionService.getSession(sessionKey);
-                    if (session == null) {
-                        return buildEndEventFlux();
-                    }
-                    List<StreamEvent> newEvents = streamSessionService.getEventsAfter(sessionKey, lastSentEventId.get());
-                    if (!newEvents.isEmpty()) {
-                        StreamEvent lastEvent = newEvents.get(newEvents.size() - 1);
-                        lastSentEventId.set(lastEvent.getEventId());
-                        return Flux.fromIterable(newEvents)
-                                .map(event -> ServerSentEvent.<String>builder()
-                                        .id(event.getEventId())
-                                        .event(event.getEventType())
-                                        .data(event.getData())
-                                        .build());
-                    }
-                    if (session.isCompleted()) {
-                        return buildEndEventFlux();
-                    }
-                    if (session.isHasError()) {
+                    if (session != null && !session.isCompleted() && session.isHasError()) {
                         String errorMsg = session.getErrorMessage() != null ? session.getErrorMessage() : UNKNOWN_ERROR_MESSAGE;
                         return Flux.just(buildServerErrorSseEvent(errorMsg));
                     }
-                    return Flux.empty();
-                })
+                    return buildEndEventFlux();
+                }))
                 .takeUntil(event -> StreamEventConstant.EVENT_END.equals(event.event())
                         || StreamEventConstant.EVENT_SERVER_ERROR.equals(event.event()));
     }
@@ -1,25 +1,32 @@
 package com.rich.app.service.impl;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.core.util.ZipUtil;
 import com.rich.app.service.DownloadCodeFileService;
+import com.rich.app.utils.codeDownload.CodeZipCache;
 import com.rich.common.constant.AppConstant;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.model.entity.App;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileFilter;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Set;
 
 /**
  * 代码文件下载服务实现类
  * 提供将生成的代码打包为 ZIP 文件并下载的功能
+ * 压缩包按项目目录指纹缓存（代码重新生成后失效），下载支持 ETag / If-None-Match 与 Range 断点续传
  *
  * @author DuRuiChi
  * @since 2026-03-10
@@ -48,6 +55,19 @@ public class DownloadCodeFileServiceImpl implements DownloadCodeFileService {
      */
     private static final String ATTACHMENT_HEADER_TEMPLATE = "attachment; filename=\"%s.zip\"";
 
+    /**
+     * 整个文件范围（未请求 Range 或 Range 无法解析时返回完整内容）
+     */
+    private static final long[] FULL_RANGE = new long[0];
+
+    @Resource
+    private CodeZipCache codeZipCache;
+
+    /**
+     * 产物生成目录
+     */
+    private String codeOutputRootDir = AppConstant.CODE_OUTPUT_ROOT_DIR;
+
     /**
      * 需要过滤的文件和目录名称
      */
@@ -156,15 +176,16 @@ public class DownloadCodeFileServiceImpl implements DownloadCodeFileService {
 
     /**
      * 下载代码压缩包文件
-     * 将指定产物的代码目录打包为 ZIP 文件并通过 HTTP 响应下载
+     * 将指定产物的代码目录打包为 ZIP 文件（按目录指纹缓存）并通过 HTTP 响应下载
      *
      * @param app      产物实体
+     * @param request  HTTP 请求对象（读取 If-None-Match、Range、If-Range）
      * @param response HTTP 响应对象
      * @throws BusinessException 如果压缩或下载失败
      * @author DuRuiChi
      */
     @Override
-    public void downloadCodeZipFile(App app, HttpServletResponse response) {
+    public void downloadCodeZipFile(App app, HttpServletRequest request, HttpServletResponse response) {
         // 参数校验：确保产物对象和响应对象有效
         validateDownloadRequest(app, response);
 
@@ -183,30 +204,151 @@ public class DownloadCodeFileServiceImpl implements DownloadCodeFileService {
         log.info("开始下载代码压缩包: appId={}, zipFileName={}, projectDir={}",
                 appId, zipFileName, absoluteDirPath);
 
-        // 3：设置 HTTP 响应头，告诉浏览器这是一个下载文件
-        setDownloadResponseHeaders(response, appId, zipFileName);
-
-        // 4：创建文件过滤器，过滤掉不必要的文件和目录
-        FileFilter fileFilter = file -> pathFiltering(projectDir.toPath(), file.toPath());
-
-        // 5：压缩项目目录并直接写入 HTTP 响应流
+        // 3：获取压缩包（目录指纹未变化时直接使用缓存，过滤掉 node_modules 等不必要的文件和目录）
+        Path projectRoot = projectDir.toPath();
+        CodeZipCache.Archive archive = null;
+        FileChannel channel = null;
         try {
-            // 使用 Hutool 工具包的 ZipUtil.zip() 方法进行压缩
-            ZipUtil.zip(
-                    response.getOutputStream(),  // 直接写入 HTTP 响应流（流式传输，节省内存）
-                    StandardCharsets.UTF_8,      // 使用 UTF-8 编码（防止中文文件名乱码）
-                    false,                       // 不递归压缩子目录（由过滤器控制递归逻辑）
-                    fileFilter,                  // 文件过滤器（过滤node_modules等不必要文件）
-                    projectDir);                 // 要压缩的项目目录
-
-            log.info("项目代码文件压缩包下载完成: appId={}, zipFileName={}", appId, zipFileName);
+            // 压缩包可能恰好被并发的重新生成删除，重新获取一次
+            for (int attempt = 0; channel == null; attempt++) {
+                archive = codeZipCache.getOrCreate(zipFileName, projectRoot, path -> pathFiltering(projectRoot, path));
+                try {
+                    channel = FileChannel.open(archive.file(), StandardOpenOption.READ);
+                } catch (NoSuchFileException e) {
+                    if (attempt > 0) {
+                        throw e;
+                    }
+                }
+            }
         } catch (Exception e) {
             // 记录错误日志并抛出业务异常
-            log.error("项目代码文件压缩包下载失败: appId={}, zipFileName={}, error={}",
+            log.error("项目代码文件压缩包生成失败: appId={}, zipFileName={}, error={}",
                     appId, zipFileName, e.getMessage(), e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "项目代码文件压缩包下载失败： " + e.getMessage());
         }
+
+        // 4：按条件请求与 Range 请求输出压缩包
+        try (FileChannel zipChannel = channel) {
+            writeArchive(zipChannel, archive.fingerprint(), request, response, appId, zipFileName);
+        } catch (IOException e) {
+            // 多为客户端中断下载，客户端可凭 ETag 与 Range 续传
+            log.warn("项目代码文件压缩包传输中断: appId={}, zipFileName={}, error={}",
+                    appId, zipFileName, e.getMessage());
+        }
+    }
+
+    /**
+     * 输出压缩包
+     * 1. If-None-Match 与 ETag 匹配时返回 304；
+     * 2. 单个 Range（且 If-Range 为空或与 ETag 一致）时返回 206 与对应字节，范围无效时返回 416；
+     * 3. 其余情况（含多段 Range）返回完整内容
+     */
+    private void writeArchive(FileChannel channel, String fingerprint, HttpServletRequest request,
+                              HttpServletResponse response, Long appId, String zipFileName) throws IOException {
+        String etag = "\"" + fingerprint + "\"";
+        long length = channel.size();
+        response.setHeader("ETag", etag);
+        response.setHeader("Accept-Ranges", "bytes");
+        // 允许缓存但每次需携带 If-None-Match 校验
+        response.setHeader("Cache-Control", "no-cache");
+        if (request != null && etagMatches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            log.info("项目代码文件压缩包未变化: appId={}, etag={}", appId, etag);
+            return;
+        }
+
+        // 设置 HTTP 响应头，告诉浏览器这是一个下载文件
+        setDownloadResponseHeaders(response, appId, zipFileName);
+        long[] range = FULL_RANGE;
+        if (request != null && request.getHeader("Range") != null
+                && (request.getHeader("If-Range") == null || etag.equals(request.getHeader("If-Range").trim()))) {
+            range = parseRange(request.getHeader("Range"), length);
+            if (range == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader("Content-Range", "bytes */" + length);
+                return;
+            }
+        }
+        long start = 0;
+        long end = length - 1;
+        if (range != FULL_RANGE) {
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+
+        // 直接从文件通道传输到响应流
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        while (position <= end) {
+            position += channel.transferTo(position, end - position + 1, out);
+        }
+        response.flushBuffer();
+        log.info("项目代码文件压缩包下载完成: appId={}, zipFileName={}, bytes={}-{}/{}",
+                appId, zipFileName, start, end, length);
+    }
+
+    /**
+     * If-None-Match 是否与 ETag 匹配（支持多个值、弱校验前缀与 *）
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (StrUtil.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = StrUtil.removePrefix(candidate.trim(), "W/");
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析单个字节范围（bytes=start-end、bytes=start-、bytes=-suffixLength）
+     *
+     * @return [start, end]；无法解析或包含多段时返回 FULL_RANGE（返回完整内容）；范围无法满足时返回 null
+     */
+    static long[] parseRange(String rangeHeader, long length) {
+        String header = rangeHeader.trim();
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return FULL_RANGE;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return FULL_RANGE;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // 最后 suffixLength 个字节
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || length == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffixLength);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (end < start) {
+                    return start >= length ? null : FULL_RANGE;
+                }
+            }
+            if (start >= length) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return FULL_RANGE;
+        }
     }
 
     /**
@@ -312,7 +454,7 @@ public class DownloadCodeFileServiceImpl implements DownloadCodeFileService {
         }
 
         // 构建代码输出目录的绝对路径（格式：根目录/codeGenType_appId）
-        String absoluteDirPath = AppConstant.CODE_OUTPUT_ROOT_DIR
+        String absoluteDirPath = codeOutputRootDir
                 + File.separator
                 + codeGenType
                 + "_"
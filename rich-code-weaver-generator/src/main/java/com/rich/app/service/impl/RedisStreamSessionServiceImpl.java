@@ -0,0 +1,624 @@
+package com.rich.app.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.rich.app.model.StreamEvent;
+import com.rich.app.model.StreamSession;
+import com.rich.app.service.StreamSessionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SSE 流式会话管理服务实现（Redis Streams 分布式存储）
+ * 会话元数据存于 Hash，事件存于 Stream（按 MAXLEN 近似裁剪），所有键带 TTL；
+ * 任一节点都可以跟随或续传其他节点（或重启前）产生的会话。
+ * 写入事件由一个 Lua 脚本完成（一次往返），跟随者的阻塞读取使用独立的连接池，不占用共享连接。
+ * 通过 stream-session.store=redis 启用，默认仍使用内存实现。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "stream-session", name = "store", havingValue = "redis")
+public class RedisStreamSessionServiceImpl implements StreamSessionService {
+
+    private static final String META_KEY_PREFIX = "stream:session:meta:";
+    private static final String EVENTS_KEY_PREFIX = "stream:session:events:";
+    private static final String SEQUENCE_KEY_PREFIX = "stream:session:seq:";
+
+    private static final String FIELD_APP_ID = "appId";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_CREATE_TIME = "createTime";
+    private static final String FIELD_LAST_ACCESS_TIME = "lastAccessTime";
+    private static final String FIELD_COMPLETED = "completed";
+    private static final String FIELD_HAS_ERROR = "hasError";
+    private static final String FIELD_ERROR_MESSAGE = "errorMessage";
+
+    private static final String FIELD_EVENT_ID = "eventId";
+    private static final String FIELD_EVENT_TYPE = "eventType";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_TIMESTAMP = "timestamp";
+
+    private static final String FLAG_TRUE = "1";
+    private static final String FLAG_FALSE = "0";
+
+    /**
+     * Stream 起始位置（读取全部保留事件）
+     */
+    private static final String STREAM_BEGIN_ID = "0-0";
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /**
+     * 跟随连接的读超时在阻塞时间之外额外预留的时间（毫秒）
+     */
+    private static final long FOLLOW_READ_TIMEOUT_MARGIN_MILLIS = 3000L;
+
+    /**
+     * 写入事件脚本：校验会话存在、写入事件（按 MAXLEN 近似裁剪）、刷新访问时间并为所有键续期
+     * KEYS[1]：会话元数据，KEYS[2]：事件流，KEYS[3]：事件序号
+     * ARGV[1]：TTL（秒），ARGV[2]：最大事件数，ARGV[3]：事件序号（0 表示自动ID），ARGV[4]：当前时间，
+     * ARGV[5..8]：eventId、eventType、data、timestamp
+     * 返回 0 表示会话不存在，1 表示按序号写入，2 表示序号不递增（事件乱序写入）已退化为自动ID
+     */
+    private static final String ADD_EVENT_SCRIPT = """
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            local sequence = tonumber(ARGV[3])
+            local id = '*'
+            if sequence > 0 then
+                id = ARGV[3] .. '-0'
+                local last = redis.call('XREVRANGE', KEYS[2], '+', '-', 'COUNT', 1)
+                if #last > 0 and tonumber(string.match(last[1][1], '^(%d+)')) >= sequence then
+                    id = '*'
+                end
+            end
+            redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[2], id,
+                    'eventId', ARGV[5], 'eventType', ARGV[6], 'data', ARGV[7], 'timestamp', ARGV[8])
+            redis.call('HSET', KEYS[1], 'lastAccessTime', ARGV[4])
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            redis.call('EXPIRE', KEYS[2], ARGV[1])
+            redis.call('EXPIRE', KEYS[3], ARGV[1])
+            if sequence > 0 and id == '*' then
+                return 2
+            end
+            return 1
+            """;
+
+    /**
+     * 生成事件序号脚本：自增并续期
+     * KEYS[1]：事件序号，ARGV[1]：TTL（秒）
+     */
+    private static final String NEXT_SEQUENCE_SCRIPT = """
+            local sequence = redis.call('INCR', KEYS[1])
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return sequence
+            """;
+
+    private static final RedisScript<Long> ADD_EVENT = new DefaultRedisScript<>(ADD_EVENT_SCRIPT, Long.class);
+
+    private static final RedisScript<Long> NEXT_SEQUENCE = new DefaultRedisScript<>(NEXT_SEQUENCE_SCRIPT, Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisConnectionFactory redisConnectionFactory;
+
+    /**
+     * 跟随者专用连接池（XREAD BLOCK 会在阻塞期间独占连接）
+     */
+    private JedisConnectionFactory followConnectionFactory;
+
+    /**
+     * 跟随者阻塞读取使用的模板
+     */
+    private StringRedisTemplate followRedisTemplate;
+
+    /**
+     * 每个会话保留的最大事件数（近似裁剪）
+     */
+    @Value("${stream-session.redis.max-len:10000}")
+    private long maxEventsPerSession = 10000L;
+
+    /**
+     * 会话过期时间（分钟），每次写入或访问都会续期
+     */
+    @Value("${stream-session.redis.ttl-minutes:30}")
+    private long sessionTtlMinutes = 30L;
+
+    /**
+     * 跟随者单次阻塞读取等待时间（毫秒）
+     */
+    @Value("${stream-session.redis.follow-block-millis:2000}")
+    private long followBlockMillis = 2000L;
+
+    /**
+     * 跟随者单次读取的最大事件数
+     */
+    @Value("${stream-session.redis.follow-batch-size:500}")
+    private long followBatchSize = 500L;
+
+    /**
+     * 跟随者连接池最大连接数，即可同时阻塞读取的跟随者数量
+     */
+    @Value("${stream-session.redis.follow-pool.max-active:32}")
+    private int followPoolMaxActive = 32;
+
+    /**
+     * 跟随者连接池耗尽时获取连接的最长等待时间（毫秒）
+     */
+    @Value("${stream-session.redis.follow-pool.max-wait-millis:2000}")
+    private long followPoolMaxWaitMillis = 2000L;
+
+    /**
+     * 基于共享连接的服务端配置创建跟随者专用连接池
+     * 读超时需大于阻塞时间，否则阻塞读取会被客户端提前中断
+     */
+    @PostConstruct
+    public void init() {
+        if (!(redisConnectionFactory instanceof JedisConnectionFactory sharedFactory)) {
+            log.warn("Redis 连接工厂不是 Jedis 实现，跟随者使用共享连接: {}", redisConnectionFactory);
+            followRedisTemplate = stringRedisTemplate;
+            return;
+        }
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(followPoolMaxActive);
+        poolConfig.setMaxIdle(followPoolMaxActive);
+        poolConfig.setMinIdle(0);
+        poolConfig.setMaxWait(Duration.ofMillis(followPoolMaxWaitMillis));
+        JedisClientConfiguration.JedisClientConfigurationBuilder clientBuilder = JedisClientConfiguration.builder()
+                .connectTimeout(sharedFactory.getClientConfiguration().getConnectTimeout())
+                .readTimeout(Duration.ofMillis(followBlockMillis + FOLLOW_READ_TIMEOUT_MARGIN_MILLIS));
+        if (sharedFactory.getClientConfiguration().isUseSsl()) {
+            clientBuilder.useSsl();
+        }
+        followConnectionFactory = new JedisConnectionFactory(sharedFactory.getStandaloneConfiguration(),
+                clientBuilder.usePooling().poolConfig(poolConfig).build());
+        followConnectionFactory.afterPropertiesSet();
+        followConnectionFactory.start();
+        followRedisTemplate = new StringRedisTemplate(followConnectionFactory);
+        log.info("跟随者 Redis 连接池已创建: maxActive={}, blockMillis={}", followPoolMaxActive, followBlockMillis);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (followConnectionFactory != null) {
+            followConnectionFactory.destroy();
+        }
+    }
+
+    @Override
+    public String createSession(Long appId, Long userId) {
+        if (appId == null || appId <= 0 || userId == null || userId <= 0) {
+            log.error("创建会话失败：参数无效 - appId={}, userId={}", appId, userId);
+            throw new IllegalArgumentException("产物ID和用户ID不能为空或小于等于0");
+        }
+        String sessionId = String.format("session-%d-%d-%d", appId, userId, System.currentTimeMillis());
+        return createSession(sessionId, appId, userId);
+    }
+
+    /**
+     * 使用指定会话ID创建流式会话
+     * 仍在生成中的同名会话直接复用；已结束的同名会话会被清空后重建
+     *
+     * @param sessionId 会话ID
+     * @param appId     产物ID
+     * @param userId    用户ID
+     * @return String 会话ID
+     * @author DuRuiChi
+     */
+    @Override
+    public String createSession(String sessionId, Long appId, Long userId) {
+        if (StrUtil.isBlank(sessionId)) {
+            log.error("创建会话失败：会话ID为空");
+            throw new IllegalArgumentException("会话ID不能为空");
+        }
+        if (appId == null || appId <= 0 || userId == null || userId <= 0) {
+            log.error("创建会话失败：参数无效 - sessionId={}, appId={}, userId={}", sessionId, appId, userId);
+            throw new IllegalArgumentException("产物ID和用户ID不能为空或小于等于0");
+        }
+
+        StreamSession existingSession = getSession(sessionId);
+        if (existingSession != null && !existingSession.isCompleted() && !existingSession.isHasError()) {
+            log.warn("会话已存在，返回现有会话ID: sessionId={}", sessionId);
+            return sessionId;
+        }
+
+        // 清理已结束的同名会话，避免新会话回放旧事件
+        stringRedisTemplate.delete(List.of(metaKey(sessionId), eventsKey(sessionId), sequenceKey(sessionId)));
+
+        String now = LocalDateTime.now().format(TIME_FORMATTER);
+        Map<String, String> meta = new HashMap<>();
+        meta.put(FIELD_APP_ID, String.valueOf(appId));
+        meta.put(FIELD_USER_ID, String.valueOf(userId));
+        meta.put(FIELD_CREATE_TIME, now);
+        meta.put(FIELD_LAST_ACCESS_TIME, now);
+        meta.put(FIELD_COMPLETED, FLAG_FALSE);
+        meta.put(FIELD_HAS_ERROR, FLAG_FALSE);
+        stringRedisTemplate.opsForHash().putAll(metaKey(sessionId), meta);
+        stringRedisTemplate.expire(metaKey(sessionId), sessionTtlMinutes, TimeUnit.MINUTES);
+
+        log.info("创建 Redis 流式会话成功: sessionId={}, appId={}, userId={}", sessionId, appId, userId);
+        return sessionId;
+    }
+
+    /**
+     * 获取流式会话（仅包含元数据，事件通过 getEventsAfter/followEvents 读取）
+     *
+     * @param sessionId 会话ID
+     * @return StreamSession 会话对象，不存在则返回 null
+     * @author DuRuiChi
+     */
+    @Override
+    public StreamSession getSession(String sessionId) {
+        if (StrUtil.isBlank(sessionId)) {
+            return null;
+        }
+        Map<Object, Object> meta = stringRedisTemplate.opsForHash().entries(metaKey(sessionId));
+        if (meta.isEmpty()) {
+            return null;
+        }
+        String counter = stringRedisTemplate.opsForValue().get(sequenceKey(sessionId));
+        return StreamSession.builder()
+                .sessionId(sessionId)
+                .appId(parseLong(meta.get(FIELD_APP_ID)))
+                .userId(parseLong(meta.get(FIELD_USER_ID)))
+                .createTime(parseTime(meta.get(FIELD_CREATE_TIME)))
+                .lastAccessTime(parseTime(meta.get(FIELD_LAST_ACCESS_TIME)))
+                .completed(FLAG_TRUE.equals(meta.get(FIELD_COMPLETED)))
+                .hasError(FLAG_TRUE.equals(meta.get(FIELD_HAS_ERROR)))
+                .errorMessage((String) meta.get(FIELD_ERROR_MESSAGE))
+                .eventIdCounter(counter != null ? Long.parseLong(counter) : 0L)
+                .build();
+    }
+
+    /**
+     * 添加事件到会话
+     * 事件ID末尾序号作为 Stream 记录ID，续传时可直接定位；写入时按 MAXLEN 近似裁剪并续期，
+     * 存在校验、写入与续期在一个脚本内完成
+     *
+     * @param sessionId 会话ID
+     * @param event     流式事件
+     * @author DuRuiChi
+     */
+    @Override
+    public void addEvent(String sessionId, StreamEvent event) {
+        if (StrUtil.isBlank(sessionId)) {
+            log.warn("添加事件失败：会话ID为空");
+            return;
+        }
+        if (event == null) {
+            log.warn("添加事件失败：事件对象为空 - sessionId={}", sessionId);
+            return;
+        }
+        long sequence = parseSequence(sessionId, event.getEventId());
+        Long result = stringRedisTemplate.execute(ADD_EVENT,
+                List.of(metaKey(sessionId), eventsKey(sessionId), sequenceKey(sessionId)),
+                String.valueOf(TimeUnit.MINUTES.toSeconds(sessionTtlMinutes)),
+                String.valueOf(maxEventsPerSession),
+                String.valueOf(Math.max(sequence, 0L)),
+                LocalDateTime.now().format(TIME_FORMATTER),
+                StrUtil.nullToEmpty(event.getEventId()),
+                StrUtil.nullToEmpty(event.getEventType()),
+                StrUtil.nullToEmpty(event.getData()),
+                String.valueOf(event.getTimestamp()));
+        if (result == null || result == 0L) {
+            log.warn("会话不存在，无法添加事件: sessionId={}", sessionId);
+        } else if (result == 2L) {
+            // 记录ID不递增（事件乱序写入）时退化为自动ID，续传会回退到顺序查找
+            log.warn("事件序号不递增，已改用自动ID写入: sessionId={}, eventId={}", sessionId, event.getEventId());
+        }
+    }
+
+    /**
+     * 获取指定事件之后的所有事件
+     *
+     * @param sessionId   会话ID
+     * @param lastEventId 最后接收到的事件ID，为空则返回所有事件
+     * @return List<StreamEvent> 事件列表
+     * @author DuRuiChi
+     */
+    @Override
+    public List<StreamEvent> getEventsAfter(String sessionId, String lastEventId) {
+        if (StrUtil.isBlank(sessionId)) {
+            log.warn("获取事件失败：会话ID为空");
+            return new ArrayList<>();
+        }
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(metaKey(sessionId)))) {
+            log.warn("会话不存在，无法获取事件: sessionId={}", sessionId);
+            return new ArrayList<>();
+        }
+        touch(sessionId);
+        AtomicReference<String> cursor = new AtomicReference<>(resolveResumeRecordId(sessionId, lastEventId));
+        List<StreamEvent> resultEvents = new ArrayList<>();
+        List<StreamEvent> batch;
+        do {
+            batch = read(sessionId, cursor, false);
+            resultEvents.addAll(batch);
+        } while (!batch.isEmpty());
+        return resultEvents;
+    }
+
+    /**
+     * 跟随会话事件
+     * 基于 XREAD BLOCK 由 Redis 在有新事件时返回，读取在弹性线程池上执行；
+     * 读到空批次且会话已结束（或已过期）时再补读一次，仍为空则结束
+     *
+     * @param sessionId   会话ID
+     * @param lastEventId 最后接收到的事件ID（为空则从最早保留的事件开始）
+     * @return Flux<StreamEvent> 事件流
+     * @author DuRuiChi
+     */
+    @Override
+    public Flux<StreamEvent> followEvents(String sessionId, String lastEventId) {
+        return Flux.defer(() -> {
+            if (StrUtil.isBlank(sessionId) || !Boolean.TRUE.equals(stringRedisTemplate.hasKey(metaKey(sessionId)))) {
+                log.debug("会话不存在，跟随流直接结束: sessionId={}", sessionId);
+                return Flux.<StreamEvent>empty();
+            }
+            AtomicReference<String> cursor = new AtomicReference<>(resolveResumeRecordId(sessionId, lastEventId));
+            return Mono.fromCallable(() -> readNextBatch(sessionId, cursor))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .repeat()
+                    .takeUntil(FollowBatch::finished)
+                    .concatMapIterable(FollowBatch::events);
+        });
+    }
+
+    @Override
+    public void markCompleted(String sessionId) {
+        if (!updateMeta(sessionId, Map.of(FIELD_COMPLETED, FLAG_TRUE))) {
+            log.warn("会话不存在，无法标记完成: sessionId={}", sessionId);
+            return;
+        }
+        log.info("标记会话完成: sessionId={}", sessionId);
+    }
+
+    @Override
+    public void markError(String sessionId, String errorMessage) {
+        if (!updateMeta(sessionId, Map.of(FIELD_HAS_ERROR, FLAG_TRUE,
+                FIELD_ERROR_MESSAGE, StrUtil.nullToEmpty(errorMessage)))) {
+            log.warn("会话不存在，无法标记错误: sessionId={}", sessionId);
+            return;
+        }
+        log.error("标记会话错误: sessionId={}, error={}", sessionId, errorMessage);
+    }
+
+    @Override
+    public void updateLastAccessTime(String sessionId) {
+        if (StrUtil.isBlank(sessionId) || !Boolean.TRUE.equals(stringRedisTemplate.hasKey(metaKey(sessionId)))) {
+            return;
+        }
+        touch(sessionId);
+    }
+
+    /**
+     * 清理过期会话
+     * Redis 实现依赖键 TTL 自动过期，无需定时扫描
+     *
+     * @author DuRuiChi
+     */
+    @Override
+    public void cleanExpiredSessions() {
+        log.debug("Redis 流式会话依赖 TTL 自动过期，跳过定时清理");
+    }
+
+    /**
+     * 生成事件ID（基于 Redis INCR，跨节点唯一递增，自增与续期一次往返），格式为：sessionId-序号
+     *
+     * @param sessionId 会话ID
+     * @return String 事件ID
+     * @author DuRuiChi
+     */
+    @Override
+    public String generateEventId(String sessionId) {
+        if (StrUtil.isBlank(sessionId)) {
+            log.error("生成事件ID失败：会话ID为空");
+            throw new IllegalArgumentException("会话ID不能为空");
+        }
+        Long eventSequence = stringRedisTemplate.execute(NEXT_SEQUENCE, List.of(sequenceKey(sessionId)),
+                String.valueOf(TimeUnit.MINUTES.toSeconds(sessionTtlMinutes)));
+        return sessionId + "-" + eventSequence;
+    }
+
+    /**
+     * 读取游标之后的下一批事件
+     *
+     * @param sessionId 会话ID
+     * @param cursor    当前游标（Stream 记录ID），读取后前移
+     * @return FollowBatch 事件批次
+     */
+    private FollowBatch readNextBatch(String sessionId, AtomicReference<String> cursor) {
+        List<StreamEvent> events = read(sessionId, cursor, true);
+        if (!events.isEmpty()) {
+            return new FollowBatch(events, false);
+        }
+        // 空批次：检查会话是否已结束，结束后补读一次，防止完成标记与最后事件之间的竞态
+        List<Object> flags = stringRedisTemplate.opsForHash()
+                .multiGet(metaKey(sessionId), List.of(FIELD_COMPLETED, FIELD_HAS_ERROR));
+        boolean expired = flags.stream().allMatch(flag -> flag == null);
+        boolean finished = expired || flags.stream().anyMatch(FLAG_TRUE::equals);
+        if (!finished) {
+            return new FollowBatch(events, false);
+        }
+        List<StreamEvent> remainingEvents = read(sessionId, cursor, false);
+        return new FollowBatch(remainingEvents, remainingEvents.isEmpty());
+    }
+
+    /**
+     * 读取游标之后的事件，阻塞读取走跟随者专用连接池
+     */
+    private List<StreamEvent> read(String sessionId, AtomicReference<String> cursor, boolean block) {
+        StreamReadOptions options = StreamReadOptions.empty().count(followBatchSize);
+        StringRedisTemplate template = stringRedisTemplate;
+        if (block) {
+            options = options.block(Duration.ofMillis(followBlockMillis));
+            template = followRedisTemplate;
+        }
+        List<MapRecord<String, Object, Object>> records = template.opsForStream()
+                .read(options, StreamOffset.create(eventsKey(sessionId), ReadOffset.from(cursor.get())));
+        if (records == null || records.isEmpty()) {
+            return new ArrayList<>();
+        }
+        cursor.set(records.get(records.size() - 1).getId().getValue());
+        return toEvents(records);
+    }
+
+    /**
+     * 根据客户端最后收到的事件ID定位续传起点（返回的记录ID不包含在结果中）
+     * 优先按事件ID末尾序号直接定位，否则顺序查找；找不到时从最早保留的事件开始
+     *
+     * @param sessionId   会话ID
+     * @param lastEventId 最后收到的事件ID
+     * @return String Stream 记录ID
+     */
+    private String resolveResumeRecordId(String sessionId, String lastEventId) {
+        if (StrUtil.isEmpty(lastEventId)) {
+            return STREAM_BEGIN_ID;
+        }
+        String eventsKey = eventsKey(sessionId);
+        long sequence = parseSequence(sessionId, lastEventId);
+        if (sequence > 0) {
+            String candidateId = RecordId.of(sequence, 0).getValue();
+            List<MapRecord<String, Object, Object>> candidates = stringRedisTemplate.opsForStream()
+                    .range(eventsKey, Range.closed(candidateId, candidateId), Limit.limit().count(1));
+            if (candidates != null && !candidates.isEmpty()
+                    && lastEventId.equals(candidates.get(0).getValue().get(FIELD_EVENT_ID))) {
+                return candidateId;
+            }
+        }
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                .range(eventsKey, Range.unbounded());
+        if (records != null) {
+            for (MapRecord<String, Object, Object> record : records) {
+                if (lastEventId.equals(record.getValue().get(FIELD_EVENT_ID))) {
+                    return record.getId().getValue();
+                }
+            }
+        }
+        log.warn("未找到指定的lastEventId，返回所有事件: sessionId={}, lastEventId={}", sessionId, lastEventId);
+        return STREAM_BEGIN_ID;
+    }
+
+    /**
+     * 更新会话元数据（会话不存在时不创建）
+     *
+     * @param sessionId 会话ID
+     * @param fields    待更新字段
+     * @return boolean 会话是否存在
+     */
+    private boolean updateMeta(String sessionId, Map<String, String> fields) {
+        if (StrUtil.isBlank(sessionId) || !Boolean.TRUE.equals(stringRedisTemplate.hasKey(metaKey(sessionId)))) {
+            return false;
+        }
+        stringRedisTemplate.opsForHash().putAll(metaKey(sessionId), fields);
+        touch(sessionId);
+        return true;
+    }
+
+    /**
+     * 刷新最后访问时间并为会话所有键续期
+     *
+     * @param sessionId 会话ID
+     */
+    private void touch(String sessionId) {
+        stringRedisTemplate.opsForHash().put(metaKey(sessionId), FIELD_LAST_ACCESS_TIME,
+                LocalDateTime.now().format(TIME_FORMATTER));
+        stringRedisTemplate.expire(metaKey(sessionId), sessionTtlMinutes, TimeUnit.MINUTES);
+        stringRedisTemplate.expire(eventsKey(sessionId), sessionTtlMinutes, TimeUnit.MINUTES);
+    }
+
+    private List<StreamEvent> toEvents(List<MapRecord<String, Object, Object>> records) {
+        List<StreamEvent> events = new ArrayList<>();
+        if (records == null) {
+            return events;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> value = record.getValue();
+            events.add(StreamEvent.builder()
+                    .eventId((String) value.get(FIELD_EVENT_ID))
+                    .eventType((String) value.get(FIELD_EVENT_TYPE))
+                    .data((String) value.get(FIELD_DATA))
+                    .timestamp(parseLong(value.get(FIELD_TIMESTAMP)))
+                    .build());
+        }
+        return events;
+    }
+
+    /**
+     * 解析事件ID中的序号（事件ID格式：sessionId-序号），不符合格式时返回 -1
+     */
+    private static long parseSequence(String sessionId, String eventId) {
+        if (eventId == null || !eventId.startsWith(sessionId + "-")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(eventId.substring(sessionId.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static long parseLong(Object value) {
+        return value == null || StrUtil.isBlank(value.toString()) ? 0L : Long.parseLong(value.toString());
+    }
+
+    private static LocalDateTime parseTime(Object value) {
+        return value == null ? null : LocalDateTime.parse(value.toString(), TIME_FORMATTER);
+    }
+
+    private static String metaKey(String sessionId) {
+        return META_KEY_PREFIX + sessionId;
+    }
+
+    private static String eventsKey(String sessionId) {
+        return EVENTS_KEY_PREFIX + sessionId;
+    }
+
+    private static String sequenceKey(String sessionId) {
+        return SEQUENCE_KEY_PREFIX + sessionId;
+    }
+
+    /**
+     * 跟随读取批次
+     *
+     * @param events   本批事件
+     * @param finished 会话是否已结束且事件已读完
+     */
+    private record FollowBatch(List<StreamEvent> events, boolean finished) {
+    }
+}
@@ -2,28 +2,33 @@ package com.rich.app.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.rich.app.model.StreamEvent;
+import com.rich.app.model.StreamEventLog;
 import com.rich.app.model.StreamSession;
 import com.rich.app.service.StreamSessionService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * SSE 流式会话管理服务实现
+ * SSE 流式会话管理服务实现（节点内存存储，默认实现）
+ * 分布式部署需要跨节点续传时，可通过 stream-session.store=redis 切换为 Redis Streams 实现
  *
  * @author DuRuiChi
  * @create 2025/12/27
  **/
 @Slf4j
 @Service
+@ConditionalOnProperty(prefix = "stream-session", name = "store", havingValue = "memory", matchIfMissing = true)
 public class StreamSessionServiceImpl implements StreamSessionService {
 
     private static final int SESSION_EXPIRE_MINUTES = 30;
@@ -76,11 +81,16 @@ public class StreamSessionServiceImpl implements StreamSessionService {
             throw new IllegalArgumentException("产物ID和用户ID不能为空或小于等于0");
         }
 
-        // 检查会话是否已存在，避免重复创建
-        if (sessionMap.containsKey(sessionId)) {
+        // 检查会话是否已存在：仍在生成中的会话直接复用，避免重复创建
+        StreamSession existingSession = sessionMap.get(sessionId);
+        if (existingSession != null && !existingSession.isCompleted() && !existingSession.isHasError()) {
             log.warn("会话已存在，返回现有会话ID: sessionId={}", sessionId);
             return sessionId;
         }
+        // 已结束的同名会话（相同请求再次发起生成）：关闭旧事件日志，由新会话替换
+        if (existingSession != null) {
+            closeEventLog(existingSession);
+        }
 
         // 获取当前时间（统一使用同一时间戳）
         LocalDateTime currentTime = LocalDateTime.now();
@@ -92,7 +102,7 @@ public class StreamSessionServiceImpl implements StreamSessionService {
                 .userId(userId)
                 .createTime(currentTime)
                 .lastAccessTime(currentTime)
-                .eventQueue(new ConcurrentLinkedQueue<>())  // 初始化线程安全的事件队列
+                .eventLog(new StreamEventLog(MAX_EVENTS_PER_SESSION))  // 初始化有界事件日志
                 .completed(false)  // 初始状态为未完成
                 .hasError(false)   // 初始状态为无错误
                 .eventIdCounter(0L)  // 事件ID计数器从0开始
@@ -123,7 +133,7 @@ public class StreamSessionServiceImpl implements StreamSessionService {
 
     /**
      * 添加事件到会话
-     * 将事件添加到指定会话的事件队列中，超过最大容量时移除最旧的事件
+     * 将事件追加到会话的有界事件日志中，超过最大容量时覆盖最旧的事件，并唤醒所有跟随者
      *
      * @param sessionId 会话ID
      * @param event     流式事件
@@ -148,38 +158,30 @@ public class StreamSessionServiceImpl implements StreamSessionService {
             return;
         }
 
-        // 获取会话的事件队列（线程安全队列）
-        ConcurrentLinkedQueue<StreamEvent> eventQueue = session.getEventQueue();
-        if (eventQueue == null) {
-            log.error("事件队列为空，会话数据异常: sessionId={}", sessionId);
+        // 获取会话的事件日志（环形缓冲区，线程安全）
+        StreamEventLog eventLog = session.getEventLog();
+        if (eventLog == null) {
+            log.error("事件日志为空，会话数据异常: sessionId={}", sessionId);
             return;
         }
 
-        // 检查队列容量，超过最大限制时移除最旧的事件（FIFO策略，防止内存溢出）
-        if (eventQueue.size() >= MAX_EVENTS_PER_SESSION) {
-            StreamEvent removedEvent = eventQueue.poll();
-            log.debug("事件队列已满（容量={}），移除最旧事件: eventId={}",
-                    MAX_EVENTS_PER_SESSION,
-                    removedEvent != null ? removedEvent.getEventId() : "null");
-        }
-
-        // 将新事件添加到队列尾部（线程安全操作）
-        boolean addSuccess = eventQueue.offer(event);
-        if (!addSuccess) {
-            log.error("事件添加失败: sessionId={}, eventId={}", sessionId, event.getEventId());
+        // 追加事件（容量满时覆盖最旧事件，防止内存溢出），追加成功后自动唤醒跟随者
+        long sequence = eventLog.append(event);
+        if (sequence < 0) {
+            log.warn("事件日志已关闭，丢弃事件: sessionId={}, eventId={}", sessionId, event.getEventId());
             return;
         }
 
         // 更新会话最后访问时间（保持会话活跃）
         session.setLastAccessTime(LocalDateTime.now());
 
-        log.debug("添加事件到会话成功: sessionId={}, eventId={}, eventType={}, queueSize={}",
-                sessionId, event.getEventId(), event.getEventType(), eventQueue.size());
+        log.debug("添加事件到会话成功: sessionId={}, eventId={}, eventType={}, sequence={}",
+                sessionId, event.getEventId(), event.getEventType(), sequence);
     }
 
     /**
      * 获取指定事件之后的所有事件
-     * 用于SSE重连时获取断点之后的事件，支持断点续传
+     * 用于SSE重连时获取断点之后的事件，支持断点续传（按事件序号直接定位）
      *
      * @param sessionId   会话ID
      * @param lastEventId 最后接收到的事件ID，为空则返回所有事件
@@ -196,7 +198,7 @@ public class StreamSessionServiceImpl implements StreamSessionService {
 
         // 获取会话对象
         StreamSession session = sessionMap.get(sessionId);
-        if (session == null) {
+        if (session == null || session.getEventLog() == null) {
             log.warn("会话不存在，无法获取事件: sessionId={}", sessionId);
             return new ArrayList<>();
         }
@@ -204,46 +206,46 @@ public class StreamSessionServiceImpl implements StreamSessionService {
         // 更新会话最后访问时间（保持会话活跃，防止被清理）
         session.setLastAccessTime(LocalDateTime.now());
 
-        // 获取事件队列
-        ConcurrentLinkedQueue<StreamEvent> eventQueue = session.getEventQueue();
-        if (eventQueue == null || eventQueue.isEmpty()) {
-            // 队列为空或不存在，返回空列表
-            return new ArrayList<>();
-        }
-
-        // 准备返回的事件列表
-        List<StreamEvent> resultEvents = new ArrayList<>();
-
-        // 如果没有指定lastEventId，返回所有事件（首次连接场景）
-        if (StrUtil.isEmpty(lastEventId)) {
-            resultEvents.addAll(eventQueue);
-        } else {
-            // 查找lastEventId之后的所有事件（断线重连场景）
-            boolean foundLastEvent = false;
-            for (StreamEvent event : eventQueue) {
-                // 空值保护
-                if (event == null || event.getEventId() == null) {
-                    continue;
-                }
-
-                if (foundLastEvent) {
-                    // 已找到lastEventId，添加后续所有事件
-                    resultEvents.add(event);
-                } else if (event.getEventId().equals(lastEventId)) {
-                    // 找到lastEventId，从下一个事件开始添加
-                    foundLastEvent = true;
-                }
-            }
+        // 定位续传起点（lastEventId 为空或已被覆盖时从最早保留的事件开始）
+        StreamEventLog eventLog = session.getEventLog();
+        return eventLog.readFrom(eventLog.resolveResumeSequence(lastEventId));
+    }
 
-            // 如果没有找到lastEventId，可能是事件已被清理，返回所有事件
-            if (!foundLastEvent && !eventQueue.isEmpty()) {
-                log.warn("未找到指定的lastEventId，返回所有事件: sessionId={}, lastEventId={}",
-                        sessionId, lastEventId);
-                resultEvents.addAll(eventQueue);
+    /**
+     * 跟随会话事件（推送模式）
+     * 订阅事件日志的唤醒信号：订阅时先回放断点之后的事件，之后每次追加仅读取增量，
+     * 会话结束（完成、出错或被清理）后流自然完成
+     *
+     * @param sessionId   会话ID
+     * @param lastEventId 最后接收到的事件ID（为空则从最早保留的事件开始）
+     * @return Flux<StreamEvent> 事件流
+     * @author DuRuiChi
+     */
+    @Override
+    public Flux<StreamEvent> followEvents(String sessionId, String lastEventId) {
+        return Flux.defer(() -> {
+            StreamSession session = StrUtil.isBlank(sessionId) ? null : sessionMap.get(sessionId);
+            if (session == null || session.getEventLog() == null) {
+                log.debug("会话不存在，跟随流直接结束: sessionId={}", sessionId);
+                return Flux.empty();
             }
-        }
-
-        return resultEvents;
+            StreamEventLog eventLog = session.getEventLog();
+            // 读取游标（每个跟随者独立）
+            AtomicLong cursor = new AtomicLong(eventLog.resolveResumeSequence(lastEventId));
+            return eventLog.signals()
+                    // 慢消费者只保留最新信号，一次读取即可追上所有增量
+                    .onBackpressureLatest()
+                    // 切换到独立线程读取并推送，避免生成线程被慢客户端拖住
+                    .publishOn(Schedulers.parallel(), 1)
+                    .concatMapIterable(signal -> {
+                        List<StreamEvent> newEvents = new ArrayList<>();
+                        cursor.set(eventLog.readFrom(cursor.get(), newEvents));
+                        if (!newEvents.isEmpty()) {
+                            session.setLastAccessTime(LocalDateTime.now());
+                        }
+                        return newEvents;
+                    });
+        });
     }
 
     /**
@@ -262,6 +264,8 @@ public class StreamSessionServiceImpl implements StreamSessionService {
             session.setCompleted(true);
             // 更新最后访问时间
             session.setLastAccessTime(LocalDateTime.now());
+            // 关闭事件日志，通知跟随者在推送完剩余事件后结束
+            closeEventLog(session);
             log.info("标记会话完成: sessionId={}", sessionId);
         } else {
             log.warn("会话不存在，无法标记完成: sessionId={}", sessionId);
@@ -287,6 +291,8 @@ public class StreamSessionServiceImpl implements StreamSessionService {
             session.setErrorMessage(errorMessage);
             // 更新最后访问时间
             session.setLastAccessTime(LocalDateTime.now());
+            // 关闭事件日志，通知跟随者在推送完剩余事件后结束
+            closeEventLog(session);
             log.error("标记会话错误: sessionId={}, error={}", sessionId, errorMessage);
         } else {
             log.warn("会话不存在，无法标记错误: sessionId={}", sessionId);
@@ -350,10 +356,12 @@ public class StreamSessionServiceImpl implements StreamSessionService {
 
                     if (removedSession != null) {
                         cleanedCount++;
+                        // 关闭事件日志，仍在跟随的连接随之结束
+                        closeEventLog(removedSession);
                         log.info("清理过期会话: sessionId={}, appId={}, 事件数={}",
                                 sessionId,
                                 removedSession.getAppId(),
-                                removedSession.getEventQueue() != null ? removedSession.getEventQueue().size() : 0);
+                                removedSession.getEventLog() != null ? removedSession.getEventLog().size() : 0);
                     }
                 } catch (Exception e) {
                     log.error("清理会话失败: sessionId={}, error={}", sessionId, e.getMessage());
@@ -421,4 +429,17 @@ public class StreamSessionServiceImpl implements StreamSessionService {
         log.debug("生成会话ID: sessionId={}, appId={}, userId={}", sessionId, appId, userId);
         return sessionId;
     }
+
+    /**
+     * 关闭会话的事件日志
+     *
+     * @param session 流式会话
+     * @author DuRuiChi
+     */
+    private void closeEventLog(StreamSession session) {
+        StreamEventLog eventLog = session.getEventLog();
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
 }
@@ -5,17 +5,18 @@ import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.rich.app.mapper.TaskExecutionMapper;
 import com.rich.app.service.TaskExecutionService;
+import com.rich.app.utils.taskProgress.TaskProgressTracker;
 import com.rich.model.entity.TaskExecution;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
- * 任务执行记录服务实现(Mysql + Redis 双写)
+ * 任务执行记录服务实现(Mysql + Redis 实时快照)
+ * 进度变化只更新 Redis 快照，状态变化与终态才写入数据库；查询优先读取快照
  *
  * @author DuRuiChi
  * @create 2026-05-06
@@ -26,13 +27,11 @@ public class TaskExecutionServiceImpl extends ServiceImpl<TaskExecutionMapper, T
         implements TaskExecutionService {
 
     @Resource
-    private RedisTemplate<String, Object> redisTemplate;
-
-    private static final String TASK_STATUS_KEY_PREFIX = "task:status:";
-    private static final Duration TASK_STATUS_TTL = Duration.ofHours(1);
+    private TaskProgressTracker taskProgressTracker;
 
     @Override
     public Long createTask(String taskType, Long appId, Long userId) {
+        LocalDateTime now = now();
         TaskExecution taskExecution = TaskExecution.builder()
                 .taskType(taskType)
                 .appId(appId)
@@ -41,14 +40,14 @@ public class TaskExecutionServiceImpl extends ServiceImpl<TaskExecutionMapper, T
                 .progress(0)
                 .retryCount(0)
                 .maxRetries(3)
-                .createTime(LocalDateTime.now())
-                .updateTime(LocalDateTime.now())
+                .createTime(now)
+                .updateTime(now)
                 .build();
 
         boolean saved = this.save(taskExecution);
         if (saved) {
-            // 同步到Redis缓存
-            cacheTaskStatus(appId, "PENDING", 0, null);
+            // 写入实时快照（覆盖该产物上一个任务的快照）
+            taskProgressTracker.put(taskExecution);
             log.info("创建任务执行记录成功: taskType={}, appId={}, userId={}", taskType, appId, userId);
             return taskExecution.getId();
         }
@@ -59,34 +58,7 @@ public class TaskExecutionServiceImpl extends ServiceImpl<TaskExecutionMapper, T
 
     @Override
     public void updateStatus(Long appId, String status, Integer progress) {
-        TaskExecution latestTask = getLatestByAppId(appId);
-        if (latestTask == null) {
-            log.warn("未找到产物{}的任务执行记录", appId);
-            return;
-        }
-
-        TaskExecution updateTask = new TaskExecution();
-        updateTask.setId(latestTask.getId());
-        updateTask.setStatus(status);
-        updateTask.setProgress(progress);
-        updateTask.setUpdateTime(LocalDateTime.now());
-
-        // 如果是开始执行，记录开始时间
-        if ("RUNNING".equals(status) && latestTask.getStartTime() == null) {
-            updateTask.setStartTime(LocalDateTime.now());
-        }
-
-        // 如果是完成状态，记录结束时间
-        if ("SUCCESS".equals(status) || "FAILED".equals(status)) {
-            updateTask.setEndTime(LocalDateTime.now());
-        }
-
-        boolean updated = this.updateById(updateTask);
-        if (updated) {
-            // 同步到Redis缓存
-            cacheTaskStatus(appId, status, progress, null);
-            log.debug("更新任务状态成功: appId={}, status={}, progress={}", appId, status, progress);
-        }
+        applyUpdate(appId, status, progress, null, false);
     }
 
     @Override
@@ -100,63 +72,103 @@ public class TaskExecutionServiceImpl extends ServiceImpl<TaskExecutionMapper, T
         TaskExecution updateTask = new TaskExecution();
         updateTask.setId(latestTask.getId());
         updateTask.setResult(result);
-        updateTask.setUpdateTime(LocalDateTime.now());
+        updateTask.setUpdateTime(now());
 
         boolean updated = this.updateById(updateTask);
         if (updated) {
-            // 同步到Redis缓存
-            cacheTaskStatus(appId, latestTask.getStatus(), latestTask.getProgress(), result);
+            latestTask.setResult(result);
+            latestTask.setUpdateTime(updateTask.getUpdateTime());
+            taskProgressTracker.put(latestTask);
             log.debug("更新任务结果成功: appId={}, result={}", appId, 
                     StrUtil.sub(result, 0, 100)); // 只记录前100字符
         }
     }
 
+    @Override
+    public void finishTask(Long appId, String status, Integer progress, String result) {
+        applyUpdate(appId, status, progress, result, true);
+    }
+
     @Override
     public TaskExecution getLatestByAppId(Long appId) {
-        // 先从Redis缓存查询
-        String cacheKey = TASK_STATUS_KEY_PREFIX + appId;
-        Object cached = redisTemplate.opsForValue().get(cacheKey);
+        // 先从Redis实时快照查询
+        TaskExecution cached = taskProgressTracker.get(appId);
         if (cached != null) {
-            log.debug("从Redis缓存获取任务状态: appId={}", appId);
+            log.debug("从Redis快照获取任务状态: appId={}", appId);
+            return cached;
         }
 
-        // 从数据库查询最新记录
+        // 从数据库查询最新记录，并重建快照
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where("app_id = ?", appId)
                 .orderBy("create_time", false)
                 .limit(1);
 
-        return this.getOne(queryWrapper);
+        TaskExecution latestTask = this.getOne(queryWrapper);
+        if (latestTask != null) {
+            taskProgressTracker.put(latestTask);
+        }
+        return latestTask;
     }
 
     /**
-     * 缓存任务状态到Redis
+     * 更新任务状态、进度（及结果）
+     * 快照总是更新；状态变化、终态、写入结果或快照写入失败时同时写入数据库
      */
-    private void cacheTaskStatus(Long appId, String status, Integer progress, String result) {
-        String cacheKey = TASK_STATUS_KEY_PREFIX + appId;
-        
-        TaskStatusCache cache = TaskStatusCache.builder()
-                .status(status)
-                .progress(progress)
-                .message(result)
-                .updateTime(System.currentTimeMillis())
-                .build();
+    private void applyUpdate(Long appId, String status, Integer progress, String result, boolean withResult) {
+        TaskExecution latestTask = getLatestByAppId(appId);
+        if (latestTask == null) {
+            log.warn("未找到产物{}的任务执行记录", appId);
+            return;
+        }
+        boolean milestone = withResult || TaskProgressTracker.isMilestone(latestTask.getStatus(), status);
+        LocalDateTime now = now();
 
-        redisTemplate.opsForValue().set(cacheKey, cache, TASK_STATUS_TTL);
+        TaskExecution updateTask = new TaskExecution();
+        updateTask.setId(latestTask.getId());
+        updateTask.setStatus(status);
+        updateTask.setProgress(progress);
+        updateTask.setUpdateTime(now);
+
+        // 如果是开始执行，记录开始时间
+        if ("RUNNING".equals(status) && latestTask.getStartTime() == null) {
+            updateTask.setStartTime(now);
+        }
+
+        // 如果是完成状态，记录结束时间
+        if (TaskProgressTracker.isTerminal(status)) {
+            updateTask.setEndTime(now);
+        }
+        if (withResult) {
+            updateTask.setResult(result);
+        }
+
+        latestTask.setStatus(status);
+        latestTask.setProgress(progress);
+        latestTask.setUpdateTime(now);
+        if (updateTask.getStartTime() != null) {
+            latestTask.setStartTime(updateTask.getStartTime());
+        }
+        if (updateTask.getEndTime() != null) {
+            latestTask.setEndTime(updateTask.getEndTime());
+        }
+        if (withResult) {
+            latestTask.setResult(result);
+        }
+
+        // 快照写入失败时退回到每次写库，保证查询结果不丢失进度
+        boolean cached = taskProgressTracker.put(latestTask);
+        if (milestone || !cached) {
+            this.updateById(updateTask);
+        }
+        log.debug("更新任务状态成功: appId={}, status={}, progress={}, persisted={}",
+                appId, status, progress, milestone || !cached);
     }
 
     /**
-     * 任务状态缓存对象
+     * 当前时间（精确到秒，与数据库 DATETIME 一致，快照与数据库记录相同）
      */
-    @lombok.Data
-    @lombok.Builder
-    @lombok.NoArgsConstructor
-    @lombok.AllArgsConstructor
-    private static class TaskStatusCache implements java.io.Serializable {
-        private static final long serialVersionUID = 1L;
-        private String status;
-        private Integer progress;
-        private String message;
-        private Long updateTime;
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
     }
 }
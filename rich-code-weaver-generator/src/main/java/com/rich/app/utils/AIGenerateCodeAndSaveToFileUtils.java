@@ -1,10 +1,13 @@
 package com.rich.app.utils;
 
+import com.rich.ai.model.msgResponse.StreamAiChatMsgResponse;
+import com.rich.ai.model.msgResponse.StreamMsgResponse;
 import com.rich.ai.service.AiCodeGeneratorService;
 import com.rich.app.factory.AiCodeGenWorkflowServiceFactory;
 import com.rich.app.utils.ConvertTokenStreamToFluxUtils.ConvertWorkflowTokenStreamToFluxUtils;
-import com.rich.app.utils.codeParse.CodeParseExecutor;
+import com.rich.app.utils.codeParse.StreamingCodeParser;
 import com.rich.app.utils.codeSave.CodeResultSaveExecutor;
+import com.rich.app.utils.previewServe.PreviewFileCache;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.common.utils.SpringContextUtil;
@@ -14,6 +17,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.nio.file.Path;
+
+import static com.rich.common.constant.AppConstant.CODE_OUTPUT_ROOT_DIR;
+
 /**
  * AI 生成代码并保存为本地文件
  * （门面设计模式：整合 AI 代码生成器服务 和 本地保存工具包，流式整合代码解析为封装类）
@@ -43,17 +50,20 @@ public class AIGenerateCodeAndSaveToFileUtils {
     @Resource
     private ConvertWorkflowTokenStreamToFluxUtils convertWorkflowTokenStreamToFluxUtils;
 
+    @Resource
+    private PreviewFileCache previewFileCache;
+
     /**
      * 通过判断代码生成业务类型，调用对应的 AI 服务生成代码流，并保存到本地（流式）
      *
      * @param userMessage     用户提示词
      * @param codeGenTypeEnum 代码生成类型
      * @param appId           产物id
-     * @return reactor.core.publisher.Flux<java.lang.String>    代码流
+     * @return reactor.core.publisher.Flux<StreamMsgResponse>    代码流（类型化消息）
      * @author DuRuiChi
      * @create 2025/12/6
      **/
-    public Flux<String> aiGenerateAndSaveCodeStream(String userMessage, CodeGeneratorTypeEnum codeGenTypeEnum, Long appId) {
+    public Flux<StreamMsgResponse> aiGenerateAndSaveCodeStream(String userMessage, CodeGeneratorTypeEnum codeGenTypeEnum, Long appId) {
         try {
             // 1：校验代码生成类型是否为空
             if (codeGenTypeEnum == null) {
@@ -70,12 +80,14 @@ public class AIGenerateCodeAndSaveToFileUtils {
                 // HTML 单文件模式：生成 HTML 代码流
                 // langchain4j 不支持流式输出格式化，故自定义解析逻辑
                 case HTML, MULTI_FILE -> {
-                    Flux<String> resultStream = generateCodeStream(aiCodeGeneratorService, userMessage, codeGenTypeEnum, appId);
-                    // 解析并保存代码流
-                    yield parseAndSaveCodeStream(resultStream, codeGenTypeEnum, appId);
+                    Flux<String> resultStream = generateCodeStream(aiCodeGeneratorService, userMessage, codeGenTypeEnum);
+                    // 解析并保存代码流，文本块封装为 AI 响应消息
+                    yield parseAndSaveCodeStream(resultStream, codeGenTypeEnum, appId)
+                            .map(StreamAiChatMsgResponse::new);
                 }
                 // Vue 项目模式：生成 Vue 项目代码流（使用推理模型）
-                case VUE_PROJECT -> generateCodeStream(aiCodeGeneratorService, userMessage, codeGenTypeEnum, appId);
+                case VUE_PROJECT -> convertWorkflowTokenStreamToFluxUtils.convertTokenStreamToFlux(
+                        aiCodeGeneratorService.generateVueProjectCodeStream(userMessage, appId), appId);
                 // 默认情况：不支持的类型，抛出异常
                 default -> {
                     String errorMessage = String.format(UNSUPPORTED_GENERATOR_TYPE_TEMPLATE, codeGenTypeEnum.getValue());
@@ -107,21 +119,18 @@ public class AIGenerateCodeAndSaveToFileUtils {
     }
 
     /**
-     * 根据生成类型获取对应的代码流
+     * 根据生成类型获取对应的纯文本代码流（HTML 单文件、多文件模式）
      *
      * @param aiCodeGeneratorService AI 代码生成服务
      * @param userMessage 用户提示词
      * @param codeGenTypeEnum 代码生成类型
-     * @param appId 产物 ID
      * @return 代码流
      */
     private Flux<String> generateCodeStream(AiCodeGeneratorService aiCodeGeneratorService, String userMessage,
-                                            CodeGeneratorTypeEnum codeGenTypeEnum, Long appId) {
+                                            CodeGeneratorTypeEnum codeGenTypeEnum) {
         return switch (codeGenTypeEnum) {
             case HTML -> aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
             case MULTI_FILE -> aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
-            case VUE_PROJECT -> convertWorkflowTokenStreamToFluxUtils.convertTokenStreamToFlux(
-                    aiCodeGeneratorService.generateVueProjectCodeStream(userMessage, appId), appId);
             default -> throw new BusinessException(
                     ErrorCode.SYSTEM_ERROR,
                     String.format(UNSUPPORTED_GENERATOR_TYPE_TEMPLATE, codeGenTypeEnum.getValue()));
@@ -131,6 +140,7 @@ public class AIGenerateCodeAndSaveToFileUtils {
     /**
      * 解析代码流，根据代码类型调用对应的解析器，解析代码块
      * （ langchain4j 不支持流式输出格式化，故自定义相关解析逻辑）
+     * 代码流逐块输入增量解析器，识别到的代码块边生成边写入文件，无需在流结束时拼接全部输出再整体解析
      *
      * @param resultStream          代码流
      * @param codeGeneratorTypeEnum 代码类型
@@ -140,20 +150,21 @@ public class AIGenerateCodeAndSaveToFileUtils {
      * @create 2025/12/6
      **/
     private Flux<String> parseAndSaveCodeStream(Flux<String> resultStream, CodeGeneratorTypeEnum codeGeneratorTypeEnum, Long appId) {
-        // 创建 StringBuilder 用于拼接代码流中的所有代码块
-        StringBuilder codeBuilder = new StringBuilder();
-
-        // 处理代码流：每次收到代码块时追加到 StringBuilder，流结束时解析并保存
-        return resultStream
-                // doOnNext：每次收到代码块时追加到 codeBuilder
-                .doOnNext(codeBuilder::append)
-                // doOnComplete：流结束时执行解析和保存逻辑
-                .doOnComplete(() -> {
-                    // 1：将拼接好的代码字符串解析为代码封装类
-                    Object codeResult = CodeParseExecutor.executeParseCode(
-                            codeBuilder.toString(), codeGeneratorTypeEnum);
-                    // 2：将代码封装类保存为本地文件
-                    CodeResultSaveExecutor.executeSaver(codeResult, codeGeneratorTypeEnum, appId);
-                });
+        // 每次订阅创建独立的解析器，解析状态不在订阅之间共享
+        return Flux.defer(() -> {
+            StreamingCodeParser streamingCodeParser =
+                    CodeResultSaveExecutor.openStreamingParser(codeGeneratorTypeEnum, appId);
+            return resultStream
+                    // doOnNext：每次收到代码块时增量解析，识别到的代码立即写入文件
+                    .doOnNext(streamingCodeParser::append)
+                    // doOnComplete：流结束时补齐未识别到代码块的文件
+                    .doOnComplete(streamingCodeParser::finish)
+                    // doFinally：出错或取消时释放文件资源，并清除预览缓存中的旧文件
+                    .doFinally(signalType -> {
+                        streamingCodeParser.close();
+                        previewFileCache.invalidate(Path.of(CODE_OUTPUT_ROOT_DIR,
+                                codeGeneratorTypeEnum.getValue() + "_" + appId));
+                    });
+        });
     }
 }
@@ -3,6 +3,7 @@ package com.rich.app.utils.ConvertTokenStreamToFluxUtils;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.rich.ai.model.msgResponse.StreamAiChatMsgResponse;
+import com.rich.ai.model.msgResponse.StreamMsgResponse;
 import com.rich.ai.model.msgResponse.StreamToolExecutedMsgResponse;
 import com.rich.ai.model.msgResponse.StreamToolInvocMsgResponse;
 import dev.langchain4j.service.TokenStream;
@@ -16,7 +17,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
 /**
- * Agent 模式 TokenStream → Flux<String> 转换器
+ * Agent 模式 TokenStream → Flux<StreamMsgResponse> 转换器
  *
  *
  * @author DuRuiChi
@@ -58,26 +59,26 @@ public class ConvertAgentTokenStreamToFluxUtils {
     private final Map<Long, Deque<String>> recentToolCallsMap = new ConcurrentHashMap<>();
 
     /**
-     * Agent 模式 TokenStream → Flux<String>
+     * Agent 模式 TokenStream → Flux<StreamMsgResponse>
      * 包含工具调用循环检测。
      *
      * @param tokenStream TokenStream 对象
      * @param appId       产物 ID，用于循环检测的状态隔离
-     * @return Flux<String> 流式响应（JSON 格式消息块）
+     * @return Flux<StreamMsgResponse> 流式响应（类型化消息，进程内不做序列化）
      */
-    public Flux<String> convertTokenStreamToFlux(TokenStream tokenStream, Long appId) {
+    public Flux<StreamMsgResponse> convertTokenStreamToFlux(TokenStream tokenStream, Long appId) {
         return convertTokenStreamToFlux(tokenStream, appId, null);
     }
 
     /**
-     * Agent 模式 TokenStream → Flux<String>（含 Act 回调）
+     * Agent 模式 TokenStream → Flux<StreamMsgResponse>（含 Act 回调）
      *
      * @param tokenStream   TokenStream 对象
      * @param appId         产物 ID
      * @param actCallback   每次工具执行完成后的 Observation 回调（对应 ReActAgent.act()），可为 null
-     * @return Flux<String> 流式响应
+     * @return Flux<StreamMsgResponse> 流式响应
      */
-    public Flux<String> convertTokenStreamToFlux(TokenStream tokenStream, Long appId,
+    public Flux<StreamMsgResponse> convertTokenStreamToFlux(TokenStream tokenStream, Long appId,
                                                   BiConsumer<ToolExecution, Long> actCallback) {
         return Flux.create(sink -> {
             Set<String> seenToolIds = new HashSet<>();
@@ -86,7 +87,7 @@ public class ConvertAgentTokenStreamToFluxUtils {
                     // AI 普通文本响应
                     .onPartialResponse((String partialResponse) -> {
                         StreamAiChatMsgResponse response = new StreamAiChatMsgResponse(partialResponse);
-                        sink.next(JSONUtil.toJsonStr(response));
+                        sink.next(response);
                     })
                     // 工具调用请求（只发射每个工具 ID 的首次请求，避免参数碎片刷屏）
                     .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
@@ -94,7 +95,7 @@ public class ConvertAgentTokenStreamToFluxUtils {
                         if (toolId != null && !seenToolIds.contains(toolId)) {
                             seenToolIds.add(toolId);
                             StreamToolInvocMsgResponse invocResponse = new StreamToolInvocMsgResponse(toolExecutionRequest);
-                            sink.next(JSONUtil.toJsonStr(invocResponse));
+                            sink.next(invocResponse);
                         }
                     })
                     // 工具执行完成
@@ -111,7 +112,7 @@ public class ConvertAgentTokenStreamToFluxUtils {
                         } catch (Exception e) {
                             log.debug("剥离工具参数内容字段失败，使用原始参数", e);
                         }
-                        sink.next(JSONUtil.toJsonStr(executedResponse));
+                        sink.next(executedResponse);
 
                         // Act 回调（Observation）：通知 ReActAgent 子类工具执行完成
                         if (actCallback != null) {
@@ -157,7 +158,7 @@ public class ConvertAgentTokenStreamToFluxUtils {
      * @param sink     流发射器
      */
     private void checkAndHandleStuckState(Long appId, String toolName,
-                                          reactor.core.publisher.FluxSink<String> sink) {
+                                          reactor.core.publisher.FluxSink<StreamMsgResponse> sink) {
         // 排除列表中的工具不参与循环检测
         if (EXCLUDED_TOOLS.contains(toolName)) {
             return;
@@ -180,7 +181,7 @@ public class ConvertAgentTokenStreamToFluxUtils {
                     + "> 请重新评估当前策略：考虑简化实现、跳过失败步骤，或调用 `exit` 说明原因。\n\n";
 
             StreamAiChatMsgResponse warning = new StreamAiChatMsgResponse(stuckWarning);
-            sink.next(JSONUtil.toJsonStr(warning));
+            sink.next(warning);
             log.warn("Agent 循环检测触发: appId={}, toolName={}, 窗口内重复次数={}", appId, toolName, duplicateCount);
 
             // 窗口清空，给 AI 一个新的机会
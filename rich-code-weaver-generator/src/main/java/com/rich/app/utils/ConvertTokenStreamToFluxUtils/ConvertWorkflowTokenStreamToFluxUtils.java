@@ -3,6 +3,7 @@ package com.rich.app.utils.ConvertTokenStreamToFluxUtils;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.rich.ai.model.msgResponse.StreamAiChatMsgResponse;
+import com.rich.ai.model.msgResponse.StreamMsgResponse;
 import com.rich.ai.model.msgResponse.StreamToolExecutedMsgResponse;
 import com.rich.ai.model.msgResponse.StreamToolInvocMsgResponse;
 import com.rich.common.constant.AppConstant;
@@ -22,7 +23,7 @@ import java.util.Set;
 import static com.rich.common.exception.ErrorCode.OPERATION_ERROR;
 
 /**
- * Workflow 模式 TokenStream → Flux<String> 转换器
+ * Workflow 模式 TokenStream → Flux<StreamMsgResponse> 转换器
  *
  * @author DuRuiChi
  * @create 2025/12/25
@@ -37,12 +38,12 @@ public class ConvertWorkflowTokenStreamToFluxUtils {
     private BuildWebProjectExecutor buildWebProjectExecutor;
 
     /**
-     * TokenStream (LangChain4j) 转换为 Flux<String> (Reactor )
+     * TokenStream (LangChain4j) 转换为 Flux<StreamMsgResponse> (Reactor )
      *
      * @param tokenStream TokenStream 对象
-     * @return Flux<String> 流式响应
+     * @return Flux<StreamMsgResponse> 流式响应
      */
-    public Flux<String> convertTokenStreamToFlux(TokenStream tokenStream, Long appId) {
+    public Flux<StreamMsgResponse> convertTokenStreamToFlux(TokenStream tokenStream, Long appId) {
         // 创建 Flux 流，使用 sink 发射器处理 TokenStream 事件
         return Flux.create(sink -> {
             // 用于跟踪已见过的工具ID，只发射每个工具的首次调用请求
@@ -50,7 +51,7 @@ public class ConvertWorkflowTokenStreamToFluxUtils {
             Set<String> seenToolIds = new HashSet<>();
 
             // 转换的主要逻辑：在 tokenStream 事件处理的回调函数中，使用 sink.next() 发射器
-            // 将 AI 输出的信息转换为自定义封装类，再转换为 JSON 格式，最后发射出去
+            // 将 AI 输出的信息转换为自定义封装类后直接发射，序列化留到 SSE 出口统一完成
             // 注：当前稳定版本并不支持对 Tool 调用信息的输出功能，故使用新版本代码
             // 参考：https://github.com/langchain4j/langchain4j/pull/3303
             tokenStream
@@ -58,8 +59,8 @@ public class ConvertWorkflowTokenStreamToFluxUtils {
                     .onPartialResponse((String partialResponse) -> {
                         // 将部分响应封装为 StreamAiChatMsgResponse 对象
                         StreamAiChatMsgResponse streamAiChatMsgResponse = new StreamAiChatMsgResponse(partialResponse);
-                        // 转换为 JSON 并发射到流中
-                        sink.next(JSONUtil.toJsonStr(streamAiChatMsgResponse));
+                        // 直接发射消息对象，序列化在 SSE 出口统一完成
+                        sink.next(streamAiChatMsgResponse);
                     })
                     // 处理工具调用请求（只发射每个工具ID的首次请求）
                     .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
@@ -70,7 +71,7 @@ public class ConvertWorkflowTokenStreamToFluxUtils {
                             seenToolIds.add(toolId);
                             // 封装工具调用请求并发射
                             StreamToolInvocMsgResponse streamToolInvocMsgResponse = new StreamToolInvocMsgResponse(toolExecutionRequest);
-                            sink.next(JSONUtil.toJsonStr(streamToolInvocMsgResponse));
+                            sink.next(streamToolInvocMsgResponse);
                         }
                     })
                     // 处理工具执行完成事件（剥离大体积字段）
@@ -90,7 +91,7 @@ public class ConvertWorkflowTokenStreamToFluxUtils {
                             log.debug("剥离工具参数内容字段失败，使用原始参数", e);
                         }
                         // 发射处理后的工具执行结果
-                        sink.next(JSONUtil.toJsonStr(streamToolExecutedMsgResponse));
+                        sink.next(streamToolExecutedMsgResponse);
                     })
                     // 处理完成事件
                     .onCompleteResponse((ChatResponse response) -> {
@@ -0,0 +1,244 @@
+package com.rich.app.utils.chatHistory;
+
+import com.rich.app.mapper.ChatHistoryMapper;
+import com.rich.model.entity.ChatHistory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对话历史批量写入器（write-behind）
+ * 对话消息先进入内存队列，由单个后台线程合并为批量插入，避免每条消息一次事务、流结束时同步等待数据库。
+ * 1. 队列中消息达到 batch-size 条或最早一条等待超过 flush-interval-millis 时写入；
+ * 2. 单线程按入队顺序写入，createTime 取入队时间，同一产物的消息顺序与调用顺序一致；
+ * 3. 需要立即落库的消息（如用户消息）会触发立即写入，并等待其之前入队的消息一并完成；
+ * 4. 批量插入失败时逐条重试，单条失败只影响该条消息；
+ * 5. 应用关闭时停止接收新消息并写完队列中的全部消息，关闭后的写入直接同步落库
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class ChatHistoryBatchWriter {
+
+    @Resource
+    private ChatHistoryMapper chatHistoryMapper;
+
+    /**
+     * 单批最大消息数
+     */
+    @Value("${chat-history.write-behind.batch-size:100}")
+    private int batchSize = 100;
+
+    /**
+     * 最大写入延迟（毫秒）
+     */
+    @Value("${chat-history.write-behind.flush-interval-millis:200}")
+    private long flushIntervalMillis = 200;
+
+    /**
+     * 关闭时等待队列写完的最长时间（秒）
+     */
+    @Value("${chat-history.write-behind.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds = 30;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * 是否接收新消息，与入队操作在同一把锁下切换，关闭后不会再有消息进入队列
+     */
+    private boolean running;
+
+    private Thread flushThread;
+
+    @PostConstruct
+    public void init() {
+        synchronized (this) {
+            running = true;
+        }
+        flushThread = Thread.ofPlatform()
+                .name("chat-history-writer")
+                .daemon(true)
+                .start(this::flushLoop);
+    }
+
+    /**
+     * 写入对话消息
+     *
+     * @param chatHistory 对话消息
+     * @param immediate   是否立即写入（同时写入其之前入队的全部消息）
+     * @return 写入结果，消息落库（或写入失败）后完成
+     */
+    public CompletableFuture<Boolean> write(ChatHistory chatHistory, boolean immediate) {
+        LocalDateTime now = LocalDateTime.now();
+        if (chatHistory.getCreateTime() == null) {
+            chatHistory.setCreateTime(now);
+        }
+        if (chatHistory.getUpdateTime() == null) {
+            chatHistory.setUpdateTime(chatHistory.getCreateTime());
+        }
+        PendingWrite pendingWrite = new PendingWrite(chatHistory, immediate, System.nanoTime(), new CompletableFuture<>());
+        synchronized (this) {
+            if (running) {
+                queue.add(pendingWrite);
+                return pendingWrite.result();
+            }
+        }
+        // 已关闭：直接同步写入
+        flush(List.of(pendingWrite));
+        return pendingWrite.result();
+    }
+
+    /**
+     * 等待当前已入队的消息全部落库
+     */
+    public void flush() {
+        CompletableFuture<Boolean> barrier = new CompletableFuture<>();
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            queue.add(new PendingWrite(null, true, System.nanoTime(), barrier));
+        }
+        barrier.join();
+    }
+
+    /**
+     * 应用关闭：停止接收新消息，写完队列中的全部消息
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        // 不中断写入线程，避免打断进行中的数据库写入；写入线程最多一个 flush-interval 后发现已关闭
+        try {
+            flushThread.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 后台线程未能在限定时间内写完时，由关闭线程写入剩余消息
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.warn("【对话历史写入】关闭时仍有 {} 条消息未写入，同步写入", remaining.size());
+            for (int from = 0; from < remaining.size(); from += batchSize) {
+                flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+            }
+        }
+        log.info("【对话历史写入】已关闭");
+    }
+
+    private void flushLoop() {
+        while (true) {
+            boolean accepting;
+            synchronized (this) {
+                accepting = running;
+            }
+            if (!accepting && queue.isEmpty()) {
+                return;
+            }
+            try {
+                List<PendingWrite> batch = nextBatch(accepting);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("【对话历史写入】写入线程异常: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 取下一批消息：凑满一批、最早一条等待超时、遇到需要立即写入的消息或正在关闭时返回
+     */
+    private List<PendingWrite> nextBatch(boolean accepting) throws InterruptedException {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        PendingWrite first = accepting ? queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS) : queue.poll();
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = first.enqueuedNanos() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        boolean immediate = first.immediate() || !accepting;
+        while (batch.size() < batchSize && !immediate) {
+            long waitNanos = deadline - System.nanoTime();
+            if (waitNanos <= 0) {
+                break;
+            }
+            PendingWrite next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            immediate = next.immediate();
+        }
+        if (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+        return batch;
+    }
+
+    /**
+     * 批量插入，失败时逐条重试
+     */
+    private void flush(List<PendingWrite> batch) {
+        List<ChatHistory> chatHistories = new ArrayList<>(batch.size());
+        for (PendingWrite pendingWrite : batch) {
+            if (pendingWrite.chatHistory() != null) {
+                chatHistories.add(pendingWrite.chatHistory());
+            }
+        }
+        if (!chatHistories.isEmpty()) {
+            try {
+                chatHistoryMapper.insertBatch(chatHistories);
+                log.debug("【对话历史写入】批量写入 {} 条消息", chatHistories.size());
+            } catch (Exception e) {
+                log.warn("【对话历史写入】批量写入 {} 条消息失败，逐条重试: {}", chatHistories.size(), e.getMessage());
+                for (PendingWrite pendingWrite : batch) {
+                    if (pendingWrite.chatHistory() != null) {
+                        pendingWrite.result().complete(insertOne(pendingWrite.chatHistory()));
+                    }
+                }
+            }
+        }
+        for (PendingWrite pendingWrite : batch) {
+            pendingWrite.result().complete(true);
+        }
+    }
+
+    private boolean insertOne(ChatHistory chatHistory) {
+        try {
+            return chatHistoryMapper.insert(chatHistory) > 0;
+        } catch (Exception e) {
+            log.error("【对话历史写入】写入消息失败: appId={}, userId={}, messageType={}, 错误: {}",
+                    chatHistory.getAppId(), chatHistory.getUserId(), chatHistory.getMessageType(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 待写入消息；chatHistory 为空时表示 flush 屏障
+     */
+    private record PendingWrite(ChatHistory chatHistory, boolean immediate, long enqueuedNanos,
+                                CompletableFuture<Boolean> result) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.rich.app.utils.codeDownload;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.rich.common.constant.AppConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 代码下载压缩包缓存
+ * 压缩包按项目目录的指纹缓存，同一份代码只压缩一次：
+ * 1. 指纹由参与打包的每个文件的相对路径、大小与修改时间计算（不读取文件内容），代码重新生成后指纹随之变化；
+ * 2. 压缩包文件名为 {name}_{指纹}.zip，生成新压缩包后删除同一 name 的旧压缩包；
+ * 3. 条目按路径排序、时间取文件修改时间，同一指纹重新生成的压缩包内容相同，可作为断点续传的 ETag；
+ * 4. 压缩包先写入临时文件再原子重命名，并发请求不会读到写了一半的文件；条目数超过上限时淘汰最久未访问的压缩包；
+ * 5. 写完后重新遍历目录校验指纹，打包期间代码被修改（指纹变化或文件被删除）时丢弃压缩包并以最新目录重试一次
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+@Component
+public class CodeZipCache {
+
+    /**
+     * 压缩包格式版本，修改打包方式时递增，使旧的缓存失效
+     */
+    private static final String FORMAT_VERSION = "1";
+
+    private static final String ZIP_SUFFIX = ".zip";
+
+    /**
+     * 打包期间目录发生变化时的最多打包次数
+     */
+    private static final int MAX_ATTEMPTS = 2;
+
+    /**
+     * 按 name 分段加锁，同一项目的压缩包只由一个请求生成
+     */
+    private static final Object[] LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < LOCKS.length; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    /**
+     * 缓存目录，为空时使用 {user.dir}/sysCache/code_zip_cache
+     */
+    @Value("${code-download.cache.root-dir:}")
+    private String rootDir = "";
+
+    /**
+     * 保留的压缩包数
+     */
+    @Value("${code-download.cache.max-entries:200}")
+    private int maxEntries = 200;
+
+    /**
+     * 获取项目目录的压缩包，指纹变化时重新生成
+     *
+     * @param name       缓存条目名（同一项目固定，如 appId_codeGenType）
+     * @param projectDir 项目目录
+     * @param filter     参与打包的路径（绝对路径），目录被过滤时跳过整个子树
+     * @return 压缩包
+     */
+    public Archive getOrCreate(String name, Path projectDir, Predicate<Path> filter) throws IOException {
+        List<Entry> entries = listEntries(projectDir, filter);
+        String fingerprint = fingerprint(entries);
+        Path cacheRoot = cacheRoot();
+        Path archive = cacheRoot.resolve(name + "_" + fingerprint + ZIP_SUFFIX);
+        if (Files.isRegularFile(archive)) {
+            touch(archive);
+            return new Archive(archive, fingerprint);
+        }
+        synchronized (LOCKS[Math.floorMod(name.hashCode(), LOCKS.length)]) {
+            for (int attempt = 1; ; attempt++) {
+                if (Files.isRegularFile(archive)) {
+                    return new Archive(archive, fingerprint);
+                }
+                Files.createDirectories(cacheRoot);
+                Path temp = cacheRoot.resolve("." + UUID.randomUUID() + ".tmp");
+                try {
+                    writeZip(entries, temp);
+                    // 打包期间代码被修改时压缩包内容与指纹不符，不能以该指纹缓存
+                    entries = listEntries(projectDir, filter);
+                    if (fingerprint(entries).equals(fingerprint)) {
+                        Files.move(temp, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                        log.info("生成代码压缩包: name={}, fingerprint={}, entries={}", name, fingerprint, entries.size());
+                        deleteStale(cacheRoot, name, archive);
+                        prune(cacheRoot);
+                        return new Archive(archive, fingerprint);
+                    }
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw new IOException("项目目录在打包期间持续变化，请稍后重试");
+                    }
+                    log.info("打包期间项目目录发生变化，丢弃压缩包后重试: name={}", name);
+                } catch (NoSuchFileException e) {
+                    // 打包期间文件被删除（如代码正在重新生成）
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.info("打包期间文件被删除，重新遍历后重试: name={}, file={}", name, e.getFile());
+                    entries = listEntries(projectDir, filter);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                fingerprint = fingerprint(entries);
+                archive = cacheRoot.resolve(name + "_" + fingerprint + ZIP_SUFFIX);
+            }
+        }
+    }
+
+    /**
+     * 遍历项目目录，返回按相对路径排序的条目（文件与空目录）
+     */
+    static List<Entry> listEntries(Path projectDir, Predicate<Path> filter) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Files.walkFileTree(projectDir, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.equals(projectDir)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (!filter.test(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (isEmpty(dir, filter)) {
+                    entries.add(new Entry(relativeName(projectDir, dir) + "/", dir, -1, attrs.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && filter.test(file)) {
+                    entries.add(new Entry(relativeName(projectDir, file), file, attrs.size(),
+                            attrs.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        entries.sort(Comparator.comparing(Entry::name));
+        return entries;
+    }
+
+    /**
+     * 计算条目列表的指纹
+     */
+    static String fingerprint(List<Entry> entries) {
+        StringBuilder builder = new StringBuilder(FORMAT_VERSION).append('\n');
+        for (Entry entry : entries) {
+            builder.append(entry.name()).append('\0')
+                    .append(entry.size()).append(':').append(entry.lastModified()).append('\n');
+        }
+        return DigestUtil.sha256Hex(builder.toString()).substring(0, 32);
+    }
+
+    private static void writeZip(List<Entry> entries, Path target) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target));
+             ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                ZipEntry zipEntry = new ZipEntry(entry.name());
+                zipEntry.setTime(entry.lastModified());
+                zip.putNextEntry(zipEntry);
+                if (entry.size() >= 0) {
+                    Files.copy(entry.path(), zip);
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * 目录下是否没有参与打包的内容
+     */
+    private static boolean isEmpty(Path dir, Predicate<Path> filter) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                if (filter.test(child)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String relativeName(Path projectDir, Path path) {
+        return projectDir.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * 删除同一项目的旧压缩包（正在被读取的文件在类 Unix 系统上删除不影响读取）
+     */
+    private static void deleteStale(Path cacheRoot, String name, Path current) {
+        try (DirectoryStream<Path> archives = Files.newDirectoryStream(cacheRoot, name + "_*" + ZIP_SUFFIX)) {
+            for (Path archive : archives) {
+                String suffix = StrUtil.removeSuffix(StrUtil.removePrefix(archive.getFileName().toString(), name + "_"), ZIP_SUFFIX);
+                // 只删除 {name}_{指纹}.zip，避免误删名称以 {name}_ 开头的其他项目
+                if (!archive.equals(current) && suffix.matches("[0-9a-f]{32}")) {
+                    Files.deleteIfExists(archive);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("删除旧代码压缩包失败: name={}, error={}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的压缩包
+     */
+    private void prune(Path cacheRoot) {
+        try (Stream<Path> archives = Files.list(cacheRoot)) {
+            List<Path> sorted = archives
+                    .filter(path -> path.getFileName().toString().endsWith(ZIP_SUFFIX))
+                    .sorted(Comparator.comparingLong(CodeZipCache::lastModified).reversed())
+                    .toList();
+            for (Path archive : sorted.subList(Math.min(maxEntries, sorted.size()), sorted.size())) {
+                Files.deleteIfExists(archive);
+            }
+        } catch (IOException e) {
+            log.warn("清理代码压缩包缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private static void touch(Path archive) {
+        try {
+            Files.setLastModifiedTime(archive, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // 只影响淘汰顺序
+            log.debug("更新压缩包访问时间失败: {}", e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path cacheRoot() {
+        return Path.of(StrUtil.isBlank(rootDir) ? AppConstant.CODE_ZIP_CACHE_DIR : rootDir);
+    }
+
+    /**
+     * 压缩包
+     *
+     * @param file        压缩包文件
+     * @param fingerprint 项目目录指纹
+     */
+    public record Archive(Path file, String fingerprint) {
+    }
+
+    /**
+     * 压缩包条目（size 为 -1 表示空目录）
+     */
+    record Entry(String name, Path path, long size, long lastModified) {
+    }
+}
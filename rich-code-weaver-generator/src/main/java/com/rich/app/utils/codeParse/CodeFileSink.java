@@ -0,0 +1,55 @@
+package com.rich.app.utils.codeParse;
+
+import java.io.Writer;
+
+/**
+ * 流式解析结果的文件输出接口
+ * 流式解析器识别到代码内容时增量写入，代码块结束时提交，流结束时对兜底结果整体写入
+ * 未提交的增量内容不得覆盖已有文件：生成中断时保留上一版本的完整文件
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public interface CodeFileSink {
+
+    /**
+     * 打开文件的增量写入器，提交前不影响已有文件
+     *
+     * @param fileName 文件名
+     * @return 写入器
+     */
+    Writer openWriter(String fileName);
+
+    /**
+     * 提交增量写入的内容：关闭写入器并以其内容原子替换已有文件
+     *
+     * @param fileName 文件名
+     */
+    void commitFile(String fileName);
+
+    /**
+     * 整体写入文件（覆盖已有文件，会先关闭该文件的增量写入器）
+     *
+     * @param fileName 文件名
+     * @param content  文件内容
+     */
+    void writeFile(String fileName, String content);
+
+    /**
+     * 读取文件内容，存在未提交的增量内容时读取增量内容（会先关闭该文件的增量写入器）
+     *
+     * @param fileName 文件名
+     * @return 文件内容
+     */
+    String readFile(String fileName);
+
+    /**
+     * 刷新所有增量写入器
+     */
+    void flush();
+
+    /**
+     * 关闭所有增量写入器，丢弃未提交的内容
+     */
+    void close();
+}
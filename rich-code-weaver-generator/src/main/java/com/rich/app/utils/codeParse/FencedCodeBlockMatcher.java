@@ -0,0 +1,270 @@
+package com.rich.app.utils.codeParse;
+
+import java.util.Locale;
+
+/**
+ * 围栏代码块增量匹配器（状态机）
+ * 逐字符识别 ```lang ... ``` 代码块，匹配语义与正则 "```(?:lang)\\s*\n([\\s\\S]*?)```"（不区分大小写）的首个匹配一致：
+ * 语言标记后须跟随包含换行的空白，代码内容从该段空白中最后一个换行之后开始，到首个 ``` 为止。
+ * 每个匹配器只识别一种代码块，且只识别第一个，识别到的代码内容逐字符回调给监听器。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public class FencedCodeBlockMatcher {
+
+    /**
+     * 围栏标记长度（```）
+     */
+    private static final int FENCE_LENGTH = 3;
+
+    /**
+     * 围栏字符
+     */
+    private static final char FENCE_CHAR = '`';
+
+    /**
+     * 代码块事件监听器
+     */
+    public interface Listener {
+
+        /**
+         * 代码块开始（语言标记及其后的换行已识别）
+         */
+        void onBlockOpen();
+
+        /**
+         * 代码块内容字符
+         *
+         * @param c 字符
+         */
+        void onBlockContent(char c);
+
+        /**
+         * 代码块结束（识别到结束围栏）
+         */
+        void onBlockClose();
+    }
+
+    private enum State {
+        /**
+         * 查找起始围栏
+         */
+        SEARCH,
+        /**
+         * 匹配语言标记
+         */
+        LANGUAGE,
+        /**
+         * 匹配语言标记后的空白
+         */
+        WHITESPACE,
+        /**
+         * 代码块内容
+         */
+        CONTENT,
+        /**
+         * 代码块已结束
+         */
+        CLOSED
+    }
+
+    /**
+     * 可识别的语言标记（小写，互不为前缀）
+     */
+    private final String[] languages;
+
+    /**
+     * 事件监听器
+     */
+    private final Listener listener;
+
+    private State state = State.SEARCH;
+
+    /**
+     * 已输入的字符数
+     */
+    private long position;
+
+    /**
+     * 连续的反引号数量
+     */
+    private int backtickRun;
+
+    /**
+     * 已匹配的语言标记
+     */
+    private final StringBuilder languageBuffer = new StringBuilder();
+
+    /**
+     * 语言标记后的空白中是否已出现换行
+     */
+    private boolean newlineSeen;
+
+    /**
+     * 最后一个换行之后的空白（属于代码内容）
+     */
+    private final StringBuilder indentBuffer = new StringBuilder();
+
+    /**
+     * 代码内容在输入中的起始位置
+     */
+    private long contentStart = -1L;
+
+    /**
+     * 代码块内尚未确定是否为结束围栏的反引号数量
+     */
+    private int pendingBackticks;
+
+    public FencedCodeBlockMatcher(Listener listener, String... languages) {
+        this.listener = listener;
+        this.languages = new String[languages.length];
+        for (int i = 0; i < languages.length; i++) {
+            this.languages[i] = languages[i].toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * 输入一个字符
+     *
+     * @param c 字符
+     */
+    public void feed(char c) {
+        long index = position++;
+        switch (state) {
+            case SEARCH -> search(c);
+            case LANGUAGE -> matchLanguage(c);
+            case WHITESPACE -> matchWhitespace(c, index);
+            case CONTENT -> matchContent(c);
+            default -> {
+                // 已结束，忽略后续输入
+            }
+        }
+    }
+
+    /**
+     * 代码块是否已开始且尚未结束
+     *
+     * @return 是否处于代码块内
+     */
+    public boolean isOpen() {
+        return state == State.CONTENT;
+    }
+
+    /**
+     * 代码块是否已结束
+     *
+     * @return 是否已结束
+     */
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * 代码内容在输入中的起始位置（代码块开始前为 -1）
+     *
+     * @return 起始位置
+     */
+    public long getContentStart() {
+        return state == State.CONTENT || state == State.CLOSED ? contentStart : -1L;
+    }
+
+    /**
+     * 代码块内尚未输出的反引号数量（输入结束时它们属于代码内容）
+     *
+     * @return 反引号数量
+     */
+    public int getPendingBackticks() {
+        return pendingBackticks;
+    }
+
+    private void search(char c) {
+        if (c == FENCE_CHAR) {
+            backtickRun++;
+            return;
+        }
+        boolean fenceMatched = backtickRun >= FENCE_LENGTH;
+        backtickRun = 0;
+        if (fenceMatched) {
+            languageBuffer.setLength(0);
+            state = State.LANGUAGE;
+            matchLanguage(c);
+        }
+    }
+
+    private void matchLanguage(char c) {
+        languageBuffer.append(toLowerAscii(c));
+        boolean prefixMatched = false;
+        for (String language : languages) {
+            if (language.contentEquals(languageBuffer)) {
+                newlineSeen = false;
+                indentBuffer.setLength(0);
+                state = State.WHITESPACE;
+                return;
+            }
+            if (language.startsWith(languageBuffer.toString())) {
+                prefixMatched = true;
+            }
+        }
+        if (!prefixMatched) {
+            // 语言标记不匹配，当前字符可能是下一个围栏的开始
+            state = State.SEARCH;
+            search(c);
+        }
+    }
+
+    private void matchWhitespace(char c, long index) {
+        if (isRegexWhitespace(c)) {
+            if (c == '\n') {
+                newlineSeen = true;
+                indentBuffer.setLength(0);
+                contentStart = index + 1;
+            } else {
+                indentBuffer.append(c);
+            }
+            return;
+        }
+        if (!newlineSeen) {
+            // 语言标记后没有换行，不是代码块
+            state = State.SEARCH;
+            search(c);
+            return;
+        }
+        state = State.CONTENT;
+        listener.onBlockOpen();
+        for (int i = 0; i < indentBuffer.length(); i++) {
+            listener.onBlockContent(indentBuffer.charAt(i));
+        }
+        indentBuffer.setLength(0);
+        matchContent(c);
+    }
+
+    private void matchContent(char c) {
+        if (c == FENCE_CHAR) {
+            if (++pendingBackticks == FENCE_LENGTH) {
+                pendingBackticks = 0;
+                state = State.CLOSED;
+                listener.onBlockClose();
+            }
+            return;
+        }
+        for (; pendingBackticks > 0; pendingBackticks--) {
+            listener.onBlockContent(FENCE_CHAR);
+        }
+        listener.onBlockContent(c);
+    }
+
+    /**
+     * 与正则 \s 一致的空白字符（未开启 UNICODE_CHARACTER_CLASS）
+     */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * 与正则 CASE_INSENSITIVE 一致，仅对 US-ASCII 字符忽略大小写
+     */
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
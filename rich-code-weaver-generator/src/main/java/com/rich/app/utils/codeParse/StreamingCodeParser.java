@@ -0,0 +1,251 @@
+package com.rich.app.utils.codeParse;
+
+import com.rich.common.exception.BusinessException;
+import com.rich.common.exception.ErrorCode;
+import com.rich.model.enums.CodeGeneratorTypeEnum;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 代码流增量解析器（单次遍历的状态机）
+ * AI 输出的代码流逐块输入，识别到代码块后立即把内容写入临时文件，代码块结束时替换为对应文件，
+ * 流结束时只需处理未识别到代码块的兜底情况，无需拼接完整输出再整体正则解析。
+ * 最终文件内容与 {@link AiResToHtmlCodeResultParser}、{@link AiResToMultiFileCodeResultParser} 的解析结果逐字节一致。
+ * 一个实例只用于一次生成，非线程安全。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+public class StreamingCodeParser {
+
+    /**
+     * 代码块结束围栏
+     */
+    private static final String CLOSING_FENCE = "```";
+
+    /**
+     * 文件输出
+     */
+    private final CodeFileSink fileSink;
+
+    /**
+     * 代码块输出目标（按文件保存顺序）
+     */
+    private final List<CodeBlockTarget> targets;
+
+    /**
+     * HTML 单文件模式：未识别到有效代码块时，整个输出作为 HTML 代码
+     */
+    private final boolean htmlFallback;
+
+    /**
+     * 兜底用的原始输出（仅 HTML 模式：代码块开始之前，或空代码块结束之后）
+     */
+    private StringBuilder rawContent;
+
+    /**
+     * 代码块内容之前的原始输出（仅 HTML 模式：代码块已开始但尚未结束时保留）
+     */
+    private String contentPrefix;
+
+    private boolean finished;
+
+    public StreamingCodeParser(CodeGeneratorTypeEnum codeGeneratorTypeEnum, CodeFileSink fileSink) {
+        if (codeGeneratorTypeEnum == null) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
+        }
+        this.fileSink = fileSink;
+        switch (codeGeneratorTypeEnum) {
+            // 单文件 HTML 模式：只识别 HTML 代码块
+            case HTML -> {
+                this.targets = List.of(new CodeBlockTarget("index.html", "html"));
+                this.htmlFallback = true;
+                this.rawContent = new StringBuilder();
+            }
+            // 多文件模式 / Vue 项目模式：分别识别 HTML、CSS、JavaScript 代码块
+            case MULTI_FILE, VUE_PROJECT -> {
+                this.targets = List.of(
+                        new CodeBlockTarget("index.html", "html"),
+                        new CodeBlockTarget("style.css", "css"),
+                        new CodeBlockTarget("script.js", "js", "javascript"));
+                this.htmlFallback = false;
+            }
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR,
+                    "不支持的代码解析类型: " + codeGeneratorTypeEnum.getValue());
+        }
+    }
+
+    /**
+     * 输入一段代码流，识别到的代码内容立即写入文件
+     *
+     * @param chunk 代码流片段（可在任意位置切分）
+     */
+    public void append(String chunk) {
+        if (chunk == null || finished) {
+            return;
+        }
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (rawContent != null) {
+                rawContent.append(c);
+            }
+            for (CodeBlockTarget target : targets) {
+                target.matcher.feed(c);
+            }
+        }
+        fileSink.flush();
+    }
+
+    /**
+     * 代码流结束：补齐未识别到代码块的文件
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (htmlFallback) {
+            finishHtml(targets.get(0));
+        } else {
+            for (CodeBlockTarget target : targets) {
+                if (!target.isComplete()) {
+                    // 与原解析逻辑一致：未解析到的代码视为 null，由保存模板按写入失败处理
+                    fileSink.writeFile(target.fileName, null);
+                }
+            }
+        }
+        fileSink.close();
+    }
+
+    /**
+     * 释放文件资源并丢弃未结束代码块的内容（代码流出错或被取消时调用），已有文件保持不变
+     */
+    public void close() {
+        fileSink.close();
+    }
+
+    private void finishHtml(CodeBlockTarget target) {
+        if (target.isComplete()) {
+            return;
+        }
+        if (rawContent != null) {
+            // 未识别到代码块或代码块为空：整个输出作为 HTML 代码
+            fileSink.writeFile(target.fileName, rawContent.toString().trim());
+            return;
+        }
+        // 代码块未结束：与正则不匹配时一致，整个输出作为 HTML 代码
+        String tail = target.matcher.getPendingBackticks() > 0
+                ? target.pendingTail + CLOSING_FENCE.substring(0, target.matcher.getPendingBackticks())
+                : "";
+        String content;
+        if (target.written) {
+            content = trimLeading(contentPrefix) + target.skippedLeading
+                    + fileSink.readFile(target.fileName) + tail;
+        } else {
+            content = (contentPrefix + target.skippedLeading + tail).trim();
+        }
+        fileSink.writeFile(target.fileName, content);
+    }
+
+    /**
+     * 与 String#trim 一致，去除开头编码不大于空格的字符
+     */
+    private static String trimLeading(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return value.substring(start);
+    }
+
+    /**
+     * 单个代码块的输出目标
+     * 边接收边去除首尾空白（与 String#trim 一致）：开头空白直接跳过，中间空白待遇到后续内容时再写入
+     */
+    private class CodeBlockTarget implements FencedCodeBlockMatcher.Listener {
+
+        private final String fileName;
+
+        private final FencedCodeBlockMatcher matcher;
+
+        /**
+         * 首个有效字符之前的空白
+         */
+        private final StringBuilder skippedLeading = new StringBuilder();
+
+        /**
+         * 已写入内容之后、尚未确定是否为结尾的空白
+         */
+        private final StringBuilder pendingTail = new StringBuilder();
+
+        private Writer writer;
+
+        private boolean written;
+
+        private CodeBlockTarget(String fileName, String... languages) {
+            this.fileName = fileName;
+            this.matcher = new FencedCodeBlockMatcher(this, languages);
+        }
+
+        /**
+         * 代码块已结束且内容非空，文件已完整写入
+         */
+        private boolean isComplete() {
+            return matcher.isClosed() && written;
+        }
+
+        @Override
+        public void onBlockOpen() {
+            log.info("识别到代码块，开始写入文件：{}", fileName);
+            if (htmlFallback) {
+                // 代码块已开始，只需保留代码内容之前的部分用于兜底
+                contentPrefix = rawContent.substring(0, (int) matcher.getContentStart());
+                rawContent = null;
+            }
+        }
+
+        @Override
+        public void onBlockContent(char c) {
+            if (c <= ' ') {
+                (written ? pendingTail : skippedLeading).append(c);
+                return;
+            }
+            try {
+                if (writer == null) {
+                    writer = fileSink.openWriter(fileName);
+                    written = true;
+                }
+                if (!pendingTail.isEmpty()) {
+                    writer.append(pendingTail);
+                    pendingTail.setLength(0);
+                }
+                writer.write(c);
+            } catch (IOException e) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "文件写入失败：" + fileName + "，因为：" + e.getMessage());
+            }
+        }
+
+        @Override
+        public void onBlockClose() {
+            log.info("代码块结束，文件写入完成：{}", fileName);
+            pendingTail.setLength(0);
+            if (written) {
+                fileSink.commitFile(fileName);
+            }
+            if (!htmlFallback) {
+                return;
+            }
+            if (written) {
+                contentPrefix = null;
+            } else {
+                // 代码块为空：继续保留原始输出，流结束后整体作为 HTML 代码
+                rawContent = new StringBuilder(contentPrefix).append(skippedLeading).append(CLOSING_FENCE);
+                contentPrefix = null;
+            }
+        }
+    }
+}
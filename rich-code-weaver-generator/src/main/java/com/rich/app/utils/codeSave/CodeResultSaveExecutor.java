@@ -2,6 +2,7 @@ package com.rich.app.utils.codeSave;
 
 import com.rich.ai.model.codeResponse.HtmlCodeResponse;
 import com.rich.ai.model.codeResponse.MultiFileCodeResponse;
+import com.rich.app.utils.codeParse.StreamingCodeParser;
 import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.model.enums.CodeGeneratorTypeEnum;
@@ -44,4 +45,22 @@ public class CodeResultSaveExecutor {
                     "不支持的代码生成类型: " + codeGenType.getValue());
         };
     }
+
+    /**
+     * 创建流式代码解析器，解析出的代码通过对应的保存策略边生成边写入文件
+     *
+     * @param codeGenType 代码生成类型
+     * @param appId       产物id
+     * @return 流式代码解析器
+     */
+    public static StreamingCodeParser openStreamingParser(CodeGeneratorTypeEnum codeGenType, Long appId) {
+        // 根据代码生成类型选择对应的保存策略（与 executeSaver 一致）
+        StreamingCodeFileSink fileSink = switch (codeGenType) {
+            case HTML -> htmlCodeFileSaver.openStreamingSink(appId, codeGenType.getValue());
+            case MULTI_FILE, VUE_PROJECT -> multiFileCodeFileSaver.openStreamingSink(appId, codeGenType.getValue());
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR,
+                    "不支持的代码生成类型: " + codeGenType.getValue());
+        };
+        return new StreamingCodeParser(codeGenType, fileSink);
+    }
 }
@@ -17,6 +17,12 @@ import static com.rich.common.constant.AppConstant.CODE_OUTPUT_ROOT_DIR;
  * @create 2025/12/7
  **/
 public abstract class CodeResultSaveToFileTemplate<T> {
+
+    /**
+     * 产物生成目录
+     */
+    private String codeOutputRootDir = CODE_OUTPUT_ROOT_DIR;
+
     /**
      * 保存代码封装类至文件
      *
@@ -50,6 +56,20 @@ public abstract class CodeResultSaveToFileTemplate<T> {
         return new File(baseDirPath);
     }
 
+    /**
+     * 开启流式保存：代码流边解析边写入临时文件，代码块结束时替换为目标文件
+     *
+     * @param appId   产物id
+     * @param bizType 目录类型前缀（如 vue_project、multi_file 等）
+     * @return 流式代码文件输出
+     */
+    public final StreamingCodeFileSink openStreamingSink(Long appId, String bizType) {
+        if (StrUtil.isBlank(bizType)) {
+            throw new IllegalArgumentException("业务类型不能为空或空白");
+        }
+        return new StreamingCodeFileSink(this, appId, bizType);
+    }
+
     /**
      * 具体的保存逻辑，由子类实现
      *
@@ -76,7 +96,7 @@ public abstract class CodeResultSaveToFileTemplate<T> {
             throw new IllegalArgumentException("业务类型不能为空或空白");
         }
         String uniqueDirName = StrUtil.format("{}_{}", bizType, appId);
-        String dirPath = CODE_OUTPUT_ROOT_DIR + File.separator + uniqueDirName;
+        String dirPath = codeOutputRootDir + File.separator + uniqueDirName;
         FileUtil.mkdir(dirPath);
         return dirPath;
     }
@@ -0,0 +1,183 @@
+package com.rich.app.utils.codeSave;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.rich.app.utils.codeParse.CodeFileSink;
+import com.rich.common.exception.BusinessException;
+import com.rich.common.exception.ErrorCode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 流式代码文件输出
+ * 通过代码保存模板生成输出目录并写入文件，目录在首次写入时创建
+ * 增量内容先写入同目录下的临时文件，提交时原子替换目标文件；生成出错或被取消时删除临时文件，上一版本的文件保持完整
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public class StreamingCodeFileSink implements CodeFileSink {
+
+    private final CodeResultSaveToFileTemplate<?> codeSaver;
+
+    private final Long appId;
+
+    private final String bizType;
+
+    /**
+     * 输出目录（首次写入时创建）
+     */
+    private String baseDirPath;
+
+    /**
+     * 未提交的增量写入（文件名 -> 临时文件与写入器）
+     */
+    private final Map<String, PendingFile> pendingFiles = new LinkedHashMap<>();
+
+    StreamingCodeFileSink(CodeResultSaveToFileTemplate<?> codeSaver, Long appId, String bizType) {
+        this.codeSaver = codeSaver;
+        this.appId = appId;
+        this.bizType = bizType;
+    }
+
+    @Override
+    public Writer openWriter(String fileName) {
+        discard(fileName);
+        Path tempFile = tempFile(fileName);
+        try {
+            Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+            pendingFiles.put(fileName, new PendingFile(tempFile, writer));
+            return writer;
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "文件写入失败：" + fileName + "，因为：" + e.getMessage());
+        }
+    }
+
+    @Override
+    public void commitFile(String fileName) {
+        PendingFile pending = pendingFiles.remove(fileName);
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.writer().close();
+            moveIntoPlace(pending.tempFile(), fileName);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "文件写入失败：" + fileName + "，因为：" + e.getMessage());
+        } finally {
+            deleteQuietly(pending.tempFile());
+        }
+    }
+
+    @Override
+    public void writeFile(String fileName, String content) {
+        discard(fileName);
+        Path tempFile = tempFile(fileName);
+        try {
+            codeSaver.writeSingleToFile(getBaseDirPath(), tempFile.getFileName().toString(), content);
+            moveIntoPlace(tempFile, fileName);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "文件写入失败：" + fileName + "，因为：" + e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    @Override
+    public String readFile(String fileName) {
+        PendingFile pending = pendingFiles.get(fileName);
+        if (pending == null) {
+            return FileUtil.readString(new File(getBaseDirPath(), fileName), StandardCharsets.UTF_8);
+        }
+        // 保留临时文件，由后续整体写入或关闭时清理
+        IoUtil.close(pending.writer());
+        return FileUtil.readString(pending.tempFile().toFile(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void flush() {
+        for (Map.Entry<String, PendingFile> entry : pendingFiles.entrySet()) {
+            try {
+                entry.getValue().writer().flush();
+            } catch (IOException e) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR,
+                        "文件写入失败：" + entry.getKey() + "，因为：" + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pendingFiles.values().forEach(StreamingCodeFileSink::release);
+        pendingFiles.clear();
+    }
+
+    /**
+     * 输出目录
+     *
+     * @return 目录 File 对象
+     */
+    public File getBaseDir() {
+        return new File(getBaseDirPath());
+    }
+
+    private String getBaseDirPath() {
+        if (baseDirPath == null) {
+            baseDirPath = codeSaver.buildUniqueDir(bizType, appId);
+        }
+        return baseDirPath;
+    }
+
+    /**
+     * 同目录下的隐藏临时文件，保证可原子替换目标文件
+     */
+    private Path tempFile(String fileName) {
+        return Path.of(getBaseDirPath(), "." + fileName + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    private void moveIntoPlace(Path tempFile, String fileName) throws IOException {
+        Files.move(tempFile, Path.of(getBaseDirPath(), fileName),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 丢弃文件未提交的增量内容
+     */
+    private void discard(String fileName) {
+        PendingFile pending = pendingFiles.remove(fileName);
+        if (pending != null) {
+            release(pending);
+        }
+    }
+
+    private static void release(PendingFile pending) {
+        IoUtil.close(pending.writer());
+        deleteQuietly(pending.tempFile());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 隐藏的临时文件残留不影响产物内容
+        }
+    }
+
+    /**
+     * 未提交的增量写入
+     *
+     * @param tempFile 临时文件
+     * @param writer   写入器
+     */
+    private record PendingFile(Path tempFile, Writer writer) {
+    }
+}
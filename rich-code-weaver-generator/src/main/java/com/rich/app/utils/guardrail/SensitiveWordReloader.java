@@ -0,0 +1,117 @@
+package com.rich.app.utils.guardrail;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.rich.ai.guardrail.SensitiveWordCategoryEnum;
+import com.rich.ai.guardrail.SensitiveWordMatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 敏感词热更新
+ * 管理员修改的敏感词按类别存于 Redis（类别名 -> 敏感词 JSON 数组），未修改的类别仍使用常量类中的内置词表；
+ * 每次修改都会递增版本号，各节点按固定间隔轮询版本号，变化后重建匹配器并整体替换，
+ * 管理员修改后最迟一个轮询间隔在所有节点生效
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class SensitiveWordReloader {
+
+    /**
+     * 敏感词 Redis key（Hash：类别名 -> 敏感词 JSON 数组）
+     */
+    static final String WORDS_KEY = "guardrail:sensitive-words";
+
+    /**
+     * 敏感词版本号 Redis key
+     */
+    static final String VERSION_KEY = "guardrail:sensitive-words:version";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 当前匹配器对应的版本号（null 表示 Redis 中没有版本号，使用内置词表）
+     */
+    private volatile String loadedVersion;
+
+    @PostConstruct
+    public void init() {
+        try {
+            checkForUpdate();
+        } catch (Exception e) {
+            log.warn("启动时加载敏感词失败，使用内置词表: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 轮询版本号，变化后重新加载敏感词
+     */
+    @Scheduled(fixedDelayString = "${guardrail.sensitive-words.check-interval-millis:10000}")
+    public synchronized void checkForUpdate() {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        if (Objects.equals(version, loadedVersion)) {
+            return;
+        }
+        SensitiveWordMatcher.reload(loadWords());
+        log.info("敏感词版本变化 {} -> {}，已重新加载", loadedVersion, version);
+        loadedVersion = version;
+    }
+
+    /**
+     * 覆盖指定类别的敏感词（未指定的类别保持不变），并在本节点立即生效
+     *
+     * @param words 类别 -> 敏感词
+     */
+    public void update(Map<SensitiveWordCategoryEnum, ? extends Collection<String>> words) {
+        Map<String, String> fields = new HashMap<>();
+        words.forEach((category, categoryWords) -> fields.put(category.name(), JSONUtil.toJsonStr(
+                categoryWords.stream().filter(StrUtil::isNotBlank).map(String::trim).distinct().toList())));
+        stringRedisTemplate.opsForHash().putAll(WORDS_KEY, fields);
+        stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        checkForUpdate();
+    }
+
+    /**
+     * 清除所有修改，恢复内置词表，并在本节点立即生效
+     */
+    public void reset() {
+        stringRedisTemplate.delete(WORDS_KEY);
+        stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        checkForUpdate();
+    }
+
+    /**
+     * 读取 Redis 中修改过的类别，覆盖内置词表；无法识别或解析的类别忽略
+     *
+     * @return 类别 -> 敏感词
+     */
+    private Map<SensitiveWordCategoryEnum, Collection<String>> loadWords() {
+        Map<SensitiveWordCategoryEnum, Collection<String>> words = new LinkedHashMap<>(
+                SensitiveWordCategoryEnum.defaultWords());
+        for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(WORDS_KEY).entrySet()) {
+            try {
+                SensitiveWordCategoryEnum category = SensitiveWordCategoryEnum.valueOf(entry.getKey().toString());
+                List<String> categoryWords = JSONUtil.toList(entry.getValue().toString(), String.class);
+                words.put(category, categoryWords);
+            } catch (Exception e) {
+                log.warn("敏感词类别解析失败，忽略: {}", entry.getKey(), e);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,149 @@
+package com.rich.app.utils.previewServe;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 预览小文件内存缓存
+ * 预览页面每次刷新都会重新请求 html / css / js 等小文件，命中缓存时不再读取磁盘：
+ * 1. 只缓存不超过单文件上限的文件，总字节数超过上限时淘汰最久未访问的文件；
+ * 2. 每次读取都比对文件的大小与修改时间，文件被改写（AI 修改代码、重新构建）后立即重新加载；
+ * 3. 代码生成或构建完成后按产物目录主动清除，释放旧版本占用的内存；
+ * 4. 缓存的文件以内容摘要作为强 ETag，内容不变时即使重新写入也不会使浏览器缓存失效
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+@Component
+public class PreviewFileCache {
+
+    /**
+     * 单个文件的缓存上限（字节），超过时不缓存
+     */
+    @Value("${preview.cache.max-file-bytes:262144}")
+    private long maxFileBytes = 262144;
+
+    /**
+     * 缓存总字节数上限
+     */
+    @Value("${preview.cache.max-total-bytes:67108864}")
+    private long maxTotalBytes = 67108864;
+
+    /**
+     * 按访问顺序排列的缓存（key 为文件真实路径）
+     */
+    private final LinkedHashMap<Path, CachedFile> files = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long totalBytes;
+
+    /**
+     * 读取文件，文件超过单文件上限时返回 null（由调用方直接传输文件）
+     *
+     * @param file  文件真实路径
+     * @param attrs 本次请求读取的文件属性
+     * @return 缓存的文件
+     */
+    public CachedFile get(Path file, BasicFileAttributes attrs) throws IOException {
+        if (attrs.size() > maxFileBytes) {
+            return null;
+        }
+        synchronized (this) {
+            CachedFile cached = files.get(file);
+            if (cached != null && cached.matches(attrs)) {
+                return cached;
+            }
+        }
+        byte[] content = Files.readAllBytes(file);
+        CachedFile loaded = new CachedFile(content, "\"" + DigestUtil.sha256Hex(content).substring(0, 32) + "\"",
+                attrs.size(), attrs.lastModifiedTime());
+        // 读取期间文件被改写时不缓存，下次请求重新读取
+        if (content.length == attrs.size()
+                && Files.getLastModifiedTime(file).equals(attrs.lastModifiedTime())) {
+            put(file, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 清除目录下所有文件的缓存
+     *
+     * @param dir 目录（产物目录）
+     */
+    public void invalidate(Path dir) {
+        Path key = realPathOrSelf(dir);
+        int removed = 0;
+        synchronized (this) {
+            Iterator<Map.Entry<Path, CachedFile>> iterator = files.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Path, CachedFile> entry = iterator.next();
+                if (entry.getKey().startsWith(key)) {
+                    totalBytes -= entry.getValue().content().length;
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.debug("清除预览文件缓存: dir={}, files={}", key, removed);
+        }
+    }
+
+    synchronized int size() {
+        return files.size();
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized void put(Path file, CachedFile cachedFile) {
+        CachedFile previous = files.put(file, cachedFile);
+        if (previous != null) {
+            totalBytes -= previous.content().length;
+        }
+        totalBytes += cachedFile.content().length;
+        Iterator<CachedFile> eldest = files.values().iterator();
+        while (totalBytes > maxTotalBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().content().length;
+            eldest.remove();
+        }
+    }
+
+    private static Path realPathOrSelf(Path dir) {
+        try {
+            return dir.toRealPath();
+        } catch (IOException e) {
+            return dir.toAbsolutePath().normalize();
+        }
+    }
+
+    /**
+     * 缓存的文件
+     *
+     * @param content      文件内容
+     * @param etag         强 ETag（内容摘要）
+     * @param size         加载时的文件大小
+     * @param lastModified 加载时的修改时间
+     */
+    public record CachedFile(byte[] content, String etag, long size, FileTime lastModified) {
+
+        /**
+         * 文件自加载后是否未被改写
+         */
+        boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size() && lastModified.equals(attrs.lastModifiedTime());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.rich.app.utils.previewServe;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产物预览静态资源输出
+ * 1. 路径穿越防护：资源路径规范化后必须位于产物目录内（按路径层级比较，不会误判 html_1 与 html_12），
+ *    文件真实路径（解析符号链接后）同样必须位于产物目录内；
+ * 2. 强校验：响应携带 ETag 与 Last-Modified，Cache-Control 为 no-cache，浏览器每次携带条件请求校验，
+ *    文件未变化时返回 304，AI 修改代码后预览仍立即生效；
+ * 3. 小文件从 {@link PreviewFileCache} 输出，大文件由 Tomcat sendfile 零拷贝传输（不支持时使用 FileChannel.transferTo）；
+ * 4. 输出响应体时的 IOException 多为客户端中断连接，记录 warn 后返回，不作为系统错误
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+@Component
+public class PreviewResourceServer {
+
+    /**
+     * Tomcat sendfile 相关请求属性（NIO 连接器开启 useSendfile 时可用）
+     */
+    static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Resource
+    private PreviewFileCache previewFileCache;
+
+    /**
+     * 输出产物目录下的资源文件
+     *
+     * @param appDir       产物目录
+     * @param candidates   资源相对路径（以 / 开头），依次查找，使用第一个存在的文件
+     * @param contentType  Content-Type
+     * @param request      请求
+     * @param response     响应
+     */
+    public void serve(Path appDir, List<String> candidates, String contentType,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path baseDir = appDir.toAbsolutePath().normalize();
+        Path file = null;
+        for (String candidate : candidates) {
+            Path resolved = resolveWithin(baseDir, candidate);
+            if (resolved == null) {
+                log.warn("预览产物失败：检测到路径穿越攻击 - appDir={}, path={}", baseDir, candidate);
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+            if (Files.isRegularFile(resolved)) {
+                file = resolved;
+                break;
+            }
+        }
+        if (file == null) {
+            log.debug("预览产物失败：文件不存在 - appDir={}, path={}", baseDir, candidates);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // 符号链接可能指向产物目录之外
+        Path realFile = file.toRealPath();
+        if (!realFile.startsWith(baseDir.toRealPath())) {
+            log.warn("预览产物失败：文件指向产物目录之外 - appDir={}, file={}", baseDir, file);
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        BasicFileAttributes attrs = Files.readAttributes(realFile, BasicFileAttributes.class);
+        PreviewFileCache.CachedFile cached = previewFileCache.get(realFile, attrs);
+        String etag = cached != null ? cached.etag() : metadataEtag(attrs);
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", "no-cache");
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType);
+        try {
+            writeContent(realFile, attrs, cached, request, response);
+        } catch (IOException e) {
+            // 多为客户端中断连接（刷新、关闭预览页），浏览器重新请求即可
+            log.warn("预览产物传输中断 - file={}, error={}", realFile, e.getMessage());
+        }
+    }
+
+    /**
+     * 输出响应体：缓存内容直接写出，未缓存的文件优先交由容器 sendfile，否则通过 FileChannel 传输
+     */
+    private void writeContent(Path realFile, BasicFileAttributes attrs, PreviewFileCache.CachedFile cached,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (cached != null) {
+            response.setContentLength(cached.content().length);
+            if (!isHead(request)) {
+                response.getOutputStream().write(cached.content());
+            }
+            return;
+        }
+        response.setContentLengthLong(attrs.size());
+        if (isHead(request)) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // 由容器在请求处理结束后直接从文件传输到 socket
+            request.setAttribute(SENDFILE_FILENAME_ATTR, realFile.toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, attrs.size());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(realFile)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < attrs.size()) {
+                long transferred = channel.transferTo(position, attrs.size() - position, out);
+                // 传输期间文件被截断
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * 将资源路径解析到产物目录内
+     *
+     * @return 规范化后的路径，位于产物目录之外或路径非法时返回 null
+     */
+    static Path resolveWithin(Path baseDir, String resourcePath) {
+        if (resourcePath == null || resourcePath.indexOf('\0') >= 0) {
+            return null;
+        }
+        try {
+            Path resolved = baseDir.resolve(StrUtil.removePrefix(resourcePath, "/")).normalize();
+            return resolved.startsWith(baseDir) ? resolved : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 条件请求是否命中：存在 If-None-Match 时只比较 ETag，否则比较 If-Modified-Since
+     */
+    static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = StrUtil.removePrefix(candidate.trim(), "W/");
+                if ("*".equals(value) || etag.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            // HTTP 日期精确到秒
+            return ifModifiedSince >= 0 && lastModified / 1000 * 1000 <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 未缓存的大文件以大小与修改时间（微秒）作为 ETag，不读取文件内容
+     */
+    private static String metadataEtag(BasicFileAttributes attrs) {
+        return "\"" + Long.toHexString(attrs.size()) + "-"
+                + Long.toHexString(attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS)) + "\"";
+    }
+
+    private static boolean isHead(HttpServletRequest request) {
+        return "HEAD".equalsIgnoreCase(request.getMethod());
+    }
+}
@@ -0,0 +1,125 @@
+package com.rich.app.utils.prompt;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.rich.client.innerService.InnerSystemPromptService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.dubbo.config.annotation.DubboReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 系统提示词本地缓存
+ * 各 AI 服务工厂构建服务实例时从本地缓存读取系统提示词，避免每次构建都经 Dubbo 远程调用并查询数据库。
+ * 1. 缓存 key 包含提示词版本号，版本号变化后旧条目不再命中（并整体清除）；
+ * 2. 版本号按固定间隔在读取时轮询（一次轻量远程调用），管理后台修改提示词后最迟一个轮询间隔即生效；
+ * 3. 版本号轮询失败或提示词被绕过管理后台修改时，条目最迟在 max-stale-seconds 后过期重新加载；
+ * 4. 提示词不存在时不缓存，新增后立即可用
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class SystemPromptCache {
+
+    /**
+     * 尚未获取到版本号
+     */
+    private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+
+    /**
+     * 最大缓存提示词数量
+     */
+    private static final long MAX_SIZE = 256;
+
+    @DubboReference
+    private InnerSystemPromptService innerSystemPromptService;
+
+    /**
+     * 版本号轮询间隔（秒），即管理后台修改提示词后的最大生效延迟
+     */
+    @Value("${prompt.cache.version-check-interval-seconds:5}")
+    private long versionCheckIntervalSeconds = 5;
+
+    /**
+     * 缓存条目最长存活时间（秒），版本号不可用时的最大陈旧时间
+     */
+    @Value("${prompt.cache.max-stale-seconds:600}")
+    private long maxStaleSeconds = 600;
+
+    /**
+     * 时间源（测试时替换）
+     */
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Cache<PromptCacheKey, String> cache;
+
+    private volatile long version = UNKNOWN_VERSION;
+
+    private volatile long nextVersionCheckNanos;
+
+    private final AtomicBoolean versionChecking = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(Duration.ofSeconds(maxStaleSeconds))
+                .ticker(ticker)
+                .build();
+        nextVersionCheckNanos = ticker.read();
+    }
+
+    /**
+     * 根据提示词唯一标识获取提示词内容
+     *
+     * @param promptKey 提示词唯一标识（如 html-system-prompt）
+     * @return 提示词内容，若不存在则返回 null
+     */
+    public String getPromptContentByKey(String promptKey) {
+        if (StrUtil.isBlank(promptKey)) {
+            return innerSystemPromptService.getPromptContentByKey(promptKey);
+        }
+        checkVersion();
+        return cache.get(new PromptCacheKey(version, promptKey),
+                key -> innerSystemPromptService.getPromptContentByKey(key.promptKey()));
+    }
+
+    /**
+     * 到达轮询时间时检查版本号，同一时刻只有一个线程发起远程调用，其余线程继续使用当前版本
+     */
+    private void checkVersion() {
+        long now = ticker.read();
+        if (now - nextVersionCheckNanos < 0 || !versionChecking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long latestVersion = innerSystemPromptService.getPromptVersion();
+            if (latestVersion != version) {
+                if (version != UNKNOWN_VERSION) {
+                    log.info("系统提示词版本变化 {} -> {}，清空本地缓存", version, latestVersion);
+                }
+                version = latestVersion;
+                cache.invalidateAll();
+            }
+        } catch (Exception e) {
+            log.warn("获取系统提示词版本号失败，继续使用本地缓存: {}", e.getMessage());
+        } finally {
+            nextVersionCheckNanos = now + Duration.ofSeconds(versionCheckIntervalSeconds).toNanos();
+            versionChecking.set(false);
+        }
+    }
+
+    /**
+     * 缓存 key：版本号 + 提示词唯一标识
+     */
+    private record PromptCacheKey(long version, String promptKey) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.rich.app.utils.rateLimit;
+
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分布式限流器（滑动窗口）
+ * 判断与扣减在 Redis 中由一个 Lua 脚本原子完成，每次限流只需一次网络往返：
+ * 脚本以 Redis 服务器时间为准，清理窗口外的请求记录后，窗口内请求数未达上限则记录本次请求并放行。
+ * 可选的本地令牌桶预检会直接拒绝明显超限的调用方，无需访问 Redis。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class DistributedRateLimiter {
+
+    /**
+     * 滑动窗口限流脚本
+     * KEYS[1]：窗口请求记录（有序集合，分值为请求时间）
+     * ARGV[1]：窗口内最大请求数，ARGV[2]：窗口时间（毫秒），ARGV[3]：本次请求的唯一标识
+     * 返回 1 表示放行，0 表示拒绝
+     */
+    private static final String SLIDING_WINDOW_SCRIPT = """
+            if redis.replicate_commands then redis.replicate_commands() end
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+            if redis.call('ZCARD', KEYS[1]) < tonumber(ARGV[1]) then
+                redis.call('ZADD', KEYS[1], now, ARGV[3])
+                redis.call('PEXPIRE', KEYS[1], window)
+                return 1
+            end
+            return 0
+            """;
+
+    /**
+     * 窗口请求记录 key 的后缀（与旧版限流器的 key 区分）
+     */
+    private static final String WINDOW_KEY_SUFFIX = ":window";
+
+    /**
+     * 本地令牌桶的最大数量
+     */
+    private static final long LOCAL_BUCKET_MAX_SIZE = 10_000L;
+
+    /**
+     * 本地令牌桶的闲置过期时间
+     */
+    private static final Duration LOCAL_BUCKET_EXPIRE = Duration.ofHours(1);
+
+    /**
+     * 当前实例标识，与自增序号组成请求的唯一标识
+     */
+    private static final String INSTANCE_ID = IdUtil.fastSimpleUUID();
+
+    private static final AtomicLong REQUEST_SEQUENCE = new AtomicLong();
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 是否开启本地令牌桶预检
+     */
+    @Value("${rate-limit.local-enabled:true}")
+    private boolean localEnabled = true;
+
+    /**
+     * 本地令牌桶（限流 key + 规则 -> 令牌桶）
+     */
+    private final Cache<String, LocalTokenBucket> localBuckets = Caffeine.newBuilder()
+            .maximumSize(LOCAL_BUCKET_MAX_SIZE)
+            .expireAfterAccess(LOCAL_BUCKET_EXPIRE)
+            .build();
+
+    /**
+     * 尝试获取一次请求许可
+     * Redis 操作异常时向上抛出，由调用方决定是否降级放行（此时本地令牌桶已扣减，仍可起到单机限流的作用）
+     *
+     * @param key           限流 key
+     * @param rate          窗口时间内的最大请求数
+     * @param windowSeconds 窗口时间（秒）
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String key, int rate, int windowSeconds) {
+        LocalTokenBucket localBucket = null;
+        if (localEnabled) {
+            long now = System.nanoTime();
+            localBucket = localBuckets.get(key + ":" + rate + "/" + windowSeconds,
+                    ignored -> new LocalTokenBucket(rate, windowSeconds, now));
+            if (!localBucket.tryConsume(System.nanoTime())) {
+                log.debug("本地限流预检拒绝，限流key: {}", key);
+                return false;
+            }
+        }
+
+        Long allowed = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                SLIDING_WINDOW_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(key + WINDOW_KEY_SUFFIX),
+                String.valueOf(rate),
+                String.valueOf(windowSeconds * 1000L),
+                INSTANCE_ID + ":" + REQUEST_SEQUENCE.incrementAndGet());
+        if (allowed != null && allowed == 1L) {
+            return true;
+        }
+        if (localBucket != null) {
+            // 未被放行的请求不占用本地令牌
+            localBucket.refund();
+        }
+        return false;
+    }
+}
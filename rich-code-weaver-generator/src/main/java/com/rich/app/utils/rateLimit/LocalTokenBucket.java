@@ -0,0 +1,67 @@
+package com.rich.app.utils.rateLimit;
+
+/**
+ * 本地令牌桶（进程内限流预检）
+ * 容量为窗口内的最大请求数，按 rate / window 的速度连续补充令牌。
+ * 只为被分布式限流放行的请求扣减令牌（被拒绝的请求会归还令牌），
+ * 因此本地令牌耗尽时，同一窗口内的分布式限流也必然拒绝该请求，本地拒绝不会比分布式限流更严格。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+class LocalTokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000D;
+
+    /**
+     * 令牌桶容量
+     */
+    private final double capacity;
+
+    /**
+     * 每纳秒补充的令牌数
+     */
+    private final double refillPerNano;
+
+    /**
+     * 当前令牌数
+     */
+    private double tokens;
+
+    /**
+     * 上次补充令牌的时间（纳秒）
+     */
+    private long lastRefillNanos;
+
+    LocalTokenBucket(int rate, int windowSeconds, long nowNanos) {
+        this.capacity = rate;
+        this.refillPerNano = rate / (windowSeconds * NANOS_PER_SECOND);
+        this.tokens = rate;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * 尝试扣减一个令牌
+     *
+     * @param nowNanos 当前时间（纳秒）
+     * @return 是否扣减成功
+     */
+    synchronized boolean tryConsume(long nowNanos) {
+        if (nowNanos > lastRefillNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+        if (tokens < 1D) {
+            return false;
+        }
+        tokens -= 1D;
+        return true;
+    }
+
+    /**
+     * 归还一个令牌（请求未被分布式限流放行）
+     */
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1D);
+    }
+}
@@ -32,9 +32,9 @@ public class CommonStreamHandler {
     public Flux<ServerSentEvent<String>> handleStream(Flux<String> stringFlux, ChatHistoryService chatHistoryService, Long appId, Long userId, StringBuilder aiResponseBuilder) {
         // 处理 AI 响应流
         return stringFlux
-                // 错误处理
+                // 错误处理（异步批量写入对话历史，不阻塞流）
                 .doOnError(error -> {
-                    chatHistoryService.addChatMessage(appId, "AI 响应失败,请联系管理员：" + error.getMessage(),
+                    chatHistoryService.addChatMessageAsync(appId, "AI 响应失败,请联系管理员：" + error.getMessage(),
                             ChatHistoryTypeEnum.AI.getValue(),
                             userId);
                 })
@@ -44,7 +44,8 @@ public class CommonStreamHandler {
                             // 封装为 JSON 字符串，预防直接进行字符串流式传输丢失空格符、换行符等问题
                             // {"b": "代码内容"} 格式，用于前端解析
                             // 注意： 前端应当具备对当前输出格式的解析能力
-                            String jsonStrBlock = JSONUtil.toJsonStr(Map.of(StreamEventConstant.DATA_BLOCK_KEY, strBlock));
+                            // 流水线内部传递的是类型化消息，此处是唯一一次序列化
+                            String jsonStrBlock = StreamBlockJsonEncoder.encode(strBlock);
                             // 封装为 SSE 事件
                             return ServerSentEvent.<String>builder()
                                     .data(jsonStrBlock)
@@ -75,17 +76,18 @@ public class CommonStreamHandler {
                                 .data(StreamEventConstant.EMPTY_DATA)
                                 .build()
                 ))
+                // 流结束时 AI 响应交由批量写入器异步落库，流的收尾不等待数据库
                 .doFinally(signalType -> {
                     try {
                         String aiResponse = aiResponseBuilder.toString();
                         if (StrUtil.isNotBlank(aiResponse)) {
-                            chatHistoryService.addChatMessage(appId,
+                            chatHistoryService.addChatMessageAsync(appId,
                                     aiResponse,
                                     ChatHistoryTypeEnum.AI.getValue(),
                                     userId);
                         }
                     } catch (Exception e) {
-                        chatHistoryService.addChatMessage(appId,
+                        chatHistoryService.addChatMessageAsync(appId,
                                 "AI 响应保存失败：" + e.getMessage(),
                                 ChatHistoryTypeEnum.AI.getValue(),
                                 userId);
@@ -10,9 +10,6 @@ import com.rich.ai.model.msgResponse.StreamMsgResponse;
 import com.rich.ai.model.msgResponse.StreamToolExecutedMsgResponse;
 import com.rich.ai.model.msgResponse.StreamToolInvocMsgResponse;
 import com.rich.app.service.ChatHistoryService;
-import com.rich.common.exception.ErrorCode;
-import com.rich.common.exception.ThrowUtils;
-import com.rich.model.enums.ReasoningStreamMsgTypeEnum;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.codec.ServerSentEvent;
@@ -23,8 +20,9 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * 用于 AI JSON 输出的流处理器
- * (用于推理构建 Vue 项目模式的 AI 响应流处理器，因为推理模型关于 【思考步骤】 和 【工具调用】 等信息，是用 JOSN 格式输出的)
+ * 用于 AI 结构化输出的流处理器
+ * (用于推理构建 Vue 项目模式的 AI 响应流处理器，推理模型关于 【思考步骤】 和 【工具调用】 等信息，
+ * 以类型化消息对象在进程内流转，不再逐条序列化为 JSON 再反序列化)
  *
  * @author DuRuiChi
  * @create 2025/12/27
@@ -49,15 +47,15 @@ public class JsonStreamHandler {
     private ToolsManager toolsManager;
 
     /**
-     * 处理 AI JSON 输出的流
+     * 处理 AI 结构化输出的流
      *
-     * @param stringFlux         AI 响应流
+     * @param messageFlux        AI 响应消息流
      * @param chatHistoryService 对话历史服务
      * @param appId              产物 ID
      * @param userId             用户 ID
      * @return 处理后的 AI 响应流
      */
-    public Flux<ServerSentEvent<String>> handleStream(Flux<String> stringFlux, ChatHistoryService chatHistoryService, Long appId, Long userId) {
+    public Flux<ServerSentEvent<String>> handleStream(Flux<StreamMsgResponse> messageFlux, ChatHistoryService chatHistoryService, Long appId, Long userId) {
         // 收集 AI 响应内容，用于保存到对话历史
         StringBuilder aiResponseBuilder = new StringBuilder();
 
@@ -68,12 +66,9 @@ public class JsonStreamHandler {
         // 处理 AI 响应流
         // 注意：不要在此处添加 doOnComplete 保存对话历史，CommonStreamHandler.doFinally 已统一处理保存逻辑
         return commonStreamHandler.handleStream(
-                stringFlux
-                        // 收集并解析 AI 响应内容的 TokenStream 数据块，用于保存到对话历史
-                        .map(chunk -> {
-                            // 解析每个 JSON 消息块
-                            return handleJsonChunk(chunk, aiResponseBuilder, seenToolIds);
-                        })
+                messageFlux
+                        // 收集并解析 AI 响应消息，用于保存到对话历史
+                        .map(message -> handleMessage(message, aiResponseBuilder, seenToolIds))
                         // 过滤空字串
                         .filter(StrUtil::isNotEmpty),
                 chatHistoryService,
@@ -83,26 +78,17 @@ public class JsonStreamHandler {
     }
 
     /**
-     * 解析 AI 响应流（TokenStream）中的 JSON 消息块，根据消息类型提取有效内容
+     * 解析 AI 响应流（TokenStream）中的消息，根据消息类型提取有效内容
      * （公共方法，供外部调用，如工作流模式下的流式输出发射器）
      *
-     * @param chunk       AI 响应内容的 TokenStream 数据块
+     * @param message     AI 响应消息
      * @param seenToolIds 已经见过的工具 ID 集合
      * @return java.lang.String 解析后的有效文本内容
      **/
-    public String parseJsonChunk(String chunk, Set<String> seenToolIds) {
-        // 移除可能的空白字符并检查是否为空
-        String trimmedChunk = StrUtil.trim(chunk);
-        if (StrUtil.isEmpty(trimmedChunk)) {
+    public String parseMessage(StreamMsgResponse message, Set<String> seenToolIds) {
+        if (message == null) {
             return "";
         }
-        // 解析 JSON 字符串为基础消息对象
-        StreamMsgResponse streamMsgResponse = JSONUtil.toBean(chunk, StreamMsgResponse.class);
-
-        // 获取类型
-        // type 决定当前 chunk 是普通文本、工具调用开始，还是工具执行结束
-        ReasoningStreamMsgTypeEnum type = ReasoningStreamMsgTypeEnum.getEnumByValue(streamMsgResponse.getType());
-        ThrowUtils.throwIf(type == null, ErrorCode.OPERATION_ERROR, "不支持的 AI 消息类型");
 
         /*
             根据消息类型进行不同的流处理：
@@ -119,17 +105,13 @@ public class JsonStreamHandler {
 
             {type="ai_response", data="本次代码生成结束！"}
         */
-        switch (type) {
+        switch (message) {
             // AI 响应信息
-            case AI_RESPONSE -> {
-                // 转为用于 【AI 回复内容信息】 的响应结果类
-                StreamAiChatMsgResponse streamAiChatMsgResponse = JSONUtil.toBean(chunk, StreamAiChatMsgResponse.class);
+            case StreamAiChatMsgResponse streamAiChatMsgResponse -> {
                 return streamAiChatMsgResponse.getData();
             }
             // 工具请求信息
-            case TOOL_REQUEST -> {
-                // 转为用于 【工具调用信息】 的响应结果类
-                StreamToolInvocMsgResponse streamToolInvocMsgResponse = JSONUtil.toBean(chunk, StreamToolInvocMsgResponse.class);
+            case StreamToolInvocMsgResponse streamToolInvocMsgResponse -> {
                 // 获取工具 ID
                 String toolId = streamToolInvocMsgResponse.getId();
 
@@ -157,9 +139,7 @@ public class JsonStreamHandler {
                 }
             }
             // 工具执行结果信息
-            case TOOL_EXECUTED -> {
-                // 转为用于 【工具执行结果信息】 的响应结果类
-                StreamToolExecutedMsgResponse streamToolExecutedMsgResponse = JSONUtil.toBean(chunk, StreamToolExecutedMsgResponse.class);
+            case StreamToolExecutedMsgResponse streamToolExecutedMsgResponse -> {
                 // 获取工具
                 BaseTool tool = toolsManager.getToolByName(streamToolExecutedMsgResponse.getName());
                 // 解析 Arguments 属性为 JSON 对象
@@ -181,23 +161,23 @@ public class JsonStreamHandler {
                 return String.format("\n\n%s\n\n", fallbackMsg);
             }
             default -> {
-                log.error("不支持的消息类型: {}", type);
+                log.error("不支持的消息类型: {}", message.getType());
                 return "";
             }
         }
     }
 
     /**
-     * 处理 AI响应流（TokenStream）中的 JSON 消息块，根据消息类型执行不同的消息处理逻辑
+     * 处理 AI 响应流（TokenStream）中的消息，根据消息类型执行不同的消息处理逻辑
      *
-     * @param chunk             AI 响应内容的 TokenStream 数据块
+     * @param message           AI 响应消息
      * @param aiResponseBuilder 对话历史字符串构建器
      * @param seenToolIds       已经见过的工具 ID 集合
      * @return java.lang.String
      **/
-    private String handleJsonChunk(String chunk, StringBuilder aiResponseBuilder, Set<String> seenToolIds) {
-        // 先解析出当前 chunk 对应的最终可展示文本
-        String result = parseJsonChunk(chunk, seenToolIds);
+    private String handleMessage(StreamMsgResponse message, StringBuilder aiResponseBuilder, Set<String> seenToolIds) {
+        // 先解析出当前消息对应的最终可展示文本
+        String result = parseMessage(message, seenToolIds);
         if (StrUtil.isNotEmpty(result)) {
             // 只有真正展示给前端的内容，才累计到对话历史里
             aiResponseBuilder.append(result);
@@ -0,0 +1,69 @@
+package com.rich.app.utils.streamHandle;
+
+import com.rich.common.constant.StreamEventConstant;
+
+/**
+ * SSE 数据块 JSON 编码器
+ * 将展示文本编码为与前端约定的 {"b": "内容"} 格式，是流水线中唯一一次序列化。
+ * 转义规则与 hutool JSONUtil 一致（输出逐字节相同），但无需构造 Map 与 JSON 对象。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+public final class StreamBlockJsonEncoder {
+
+    private static final String BLOCK_PREFIX = "{\"" + StreamEventConstant.DATA_BLOCK_KEY + "\":\"";
+
+    private static final String BLOCK_SUFFIX = "\"}";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private StreamBlockJsonEncoder() {
+    }
+
+    /**
+     * 编码数据块
+     *
+     * @param block 展示文本
+     * @return JSON 字符串
+     */
+    public static String encode(String block) {
+        StringBuilder json = new StringBuilder(block.length() + 16);
+        json.append(BLOCK_PREFIX);
+        for (int i = 0; i < block.length(); i++) {
+            char c = block.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\b' -> json.append("\\b");
+                case '\t' -> json.append("\\t");
+                case '\n' -> json.append("\\n");
+                case '\f' -> json.append("\\f");
+                case '\r' -> json.append("\\r");
+                default -> {
+                    if (needsUnicodeEscape(c)) {
+                        json.append("\\u")
+                                .append(HEX_DIGITS[(c >> 12) & 0xF])
+                                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                                .append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append(BLOCK_SUFFIX).toString();
+    }
+
+    /**
+     * 控制字符及易被浏览器特殊处理的 Unicode 分隔符使用 Unicode 转义
+     */
+    private static boolean needsUnicodeEscape(char c) {
+        return c < ' '
+                || (c >= 0x0080 && c <= 0x00A0)
+                || (c >= 0x2000 && c <= 0x2010)
+                || (c >= 0x2028 && c <= 0x202F)
+                || (c >= 0x2066 && c <= 0x206F);
+    }
+}
@@ -0,0 +1,89 @@
+package com.rich.app.utils.taskProgress;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.rich.model.entity.TaskExecution;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * 任务实时进度快照
+ * 每个产物最新一条任务执行记录的完整快照保存在 Redis（JSON），所有实例共享：
+ * 1. 进度变化只更新快照，状态变化（里程碑）与终态才写入数据库；
+ * 2. 查询任务状态时优先读取快照，快照不存在或不可读时回退到数据库；
+ * 3. 创建任务时写入新的快照，快照始终对应该产物最新的任务
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+@Component
+public class TaskProgressTracker {
+
+    private static final String TASK_STATUS_KEY_PREFIX = "task:status:";
+
+    private static final Duration TASK_STATUS_TTL = Duration.ofHours(1);
+
+    /**
+     * 终态
+     */
+    private static final Set<String> TERMINAL_STATUSES = Set.of("SUCCESS", "FAILED");
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 读取任务快照
+     *
+     * @param appId 产物ID
+     * @return 快照，不存在或读取失败时返回 null
+     */
+    public TaskExecution get(Long appId) {
+        try {
+            String json = stringRedisTemplate.opsForValue().get(TASK_STATUS_KEY_PREFIX + appId);
+            return StrUtil.isBlank(json) ? null : JSONUtil.toBean(json, TaskExecution.class);
+        } catch (Exception e) {
+            log.warn("读取任务进度快照失败: appId={}, error={}", appId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入任务快照
+     *
+     * @param task 任务执行记录（完整字段）
+     * @return 是否写入成功
+     */
+    public boolean put(TaskExecution task) {
+        try {
+            stringRedisTemplate.opsForValue().set(TASK_STATUS_KEY_PREFIX + task.getAppId(),
+                    JSONUtil.toJsonStr(task), TASK_STATUS_TTL);
+            return true;
+        } catch (Exception e) {
+            log.warn("写入任务进度快照失败: appId={}, error={}", task.getAppId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 是否需要写入数据库：状态变化（开始执行、进入重试等）或终态
+     *
+     * @param previousStatus 变化前的状态
+     * @param status 新状态
+     */
+    public static boolean isMilestone(String previousStatus, String status) {
+        return !StrUtil.equals(previousStatus, status) || isTerminal(status);
+    }
+
+    /**
+     * 是否为终态
+     */
+    public static boolean isTerminal(String status) {
+        return TERMINAL_STATUSES.contains(status);
+    }
+}
@@ -0,0 +1,297 @@
+package com.rich.app.aiTools;
+
+import com.rich.ai.aiTools.ToolExecutionScheduler;
+import com.rich.ai.monitor.MonitorContext;
+import com.rich.ai.monitor.MonitorContextHolder;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 工具调用并发调度器测试
+ * 用休眠模拟慢工具，验证并发执行、同路径串行、结果按序回传、并发上限与监控上下文传递
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+public class ToolExecutionSchedulerTest {
+
+    /**
+     * 模拟工具耗时（毫秒）
+     */
+    private static final long TOOL_LATENCY_MS = 200;
+
+    /**
+     * 互不冲突的工具调用并发执行，总耗时接近单个调用耗时
+     */
+    @Test
+    public void testIndependentCallsRunInParallel() {
+        List<ToolExecutionRequest> requests = List.of(
+                request("1", "searchWeb", "{\"query\":\"vue\"}"),
+                request("2", "readFile", "{\"relativeFilePath\":\"src/App.vue\"}"),
+                request("3", "readFile", "{\"relativeFilePath\":\"src/main.js\"}"),
+                request("4", "searchImages", "{\"query\":\"logo\"}"));
+        SlowTool tool = new SlowTool();
+
+        long start = System.nanoTime();
+        List<String> delivered = executeAll(new ToolExecutionScheduler(4), requests, tool);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("4 个独立工具调用耗时 {} ms（串行约 {} ms）", elapsedMs, TOOL_LATENCY_MS * 4);
+        assertEquals(List.of("1", "2", "3", "4"), delivered);
+        assertEquals(4, tool.maxConcurrent.get());
+        assertTrue(elapsedMs < TOOL_LATENCY_MS * 2, "独立工具调用应并发执行，实际耗时 " + elapsedMs + " ms");
+    }
+
+    /**
+     * 同一文件的调用按请求顺序串行执行，结果按请求顺序回传
+     */
+    @Test
+    public void testSamePathCallsAreSerialized() {
+        List<ToolExecutionRequest> requests = List.of(
+                request("1", "creatAndWrite", "{\"relativeFilePath\":\"src/App.vue\",\"content\":\"a\"}"),
+                request("2", "readFile", "{\"relativeFilePath\":\"src/main.js\"}"),
+                request("3", "modifyFile", "{\"relativeFilePath\":\"./src//App.vue\",\"oldContent\":\"a\",\"newContent\":\"b\"}"),
+                request("4", "readFile", "{\"relativeFilePath\":\"src\\\\App.vue\"}"));
+        SlowTool tool = new SlowTool();
+
+        List<String> delivered = executeAll(new ToolExecutionScheduler(4), requests, tool);
+
+        assertEquals(List.of("1", "2", "3", "4"), delivered);
+        // 同一文件的三次调用依次执行，不同文件的调用与之并发
+        assertTrue(tool.finishedBeforeStart("1", "3"));
+        assertTrue(tool.finishedBeforeStart("3", "4"));
+        assertFalse(tool.finishedBeforeStart("1", "2"));
+    }
+
+    /**
+     * 读取目录与其下文件的写入互相串行，与其他目录的调用并发
+     */
+    @Test
+    public void testDirectoryCallsOrderAgainstNestedFiles() {
+        List<ToolExecutionRequest> requests = List.of(
+                request("1", "creatAndWrite", "{\"relativeFilePath\":\"src/components/Header.vue\",\"content\":\"x\"}"),
+                request("2", "readDir", "{\"relativeDirPath\":\"src/components\"}"),
+                request("3", "creatAndWrite", "{\"relativeFilePath\":\"public/favicon.svg\",\"content\":\"x\"}"),
+                request("4", "readDir", "{\"relativeDirPath\":\"\"}"));
+        SlowTool tool = new SlowTool();
+
+        List<String> delivered = executeAll(new ToolExecutionScheduler(4), requests, tool);
+
+        assertEquals(List.of("1", "2", "3", "4"), delivered);
+        assertTrue(tool.finishedBeforeStart("1", "2"));
+        assertFalse(tool.finishedBeforeStart("1", "3"));
+        // 读取整个项目目录与之前所有文件调用串行
+        assertTrue(tool.finishedBeforeStart("2", "4"));
+        assertTrue(tool.finishedBeforeStart("3", "4"));
+    }
+
+    /**
+     * 有状态的工具独占执行，作为前后调用的屏障
+     */
+    @Test
+    public void testStatefulToolIsExclusive() {
+        List<ToolExecutionRequest> requests = List.of(
+                request("1", "creatAndWrite", "{\"relativeFilePath\":\"src/App.vue\",\"content\":\"x\"}"),
+                request("2", "searchWeb", "{\"query\":\"vite\"}"),
+                request("3", "buildProject", "{}"),
+                request("4", "searchWeb", "{\"query\":\"vite\"}"),
+                request("5", "someMcpTool", "{\"path\":\"a\"}"),
+                request("6", "readFile", "{}"));
+        SlowTool tool = new SlowTool();
+
+        List<String> delivered = executeAll(new ToolExecutionScheduler(4), requests, tool);
+
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), delivered);
+        assertFalse(tool.finishedBeforeStart("1", "2"));
+        assertTrue(tool.finishedBeforeStart("1", "3"));
+        assertTrue(tool.finishedBeforeStart("2", "3"));
+        assertTrue(tool.finishedBeforeStart("3", "4"));
+        // 未知工具与缺少路径参数的文件工具均保守地独占执行
+        assertTrue(tool.finishedBeforeStart("4", "5"));
+        assertTrue(tool.finishedBeforeStart("5", "6"));
+    }
+
+    /**
+     * 并发数不超过上限，结果仍按请求顺序回传
+     */
+    @Test
+    public void testConcurrencyIsBounded() {
+        List<ToolExecutionRequest> requests = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            requests.add(request(String.valueOf(i), "readFile", "{\"relativeFilePath\":\"src/file" + i + ".js\"}"));
+            expected.add(String.valueOf(i));
+        }
+        // 越靠前的调用越慢，验证回传顺序与完成顺序无关
+        SlowTool tool = new SlowTool(request -> (12 - Long.parseLong(request.id())) * 20);
+
+        long start = System.nanoTime();
+        List<String> delivered = executeAll(new ToolExecutionScheduler(3), requests, tool);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("12 个工具调用（并发上限 3）耗时 {} ms，最大并发 {}", elapsedMs, tool.maxConcurrent.get());
+        assertEquals(expected, delivered);
+        assertEquals(3, tool.maxConcurrent.get());
+    }
+
+    /**
+     * 调用失败时先回传之前的结果再抛出异常，依赖它的调用不再执行
+     */
+    @Test
+    public void testFailurePropagatesInOrder() {
+        List<ToolExecutionRequest> requests = List.of(
+                request("1", "readFile", "{\"relativeFilePath\":\"src/a.js\"}"),
+                request("2", "modifyFile", "{\"relativeFilePath\":\"src/b.js\"}"),
+                request("3", "readFile", "{\"relativeFilePath\":\"src/b.js\"}"));
+        IllegalStateException failure = new IllegalStateException("modify failed");
+        SlowTool tool = new SlowTool(request -> {
+            if ("2".equals(request.id())) {
+                throw failure;
+            }
+            return TOOL_LATENCY_MS;
+        });
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> new ToolExecutionScheduler(4).executeAll(requests, tool::execute,
+                        (request, result) -> delivered.add(request.id())));
+
+        assertSame(failure, thrown);
+        assertEquals(List.of("1"), delivered);
+        assertFalse(tool.started.containsKey("3"));
+    }
+
+    /**
+     * 单个调用直接在当前线程执行
+     */
+    @Test
+    public void testSingleCallRunsInline() {
+        Thread caller = Thread.currentThread();
+        List<Thread> executedOn = new ArrayList<>();
+        new ToolExecutionScheduler(4).executeAll(
+                List.of(request("1", "buildProject", "{}")),
+                request -> {
+                    executedOn.add(Thread.currentThread());
+                    return "ok";
+                },
+                (request, result) -> assertEquals("ok", result));
+        assertEquals(List.of(caller), executedOn);
+    }
+
+    /**
+     * 并发执行的工具能拿到调用线程的监控上下文，执行线程用完后清除
+     */
+    @Test
+    public void testMonitorContextPropagatesToToolThreads() {
+        MonitorContext context = MonitorContext.builder().userId("1").appId("2").genMode("agent").build();
+        Map<String, MonitorContext> seen = new ConcurrentHashMap<>();
+        List<Thread> toolThreads = Collections.synchronizedList(new ArrayList<>());
+        MonitorContextHolder.setContext(context);
+        try {
+            new ToolExecutionScheduler(4).executeAll(
+                    List.of(request("1", "searchWeb", "{}"), request("2", "searchImages", "{}")),
+                    request -> {
+                        seen.put(request.id(), MonitorContextHolder.getContext());
+                        toolThreads.add(Thread.currentThread());
+                        return "ok";
+                    },
+                    (request, result) -> assertEquals("ok", result));
+        } finally {
+            MonitorContextHolder.clearContext();
+        }
+        assertEquals(Map.of("1", context, "2", context), seen);
+        assertFalse(toolThreads.contains(Thread.currentThread()));
+    }
+
+    /**
+     * 默认调度器的并发上限可配置
+     */
+    @Test
+    public void testConfigureDefaultMaxConcurrency() {
+        try {
+            ToolExecutionScheduler.configureDefault(2);
+            assertEquals(2, ToolExecutionScheduler.getDefault().getMaxConcurrency());
+            assertThrows(IllegalArgumentException.class, () -> ToolExecutionScheduler.configureDefault(0));
+            assertEquals(2, ToolExecutionScheduler.getDefault().getMaxConcurrency());
+        } finally {
+            ToolExecutionScheduler.configureDefault(ToolExecutionScheduler.DEFAULT_MAX_CONCURRENCY);
+        }
+    }
+
+    private static List<String> executeAll(ToolExecutionScheduler scheduler,
+                                           List<ToolExecutionRequest> requests,
+                                           SlowTool tool) {
+        Thread caller = Thread.currentThread();
+        List<String> delivered = new ArrayList<>();
+        scheduler.executeAll(requests, tool::execute, (request, result) -> {
+            // 结果在调用线程上回传
+            assertSame(caller, Thread.currentThread());
+            assertEquals("result-" + request.id(), result);
+            delivered.add(request.id());
+        });
+        return delivered;
+    }
+
+    private static ToolExecutionRequest request(String id, String name, String arguments) {
+        return ToolExecutionRequest.builder().id(id).name(name).arguments(arguments).build();
+    }
+
+    /**
+     * 模拟慢工具，记录每次调用的开始、结束时间与最大并发数
+     */
+    private static class SlowTool {
+
+        private final Function<ToolExecutionRequest, Long> latency;
+
+        private final Map<String, Long> started = new ConcurrentHashMap<>();
+
+        private final Map<String, Long> finished = new ConcurrentHashMap<>();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private SlowTool() {
+            this(request -> TOOL_LATENCY_MS);
+        }
+
+        private SlowTool(Function<ToolExecutionRequest, Long> latency) {
+            this.latency = latency;
+        }
+
+        private String execute(ToolExecutionRequest request) {
+            started.put(request.id(), System.nanoTime());
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latency.apply(request));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+                finished.put(request.id(), System.nanoTime());
+            }
+            return "result-" + request.id();
+        }
+
+        private boolean finishedBeforeStart(String first, String second) {
+            return finished.get(first) <= started.get(second);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.rich.app.guardrail;
+
+import com.rich.ai.guardrail.SensitiveWordCategoryEnum;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 原敏感词检测逻辑（按类别顺序逐词 contains），作为匹配器一致性校验与基准测试的对照
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+class LegacySensitiveWordChecker {
+
+    private final Map<SensitiveWordCategoryEnum, ? extends Collection<String>> words;
+
+    LegacySensitiveWordChecker(Map<SensitiveWordCategoryEnum, ? extends Collection<String>> words) {
+        this.words = words;
+    }
+
+    /**
+     * 检测输入命中的类别
+     *
+     * @param input 用户输入的文本
+     * @return 命中的类别，未命中返回 null
+     */
+    SensitiveWordCategoryEnum check(String input) {
+        String lowerInput = input.toLowerCase();
+        for (SensitiveWordCategoryEnum category : SensitiveWordCategoryEnum.values()) {
+            Collection<String> categoryWords = words.get(category);
+            if (categoryWords == null) {
+                continue;
+            }
+            for (String word : categoryWords) {
+                if (lowerInput.contains(word.toLowerCase())) {
+                    return category;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.rich.app.guardrail;
+
+import com.rich.ai.guardrail.SensitiveWordCategoryEnum;
+import com.rich.ai.guardrail.SensitiveWordMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 敏感词检测 JMH 基准：原逐词 contains 与 Aho-Corasick 匹配器对比
+ * 输入为不含敏感词的提示词（检测的最坏情况：原逻辑需扫描全部敏感词）。
+ * 运行方式：在 IDE 中执行 main 方法，或
+ * mvn -pl rich-code-weaver-generator -am test-compile 后以测试 classpath 运行本类
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensitiveWordMatcherBenchmark {
+
+    private static final String PROMPT = "帮我生成一个个人作品集网站，包含首页、项目展示、联系方式三个部分，"
+            + "整体采用深色主题，导航栏固定在顶部，项目卡片支持悬停动画。";
+
+    private static final String CODE = """
+            <template>
+              <div class="card" v-for="item in items" :key="item.id">
+                <h3>{{ item.title }}</h3>
+                <p class="desc">{{ item.description }}</p>
+              </div>
+            </template>
+            <script setup>
+            import { ref, onMounted } from 'vue'
+            const items = ref([])
+            onMounted(async () => { items.value = await fetch('/api/items').then(r => r.json()) })
+            </script>
+            """;
+
+    /**
+     * 输入长度（字符数）：短提示词 / 粘贴了代码的长提示词
+     */
+    @Param({"100", "8000"})
+    public int inputLength;
+
+    private String input;
+
+    private LegacySensitiveWordChecker legacyChecker;
+
+    private SensitiveWordMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        Map<SensitiveWordCategoryEnum, Set<String>> words = SensitiveWordCategoryEnum.defaultWords();
+        legacyChecker = new LegacySensitiveWordChecker(words);
+        matcher = SensitiveWordMatcher.build(words);
+        StringBuilder builder = new StringBuilder(PROMPT);
+        while (builder.length() < inputLength) {
+            builder.append(CODE);
+        }
+        input = builder.substring(0, inputLength);
+        if (legacyChecker.check(input) != null || matcher.match(input) != null) {
+            throw new IllegalStateException("基准输入不应包含敏感词");
+        }
+    }
+
+    @Benchmark
+    public SensitiveWordCategoryEnum legacyContains() {
+        return legacyChecker.check(input);
+    }
+
+    @Benchmark
+    public SensitiveWordMatcher.Match ahoCorasick() {
+        return matcher.match(input);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SensitiveWordMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
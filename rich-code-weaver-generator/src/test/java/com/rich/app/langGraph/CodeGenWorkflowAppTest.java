@@ -0,0 +1,111 @@
+package com.rich.app.langGraph;
+
+import com.rich.app.langGraph.metrics.WorkflowMetrics;
+import com.rich.app.langGraph.state.WorkflowContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.prebuilt.MessagesStateGraph;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 工作流编译缓存测试
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class CodeGenWorkflowAppTest {
+
+    /**
+     * 启动时编译一次，之后获取的是同一实例，编译耗时单独记录
+     */
+    @Test
+    public void testWorkflowsCompiledOnceAtStartup() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WorkflowMetrics workflowMetrics = new WorkflowMetrics(meterRegistry);
+        CodeGenWorkflowApp codeGenWorkflowApp = new CodeGenWorkflowApp();
+        ReflectionTestUtils.setField(codeGenWorkflowApp, "workflowMetrics", workflowMetrics);
+
+        codeGenWorkflowApp.initWorkflows();
+
+        CompiledGraph<MessagesState<String>> generationWorkflow = codeGenWorkflowApp.getGenerationWorkflow();
+        CompiledGraph<MessagesState<String>> modificationWorkflow = codeGenWorkflowApp.getModificationWorkflow();
+        assertNotNull(generationWorkflow);
+        assertNotNull(modificationWorkflow);
+        assertSame(generationWorkflow, codeGenWorkflowApp.getGenerationWorkflow());
+        assertSame(modificationWorkflow, codeGenWorkflowApp.getModificationWorkflow());
+
+        assertEquals(1L, meterRegistry.get("workflow.compile.seconds").tag("workflow", "generation").timer().count());
+        assertEquals(1L, meterRegistry.get("workflow.compile.seconds").tag("workflow", "modification").timer().count());
+        @SuppressWarnings("unchecked")
+        Map<String, Long> compileMillis = (Map<String, Long>) workflowMetrics.snapshot().get("compileMillis");
+        assertEquals(2, compileMillis.size());
+
+        workflowMetrics.recordRun("generation", WorkflowMetrics.STATUS_SUCCESS, 120L);
+        assertEquals(1L, meterRegistry.get("workflow.run.seconds").tag("status", "success").timer().count());
+        assertEquals(1L, meterRegistry.get("workflow.compile.seconds").tag("workflow", "generation").timer().count());
+    }
+
+    /**
+     * 同一编译实例被并发复用时，每次运行的 WorkflowContext 相互隔离
+     */
+    @Test
+    public void testSharedCompiledGraphIsolatesRunState() throws Exception {
+        CompiledGraph<MessagesState<String>> workflow = new MessagesStateGraph<String>()
+                .addNode("prompt_enhancer", node_async(state -> {
+                    WorkflowContext context = WorkflowContext.getContext(state);
+                    Thread.sleep(5);
+                    context.setEnhancedPrompt("enhanced-" + context.getAppId());
+                    return WorkflowContext.saveContext(context);
+                }))
+                .addNode("code_generator", node_async(state -> {
+                    WorkflowContext context = WorkflowContext.getContext(state);
+                    context.setOutputDir("/tmp/" + context.getEnhancedPrompt());
+                    context.setCurrentStep("代码生成已完成");
+                    return WorkflowContext.saveContext(context);
+                }))
+                .addEdge(START, "prompt_enhancer")
+                .addEdge("prompt_enhancer", "code_generator")
+                .addEdge("code_generator", END)
+                .compile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<WorkflowContext>> results = new ArrayList<>();
+            for (long appId = 1; appId <= 64; appId++) {
+                long currentAppId = appId;
+                results.add(executor.submit(() -> {
+                    WorkflowContext initialContext = WorkflowContext.builder()
+                            .appId(currentAppId)
+                            .currentStep("工作流初始化")
+                            .build();
+                    Optional<MessagesState<String>> finalState =
+                            workflow.invoke(Map.of(WorkflowContext.WORKFLOW_CONTEXT_KEY, initialContext));
+                    return WorkflowContext.getContext(finalState.orElseThrow());
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                WorkflowContext context = results.get(i).get();
+                long appId = i + 1;
+                assertEquals(appId, context.getAppId());
+                assertEquals("/tmp/enhanced-" + appId, context.getOutputDir());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
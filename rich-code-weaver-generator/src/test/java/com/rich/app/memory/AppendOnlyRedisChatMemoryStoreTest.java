@@ -0,0 +1,239 @@
+package com.rich.app.memory;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.rich.ai.memory.AppendOnlyRedisChatMemoryStore;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量追加的 Redis 对话记忆存储测试
+ * 使用 jedis-mock（进程内 Redis 服务端）校验窗口语义、并发对话与压缩存储
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class AppendOnlyRedisChatMemoryStoreTest {
+
+    private static final long MEMORY_ID = 1L;
+
+    private static final int MAX_MESSAGES = 6;
+
+    private static final SystemMessage SYSTEM = SystemMessage.from("你是网站生成助手");
+
+    private RedisServer redisServer;
+
+    private final List<JedisPooled> clients = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        clients.forEach(JedisPooled::close);
+        clients.clear();
+        redisServer.stop();
+    }
+
+    /**
+     * 顺序对话时与内存存储的窗口语义一致（工具调用结果随请求一并淘汰），系统消息替换后仍固定在首位
+     */
+    @Test
+    public void testWindowMatchesInMemoryStore() {
+        ChatMemory expected = memory(new InMemoryChatMemoryStore());
+        AppendOnlyRedisChatMemoryStore store = newStore(4096);
+        ChatMemory actual = memory(store);
+
+        List<ChatMessage> conversation = new ArrayList<>();
+        conversation.add(SYSTEM);
+        for (int i = 0; i < 20; i++) {
+            conversation.add(UserMessage.from("需求 " + i));
+            if (i % 3 == 0) {
+                ToolExecutionRequest request = ToolExecutionRequest.builder()
+                        .id("call-" + i).name("writeFile").arguments("{\"path\":\"index.html\"}").build();
+                conversation.add(AiMessage.from(request));
+                conversation.add(ToolExecutionResultMessage.from(request, "ok"));
+            }
+            conversation.add(AiMessage.from("回复 " + i));
+            if (i == 10) {
+                conversation.add(SystemMessage.from("你是 Vue 项目生成助手"));
+            }
+        }
+        for (ChatMessage message : conversation) {
+            expected.add(message);
+            actual.add(message);
+            assertEquals(systemFirst(expected.messages()), actual.messages());
+            // 另一个存储实例（模拟其他节点）读取到相同的窗口
+            assertEquals(systemFirst(expected.messages()), newStore(4096).getMessages(MEMORY_ID));
+        }
+
+        actual.clear();
+        assertTrue(store.getMessages(MEMORY_ID).isEmpty());
+        assertTrue(newStore(4096).getMessages(MEMORY_ID).isEmpty());
+    }
+
+    /**
+     * 已写入的消息不被重写：再次追加时已有消息在 Redis 中的内容保持原样
+     */
+    @Test
+    public void testExistingMessagesAreNotRewritten() {
+        AppendOnlyRedisChatMemoryStore store = newStore(4096);
+        ChatMemory memory = memory(store);
+        memory.add(SYSTEM);
+        memory.add(UserMessage.from("生成一个博客首页"));
+        memory.add(AiMessage.from("好的"));
+
+        JedisPooled jedis = newClient();
+        String idsKey = "chat_memory:{" + MEMORY_ID + "}:ids";
+        String messagesKey = "chat_memory:{" + MEMORY_ID + "}:msgs";
+        List<String> before = jedis.lrange(idsKey, 0, -1);
+        // 篡改已有消息的存储内容，若被整体重写则会恢复
+        jedis.hset(messagesKey, before.get(0), "j{\"contents\":[{\"text\":\"marker\",\"type\":\"TEXT\"}],\"type\":\"USER\"}");
+
+        memory.add(UserMessage.from("加一个评论区"));
+        List<String> after = jedis.lrange(idsKey, 0, -1);
+        assertEquals(before, after.subList(0, before.size()));
+        assertEquals(before.size() + 1, after.size());
+        assertTrue(jedis.hget(messagesKey, before.get(0)).contains("marker"));
+    }
+
+    /**
+     * 多个节点、多个线程并发对话：窗口不超过上限、系统消息在首位、消息不重复、各线程的消息保持先后顺序
+     */
+    @Test
+    public void testConcurrentTurns() throws Exception {
+        int threads = 8;
+        int turns = 30;
+        List<AppendOnlyRedisChatMemoryStore> stores = List.of(newStore(4096), newStore(4096));
+        memory(stores.get(0)).add(SYSTEM);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    // 每个线程相当于一个节点上的服务实例，持有自己的窗口对象
+                    ChatMemory memory = memory(stores.get(thread % stores.size()));
+                    for (int i = 0; i < turns; i++) {
+                        memory.add(UserMessage.from(thread + "-u-" + i));
+                        memory.add(AiMessage.from(thread + "-a-" + i));
+                        assertWindow(memory.messages());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ChatMessage> messages = newStore(4096).getMessages(MEMORY_ID);
+        assertWindow(messages);
+        assertEquals(MAX_MESSAGES, messages.size());
+        for (AppendOnlyRedisChatMemoryStore store : stores) {
+            assertEquals(messages, store.getMessages(MEMORY_ID));
+        }
+    }
+
+    /**
+     * 较大的 AI 消息压缩存储，读取后内容一致
+     */
+    @Test
+    public void testLargeAiMessageIsCompressed() {
+        AppendOnlyRedisChatMemoryStore store = newStore(1024);
+        ChatMemory memory = memory(store);
+        String code = "<div class=\"card\">卡片</div>\n".repeat(500);
+        memory.add(SYSTEM);
+        memory.add(UserMessage.from("生成卡片列表"));
+        memory.add(AiMessage.from(code));
+
+        JedisPooled jedis = newClient();
+        String messagesKey = "chat_memory:{" + MEMORY_ID + "}:msgs";
+        List<String> ids = jedis.lrange("chat_memory:{" + MEMORY_ID + "}:ids", 0, -1);
+        String userPayload = jedis.hget(messagesKey, ids.get(0));
+        String aiPayload = jedis.hget(messagesKey, ids.get(1));
+        assertTrue(userPayload.startsWith("j"));
+        assertTrue(aiPayload.startsWith("z"));
+        assertTrue(aiPayload.length() < code.length() / 4, "compressed length: " + aiPayload.length());
+
+        assertEquals(List.of(SYSTEM, UserMessage.from("生成卡片列表"), AiMessage.from(code)),
+                newStore(1024).getMessages(MEMORY_ID));
+    }
+
+    /**
+     * 内存存储将替换后的系统消息追加到末尾，比较前移到首位
+     */
+    private static List<ChatMessage> systemFirst(List<ChatMessage> messages) {
+        List<ChatMessage> ordered = new ArrayList<>(messages.stream().filter(SystemMessage.class::isInstance).toList());
+        ordered.addAll(messages.stream().filter(message -> !(message instanceof SystemMessage)).toList());
+        return ordered;
+    }
+
+    private static void assertWindow(List<ChatMessage> messages) {
+        assertTrue(messages.size() <= MAX_MESSAGES, messages.toString());
+        assertEquals(SYSTEM, messages.get(0));
+        Set<String> seen = new HashSet<>();
+        int[] lastTurn = new int[64];
+        Arrays.fill(lastTurn, -1);
+        for (ChatMessage message : messages.subList(1, messages.size())) {
+            String text = message instanceof UserMessage user ? user.singleText() : ((AiMessage) message).text();
+            assertTrue(seen.add(text), "duplicate message: " + messages);
+            String[] parts = text.split("-");
+            int thread = Integer.parseInt(parts[0]);
+            // 同一线程的消息序：u-i 在 a-i 之前，a-i 在 u-(i+1) 之前
+            int order = Integer.parseInt(parts[2]) * 2 + ("u".equals(parts[1]) ? 0 : 1);
+            assertTrue(order > lastTurn[thread], "out of order: " + messages);
+            lastTurn[thread] = order;
+        }
+    }
+
+    private static ChatMemory memory(ChatMemoryStore store) {
+        return MessageWindowChatMemory.builder()
+                .id(MEMORY_ID)
+                .maxMessages(MAX_MESSAGES)
+                .chatMemoryStore(store)
+                .build();
+    }
+
+    private AppendOnlyRedisChatMemoryStore newStore(int compressThreshold) {
+        return new AppendOnlyRedisChatMemoryStore(newClient(), MAX_MESSAGES, 3600, compressThreshold, 1024 * 1024);
+    }
+
+    private JedisPooled newClient() {
+        JedisPooled client = new JedisPooled(new HostAndPort(redisServer.getHost(), redisServer.getBindPort()));
+        clients.add(client);
+        return client;
+    }
+}
@@ -0,0 +1,196 @@
+package com.rich.app.monitor;
+
+import com.rich.ai.monitor.AiModelErrorTypeEnum;
+import com.rich.ai.monitor.AiModelMetricsCollector;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AI 模型指标收集器测试
+ * 随机输入大量不同的用户、产物、模型、生成模式与错误信息，校验时间序列数量始终有上界
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class AiModelMetricsCollectorTest {
+
+    private static final int TOP_K = 10;
+
+    /**
+     * 响应时间计时器的 SLO 分桶数（SimpleMeterRegistry 将每个分桶注册为一个 Gauge）
+     */
+    private static final int TIMER_SLO_BUCKETS = 9;
+
+    /**
+     * 每个模型名称 + 生成模式维度下的指标数：3 个请求状态 + 错误类别 + 3 个 Token 类型 + 1 个计时器及其分桶
+     */
+    private static final int METERS_PER_DIMENSION = 3 + AiModelErrorTypeEnum.values().length + 3 + 1 + TIMER_SLO_BUCKETS;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AiModelMetricsCollector collector;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        collector = new AiModelMetricsCollector();
+        ReflectionTestUtils.setField(collector, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(collector, "topK", TOP_K);
+        collector.init();
+    }
+
+    /**
+     * 随机输入下时间序列数量有上界，且不含用户、产物与原始错误信息标签
+     */
+    @Test
+    public void testSeriesStayBoundedUnderRandomInput() {
+        Random random = new Random(20261018L);
+        String[] statuses = {"started", "success", "error", "cancelled"};
+        String[] tokenTypes = {"input", "output", "total", "cached"};
+        for (int i = 0; i < 50_000; i++) {
+            String userId = String.valueOf(random.nextInt(100_000));
+            String appId = String.valueOf(random.nextInt(100_000));
+            String modelName = random.nextInt(4) == 0 ? "model-" + random.nextInt(1_000) : "deepseek-chat";
+            String genMode = random.nextInt(4) == 0 ? "mode-" + random.nextInt(100) : "workflow";
+            collector.recordRequest(userId, appId, modelName, genMode, statuses[random.nextInt(statuses.length)]);
+            collector.recordError(userId, appId, modelName, genMode,
+                    new RuntimeException("error " + random.nextLong(), new HttpException(400 + random.nextInt(200), "x")));
+            collector.recordTokenUsage(userId, appId, modelName, genMode,
+                    tokenTypes[random.nextInt(tokenTypes.length)], random.nextInt(5_000));
+            collector.recordResponseTime(userId, appId, modelName, genMode, Duration.ofMillis(random.nextInt(60_000)));
+        }
+
+        Set<String> modelNames = tagValues("model_name");
+        Set<String> genModes = tagValues("gen_mode");
+        assertTrue(modelNames.size() <= AiModelMetricsCollector.MAX_MODEL_NAMES + 1, "model_name: " + modelNames.size());
+        assertTrue(genModes.size() <= AiModelMetricsCollector.MAX_GEN_MODES + 1, "gen_mode: " + genModes.size());
+        assertTrue(modelNames.contains(AiModelMetricsCollector.OTHER_TAG_VALUE));
+        assertTrue(genModes.contains(AiModelMetricsCollector.OTHER_TAG_VALUE));
+        assertEquals(Set.of("started", "success", "error"), tagValues("status"));
+        assertEquals(Set.of("input", "output", "total"), tagValues("token_type"));
+        assertEquals(Arrays.stream(AiModelErrorTypeEnum.values()).map(AiModelErrorTypeEnum::getValue).collect(Collectors.toSet()),
+                tagValues("error_type"));
+        assertTrue(tagValues("error_message").isEmpty());
+
+        // 用户、产物只出现在 Top-K Gauge 中
+        long topKGauges = meterRegistry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith("ai_model_top_"))
+                .count();
+        assertTrue(topKGauges <= 2L * TOP_K, "top-k gauges: " + topKGauges);
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (!meter.getId().getName().startsWith("ai_model_top_")) {
+                assertNull(meter.getId().getTag("user_id"));
+                assertNull(meter.getId().getTag("app_id"));
+            }
+        }
+
+        int maxMeters = (AiModelMetricsCollector.MAX_MODEL_NAMES + 1) * (AiModelMetricsCollector.MAX_GEN_MODES + 1)
+                * METERS_PER_DIMENSION + 2 * TOP_K;
+        assertTrue(meterRegistry.getMeters().size() <= maxMeters, "meters: " + meterRegistry.getMeters().size());
+    }
+
+    /**
+     * 计数与输入一致：收敛到 "other" 的维度仍被计入
+     */
+    @Test
+    public void testCountsArePreserved() {
+        for (int i = 0; i < 100; i++) {
+            collector.recordRequest("1", "1", "model-" + i, "workflow", "success");
+        }
+        double total = meterRegistry.find("ai_model_requests").tag("status", "success").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+        assertEquals(100D, total);
+        assertEquals(100D - AiModelMetricsCollector.MAX_MODEL_NAMES,
+                meterRegistry.get("ai_model_requests")
+                        .tag("model_name", AiModelMetricsCollector.OTHER_TAG_VALUE)
+                        .tag("status", "success")
+                        .counter().count());
+    }
+
+    /**
+     * 少数大量消耗 Token 的用户与产物能在大量小额消耗中被 Top-K 识别
+     */
+    @Test
+    public void testHeavyHittersAreTracked() {
+        Random random = new Random(7L);
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 10 == 0) {
+                int heavy = random.nextInt(3);
+                collector.recordTokenUsage("heavy-user-" + heavy, "heavy-app-" + heavy, "deepseek-chat", "agent", "total", 1_000);
+            } else {
+                collector.recordTokenUsage("user-" + random.nextInt(50_000), "app-" + random.nextInt(50_000),
+                        "deepseek-chat", "agent", "total", 1 + random.nextInt(20));
+            }
+        }
+
+        Set<String> trackedUsers = meterRegistry.find("ai_model_top_user_tokens").gauges().stream()
+                .map(gauge -> gauge.getId().getTag("user_id"))
+                .collect(Collectors.toSet());
+        Set<String> trackedApps = meterRegistry.find("ai_model_top_app_tokens").gauges().stream()
+                .map(gauge -> gauge.getId().getTag("app_id"))
+                .collect(Collectors.toSet());
+        assertTrue(trackedUsers.size() <= TOP_K);
+        assertTrue(trackedApps.size() <= TOP_K);
+        for (int heavy = 0; heavy < 3; heavy++) {
+            assertTrue(trackedUsers.contains("heavy-user-" + heavy), trackedUsers.toString());
+            assertTrue(trackedApps.contains("heavy-app-" + heavy), trackedApps.toString());
+            // 估计值不小于真实值
+            double estimate = meterRegistry.get("ai_model_top_user_tokens").tag("user_id", "heavy-user-" + heavy).gauge().value();
+            assertTrue(estimate >= 500_000D, "estimate: " + estimate);
+        }
+    }
+
+    /**
+     * 关闭 Top-K 统计时不注册任何 Gauge
+     */
+    @Test
+    public void testTopKCanBeDisabled() {
+        AiModelMetricsCollector disabled = new AiModelMetricsCollector();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(disabled, "meterRegistry", registry);
+        ReflectionTestUtils.setField(disabled, "topK", 0);
+        disabled.init();
+        disabled.recordTokenUsage("1", "1", "deepseek-chat", "agent", "total", 100);
+        assertTrue(registry.find("ai_model_top_user_tokens").gauges().isEmpty());
+        assertEquals(100D, registry.get("ai_model_tokens").tag("token_type", "total").counter().count());
+    }
+
+    /**
+     * 异常按类型、HTTP 状态码与原因链归类
+     */
+    @Test
+    public void testErrorClassification() {
+        assertEquals(AiModelErrorTypeEnum.RATE_LIMITED, AiModelErrorTypeEnum.fromThrowable(new RateLimitException("slow down")));
+        assertEquals(AiModelErrorTypeEnum.TIMEOUT,
+                AiModelErrorTypeEnum.fromThrowable(new RuntimeException(new SocketTimeoutException("read timed out"))));
+        assertEquals(AiModelErrorTypeEnum.SERVER_ERROR, AiModelErrorTypeEnum.fromThrowable(new HttpException(503, "busy")));
+        assertEquals(AiModelErrorTypeEnum.AUTHENTICATION, AiModelErrorTypeEnum.fromThrowable(new HttpException(401, "key")));
+        assertEquals(AiModelErrorTypeEnum.UNKNOWN, AiModelErrorTypeEnum.fromThrowable(new IllegalStateException("boom")));
+        assertEquals(AiModelErrorTypeEnum.UNKNOWN, AiModelErrorTypeEnum.fromThrowable(null));
+
+        collector.recordError("1", "1", "deepseek-chat", "agent", new RateLimitException("slow down"));
+        assertEquals(1D, meterRegistry.get("ai_model_errors").tag("error_type", "rate_limited").counter().count());
+    }
+
+    private Set<String> tagValues(String tagKey) {
+        return meterRegistry.getMeters().stream()
+                .map(meter -> meter.getId().getTag(tagKey))
+                .filter(value -> value != null)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,374 @@
+package com.rich.app.mq.consumer;
+
+import com.rabbitmq.client.Channel;
+import com.rich.app.mq.config.RabbitMQConfig;
+import com.rich.app.mq.metrics.TaskMetrics;
+import com.rich.app.mq.model.TaskMessage;
+import com.rich.app.mq.notifier.WebSocketTaskNotifier;
+import com.rich.app.service.TaskExecutionService;
+import com.rich.app.utils.previewServe.PreviewFileCache;
+import com.rich.common.utils.deployWebProjectUtils.BuildWebProjectExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vue项目构建任务消费者测试
+ * 使用进程内的 Broker 替身（预取窗口、手动确认、按路由键进入延迟队列）和休眠模拟的构建命令，
+ * 验证并发上限、重试不阻塞其他任务以及排队相关指标
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class VueProjectBuildConsumerTest {
+
+    private static final int CONCURRENCY = 2;
+
+    /**
+     * 模拟构建耗时（毫秒）
+     */
+    private static final long BUILD_LATENCY_MS = 150;
+
+    /**
+     * 延迟队列的时间压缩倍数（3s 的重试延迟在替身中为 100ms）
+     */
+    private static final long RETRY_DELAY_SCALE = 30;
+
+    @TempDir
+    Path workDir;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LocalBroker broker;
+
+    private FakeBuildExecutor buildExecutor;
+
+    private VueProjectBuildConsumer consumer;
+
+    private final List<String> statusUpdates = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<String> releasedLocks = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broker = new LocalBroker();
+        buildExecutor = new FakeBuildExecutor();
+
+        WebSocketTaskNotifier notifier = new WebSocketTaskNotifier();
+        ReflectionTestUtils.setField(notifier, "messagingTemplate", new SimpMessagingTemplate((message, timeout) -> true));
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>() {
+            @Override
+            public Boolean delete(String key) {
+                releasedLocks.add(key);
+                return true;
+            }
+        };
+
+        consumer = new VueProjectBuildConsumer();
+        ReflectionTestUtils.setField(consumer, "buildExecutor", buildExecutor);
+        ReflectionTestUtils.setField(consumer, "taskExecutionService", taskExecutionService());
+        ReflectionTestUtils.setField(consumer, "webSocketNotifier", notifier);
+        ReflectionTestUtils.setField(consumer, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(consumer, "rabbitTemplate", broker.rabbitTemplate());
+        ReflectionTestUtils.setField(consumer, "taskMetrics", new TaskMetrics(meterRegistry));
+        ReflectionTestUtils.setField(consumer, "amqpAdmin", broker.amqpAdmin());
+        ReflectionTestUtils.setField(consumer, "previewFileCache", new PreviewFileCache());
+        ReflectionTestUtils.setField(consumer, "concurrency", CONCURRENCY);
+        consumer.init();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        broker.stop();
+        consumer.destroy();
+    }
+
+    /**
+     * 同时执行的构建数不超过并发上限；失败的任务经延迟队列重试，等待期间其他任务照常执行
+     */
+    @Test
+    public void testConcurrencyLimitAndDelayedRetry() throws Exception {
+        for (long appId = 1; appId <= 6; appId++) {
+            broker.publish(RabbitMQConfig.BUILD_VUE_PROJECT_ROUTING_KEY, task(appId, 3));
+        }
+        buildExecutor.failures.put(project(3).toString(), new AtomicInteger(2));
+        assertEquals(6.0, meterRegistry.get("task.queue.depth").gauge().value());
+
+        broker.start(consumer);
+        broker.awaitIdle(6);
+        // 确认消息后构建线程还会记录指标、释放锁，等待构建线程全部结束
+        consumer.destroy();
+
+        assertEquals(CONCURRENCY, buildExecutor.maxRunning.get());
+        assertEquals(8, buildExecutor.attempts.size());
+        assertTrue(broker.deadLetters.isEmpty());
+        // app 3 第一次失败后、重试开始前，排在其后的任务已开始构建
+        List<String> attempts = List.copyOf(buildExecutor.attempts);
+        int firstFailure = attempts.indexOf(project(3).toString());
+        int firstRetry = attempts.subList(firstFailure + 1, attempts.size()).indexOf(project(3).toString()) + firstFailure + 1;
+        assertTrue(attempts.subList(firstFailure + 1, firstRetry).contains(project(5).toString()), attempts.toString());
+        assertEquals(List.of(0L, 1L), broker.retryLevels);
+
+        assertEquals(6.0, meterRegistry.get("task.success.total").counter().count());
+        assertEquals(2.0, meterRegistry.get("task.retry.total").counter().count());
+        assertEquals(8, meterRegistry.get("task.queue.wait.seconds").timer().count());
+        assertEquals(0.0, meterRegistry.get("task.running").gauge().value());
+        // 分布式锁只在任务结束时释放一次，重试等待期间保留
+        assertEquals(6, releasedLocks.size());
+        assertEquals(1, Collections.frequency(releasedLocks, "build:lock:3"));
+    }
+
+    /**
+     * 超过最大重试次数后任务标记为失败并确认消息，不进入死信队列
+     */
+    @Test
+    public void testFailsAfterMaxRetries() throws Exception {
+        buildExecutor.failures.put(project(1).toString(), new AtomicInteger(Integer.MAX_VALUE));
+        broker.publish(RabbitMQConfig.BUILD_VUE_PROJECT_ROUTING_KEY, task(1, 1));
+
+        broker.start(consumer);
+        broker.awaitIdle(1);
+        // 确认消息后构建线程还会记录指标、释放锁，等待构建线程全部结束
+        consumer.destroy();
+
+        assertEquals(2, buildExecutor.attempts.size());
+        assertTrue(broker.deadLetters.isEmpty());
+        assertEquals(1.0, meterRegistry.get("task.failure.total").counter().count());
+        assertEquals(1.0, meterRegistry.get("task.retry.total").counter().count());
+        assertTrue(statusUpdates.contains("1:FAILED"));
+        assertEquals(List.of("build:lock:1"), releasedLocks);
+    }
+
+    private TaskMessage task(long appId, int maxRetries) throws IOException {
+        Path project = Files.createDirectories(project(appId));
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("projectPath", project.toString());
+        return TaskMessage.builder()
+                .messageId("msg-" + appId)
+                .taskType("BUILD_VUE_PROJECT")
+                .appId(appId)
+                .userId(1L)
+                .payload(payload)
+                .retryCount(0)
+                .maxRetries(maxRetries)
+                .createTime(LocalDateTime.now())
+                .availableAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private Path project(long appId) {
+        return workDir.resolve("app-" + appId);
+    }
+
+    private TaskExecutionService taskExecutionService() {
+        return (TaskExecutionService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TaskExecutionService.class}, (proxy, method, args) -> {
+                    if ("updateStatus".equals(method.getName()) || "finishTask".equals(method.getName())) {
+                        statusUpdates.add(args[0] + ":" + args[1]);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * 模拟构建命令：休眠后生成 dist，按配置的次数返回失败
+     */
+    private static class FakeBuildExecutor extends BuildWebProjectExecutor {
+
+        private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+        private final List<String> attempts = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public BuildResult buildProjectWithLog(String projectPath, Consumer<String> phaseStarted) {
+            attempts.add(projectPath);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                phaseStarted.accept(PHASE_BUILD);
+                Thread.sleep(BUILD_LATENCY_MS);
+                AtomicInteger remaining = failures.get(projectPath);
+                if (remaining != null && remaining.getAndDecrement() > 0) {
+                    return new BuildResult(false, PHASE_BUILD, "build failed");
+                }
+                Files.createDirectories(Path.of(projectPath, "dist"));
+                return new BuildResult(true, PHASE_BUILD, "ok");
+            } catch (Exception e) {
+                return new BuildResult(false, PHASE_BUILD, e.getMessage());
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Broker 替身
+     * 单个监听线程按预取窗口投递消息（未确认消息数达到预取数量时停止投递），
+     * 发往重试路由键的消息按对应级别的延迟（按比例缩短）回到构建队列
+     */
+    private static class LocalBroker {
+
+        private final LinkedBlockingDeque<TaskMessage> ready = new LinkedBlockingDeque<>();
+
+        private final Map<Long, TaskMessage> unacked = new ConcurrentHashMap<>();
+
+        private final List<TaskMessage> deadLetters = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Long> retryLevels = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicLong deliveryTags = new AtomicLong();
+
+        private final AtomicInteger acked = new AtomicInteger();
+
+        /**
+         * 已发布但尚未确认的消息数（含延迟队列中的消息）
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final ScheduledExecutorService delayQueues = Executors.newSingleThreadScheduledExecutor();
+
+        private Thread listener;
+
+        void publish(String routingKey, TaskMessage message) {
+            pending.incrementAndGet();
+            if (RabbitMQConfig.BUILD_VUE_PROJECT_ROUTING_KEY.equals(routingKey)) {
+                ready.add(message);
+                return;
+            }
+            assertTrue(routingKey.startsWith(RabbitMQConfig.BUILD_VUE_PROJECT_RETRY_ROUTING_KEY_PREFIX), routingKey);
+            int level = Integer.parseInt(routingKey.substring(RabbitMQConfig.BUILD_VUE_PROJECT_RETRY_ROUTING_KEY_PREFIX.length()));
+            retryLevels.add((long) level);
+            long delayMs = RabbitMQConfig.buildRetryDelayMillis(level) / RETRY_DELAY_SCALE;
+            message.setAvailableAt(System.currentTimeMillis() + delayMs);
+            delayQueues.schedule(() -> ready.add(message), delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        void start(VueProjectBuildConsumer consumer) {
+            Channel channel = channel();
+            listener = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        synchronized (this) {
+                            while (unacked.size() >= CONCURRENCY) {
+                                wait();
+                            }
+                        }
+                        TaskMessage message = ready.take();
+                        long tag = deliveryTags.incrementAndGet();
+                        unacked.put(tag, message);
+                        consumer.consumeBuildTask(message, channel, tag);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "local-broker-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+
+        /**
+         * 等待全部消息确认且没有等待中的重试
+         */
+        void awaitIdle(int expectedAcks) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (acked.get() < expectedAcks || pending.get() > 0) {
+                assertTrue(System.currentTimeMillis() < deadline, "构建任务未在预期时间内完成");
+                Thread.sleep(20);
+            }
+        }
+
+        void stop() {
+            if (listener != null) {
+                listener.interrupt();
+            }
+            delayQueues.shutdownNow();
+        }
+
+        private synchronized void settle(long tag, boolean deadLetter) {
+            TaskMessage message = unacked.remove(tag);
+            assertNotNull(message, "重复确认: " + tag);
+            pending.decrementAndGet();
+            if (deadLetter) {
+                deadLetters.add(message);
+            }
+            notifyAll();
+        }
+
+        private Channel channel() {
+            return (Channel) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Channel.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "basicAck" -> {
+                                acked.incrementAndGet();
+                                settle((Long) args[0], false);
+                            }
+                            case "basicNack" -> {
+                                if ((Boolean) args[2]) {
+                                    publish(RabbitMQConfig.BUILD_VUE_PROJECT_ROUTING_KEY, unacked.get((Long) args[0]));
+                                    settle((Long) args[0], false);
+                                } else {
+                                    settle((Long) args[0], true);
+                                }
+                            }
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        }
+                        return null;
+                    });
+        }
+
+        private RabbitTemplate rabbitTemplate() {
+            return new RabbitTemplate() {
+                @Override
+                public void convertAndSend(String exchange, String routingKey, Object object) {
+                    assertEquals(RabbitMQConfig.BUILD_EXCHANGE, exchange);
+                    publish(routingKey, (TaskMessage) object);
+                }
+            };
+        }
+
+        private AmqpAdmin amqpAdmin() {
+            return (AmqpAdmin) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{AmqpAdmin.class},
+                    (proxy, method, args) -> {
+                        if ("getQueueInfo".equals(method.getName())) {
+                            return new QueueInformation((String) args[0], ready.size(), 1);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.rich.app.mq.notifier;
+
+import com.rich.app.mq.model.TaskProgressMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WebSocket任务进度通知器测试
+ * 验证同一产物的进度推送按间隔合并（保留最新一条补推），状态变化与终态立即推送，不同产物互不影响，
+ * 未推送终态的推送状态空闲超时后被清除
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class WebSocketTaskNotifierTest {
+
+    private static final long PUSH_INTERVAL_MS = 200;
+
+    private static final long STATE_TTL_MS = 300;
+
+    private WebSocketTaskNotifier notifier;
+
+    /**
+     * 已推送的消息（destination + 进度）
+     */
+    private final List<String> pushed = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true) {
+            @Override
+            public void convertAndSend(String destination, Object payload) {
+                TaskProgressMessage progress = (TaskProgressMessage) payload;
+                pushed.add(destination + " " + progress.getStatus() + ":" + progress.getProgress());
+            }
+        };
+        notifier = new WebSocketTaskNotifier();
+        ReflectionTestUtils.setField(notifier, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(notifier, "pushIntervalMillis", PUSH_INTERVAL_MS);
+        ReflectionTestUtils.setField(notifier, "stateTtlMillis", STATE_TTL_MS);
+        notifier.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        notifier.destroy();
+    }
+
+    /**
+     * 间隔内的进度只补推最新一条；终态立即推送并丢弃待补推的进度
+     */
+    @Test
+    public void testProgressPushesAreThrottledPerApp() throws Exception {
+        notifier.notifyProgress(1L, "RUNNING", 0, "开始构建");
+        notifier.notifyProgress(1L, "RUNNING", 30, "安装依赖中");
+        notifier.notifyProgress(1L, "RUNNING", 60, "构建项目中");
+        notifier.notifyProgress(2L, "RUNNING", 0, "开始构建");
+        assertEquals(List.of("/topic/task/progress/1 RUNNING:0", "/topic/task/progress/2 RUNNING:0"), pushed);
+
+        Thread.sleep(PUSH_INTERVAL_MS * 2);
+        assertEquals(List.of("/topic/task/progress/1 RUNNING:0", "/topic/task/progress/2 RUNNING:0",
+                "/topic/task/progress/1 RUNNING:60"), pushed);
+
+        pushed.clear();
+        notifier.notifyProgress(1L, "RUNNING", 80, "正在部署");
+        notifier.notifyProgress(1L, "RUNNING", 90, "正在部署");
+        notifier.notifySuccess(1L, "http://localhost/app/");
+        notifier.notifyRetrying(2L, 1, 3);
+        Thread.sleep(PUSH_INTERVAL_MS * 2);
+        assertEquals(List.of("/topic/task/progress/1 RUNNING:80", "/topic/task/progress/1 SUCCESS:100",
+                "/topic/task/progress/2 RETRYING:0"), pushed);
+    }
+
+    /**
+     * 未推送终态就中断的任务，其推送状态在空闲超时后清除；仍在推送的产物不受影响
+     */
+    @Test
+    public void testIdleStatesAreEvictedWithoutTerminalPush() throws Exception {
+        Map<?, ?> pushStates = (Map<?, ?>) ReflectionTestUtils.getField(notifier, "pushStates");
+        notifier.notifyProgress(1L, "RUNNING", 30, "安装依赖中");
+        notifier.notifyProgress(2L, "RUNNING", 30, "安装依赖中");
+        assertEquals(2, pushStates.size());
+
+        long deadline = System.currentTimeMillis() + STATE_TTL_MS * 10;
+        while (pushStates.containsKey(1L) && System.currentTimeMillis() < deadline) {
+            notifier.notifyProgress(2L, "RUNNING", 40, "构建项目中");
+            Thread.sleep(STATE_TTL_MS / 5);
+        }
+        assertFalse(pushStates.containsKey(1L));
+        assertTrue(pushStates.containsKey(2L));
+
+        // 被清除的产物再次推送时按新任务处理，立即推送
+        pushed.clear();
+        notifier.notifyProgress(1L, "RUNNING", 50, "构建项目中");
+        assertEquals(List.of("/topic/task/progress/1 RUNNING:50"), pushed);
+    }
+}
@@ -0,0 +1,230 @@
+package com.rich.app.rag;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.rich.ai.rag.DashScopeTextEmbeddingModel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DashScope 文本向量模型测试
+ * 使用进程内 HTTP 服务模拟 DashScope 文本向量接口，注入延迟与失败，校验并发上限、重试与结果顺序
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class DashScopeTextEmbeddingModelTest {
+
+    private static final int DIMENSION = 4;
+
+    private static final int MAX_CONCURRENCY = 3;
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    /**
+     * 模拟接口的响应延迟（毫秒）
+     */
+    private volatile long latencyMillis = 50L;
+
+    /**
+     * 每个批次（按首条文本区分）在成功前需要失败的次数
+     */
+    private volatile int failuresPerBatch;
+
+    /**
+     * 注入失败时返回的 HTTP 状态码
+     */
+    private volatile int failureStatus = 500;
+
+    private final Map<String, AtomicInteger> attemptsByBatch = new ConcurrentHashMap<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * 多批次并发发送且不超过并发上限，结果顺序与输入一致
+     */
+    @Test
+    public void testConcurrentBatchesKeepInputOrder() {
+        DashScopeTextEmbeddingModel model = newModel(MAX_CONCURRENCY, 0);
+        List<TextSegment> segments = segments(95);
+
+        List<Embedding> embeddings = model.embedAll(segments).content();
+
+        assertEmbeddingsMatch(segments, embeddings);
+        assertEquals(10, requests.get());
+        assertTrue(maxInFlight.get() > 1, "batches should overlap, max in flight: " + maxInFlight.get());
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY, "max in flight: " + maxInFlight.get());
+    }
+
+    /**
+     * 多个调用方同时向量化时共享并发上限
+     */
+    @Test
+    public void testConcurrencyCapIsSharedAcrossCallers() throws Exception {
+        DashScopeTextEmbeddingModel model = newModel(MAX_CONCURRENCY, 0);
+        List<Thread> callers = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int caller = 0; caller < 4; caller++) {
+            List<TextSegment> segments = segments(40);
+            callers.add(Thread.ofVirtual().start(() -> {
+                try {
+                    assertEmbeddingsMatch(segments, model.embedAll(segments).content());
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY, "max in flight: " + maxInFlight.get());
+    }
+
+    /**
+     * 服务端错误与限流按批次重试后成功
+     */
+    @Test
+    public void testTransientFailuresAreRetried() {
+        for (int status : new int[]{500, 429}) {
+            attemptsByBatch.clear();
+            requests.set(0);
+            failureStatus = status;
+            failuresPerBatch = 2;
+            DashScopeTextEmbeddingModel model = newModel(MAX_CONCURRENCY, 2);
+            List<TextSegment> segments = segments(35);
+
+            List<Embedding> embeddings = model.embedAll(segments).content();
+
+            assertEmbeddingsMatch(segments, embeddings);
+            assertEquals(4 * 3, requests.get(), "status " + status);
+        }
+    }
+
+    /**
+     * 重试耗尽或客户端错误时抛出异常，客户端错误不重试
+     */
+    @Test
+    public void testPermanentFailuresAreReported() {
+        failuresPerBatch = Integer.MAX_VALUE;
+        failureStatus = 500;
+        DashScopeTextEmbeddingModel model = newModel(MAX_CONCURRENCY, 1);
+        assertThrows(RuntimeException.class, () -> model.embedAll(segments(5)));
+        assertEquals(2, requests.get());
+
+        requests.set(0);
+        attemptsByBatch.clear();
+        failureStatus = 400;
+        assertThrows(RuntimeException.class, () -> model.embedAll(segments(5)));
+        assertEquals(1, requests.get());
+    }
+
+    private DashScopeTextEmbeddingModel newModel(int maxConcurrency, int maxRetries) {
+        return new DashScopeTextEmbeddingModel("text-embedding-v4", "test-key", DIMENSION, baseUrl,
+                maxConcurrency, maxRetries, 10L);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            JSONObject request = JSONUtil.parseObj(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            List<String> texts = request.getJSONObject("input").getJSONArray("texts").toList(String.class);
+            Thread.sleep(latencyMillis);
+            int attempt = attemptsByBatch.computeIfAbsent(texts.get(0), key -> new AtomicInteger()).incrementAndGet();
+            if (attempt <= failuresPerBatch) {
+                respond(exchange, failureStatus, new JSONObject()
+                        .set("code", failureStatus == 429 ? "Throttling" : "InternalError")
+                        .set("message", "injected failure")
+                        .set("request_id", "test"));
+                return;
+            }
+            JSONArray embeddings = new JSONArray();
+            // 乱序返回，校验按 text_index 排序
+            for (int i = texts.size() - 1; i >= 0; i--) {
+                embeddings.add(new JSONObject().set("text_index", i).set("embedding", vector(texts.get(i))));
+            }
+            respond(exchange, 200, new JSONObject()
+                    .set("output", new JSONObject().set("embeddings", embeddings))
+                    .set("usage", new JSONObject().set("total_tokens", texts.size()))
+                    .set("request_id", "test"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, new JSONObject().set("code", "Interrupted").set("message", "interrupted"));
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static double[] vector(String text) {
+        int index = Integer.parseInt(text.substring(text.lastIndexOf('-') + 1));
+        return new double[]{index, text.length(), 1D, -index};
+    }
+
+    private static List<TextSegment> segments(int count) {
+        String caller = Long.toHexString(System.nanoTime());
+        List<TextSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(TextSegment.from("segment-" + caller + "-" + i));
+        }
+        return segments;
+    }
+
+    private static void assertEmbeddingsMatch(List<TextSegment> segments, List<Embedding> embeddings) {
+        assertEquals(segments.size(), embeddings.size());
+        for (int i = 0; i < segments.size(); i++) {
+            assertArrayEquals(new float[]{i, segments.get(i).text().length(), 1F, -i}, embeddings.get(i).vector());
+        }
+    }
+}
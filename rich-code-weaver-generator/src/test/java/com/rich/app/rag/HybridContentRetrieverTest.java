@@ -0,0 +1,139 @@
+package com.rich.app.rag;
+
+import com.rich.ai.rag.Bm25Index;
+import com.rich.ai.rag.HybridContentRetriever;
+import com.rich.ai.rag.RagLexicalIndex;
+import com.rich.ai.rag.RagProperties;
+import com.rich.common.constant.RagConstant;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 混合检索器测试
+ * 校验分词、词法召回向量检索漏掉的标识符片段、元数据过滤与相对分数截断
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class HybridContentRetrieverTest {
+
+    private static final Filter VUE_FILTER = metadataKey(RagConstant.METADATA_CODE_GEN_TYPE).isEqualTo("VUE_PROJECT");
+
+    private static final Bm25Index.IndexedSegment KEY_SEGMENT =
+            segment("1", "VUE_PROJECT", "列表渲染时 v-for 指令必须配合 :key 使用，key 取数据的唯一 id。");
+
+    private static final Bm25Index.IndexedSegment ROUTER_SEGMENT =
+            segment("2", "VUE_PROJECT", "路由使用 createWebHashHistory，避免刷新页面出现 404。");
+
+    private static final Bm25Index.IndexedSegment STYLE_SEGMENT =
+            segment("3", "VUE_PROJECT", "组件样式使用 scoped 隔离，公共样式放在 assets 目录。");
+
+    private static final Bm25Index.IndexedSegment HTML_KEY_SEGMENT =
+            segment("4", "HTML", "v-for 在单文件 HTML 中不可用，使用原生 DOM 渲染列表。");
+
+    private RagLexicalIndex lexicalIndex;
+
+    private RagProperties.HybridRetrievalProperties hybridProps;
+
+    @BeforeEach
+    public void setUp() {
+        lexicalIndex = new RagLexicalIndex();
+        lexicalIndex.rebuild(List.of(KEY_SEGMENT, ROUTER_SEGMENT, STYLE_SEGMENT, HTML_KEY_SEGMENT), 0L);
+        hybridProps = new RagProperties.HybridRetrievalProperties();
+    }
+
+    /**
+     * 标识符保留整体词项并拆分子词，中文按二元组切分
+     */
+    @Test
+    public void testTokenize() {
+        List<String> tokens = Bm25Index.tokenize("createWebHashHistory v-for vite.config.js 路由");
+        assertTrue(tokens.containsAll(List.of("createwebhashhistory", "create", "web", "hash", "history")), tokens.toString());
+        assertTrue(tokens.containsAll(List.of("v-for", "for")), tokens.toString());
+        assertTrue(tokens.containsAll(List.of("vite.config.js", "vite", "config", "js")), tokens.toString());
+        assertTrue(tokens.contains("路由"), tokens.toString());
+    }
+
+    /**
+     * 向量检索未召回的标识符片段由词法检索补齐，并排在首位
+     */
+    @Test
+    public void testLexicalRecallsIdentifierMissedByVector() {
+        HybridContentRetriever retriever = new HybridContentRetriever(
+                query -> List.of(content(STYLE_SEGMENT, 0.82D), content(ROUTER_SEGMENT, 0.80D)),
+                lexicalIndex, VUE_FILTER, 2, hybridProps);
+        List<Content> results = retriever.retrieve(Query.from("v-for 的 :key 怎么写"));
+        assertFalse(results.isEmpty());
+        assertEquals(KEY_SEGMENT.id(), results.get(0).metadata().get(ContentMetadata.EMBEDDING_ID));
+        assertNotNull(results.get(0).metadata().get(ContentMetadata.RERANKED_SCORE));
+        // 词法检索遵守元数据过滤
+        assertTrue(results.stream().noneMatch(content ->
+                HTML_KEY_SEGMENT.id().equals(content.metadata().get(ContentMetadata.EMBEDDING_ID))));
+    }
+
+    /**
+     * 两路均命中的片段保留向量分数；低于最高分一定比例的片段被截断
+     */
+    @Test
+    public void testRelativeScoreCutoff() {
+        HybridContentRetriever retriever = new HybridContentRetriever(
+                query -> List.of(content(ROUTER_SEGMENT, 0.9D), content(STYLE_SEGMENT, 0.7D), content(KEY_SEGMENT, 0.6D)),
+                lexicalIndex, VUE_FILTER, 5, hybridProps);
+        List<Content> results = retriever.retrieve(Query.from("createWebHashHistory 刷新 404"));
+        assertEquals(1, results.size(), results.toString());
+        assertEquals(ROUTER_SEGMENT.id(), results.get(0).metadata().get(ContentMetadata.EMBEDDING_ID));
+        assertEquals(0.9D, results.get(0).metadata().get(ContentMetadata.SCORE));
+    }
+
+    /**
+     * 仅词法命中且查询词项覆盖率不足的片段不注入（相当于向量检索的 minScore）
+     */
+    @Test
+    public void testLexicalOnlyHitsRequireCoverage() {
+        String query = "组件样式 scoped 隔离时列表 v-for 怎么写";
+        HybridContentRetriever retriever = new HybridContentRetriever(
+                q -> List.of(content(STYLE_SEGMENT, 0.82D)), lexicalIndex, VUE_FILTER, 5, hybridProps);
+        assertTrue(retriever.retrieve(Query.from(query)).stream().noneMatch(content ->
+                KEY_SEGMENT.id().equals(content.metadata().get(ContentMetadata.EMBEDDING_ID))));
+
+        hybridProps.setLexicalOnlyMinCoverage(0D);
+        hybridProps.setMinRelativeScore(0D);
+        assertTrue(retriever.retrieve(Query.from(query)).stream().anyMatch(content ->
+                KEY_SEGMENT.id().equals(content.metadata().get(ContentMetadata.EMBEDDING_ID))));
+    }
+
+    /**
+     * 词法索引为空时直接返回向量检索结果（截断到 maxResults）
+     */
+    @Test
+    public void testEmptyLexicalIndexFallsBackToVector() {
+        HybridContentRetriever retriever = new HybridContentRetriever(
+                query -> List.of(content(ROUTER_SEGMENT, 0.9D), content(STYLE_SEGMENT, 0.7D), content(KEY_SEGMENT, 0.6D)),
+                new RagLexicalIndex(), VUE_FILTER, 2, hybridProps);
+        List<Content> results = retriever.retrieve(Query.from("v-for"));
+        assertEquals(2, results.size());
+        assertEquals(ROUTER_SEGMENT.segment(), results.get(0).textSegment());
+    }
+
+    private static Content content(Bm25Index.IndexedSegment indexed, double score) {
+        return Content.from(indexed.segment(), Map.of(ContentMetadata.SCORE, score, ContentMetadata.EMBEDDING_ID, indexed.id()));
+    }
+
+    private static Bm25Index.IndexedSegment segment(String id, String codeGenType, String text) {
+        Metadata metadata = new Metadata();
+        metadata.put(RagConstant.METADATA_CODE_GEN_TYPE, codeGenType);
+        return new Bm25Index.IndexedSegment(id, TextSegment.from(text, metadata));
+    }
+}
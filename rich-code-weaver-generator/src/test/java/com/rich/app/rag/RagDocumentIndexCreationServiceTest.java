@@ -0,0 +1,410 @@
+package com.rich.app.rag;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.rich.ai.rag.InMemoryRagIndexStateStore;
+import com.rich.ai.rag.RagDocumentIndexCreationService;
+import com.rich.ai.rag.RagDocumentProvider;
+import com.rich.ai.rag.RagIndexEntry;
+import com.rich.ai.rag.RagIndexStateStore;
+import com.rich.ai.rag.RagIndexStatus;
+import com.rich.ai.rag.RagIndexSyncInProgressException;
+import com.rich.ai.rag.RagIndexSyncResult;
+import com.rich.ai.rag.RagLexicalIndex;
+import com.rich.ai.rag.RagProperties;
+import com.rich.common.constant.RagConstant;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RAG 增量索引测试
+ * 使用确定性的本地 Embedding 模型与内存向量存储，校验只有新增、变化、删除的文档片段会被处理
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class RagDocumentIndexCreationServiceTest {
+
+    private static final int DIMENSION = 16;
+
+    private final Map<Long, Document> documents = new LinkedHashMap<>();
+
+    private CountingEmbeddingModel embeddingModel;
+
+    private InMemoryEmbeddingStore<TextSegment> embeddingStore;
+
+    private InMemoryRagIndexStateStore stateStore;
+
+    private RagDocumentIndexCreationService service;
+
+    @BeforeEach
+    public void setUp() {
+        embeddingModel = new CountingEmbeddingModel();
+        embeddingStore = new InMemoryEmbeddingStore<>();
+        stateStore = new InMemoryRagIndexStateStore();
+        service = newService(stateStore);
+        for (long id = 1; id <= 5; id++) {
+            documents.put(id, document(id, "HTML", paragraphs(id, 8)));
+        }
+    }
+
+    /**
+     * 首次同步全量写入，文档未变化时再次同步不调用 Embedding 模型
+     */
+    @Test
+    public void testUnchangedDocumentsAreSkipped() {
+        RagIndexSyncResult first = service.syncIndex();
+        assertTrue(first.isFullRebuild());
+        assertEquals(5, first.getAddedDocuments());
+        int totalSegments = storedSegments().size();
+        assertTrue(totalSegments > 5, "segments: " + totalSegments);
+        assertEquals(totalSegments, first.getEmbeddedSegments());
+        assertEquals(totalSegments, embeddingModel.embeddedTexts);
+
+        embeddingModel.embeddedTexts = 0;
+        RagIndexSyncResult second = service.syncIndex();
+        assertFalse(second.isFullRebuild());
+        assertEquals(5, second.getUnchangedDocuments());
+        assertEquals(0, second.getEmbeddedSegments());
+        assertEquals(0, embeddingModel.embeddedTexts);
+        assertEquals(totalSegments, storedSegments().size());
+    }
+
+    /**
+     * 修改一个文档只向量化该文档中新出现的片段，并删除其不再存在的旧片段
+     */
+    @Test
+    public void testChangedDocumentReembedsOnlyNewSegments() {
+        service.syncIndex();
+        int totalSegments = storedSegments().size();
+        long changedDocSegments = storedSegments().stream().filter(segment -> isFromDoc(segment, 3L)).count();
+
+        String changedText = documents.get(3L).text() + "\n\n新增段落：组件命名统一使用大驼峰，样式文件与组件同名。";
+        documents.put(3L, document(3L, "HTML", changedText));
+        embeddingModel.embeddedTexts = 0;
+        RagIndexSyncResult result = service.syncIndex();
+
+        assertEquals(1, result.getUpdatedDocuments());
+        assertEquals(4, result.getUnchangedDocuments());
+        assertTrue(result.getEmbeddedSegments() > 0);
+        assertTrue(result.getEmbeddedSegments() < changedDocSegments,
+                "embedded " + result.getEmbeddedSegments() + " of " + changedDocSegments);
+        assertEquals(result.getEmbeddedSegments(), embeddingModel.embeddedTexts);
+        assertEquals(totalSegments + result.getEmbeddedSegments() - result.getRemovedSegments(), storedSegments().size());
+        assertTrue(storedSegments().stream().anyMatch(segment -> segment.text().contains("组件命名统一使用大驼峰")));
+        assertIndexMatchesStore();
+    }
+
+    /**
+     * 元数据变化（如代码生成类型）时该文档全部片段重新写入
+     */
+    @Test
+    public void testMetadataChangeRewritesDocument() {
+        service.syncIndex();
+        documents.put(2L, document(2L, "VUE_PROJECT", documents.get(2L).text()));
+        RagIndexSyncResult result = service.syncIndex();
+
+        assertEquals(1, result.getUpdatedDocuments());
+        assertEquals(result.getEmbeddedSegments(), result.getRemovedSegments());
+        assertTrue(storedSegments().stream()
+                .filter(segment -> isFromDoc(segment, 2L))
+                .allMatch(segment -> "VUE_PROJECT".equals(segment.metadata().getString(RagConstant.METADATA_CODE_GEN_TYPE))));
+        assertIndexMatchesStore();
+    }
+
+    /**
+     * 删除文档时移除其全部片段，且不调用 Embedding 模型
+     */
+    @Test
+    public void testRemovedDocumentSegmentsAreDeleted() {
+        service.syncIndex();
+        documents.remove(4L);
+        embeddingModel.embeddedTexts = 0;
+        RagIndexSyncResult result = service.syncIndex();
+
+        assertEquals(1, result.getRemovedDocuments());
+        assertEquals(0, embeddingModel.embeddedTexts);
+        assertTrue(storedSegments().stream().noneMatch(segment -> isFromDoc(segment, 4L)));
+        assertIndexMatchesStore();
+
+        // 全部文档停用后清空索引
+        documents.clear();
+        service.syncIndex();
+        assertTrue(storedSegments().isEmpty());
+        assertEquals(0, service.getIndexStatus().getDocumentCount());
+    }
+
+    /**
+     * 索引清单丢失时清空向量存储后全量写入，不产生重复片段；全量重建会重新向量化所有片段
+     */
+    @Test
+    public void testLostStateRebuildsWithoutDuplicates() {
+        service.syncIndex();
+        int totalSegments = storedSegments().size();
+
+        RagDocumentIndexCreationService restarted = newService(new InMemoryRagIndexStateStore());
+        RagIndexSyncResult rebuild = restarted.syncIndex();
+        assertTrue(rebuild.isFullRebuild());
+        assertEquals(totalSegments, storedSegments().size());
+
+        embeddingModel.embeddedTexts = 0;
+        RagIndexSyncResult full = service.reindexAll();
+        assertTrue(full.isFullRebuild());
+        assertEquals(totalSegments, embeddingModel.embeddedTexts);
+        assertEquals(totalSegments, storedSegments().size());
+    }
+
+    /**
+     * 两个实例共享 Redis 清单：一个实例同步期间另一个实例的同步被拒绝，不会再次清空向量存储；
+     * 同步结束释放锁后，其他实例可正常同步
+     */
+    @Test
+    public void testConcurrentSyncAcrossNodesIsRejected() throws Exception {
+        RedisServer redisServer = RedisServer.newRedisServer().start();
+        RedissonClient clientA = newRedissonClient(redisServer);
+        RedissonClient clientB = newRedissonClient(redisServer);
+        try {
+            RagDocumentIndexCreationService nodeA = newService(newRedisStateStore(clientA));
+            RagDocumentIndexCreationService nodeB = newService(newRedisStateStore(clientB));
+            CountDownLatch syncing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ReflectionTestUtils.setField(nodeA, "ragDocumentProvider", (RagDocumentProvider) () -> {
+                syncing.countDown();
+                try {
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ArrayList<>(documents.values());
+            });
+
+            CompletableFuture<RagIndexSyncResult> first = CompletableFuture.supplyAsync(nodeA::syncIndex);
+            assertTrue(syncing.await(10, TimeUnit.SECONDS));
+            assertThrows(RagIndexSyncInProgressException.class, nodeB::syncIndex);
+            assertThrows(RagIndexSyncInProgressException.class, nodeB::reindexAll);
+            release.countDown();
+            assertTrue(first.get(10, TimeUnit.SECONDS).isFullRebuild());
+            int totalSegments = storedSegments().size();
+
+            embeddingModel.embeddedTexts = 0;
+            RagIndexSyncResult second = nodeB.syncIndex();
+            assertFalse(second.isFullRebuild());
+            assertEquals(documents.size(), second.getUnchangedDocuments());
+            assertEquals(0, embeddingModel.embeddedTexts);
+            assertEquals(totalSegments, storedSegments().size());
+        } finally {
+            clientA.shutdown();
+            clientB.shutdown();
+            redisServer.stop();
+        }
+    }
+
+    /**
+     * 词法索引跟随共享索引代次：未执行同步的实例按共享清单重建；
+     * 其他实例删除文档后，重建完成前已删除的片段即不再有效
+     */
+    @Test
+    public void testLexicalIndexFollowsSharedGeneration() throws Exception {
+        RedisServer redisServer = RedisServer.newRedisServer().start();
+        RedissonClient clientA = newRedissonClient(redisServer);
+        RedissonClient clientB = newRedissonClient(redisServer);
+        try {
+            RagIndexStateStore storeA = newRedisStateStore(clientA);
+            RagDocumentIndexCreationService nodeA = newService(storeA);
+            RagDocumentIndexCreationService nodeB = newService(newRedisStateStore(clientB));
+            RagLexicalIndex lexicalA = bindLexicalIndex(nodeA);
+            RagLexicalIndex lexicalB = bindLexicalIndex(nodeB);
+
+            nodeA.syncIndex();
+            int totalSegments = storedSegments().size();
+            assertEquals(totalSegments, lexicalA.snapshot().size());
+            // 节点 B 未同步，检查代次后在后台按共享清单重建
+            awaitLexicalSize(lexicalB, totalSegments);
+            assertEquals(totalSegments, embeddingModel.embeddedTexts);
+
+            Set<String> segmentsBefore = manifestSegmentIds(storeA);
+            documents.remove(5L);
+            nodeA.syncIndex();
+            Set<String> removed = new HashSet<>(segmentsBefore);
+            removed.removeAll(manifestSegmentIds(storeA));
+            assertFalse(removed.isEmpty());
+            // 持有节点 B 的监视器，使后台重建等待：旧快照中已删除的片段立即失效
+            synchronized (nodeB) {
+                assertEquals(totalSegments, lexicalB.snapshot().size());
+                assertTrue(removed.stream().noneMatch(lexicalB::isLive));
+            }
+            awaitLexicalSize(lexicalB, totalSegments - removed.size());
+            assertEquals(totalSegments - removed.size(), lexicalA.snapshot().size());
+        } finally {
+            clientA.shutdown();
+            clientB.shutdown();
+            redisServer.stop();
+        }
+    }
+
+    /**
+     * 索引状态与向量存储一致，且查询状态不调用 Embedding 模型
+     */
+    private void assertIndexMatchesStore() {
+        int embeddedBefore = embeddingModel.embeddedTexts;
+        RagIndexStatus status = service.getIndexStatus();
+        assertEquals(embeddedBefore, embeddingModel.embeddedTexts);
+        assertEquals(documents.size(), status.getDocumentCount());
+        assertEquals(storedSegments().size(), status.getSegmentCount());
+        assertTrue(status.getLastIndexedTime() > 0);
+        assertNotNull(status.getLastSyncResult());
+    }
+
+    private RagDocumentIndexCreationService newService(RagIndexStateStore indexStateStore) {
+        RagDocumentIndexCreationService indexService = new RagDocumentIndexCreationService();
+        ReflectionTestUtils.setField(indexService, "embeddingModel", embeddingModel);
+        ReflectionTestUtils.setField(indexService, "embeddingStore", embeddingStore);
+        ReflectionTestUtils.setField(indexService, "ragDocumentProvider",
+                (RagDocumentProvider) () -> new ArrayList<>(documents.values()));
+        ReflectionTestUtils.setField(indexService, "ragIndexStateStore", indexStateStore);
+        return indexService;
+    }
+
+    /**
+     * 为实例注入词法索引，每次读取快照都检查索引代次
+     */
+    private static RagLexicalIndex bindLexicalIndex(RagDocumentIndexCreationService indexService) {
+        RagProperties ragProperties = new RagProperties();
+        ragProperties.getHybrid().setGenerationCheckIntervalMillis(0);
+        RagLexicalIndex lexicalIndex = new RagLexicalIndex();
+        ReflectionTestUtils.setField(indexService, "ragProperties", ragProperties);
+        ReflectionTestUtils.setField(indexService, "ragLexicalIndex", lexicalIndex);
+        indexService.init();
+        return lexicalIndex;
+    }
+
+    private static void awaitLexicalSize(RagLexicalIndex lexicalIndex, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (lexicalIndex.snapshot().size() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, lexicalIndex.snapshot().size());
+    }
+
+    private static Set<String> manifestSegmentIds(RagIndexStateStore store) {
+        Set<String> ids = new HashSet<>();
+        for (RagIndexEntry entry : store.loadAll().values()) {
+            ids.addAll(entry.getSegmentIds());
+        }
+        return ids;
+    }
+
+    private static RedisRagIndexStateStore newRedisStateStore(RedissonClient client) {
+        RedisRagIndexStateStore store = new RedisRagIndexStateStore();
+        ReflectionTestUtils.setField(store, "redissonClient", client);
+        return store;
+    }
+
+    private static RedissonClient newRedissonClient(RedisServer redisServer) {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://" + redisServer.getHost() + ":" + redisServer.getBindPort())
+                .setRetryAttempts(0)
+                .setTimeout(1000);
+        return Redisson.create(config);
+    }
+
+    /**
+     * 读取向量存储中的全部片段（不经过计数的 Embedding 模型）
+     */
+    private List<TextSegment> storedSegments() {
+        float[] vector = new float[DIMENSION];
+        Arrays.fill(vector, 1F);
+        return embeddingStore.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(vector))
+                        .maxResults(10_000)
+                        .minScore(0D)
+                        .build())
+                .matches().stream()
+                .map(EmbeddingMatch::embedded)
+                .toList();
+    }
+
+    private boolean isFromDoc(TextSegment segment, long id) {
+        return ("db:" + id).equals(segment.metadata().getString(RagConstant.METADATA_DOC_ID));
+    }
+
+    private static Document document(long id, String codeGenType, String text) {
+        Metadata metadata = new Metadata();
+        metadata.put(RagConstant.METADATA_DOC_ID, "db:" + id);
+        metadata.put(RagConstant.METADATA_BIZ_TYPE, "code_gen");
+        metadata.put(RagConstant.METADATA_CODE_GEN_TYPE, codeGenType);
+        metadata.put(RagConstant.METADATA_SOURCE, "文档" + id);
+        metadata.put(RagConstant.METADATA_TITLE, "文档" + id);
+        return Document.from(text, metadata);
+    }
+
+    private static String paragraphs(long seed, int count) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append("\n\n");
+            }
+            text.append("第").append(i + 1).append("条规范：");
+            for (int j = 0; j < 30; j++) {
+                text.append("规则").append(random.nextInt(1000)).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 确定性的本地 Embedding 模型：向量由文本哈希决定，并统计被向量化的文本数
+     */
+    private static class CountingEmbeddingModel implements EmbeddingModel {
+
+        private int embeddedTexts;
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+            for (TextSegment segment : textSegments) {
+                Random random = new Random(segment.text().hashCode());
+                float[] vector = new float[DIMENSION];
+                for (int i = 0; i < DIMENSION; i++) {
+                    vector[i] = random.nextFloat() + 0.01F;
+                }
+                embeddings.add(Embedding.from(vector));
+            }
+            embeddedTexts += textSegments.size();
+            return Response.from(embeddings);
+        }
+
+        @Override
+        public int dimension() {
+            return DIMENSION;
+        }
+    }
+}
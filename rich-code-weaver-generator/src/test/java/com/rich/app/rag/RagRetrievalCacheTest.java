@@ -0,0 +1,280 @@
+package com.rich.app.rag;
+
+import com.rich.ai.rag.CachingEmbeddingStoreContentRetriever;
+import com.rich.ai.rag.InMemoryRagIndexStateStore;
+import com.rich.ai.rag.RagDocumentIndexCreationService;
+import com.rich.ai.rag.RagDocumentProvider;
+import com.rich.ai.rag.RagProperties;
+import com.rich.ai.rag.RagRetrievalCache;
+import com.rich.common.constant.RagConstant;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RAG 检索缓存测试
+ * 使用按字符统计的本地 Embedding 模型与内存向量存储，校验缓存键、索引变化后的失效与命中指标
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class RagRetrievalCacheTest {
+
+    private static final int DIMENSION = 32;
+
+    private static final Filter HTML_FILTER = metadataKey(RagConstant.METADATA_CODE_GEN_TYPE).isEqualTo("HTML");
+
+    private static final Filter VUE_FILTER = metadataKey(RagConstant.METADATA_CODE_GEN_TYPE).isEqualTo("VUE_PROJECT");
+
+    private final List<Document> documents = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CountingEmbeddingModel embeddingModel;
+
+    private CountingEmbeddingStore embeddingStore;
+
+    private RagRetrievalCache cache;
+
+    private RagDocumentIndexCreationService indexService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        embeddingModel = new CountingEmbeddingModel();
+        embeddingStore = new CountingEmbeddingStore();
+        cache = new RagRetrievalCache();
+        ReflectionTestUtils.setField(cache, "ragProperties", new RagProperties());
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.init();
+
+        indexService = new RagDocumentIndexCreationService();
+        ReflectionTestUtils.setField(indexService, "embeddingModel", embeddingModel);
+        ReflectionTestUtils.setField(indexService, "embeddingStore", embeddingStore);
+        ReflectionTestUtils.setField(indexService, "ragDocumentProvider", (RagDocumentProvider) () -> new ArrayList<>(documents));
+        ReflectionTestUtils.setField(indexService, "ragIndexStateStore", new InMemoryRagIndexStateStore());
+        ReflectionTestUtils.setField(indexService, "ragRetrievalCache", cache);
+
+        documents.add(document("db:1", "HTML", "按钮使用 button 标签，表单控件必须有 label。"));
+        documents.add(document("db:2", "VUE_PROJECT", "组件使用 script setup 语法，路由懒加载。"));
+        indexService.syncIndex();
+        embeddingModel.embeddedTexts = 0;
+    }
+
+    /**
+     * 规范化后相同的查询只向量化、检索一次
+     */
+    @Test
+    public void testNormalizedQueryHitsCache() {
+        ContentRetrieverUnderTest retriever = retriever(HTML_FILTER, 5, 0D);
+        List<Content> first = retriever.retrieve("按钮 标签 规范");
+        List<Content> second = retriever.retrieve("  按钮\t标签\n\n规范 ");
+        List<Content> third = retriever.retrieve("按钮　标签　规范"); // 全角空格
+        assertFalse(first.isEmpty());
+        assertEquals(first, second);
+        assertEquals(first, third);
+        assertEquals(1, embeddingModel.embeddedTexts);
+        assertEquals(1, embeddingStore.searches);
+
+        assertEquals(1D, cacheGets(RagRetrievalCache.RETRIEVAL_CACHE_NAME, "miss"));
+        assertEquals(2D, cacheGets(RagRetrievalCache.RETRIEVAL_CACHE_NAME, "hit"));
+        assertEquals(1D, cacheGets(RagRetrievalCache.EMBEDDING_CACHE_NAME, "miss"));
+    }
+
+    /**
+     * 过滤条件、maxResults、minScore 不同的检索互不共用结果，但共用查询向量
+     */
+    @Test
+    public void testKeyIncludesFilterAndParams() {
+        String query = "组件 规范";
+        List<Content> html = retriever(HTML_FILTER, 5, 0D).retrieve(query);
+        List<Content> vue = retriever(VUE_FILTER, 5, 0D).retrieve(query);
+        retriever(VUE_FILTER, 1, 0D).retrieve(query);
+        List<Content> strict = retriever(VUE_FILTER, 5, 0.9999D).retrieve(query);
+
+        assertTrue(html.stream().allMatch(content -> "HTML".equals(codeGenType(content))));
+        assertTrue(vue.stream().allMatch(content -> "VUE_PROJECT".equals(codeGenType(content))));
+        assertTrue(strict.isEmpty());
+        assertEquals(4, embeddingStore.searches);
+        assertEquals(1, embeddingModel.embeddedTexts);
+        assertEquals(3D, cacheGets(RagRetrievalCache.EMBEDDING_CACHE_NAME, "hit"));
+    }
+
+    /**
+     * 索引变化后检索结果失效，查询向量仍然复用；索引未变化时缓存保留
+     */
+    @Test
+    public void testIndexChangeInvalidatesRetrievals() {
+        ContentRetrieverUnderTest retriever = retriever(HTML_FILTER, 5, 0D);
+        String query = "表单 控件 规范";
+        assertEquals(1, retriever.retrieve(query).size());
+        double invalidations = meterRegistry.get("rag_retrieval_cache_invalidations").counter().count();
+
+        // 无变化的同步不失效
+        indexService.syncIndex();
+        retriever.retrieve(query);
+        assertEquals(1, embeddingStore.searches);
+
+        documents.add(document("db:3", "HTML", "表单提交前必须校验必填项。"));
+        indexService.syncIndex();
+        int embeddedByIndex = embeddingModel.embeddedTexts;
+        List<Content> refreshed = retriever.retrieve(query);
+        assertEquals(2, refreshed.size());
+        assertEquals(2, embeddingStore.searches);
+        assertEquals(embeddedByIndex, embeddingModel.embeddedTexts, "query embedding should be reused");
+        assertEquals(invalidations + 1, meterRegistry.get("rag_retrieval_cache_invalidations").counter().count());
+    }
+
+    /**
+     * 查询向量按模型名称与维度区分；全量重建索引后查询向量重新计算
+     */
+    @Test
+    public void testEmbeddingKeyIncludesModelAndReindexClearsIt() {
+        String query = "按钮 标签";
+        cache.getEmbedding(RagRetrievalCache.digest(query), () -> embeddingModel.embed(query).content());
+        cache.getEmbedding(RagRetrievalCache.digest(query), () -> embeddingModel.embed(query).content());
+        assertEquals(1, embeddingModel.embeddedTexts);
+
+        RagProperties properties = (RagProperties) ReflectionTestUtils.getField(cache, "ragProperties");
+        properties.getEmbeddingModel().setModelName("text-embedding-v3");
+        cache.getEmbedding(RagRetrievalCache.digest(query), () -> embeddingModel.embed(query).content());
+        assertEquals(2, embeddingModel.embeddedTexts);
+        properties.getPgvector().setDimension(properties.getPgvector().getDimension() / 2);
+        cache.getEmbedding(RagRetrievalCache.digest(query), () -> embeddingModel.embed(query).content());
+        assertEquals(3, embeddingModel.embeddedTexts);
+
+        ContentRetrieverUnderTest retriever = retriever(HTML_FILTER, 5, 0D);
+        retriever.retrieve(query);
+        indexService.reindexAll();
+        embeddingModel.embeddedTexts = 0;
+        retriever.retrieve(query);
+        assertEquals(1, embeddingModel.embeddedTexts, "query embedding should be recomputed after reindex");
+    }
+
+    private ContentRetrieverUnderTest retriever(Filter filter, int maxResults, double minScore) {
+        CachingEmbeddingStoreContentRetriever retriever = new CachingEmbeddingStoreContentRetriever(
+                cache, embeddingModel, embeddingStore, filter, maxResults, minScore);
+        return text -> retriever.retrieve(Query.from(text));
+    }
+
+    private double cacheGets(String cacheName, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter().count();
+    }
+
+    private static String codeGenType(Content content) {
+        return content.textSegment().metadata().getString(RagConstant.METADATA_CODE_GEN_TYPE);
+    }
+
+    private static Document document(String docId, String codeGenType, String text) {
+        Metadata metadata = new Metadata();
+        metadata.put(RagConstant.METADATA_DOC_ID, docId);
+        metadata.put(RagConstant.METADATA_CODE_GEN_TYPE, codeGenType);
+        metadata.put(RagConstant.METADATA_SOURCE, docId);
+        return Document.from(text, metadata);
+    }
+
+    @FunctionalInterface
+    private interface ContentRetrieverUnderTest {
+        List<Content> retrieve(String text);
+    }
+
+    /**
+     * 按字符哈希分桶统计的本地 Embedding 模型，统计被向量化的文本数
+     */
+    private static class CountingEmbeddingModel implements EmbeddingModel {
+
+        private int embeddedTexts;
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+            for (TextSegment segment : textSegments) {
+                float[] vector = new float[DIMENSION];
+                vector[0] = 0.01F;
+                segment.text().codePoints()
+                        .filter(Character::isLetterOrDigit)
+                        .forEach(codePoint -> vector[Math.floorMod(codePoint, DIMENSION)] += 1F);
+                embeddings.add(Embedding.from(vector));
+            }
+            embeddedTexts += textSegments.size();
+            return Response.from(embeddings);
+        }
+
+        @Override
+        public int dimension() {
+            return DIMENSION;
+        }
+    }
+
+    /**
+     * 统计检索次数的内存向量存储
+     */
+    private static class CountingEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+        private final InMemoryEmbeddingStore<TextSegment> delegate = new InMemoryEmbeddingStore<>();
+
+        private int searches;
+
+        @Override
+        public String add(Embedding embedding) {
+            return delegate.add(embedding);
+        }
+
+        @Override
+        public void add(String id, Embedding embedding) {
+            delegate.add(id, embedding);
+        }
+
+        @Override
+        public String add(Embedding embedding, TextSegment textSegment) {
+            return delegate.add(embedding, textSegment);
+        }
+
+        @Override
+        public List<String> addAll(List<Embedding> embeddings) {
+            return delegate.addAll(embeddings);
+        }
+
+        @Override
+        public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> embedded) {
+            delegate.addAll(ids, embeddings, embedded);
+        }
+
+        @Override
+        public void removeAll(Collection<String> ids) {
+            delegate.removeAll(ids);
+        }
+
+        @Override
+        public void removeAll() {
+            delegate.removeAll();
+        }
+
+        @Override
+        public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+            searches++;
+            return delegate.search(request);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.rich.app.rag;
+
+import com.rich.ai.rag.HybridContentRetriever;
+import com.rich.ai.rag.InMemoryRagIndexStateStore;
+import com.rich.ai.rag.RagDocumentIndexCreationService;
+import com.rich.ai.rag.RagLexicalIndex;
+import com.rich.ai.rag.RagProperties;
+import com.rich.common.constant.RagConstant;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RAG 检索离线评测
+ * 对 docs/ragDocs 知识库建立索引，以固定查询集对比纯向量检索与混合检索的召回率和注入提示词的 Token 数。
+ * 使用按字符二元组哈希的本地 Embedding 模型代替线上模型，结果可复现；替换为真实模型即可评测线上效果。
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class RagRetrievalEvaluationTest {
+
+    private static final String DOCS_PATH = "../docs/ragDocs";
+
+    private static final int DIMENSION = 256;
+
+    private static final int MAX_RESULTS = RagConstant.DEFAULT_MAX_RESULTS;
+
+    /**
+     * 查询集：代码生成类型、查询文本、应被召回的知识片段中的原文
+     */
+    private static final List<EvalCase> CASES = List.of(
+            new EvalCase("VUE_PROJECT", "vite.config.js 配置报错", "vite.config.js"),
+            new EvalCase("VUE_PROJECT", "v-for 要不要加 :key", "`v-for` 指令必须配合 `:key` 使用"),
+            new EvalCase("VUE_PROJECT", "可以引入 Pinia 吗", "Pinia"),
+            new EvalCase("VUE_PROJECT", "路由刷新后 404", "hash 模式"),
+            new EvalCase("VUE_PROJECT", "<style scoped> 样式隔离", "`<style scoped>`"),
+            new EvalCase("VUE_PROJECT", "dayjs 日期处理", "dayjs"),
+            new EvalCase("HTML", "Chart.js 怎么引入", "Chart.js"),
+            new EvalCase("HTML", "Cannot read properties of null", "Cannot read properties of null"),
+            new EvalCase("HTML", "表单提交 preventDefault", "preventDefault()"),
+            new EvalCase("HTML", "CSS 选择器 BEM 命名", "BEM"),
+            new EvalCase("HTML", "Lorem Ipsum 占位文字", "Lorem Ipsum"),
+            new EvalCase("MULTI_FILE", "'use strict' 严格模式", "'use strict'"),
+            new EvalCase("MULTI_FILE", "JSON.parse 数据损坏白屏", "try-catch"),
+            new EvalCase("MULTI_FILE", "sessionStorage 适用场景", "sessionStorage"),
+            new EvalCase("MULTI_FILE", "Cookie 容量限制", "4KB")
+    );
+
+    private InMemoryEmbeddingStore<TextSegment> embeddingStore;
+
+    private HashedBigramEmbeddingModel embeddingModel;
+
+    private RagLexicalIndex lexicalIndex;
+
+    @BeforeEach
+    public void setUp() {
+        RagProperties ragProperties = new RagProperties();
+        ragProperties.setDocsPath(DOCS_PATH);
+        embeddingStore = new InMemoryEmbeddingStore<>();
+        embeddingModel = new HashedBigramEmbeddingModel();
+        lexicalIndex = new RagLexicalIndex();
+
+        RagDocumentIndexCreationService indexService = new RagDocumentIndexCreationService();
+        ReflectionTestUtils.setField(indexService, "embeddingModel", embeddingModel);
+        ReflectionTestUtils.setField(indexService, "embeddingStore", embeddingStore);
+        ReflectionTestUtils.setField(indexService, "ragProperties", ragProperties);
+        ReflectionTestUtils.setField(indexService, "ragIndexStateStore", new InMemoryRagIndexStateStore());
+        ReflectionTestUtils.setField(indexService, "ragLexicalIndex", lexicalIndex);
+        indexService.syncIndex();
+        assertTrue(lexicalIndex.snapshot().size() > 0, "knowledge base should be indexed");
+    }
+
+    /**
+     * 混合检索的召回率不低于纯向量检索，且注入的 Token 更少
+     */
+    @Test
+    public void testHybridRetrievalAgainstVectorBaseline() {
+        RagProperties.HybridRetrievalProperties hybridProps = new RagProperties.HybridRetrievalProperties();
+        int vectorHits = 0;
+        int hybridHits = 0;
+        long vectorTokens = 0;
+        long hybridTokens = 0;
+        StringBuilder report = new StringBuilder(String.format("%n%-40s %8s %8s %8s %8s%n",
+                "query", "vector", "tokens", "hybrid", "tokens"));
+        for (EvalCase evalCase : CASES) {
+            Filter filter = workflowFilter(evalCase.codeGenType());
+            List<Content> vector = vectorRetriever(filter, MAX_RESULTS).retrieve(Query.from(evalCase.query()));
+            List<Content> hybrid = new HybridContentRetriever(
+                    vectorRetriever(filter, MAX_RESULTS * hybridProps.getCandidateMultiplier()),
+                    lexicalIndex, filter, MAX_RESULTS, hybridProps).retrieve(Query.from(evalCase.query()));
+
+            boolean vectorHit = containsAnswer(vector, evalCase.answer());
+            boolean hybridHit = containsAnswer(hybrid, evalCase.answer());
+            long vectorCost = estimateTokens(vector);
+            long hybridCost = estimateTokens(hybrid);
+            vectorHits += vectorHit ? 1 : 0;
+            hybridHits += hybridHit ? 1 : 0;
+            vectorTokens += vectorCost;
+            hybridTokens += hybridCost;
+            report.append(String.format("%-40s %8s %8d %8s %8d%n",
+                    evalCase.query(), vectorHit, vectorCost, hybridHit, hybridCost));
+        }
+        report.append(String.format("recall: vector %d/%d, hybrid %d/%d; tokens: vector %d, hybrid %d",
+                vectorHits, CASES.size(), hybridHits, CASES.size(), vectorTokens, hybridTokens));
+        System.out.println(report);
+
+        assertTrue(hybridHits >= vectorHits, report.toString());
+        assertTrue(hybridTokens <= vectorTokens, report.toString());
+    }
+
+    private ContentRetriever vectorRetriever(Filter filter, int maxResults) {
+        return EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(embeddingStore)
+                .embeddingModel(embeddingModel)
+                .filter(filter)
+                .maxResults(maxResults)
+                .minScore(0D)
+                .build();
+    }
+
+    /**
+     * 与工作流模式的过滤条件一致：指定代码生成类型或通用文档
+     */
+    private static Filter workflowFilter(String codeGenType) {
+        return metadataKey(RagConstant.METADATA_BIZ_TYPE).isEqualTo("CODE_GEN")
+                .and(metadataKey(RagConstant.METADATA_CODE_GEN_TYPE).isEqualTo(codeGenType)
+                        .or(metadataKey(RagConstant.METADATA_CODE_GEN_TYPE).isEqualTo(RagConstant.DEFAULT_CODE_GEN_TYPE)));
+    }
+
+    private static boolean containsAnswer(List<Content> contents, String answer) {
+        return contents.stream().anyMatch(content -> content.textSegment().text().contains(answer));
+    }
+
+    /**
+     * 粗略估算 Token 数：CJK 字符按 1 个计，其余字符按 4 个计 1 个
+     */
+    private static long estimateTokens(List<Content> contents) {
+        long cjk = 0;
+        long other = 0;
+        for (Content content : contents) {
+            for (int codePoint : content.textSegment().text().codePoints().toArray()) {
+                if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                    cjk++;
+                } else if (!Character.isWhitespace(codePoint)) {
+                    other++;
+                }
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    private record EvalCase(String codeGenType, String query, String answer) {
+    }
+
+    /**
+     * 按词项与字符二元组哈希分桶的本地 Embedding 模型（L2 归一化）
+     */
+    private static class HashedBigramEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+            for (TextSegment segment : textSegments) {
+                float[] vector = new float[DIMENSION];
+                String text = segment.text().toLowerCase();
+                for (int i = 0; i + 1 < text.length(); i++) {
+                    if (Character.isLetterOrDigit(text.charAt(i)) && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                        vector[Math.floorMod(text.substring(i, i + 2).hashCode(), DIMENSION)] += 1F;
+                    }
+                }
+                double norm = 0D;
+                for (float value : vector) {
+                    norm += value * value;
+                }
+                norm = norm == 0D ? 1D : Math.sqrt(norm);
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = (float) (vector[i] / norm);
+                }
+                embeddings.add(Embedding.from(vector));
+            }
+            return Response.from(embeddings);
+        }
+
+        @Override
+        public int dimension() {
+            return DIMENSION;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.rich.app.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.paginate.Page;
+import com.rich.app.mapper.AppMapper;
+import com.rich.model.dto.app.AppQueryRequest;
+import com.rich.model.entity.App;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * “我的产物”与用户相关产物查询测试
+ * 在 H2（MySQL 兼容模式、不区分大小写）中生成数据，逐页对比数据库分页查询与原内存筛选、排序、分页的结果
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class AppServiceImplMyAppQueryTest {
+
+    private static final Long USER_ID = 1L;
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * 产物名称，含大小写不同的非 ASCII 名称（拉丁扩展、希腊字母、全角字母）与中文；
+     * 增补平面字符（如 emoji）与 ſ、ı 等特殊大小写映射字符的排序与内存实现不一致，见 AppServiceImpl#buildMyAppQueryWrapper
+     */
+    private static final String[] NAMES = {"Alpha", "alpha", "beta", "Beta 2", "_draft", "50% off", "博客", "博客首页",
+            "商城", "a_b", "a-b", "Zeta", "zeta", "", null, "~tilde", "Todo", "todo list",
+            "Éclair", "éclair", "eclair", "Über", "über", "Ωmega", "ωmega", "Ｆｕｌｌ", "ｆｕｌｌ width"};
+
+    private static final String[] CODE_GEN_TYPES = {"html", "multi_file", "vue_project"};
+
+    private static AppMapper appMapper;
+
+    /**
+     * 全部产物（含已删除）
+     */
+    private static final List<App> ALL_APPS = new ArrayList<>();
+
+    private static List<Long> collaboratedAppIds;
+
+    @BeforeAll
+    public static void setUpDatabase() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:my_app_query;MODE=MySQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE app (
+                      id bigint PRIMARY KEY,
+                      appName varchar(256),
+                      cover varchar(512),
+                      initPrompt text,
+                      codeGenType varchar(64),
+                      genMode varchar(32),
+                      deployKey varchar(64),
+                      deployedTime datetime,
+                      priority int NOT NULL DEFAULT 0,
+                      userId bigint NOT NULL,
+                      editTime datetime NOT NULL,
+                      createTime datetime NOT NULL,
+                      updateTime datetime NOT NULL,
+                      isDelete tinyint NOT NULL DEFAULT 0
+                    )""");
+            // MySQL 的 HEX()：字符串 UTF-8 编码的大写十六进制
+            statement.execute("CREATE ALIAS HEX FOR \"" + AppServiceImplMyAppQueryTest.class.getName() + ".hex\"");
+        }
+        generateApps(dataSource);
+        appMapper = MybatisFlexBootstrap.getInstance()
+                .setDataSource(dataSource)
+                .addMapper(AppMapper.class)
+                .start()
+                .getMapper(AppMapper.class);
+    }
+
+    public static String hex(String value) {
+        return value == null ? null : HexFormat.of().withUpperCase().formatHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 各种筛选与排序组合下，每一页的结果与总数都与内存实现一致
+     */
+    @Test
+    public void testMyAppPagesMatchInMemoryImplementation() {
+        List<Consumer<AppQueryRequest>> filters = List.of(
+                request -> {
+                },
+                request -> request.setAppName("a"),
+                request -> request.setAppName("_"),
+                request -> request.setAppName("%"),
+                request -> request.setAppName("博客"),
+                request -> request.setCover("COVER-1"),
+                request -> request.setInitPrompt("100%"),
+                request -> request.setCodeGenType("vue_project"),
+                request -> request.setPriority(99),
+                request -> request.setDeployKey("key-2"),
+                request -> request.setId(collaboratedAppIds.get(0)),
+                request -> {
+                    request.setAppName("e");
+                    request.setCodeGenType("html");
+                }
+        );
+        String[] sortFields = {null, "createTime", "updateTime", "appName", "priority", "unknown"};
+        String[] sortOrders = {null, "ascend", "descend", "asc"};
+
+        int comparedPages = 0;
+        for (Consumer<AppQueryRequest> filter : filters) {
+            for (String sortField : sortFields) {
+                for (String sortOrder : sortOrders) {
+                    AppQueryRequest request = new AppQueryRequest();
+                    filter.accept(request);
+                    request.setSortField(sortField);
+                    request.setSortOrder(sortOrder);
+                    List<App> expected = listMyAppsInMemory(request);
+                    int pages = Math.max(1, (expected.size() + PAGE_SIZE - 1) / PAGE_SIZE) + 1;
+                    for (int pageNum = 1; pageNum <= pages; pageNum++) {
+                        Page<App> page = appMapper.paginate(Page.of(pageNum, PAGE_SIZE),
+                                AppServiceImpl.buildMyAppQueryWrapper(USER_ID, collaboratedAppIds, request));
+                        int from = Math.min((pageNum - 1) * PAGE_SIZE, expected.size());
+                        int to = Math.min(from + PAGE_SIZE, expected.size());
+                        String description = "filter=" + filters.indexOf(filter) + ", sort=" + sortField + " " + sortOrder + ", page=" + pageNum;
+                        assertEquals(expected.size(), page.getTotalRow(), description);
+                        assertEquals(ids(expected.subList(from, to)), ids(page.getRecords()), description);
+                        comparedPages++;
+                    }
+                }
+            }
+        }
+        assertTrue(comparedPages > 500, "compared pages: " + comparedPages);
+    }
+
+    /**
+     * 用户相关产物与内存实现一致，没有协作产物时同样一致
+     */
+    @Test
+    public void testUserRelatedAppsMatchInMemoryImplementation() {
+        for (long limit : new long[]{1, 8, 50, 1000}) {
+            assertEquals(ids(listUserRelatedAppsInMemory(USER_ID, collaboratedAppIds, limit)),
+                    ids(appMapper.selectListByQuery(AppServiceImpl.buildUserRelatedAppQueryWrapper(USER_ID, collaboratedAppIds, limit))));
+            assertEquals(ids(listUserRelatedAppsInMemory(USER_ID, List.of(), limit)),
+                    ids(appMapper.selectListByQuery(AppServiceImpl.buildUserRelatedAppQueryWrapper(USER_ID, List.of(), limit))));
+        }
+        AppQueryRequest request = new AppQueryRequest();
+        request.setSortField("appName");
+        request.setSortOrder("ascend");
+        assertEquals(ids(listMyAppsInMemory(request, List.of())).subList(0, PAGE_SIZE),
+                ids(appMapper.paginate(Page.of(1, PAGE_SIZE), AppServiceImpl.buildMyAppQueryWrapper(USER_ID, List.of(), request)).getRecords()));
+    }
+
+    /**
+     * 生成数据：当前用户的产物、其他用户的产物（部分为当前用户协作的产物）、已删除产物，排序字段大量重复
+     */
+    private static void generateApps(JdbcDataSource dataSource) throws Exception {
+        Random random = new Random(20261018L);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<Long> collaborated = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO app (id, appName, cover, initPrompt, codeGenType, "
+                     + "deployKey, priority, userId, editTime, createTime, updateTime, isDelete) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < 900; i++) {
+                App app = new App();
+                // id 乱序插入，校验不依赖插入顺序
+                app.setId(1_000_000L + (i * 7919L) % 900);
+                app.setAppName(NAMES[random.nextInt(NAMES.length)]);
+                app.setCover(random.nextInt(4) == 0 ? null : "cover-" + random.nextInt(3));
+                app.setInitPrompt(random.nextInt(5) == 0 ? "打折 100% 的商城" : "生成一个页面 " + random.nextInt(10));
+                app.setCodeGenType(CODE_GEN_TYPES[random.nextInt(CODE_GEN_TYPES.length)]);
+                app.setDeployKey(random.nextInt(3) == 0 ? null : "key-" + i);
+                app.setPriority(random.nextInt(4) == 0 ? 99 : 0);
+                app.setUserId(i % 3 == 0 ? USER_ID : 2L + random.nextInt(5));
+                app.setCreateTime(base.plusHours(random.nextInt(40)));
+                app.setUpdateTime(app.getCreateTime().plusMinutes(random.nextInt(3) * 30L));
+                app.setEditTime(app.getCreateTime());
+                app.setIsDelete(random.nextInt(10) == 0 ? 1 : 0);
+                ALL_APPS.add(app);
+                if (!USER_ID.equals(app.getUserId()) && random.nextInt(3) == 0) {
+                    collaborated.add(app.getId());
+                }
+
+                insert.setLong(1, app.getId());
+                insert.setString(2, app.getAppName());
+                insert.setString(3, app.getCover());
+                insert.setString(4, app.getInitPrompt());
+                insert.setString(5, app.getCodeGenType());
+                insert.setString(6, app.getDeployKey());
+                insert.setInt(7, app.getPriority());
+                insert.setLong(8, app.getUserId());
+                insert.setTimestamp(9, Timestamp.valueOf(app.getEditTime()));
+                insert.setTimestamp(10, Timestamp.valueOf(app.getCreateTime()));
+                insert.setTimestamp(11, Timestamp.valueOf(app.getUpdateTime()));
+                insert.setInt(12, app.getIsDelete());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        // 协作者列表中也包含自己的产物与不存在的产物
+        collaborated.add(ALL_APPS.stream().filter(app -> USER_ID.equals(app.getUserId())).findFirst().orElseThrow().getId());
+        collaborated.add(9_999_999L);
+        collaboratedAppIds = collaborated;
+    }
+
+    private static List<App> listMyAppsInMemory(AppQueryRequest request) {
+        return listMyAppsInMemory(request, collaboratedAppIds);
+    }
+
+    // ===== 以下为原内存实现：先加载自己的产物与协作产物（各自按 id 升序），再筛选、稳定排序 =====
+
+    private static List<App> listMyAppsInMemory(AppQueryRequest request, List<Long> collaboratedIds) {
+        return accessibleApps(USER_ID, collaboratedIds).values().stream()
+                .filter(app -> matchesMyAppQuery(app, request))
+                .sorted(buildMyAppComparator(request))
+                .collect(Collectors.toList());
+    }
+
+    private static List<App> listUserRelatedAppsInMemory(Long userId, List<Long> collaboratedIds, long limit) {
+        return accessibleApps(userId, collaboratedIds).values().stream()
+                .sorted(Comparator
+                        .comparing(App::getUpdateTime, Comparator.nullsLast(LocalDateTime::compareTo))
+                        .thenComparing(App::getCreateTime, Comparator.nullsLast(LocalDateTime::compareTo))
+                        .reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, App> accessibleApps(Long userId, List<Long> collaboratedIds) {
+        Set<Long> collaboratedIdSet = Set.copyOf(collaboratedIds);
+        List<App> liveApps = ALL_APPS.stream()
+                .filter(app -> app.getIsDelete() == 0)
+                .sorted(Comparator.comparing(App::getId))
+                .toList();
+        Map<Long, App> appMap = new LinkedHashMap<>();
+        liveApps.stream().filter(app -> userId.equals(app.getUserId())).forEach(app -> appMap.put(app.getId(), app));
+        liveApps.stream().filter(app -> collaboratedIdSet.contains(app.getId())).forEach(app -> appMap.putIfAbsent(app.getId(), app));
+        return appMap;
+    }
+
+    private static boolean matchesMyAppQuery(App app, AppQueryRequest appQueryRequest) {
+        if (appQueryRequest.getId() != null && !appQueryRequest.getId().equals(app.getId())) {
+            return false;
+        }
+        if (StrUtil.isNotBlank(appQueryRequest.getAppName())
+                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getAppName()), appQueryRequest.getAppName())) {
+            return false;
+        }
+        if (StrUtil.isNotBlank(appQueryRequest.getCover())
+                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getCover()), appQueryRequest.getCover())) {
+            return false;
+        }
+        if (StrUtil.isNotBlank(appQueryRequest.getInitPrompt())
+                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getInitPrompt()), appQueryRequest.getInitPrompt())) {
+            return false;
+        }
+        if (StrUtil.isNotBlank(appQueryRequest.getCodeGenType())
+                && !appQueryRequest.getCodeGenType().equals(app.getCodeGenType())) {
+            return false;
+        }
+        if (StrUtil.isNotBlank(appQueryRequest.getDeployKey())
+                && !StrUtil.containsIgnoreCase(StrUtil.nullToEmpty(app.getDeployKey()), appQueryRequest.getDeployKey())) {
+            return false;
+        }
+        return appQueryRequest.getPriority() == null || appQueryRequest.getPriority().equals(app.getPriority());
+    }
+
+    private static Comparator<App> buildMyAppComparator(AppQueryRequest appQueryRequest) {
+        String sortField = appQueryRequest.getSortField();
+        boolean asc = "ascend".equalsIgnoreCase(appQueryRequest.getSortOrder())
+                || "asc".equalsIgnoreCase(appQueryRequest.getSortOrder());
+        Comparator<App> comparator;
+        if ("appName".equals(sortField)) {
+            comparator = Comparator.comparing(app -> StrUtil.nullToEmpty(app.getAppName()), String.CASE_INSENSITIVE_ORDER);
+        } else if ("updateTime".equals(sortField)) {
+            comparator = Comparator.comparing(App::getUpdateTime, Comparator.nullsLast(LocalDateTime::compareTo));
+        } else if ("priority".equals(sortField)) {
+            comparator = Comparator.comparing(App::getPriority, Comparator.nullsLast(Integer::compareTo));
+        } else {
+            comparator = Comparator.comparing(App::getCreateTime, Comparator.nullsLast(LocalDateTime::compareTo));
+        }
+        return asc ? comparator : comparator.reversed();
+    }
+
+    private static List<Long> ids(List<App> apps) {
+        return apps.stream().map(App::getId).collect(Collectors.toList());
+    }
+}
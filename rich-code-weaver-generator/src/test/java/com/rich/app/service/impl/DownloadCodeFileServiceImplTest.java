@@ -0,0 +1,196 @@
+package com.rich.app.service.impl;
+
+import com.rich.app.utils.codeDownload.CodeZipCache;
+import com.rich.model.entity.App;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 代码下载服务测试
+ * 验证压缩包内容过滤、按目录指纹缓存与重新生成后失效，以及 ETag / Range 条件请求
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class DownloadCodeFileServiceImplTest {
+
+    @TempDir
+    Path workDir;
+
+    private Path projectDir;
+
+    private Path cacheDir;
+
+    private DownloadCodeFileServiceImpl service;
+
+    private App app;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path outputRoot = Files.createDirectories(workDir.resolve("code_output"));
+        cacheDir = workDir.resolve("cache");
+        projectDir = Files.createDirectories(outputRoot.resolve("vue_project_1"));
+        write("package.json", "{\"name\": \"demo\"}");
+        write("src/App.vue", "<template><div>hello</div></template>");
+        write("src/main.js", "console.log('main');");
+        write("src/debug.log", "ignored");
+        write("node_modules/vue/index.js", "ignored");
+        write("dist/index.html", "ignored");
+        Files.createDirectories(projectDir.resolve("public"));
+
+        CodeZipCache cache = new CodeZipCache();
+        ReflectionTestUtils.setField(cache, "rootDir", cacheDir.toString());
+        service = new DownloadCodeFileServiceImpl();
+        ReflectionTestUtils.setField(service, "codeZipCache", cache);
+        ReflectionTestUtils.setField(service, "codeOutputRootDir", outputRoot.toString());
+        app = new App();
+        app.setId(1L);
+        app.setCodeGenType("vue_project");
+    }
+
+    /**
+     * 代码未变化时复用缓存的压缩包；If-None-Match 命中返回 304；Range 请求返回对应字节用于续传
+     */
+    @Test
+    public void testCachedArchiveWithConditionalAndRangeRequests() throws Exception {
+        MockHttpServletResponse first = download(Map.of());
+        assertEquals(200, first.getStatus());
+        assertEquals("application/zip", first.getContentType());
+        assertEquals("bytes", first.getHeader("Accept-Ranges"));
+        String etag = first.getHeader("ETag");
+        assertNotNull(etag);
+        byte[] archive = first.getContentAsByteArray();
+        assertEquals(archive.length, first.getContentLengthLong());
+        assertEquals(Map.of(
+                "package.json", "{\"name\": \"demo\"}",
+                "public/", "",
+                "src/App.vue", "<template><div>hello</div></template>",
+                "src/main.js", "console.log('main');"), unzip(archive));
+
+        // 再次下载不重新压缩（重新生成会以新文件替换）
+        Path cached = singleCachedArchive();
+        Object fileKey = fileKey(cached);
+        MockHttpServletResponse second = download(Map.of());
+        assertEquals(etag, second.getHeader("ETag"));
+        assertArrayEquals(archive, second.getContentAsByteArray());
+        assertEquals(cached, singleCachedArchive());
+        assertEquals(fileKey, fileKey(cached));
+
+        MockHttpServletResponse notModified = download(Map.of("If-None-Match", "W/\"other\", " + etag));
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        // 断点续传：从第 10 个字节开始
+        MockHttpServletResponse resumed = download(Map.of("Range", "bytes=10-", "If-Range", etag));
+        assertEquals(206, resumed.getStatus());
+        assertEquals("bytes 10-" + (archive.length - 1) + "/" + archive.length, resumed.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(archive, 10, archive.length), resumed.getContentAsByteArray());
+
+        MockHttpServletResponse middle = download(Map.of("Range", "bytes=5-14"));
+        assertEquals(206, middle.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(archive, 5, 15), middle.getContentAsByteArray());
+        MockHttpServletResponse suffix = download(Map.of("Range", "bytes=-20"));
+        assertArrayEquals(Arrays.copyOfRange(archive, archive.length - 20, archive.length), suffix.getContentAsByteArray());
+
+        // If-Range 与当前版本不一致、多段 Range：返回完整内容
+        assertEquals(200, download(Map.of("Range", "bytes=10-", "If-Range", "\"stale\"")).getStatus());
+        assertEquals(200, download(Map.of("Range", "bytes=0-1,5-6")).getStatus());
+
+        MockHttpServletResponse unsatisfiable = download(Map.of("Range", "bytes=" + archive.length + "-"));
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */" + archive.length, unsatisfiable.getHeader("Content-Range"));
+    }
+
+    /**
+     * 代码重新生成后旧压缩包失效：ETag 变化、内容为新代码、旧压缩包被删除；被过滤的目录变化不影响缓存
+     */
+    @Test
+    public void testArchiveIsInvalidatedAfterRegeneration() throws Exception {
+        MockHttpServletResponse first = download(Map.of());
+        String etag = first.getHeader("ETag");
+        Path oldArchive = singleCachedArchive();
+
+        // 被过滤的目录变化（如安装依赖、构建）不改变压缩包
+        write("node_modules/vue/other.js", "ignored");
+        write("dist/assets/app.js", "ignored");
+        assertEquals(etag, download(Map.of()).getHeader("ETag"));
+        assertEquals(oldArchive, singleCachedArchive());
+
+        // 重新生成代码
+        write("src/App.vue", "<template><div>regenerated</div></template>");
+        write("src/router.js", "export default [];");
+        MockHttpServletResponse regenerated = download(Map.of("If-None-Match", etag));
+        assertEquals(200, regenerated.getStatus());
+        assertNotEquals(etag, regenerated.getHeader("ETag"));
+        Map<String, String> entries = unzip(regenerated.getContentAsByteArray());
+        assertEquals("<template><div>regenerated</div></template>", entries.get("src/App.vue"));
+        assertEquals("export default [];", entries.get("src/router.js"));
+        assertFalse(Files.exists(oldArchive));
+        assertNotEquals(oldArchive, singleCachedArchive());
+
+        // 旧版本的续传请求不会拼接到新压缩包上
+        MockHttpServletResponse staleResume = download(Map.of("Range", "bytes=10-", "If-Range", etag));
+        assertEquals(200, staleResume.getStatus());
+        assertArrayEquals(regenerated.getContentAsByteArray(), staleResume.getContentAsByteArray());
+
+        // 删除文件同样使缓存失效
+        Files.delete(projectDir.resolve("src/router.js"));
+        assertFalse(unzip(download(Map.of()).getContentAsByteArray()).containsKey("src/router.js"));
+    }
+
+    private MockHttpServletResponse download(Map<String, String> headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/generator/download/code/zip/1");
+        headers.forEach(request::addHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.downloadCodeZipFile(app, request, response);
+        return response;
+    }
+
+    private Path singleCachedArchive() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            List<Path> archives = files.toList();
+            assertEquals(1, archives.size(), archives.toString());
+            return archives.get(0);
+        }
+    }
+
+    private static Object fileKey(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = projectDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static Map<String, String> unzip(byte[] archive) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,241 @@
+package com.rich.app.service.impl;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.rich.app.model.StreamEvent;
+import com.rich.app.model.StreamSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis Streams 流式会话存储测试
+ * 使用 jedis-mock（进程内 Redis 服务端）模拟多个生成节点共享同一 Redis，
+ * 并验证跟随者的阻塞读取不占用共享连接池
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class RedisStreamSessionServiceImplTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String SESSION_ID = "session-1-1-1";
+
+    private RedisServer redisServer;
+
+    private final List<JedisConnectionFactory> connectionFactories = new ArrayList<>();
+
+    private final List<RedisStreamSessionServiceImpl> nodes = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        nodes.forEach(RedisStreamSessionServiceImpl::destroy);
+        nodes.clear();
+        connectionFactories.forEach(JedisConnectionFactory::destroy);
+        connectionFactories.clear();
+        redisServer.stop();
+    }
+
+    /**
+     * 节点 A 生成，节点 B 按 lastEventId 续传：先拿到遗漏的事件，再持续收到 A 之后写入的事件
+     */
+    @Test
+    public void testCrossInstanceResume() throws Exception {
+        RedisStreamSessionServiceImpl nodeA = newNode();
+        RedisStreamSessionServiceImpl nodeB = newNode();
+        nodeA.createSession(SESSION_ID, 1L, 1L);
+        List<String> published = publish(nodeA, 10);
+
+        assertEquals(published.subList(6, 10), ids(nodeB.getEventsAfter(SESSION_ID, published.get(5))));
+
+        CompletableFuture<List<String>> followed = nodeB.followEvents(SESSION_ID, published.get(5))
+                .map(StreamEvent::getEventId)
+                .collectList()
+                .toFuture();
+        published.addAll(publish(nodeA, 5));
+        nodeA.markCompleted(SESSION_ID);
+
+        assertEquals(published.subList(6, published.size()), followed.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        StreamSession session = nodeB.getSession(SESSION_ID);
+        assertTrue(session.isCompleted());
+        assertEquals(1L, session.getAppId());
+        assertEquals(15L, session.getEventIdCounter());
+    }
+
+    /**
+     * 生成节点重启（新建连接与实例）后，会话与事件仍可续传
+     */
+    @Test
+    public void testResumeAfterRestart() {
+        RedisStreamSessionServiceImpl beforeRestart = newNode();
+        beforeRestart.createSession(SESSION_ID, 1L, 1L);
+        List<String> published = publish(beforeRestart, 8);
+        beforeRestart.markError(SESSION_ID, "boom");
+        connectionFactories.remove(0).destroy();
+
+        RedisStreamSessionServiceImpl afterRestart = newNode();
+        List<String> receivedIds = afterRestart.followEvents(SESSION_ID, published.get(2))
+                .map(StreamEvent::getEventId)
+                .collectList()
+                .block(TIMEOUT);
+        assertEquals(published.subList(3, 8), receivedIds);
+        StreamSession session = afterRestart.getSession(SESSION_ID);
+        assertTrue(session.isHasError());
+        assertEquals("boom", session.getErrorMessage());
+        // 事件ID序号跨实例连续递增
+        assertEquals(SESSION_ID + "-9", afterRestart.generateEventId(SESSION_ID));
+    }
+
+    /**
+     * 事件流按 MAXLEN 裁剪，所有键带 TTL；续传点已被裁剪时从最早保留的事件开始
+     */
+    @Test
+    public void testCappedLengthAndTtl() {
+        RedisStreamSessionServiceImpl node = newNode();
+        ReflectionTestUtils.setField(node, "maxEventsPerSession", 5L);
+        node.createSession(SESSION_ID, 1L, 1L);
+        List<String> published = publish(node, 20);
+
+        StringRedisTemplate template = templateOf(node);
+        Long length = template.opsForStream().size("stream:session:events:" + SESSION_ID);
+        assertNotNull(length);
+        assertTrue(length >= 5 && length < 20, "事件流应被裁剪，实际长度: " + length);
+        for (String key : List.of("stream:session:meta:", "stream:session:events:", "stream:session:seq:")) {
+            Long ttl = template.getExpire(key + SESSION_ID, TimeUnit.SECONDS);
+            assertNotNull(ttl);
+            assertTrue(ttl > 0 && ttl <= 30 * 60, key + " 应设置 TTL，实际: " + ttl);
+        }
+
+        List<String> retained = ids(node.getEventsAfter(SESSION_ID, published.get(0)));
+        assertEquals(published.subList(published.size() - retained.size(), published.size()), retained);
+    }
+
+    /**
+     * 会话不存在时跟随流为空；已结束的同名会话被重建后不再回放旧事件
+     */
+    @Test
+    public void testMissingAndRecreatedSession() {
+        RedisStreamSessionServiceImpl node = newNode();
+        assertNull(node.getSession(SESSION_ID));
+        assertEquals(List.of(), node.followEvents(SESSION_ID, null).collectList().block(TIMEOUT));
+
+        node.createSession(SESSION_ID, 1L, 1L);
+        publish(node, 3);
+        node.markCompleted(SESSION_ID);
+        node.createSession(SESSION_ID, 1L, 1L);
+
+        assertFalse(node.getSession(SESSION_ID).isCompleted());
+        assertTrue(node.getEventsAfter(SESSION_ID, null).isEmpty());
+        assertEquals(SESSION_ID + "-1", node.generateEventId(SESSION_ID));
+    }
+
+    /**
+     * 共享连接池只有一个连接时，多个跟随者同时阻塞读取，其他 Redis 操作仍能立即获取连接
+     */
+    @Test
+    public void testFollowersDoNotHoldSharedConnections() throws Exception {
+        RedisStreamSessionServiceImpl node = newNode(1);
+        ReflectionTestUtils.setField(node, "followBlockMillis", 1000L);
+        node.createSession(SESSION_ID, 1L, 1L);
+
+        List<Disposable> followers = new ArrayList<>();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 3; i++) {
+            followers.add(node.followEvents(SESSION_ID, null)
+                    .map(StreamEvent::getEventId)
+                    .subscribe(received::add));
+        }
+        // 等待跟随者进入阻塞读取
+        Thread.sleep(300);
+
+        long start = System.currentTimeMillis();
+        List<String> published = publish(node, 2);
+        assertNotNull(node.getSession(SESSION_ID));
+        assertTrue(System.currentTimeMillis() - start < 500, "共享连接不应被跟随者占用");
+
+        node.markCompleted(SESSION_ID);
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (received.size() < 6 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        followers.forEach(Disposable::dispose);
+        assertEquals(6, received.size());
+        assertTrue(received.containsAll(published));
+    }
+
+    private RedisStreamSessionServiceImpl newNode() {
+        return newNode(8);
+    }
+
+    /**
+     * 创建一个生成节点
+     *
+     * @param sharedPoolSize 共享连接池大小
+     */
+    private RedisStreamSessionServiceImpl newNode(int sharedPoolSize) {
+        RedisStandaloneConfiguration configuration =
+                new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort());
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(sharedPoolSize);
+        poolConfig.setMaxWait(Duration.ofMillis(500));
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory(configuration,
+                JedisClientConfiguration.builder().usePooling().poolConfig(poolConfig).build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        RedisStreamSessionServiceImpl node = new RedisStreamSessionServiceImpl();
+        ReflectionTestUtils.setField(node, "stringRedisTemplate", template);
+        ReflectionTestUtils.setField(node, "redisConnectionFactory", connectionFactory);
+        ReflectionTestUtils.setField(node, "followBlockMillis", 200L);
+        node.init();
+        nodes.add(node);
+        return node;
+    }
+
+    private static StringRedisTemplate templateOf(RedisStreamSessionServiceImpl node) {
+        return (StringRedisTemplate) ReflectionTestUtils.getField(node, "stringRedisTemplate");
+    }
+
+    private static List<String> publish(RedisStreamSessionServiceImpl node, int count) {
+        List<String> eventIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String eventId = node.generateEventId(SESSION_ID);
+            node.addEvent(SESSION_ID, StreamEvent.builder()
+                    .eventId(eventId)
+                    .eventType("message")
+                    .data("{\"b\":\"" + eventId + "\"}")
+                    .timestamp(System.currentTimeMillis())
+                    .build());
+            eventIds.add(eventId);
+        }
+        return eventIds;
+    }
+
+    private static List<String> ids(List<StreamEvent> events) {
+        return events.stream().map(StreamEvent::getEventId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,200 @@
+package com.rich.app.service.impl;
+
+import com.rich.app.model.StreamEvent;
+import com.rich.app.model.StreamEventLog;
+import com.rich.app.model.StreamSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SSE 流式会话推送式事件日志测试
+ * 验证断点续传的跟随者恰好按顺序收到遗漏的事件
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class StreamSessionServiceImplTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private StreamSessionServiceImpl streamSessionService;
+
+    private String sessionId;
+
+    @BeforeEach
+    public void setUp() {
+        streamSessionService = new StreamSessionServiceImpl();
+        sessionId = streamSessionService.createSession("session-1-1-1", 1L, 1L);
+    }
+
+    /**
+     * 从 lastEventId 续传：先收到遗漏的事件，再收到之后实时追加的事件，顺序一致且不重复
+     */
+    @Test
+    public void testResumedFollowerReceivesExactlyMissedEventsInOrder() throws Exception {
+        List<String> published = publish(10);
+        String lastEventId = published.get(3);
+
+        CompletableFuture<List<StreamEvent>> followed = streamSessionService.followEvents(sessionId, lastEventId)
+                .collectList()
+                .toFuture();
+        published.addAll(publish(5));
+        streamSessionService.markCompleted(sessionId);
+
+        List<String> receivedIds = followed.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                .map(StreamEvent::getEventId)
+                .collect(Collectors.toList());
+        assertEquals(published.subList(4, published.size()), receivedIds);
+    }
+
+    /**
+     * 会话已完成后重连：只回放断点之后的事件并立即结束
+     */
+    @Test
+    public void testResumeAfterCompletion() {
+        List<String> published = publish(20);
+        streamSessionService.markCompleted(sessionId);
+
+        List<String> receivedIds = streamSessionService.followEvents(sessionId, published.get(14))
+                .map(StreamEvent::getEventId)
+                .collectList()
+                .block(TIMEOUT);
+        assertEquals(published.subList(15, 20), receivedIds);
+    }
+
+    /**
+     * 跟随者仅在事件追加时被唤醒，多个跟随者各自收到完整且有序的事件
+     */
+    @Test
+    public void testLiveFollowersArePushedNewEvents() throws Exception {
+        CountDownLatch firstEventReceived = new CountDownLatch(2);
+        List<CompletableFuture<List<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            followers.add(streamSessionService.followEvents(sessionId, null)
+                    .doOnNext(event -> firstEventReceived.countDown())
+                    .map(StreamEvent::getEventId)
+                    .collectList()
+                    .toFuture());
+        }
+        List<String> published = publish(1);
+        assertTrue(firstEventReceived.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS), "新事件应被推送给跟随者");
+
+        published.addAll(publish(500));
+        streamSessionService.markCompleted(sessionId);
+        for (CompletableFuture<List<String>> follower : followers) {
+            assertEquals(published, follower.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 会话出错后跟随流结束，且错误状态可被读取
+     */
+    @Test
+    public void testFollowerCompletesOnError() {
+        List<String> published = publish(3);
+        streamSessionService.markError(sessionId, "boom");
+
+        List<String> receivedIds = streamSessionService.followEvents(sessionId, null)
+                .map(StreamEvent::getEventId)
+                .collectList()
+                .block(TIMEOUT);
+        assertEquals(published, receivedIds);
+        assertTrue(streamSessionService.getSession(sessionId).isHasError());
+    }
+
+    /**
+     * 会话不存在时跟随流为空
+     */
+    @Test
+    public void testFollowMissingSession() {
+        List<StreamEvent> events = streamSessionService.followEvents("session-missing", null)
+                .collectList()
+                .block(TIMEOUT);
+        assertNotNull(events);
+        assertTrue(events.isEmpty());
+    }
+
+    /**
+     * 同名会话结束后重新发起生成：新会话替换旧会话，不再回放旧事件
+     */
+    @Test
+    public void testRecreateFinishedSession() {
+        publish(3);
+        streamSessionService.markCompleted(sessionId);
+        streamSessionService.createSession(sessionId, 1L, 1L);
+
+        StreamSession session = streamSessionService.getSession(sessionId);
+        assertFalse(session.isCompleted());
+        assertEquals(0, session.getEventLog().size());
+        assertEquals(sessionId + "-1", streamSessionService.generateEventId(sessionId));
+    }
+
+    /**
+     * getEventsAfter 与原队列实现语义一致
+     */
+    @Test
+    public void testGetEventsAfter() {
+        List<String> published = publish(5);
+        assertEquals(published, ids(streamSessionService.getEventsAfter(sessionId, null)));
+        assertEquals(published.subList(2, 5), ids(streamSessionService.getEventsAfter(sessionId, published.get(1))));
+        assertTrue(streamSessionService.getEventsAfter(sessionId, published.get(4)).isEmpty());
+        // 未知的 lastEventId 回退为返回全部事件
+        assertEquals(published, ids(streamSessionService.getEventsAfter(sessionId, "unknown-99")));
+    }
+
+    /**
+     * 环形缓冲区容量满后覆盖最旧事件，续传点已被覆盖时从最早保留的事件开始
+     */
+    @Test
+    public void testEventLogEviction() {
+        StreamEventLog eventLog = new StreamEventLog(4);
+        for (int i = 1; i <= 6; i++) {
+            eventLog.append(event("s-" + i));
+        }
+        assertEquals(4, eventLog.size());
+        assertEquals(List.of("s-3", "s-4", "s-5", "s-6"), ids(eventLog.readFrom(eventLog.resolveResumeSequence(null))));
+        assertEquals(List.of("s-5", "s-6"), ids(eventLog.readFrom(eventLog.resolveResumeSequence("s-4"))));
+        assertEquals(List.of("s-3", "s-4", "s-5", "s-6"), ids(eventLog.readFrom(eventLog.resolveResumeSequence("s-1"))));
+        // 事件ID序号与日志序号不一致时退化为顺序查找
+        StreamEventLog customIdLog = new StreamEventLog(4);
+        customIdLog.append(event("a-10"));
+        customIdLog.append(event("b-20"));
+        assertEquals(List.of("b-20"), ids(customIdLog.readFrom(customIdLog.resolveResumeSequence("a-10"))));
+
+        eventLog.close();
+        assertEquals(-1L, eventLog.append(event("s-7")));
+    }
+
+    private List<String> publish(int count) {
+        List<String> eventIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String eventId = streamSessionService.generateEventId(sessionId);
+            streamSessionService.addEvent(sessionId, event(eventId));
+            eventIds.add(eventId);
+        }
+        return eventIds;
+    }
+
+    private static StreamEvent event(String eventId) {
+        return StreamEvent.builder()
+                .eventId(eventId)
+                .eventType("message")
+                .data("{\"b\":\"" + eventId + "\"}")
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private static List<String> ids(List<StreamEvent> events) {
+        return events.stream().map(StreamEvent::getEventId).collect(Collectors.toList());
+    }
+}
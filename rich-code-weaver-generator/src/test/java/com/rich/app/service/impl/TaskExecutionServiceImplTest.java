@@ -0,0 +1,207 @@
+package com.rich.app.service.impl;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.rich.app.mapper.TaskExecutionMapper;
+import com.rich.app.utils.taskProgress.TaskProgressTracker;
+import com.rich.model.entity.TaskExecution;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 任务执行记录服务测试
+ * H2（MySQL 兼容模式）+ jedis-mock，统计 Mapper 调用次数，
+ * 验证进度变化只更新快照、里程碑与终态写库，且查询结果与数据库记录一致
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class TaskExecutionServiceImplTest {
+
+    private static TaskExecutionMapper realMapper;
+
+    private RedisServer redisServer;
+
+    private JedisConnectionFactory connectionFactory;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private TaskExecutionServiceImpl service;
+
+    /**
+     * Mapper 方法调用记录
+     */
+    private final List<String> mapperCalls = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeAll
+    public static void setUpDatabase() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:task_execution;MODE=MySQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE task_execution (
+                      id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                      task_type VARCHAR(50) NOT NULL,
+                      app_id BIGINT NOT NULL,
+                      user_id BIGINT DEFAULT NULL,
+                      status VARCHAR(20) NOT NULL,
+                      progress INT DEFAULT 0,
+                      result TEXT,
+                      retry_count INT DEFAULT 0,
+                      max_retries INT DEFAULT 3,
+                      start_time DATETIME,
+                      end_time DATETIME,
+                      create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+                      update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+                    )""");
+        }
+        // 独立的环境，不影响同一 JVM 中其他测试的 MyBatis-Flex 实例
+        realMapper = new MybatisFlexBootstrap()
+                .setEnvironmentId("task_execution_test")
+                .setDataSource(dataSource)
+                .addMapper(TaskExecutionMapper.class)
+                .start()
+                .getMapper(TaskExecutionMapper.class);
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(
+                new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        TaskProgressTracker tracker = new TaskProgressTracker();
+        ReflectionTestUtils.setField(tracker, "stringRedisTemplate", stringRedisTemplate);
+        service = new TaskExecutionServiceImpl();
+        ReflectionTestUtils.setField(service, "mapper", countingMapper());
+        ReflectionTestUtils.setField(service, "taskProgressTracker", tracker);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    /**
+     * 一次构建的进度更新只有状态变化与终态写库，且每一步查询结果与数据库中应有的记录一致
+     */
+    @Test
+    public void testProgressUpdatesAreCoalesced() {
+        Long taskId = service.createTask("BUILD_VUE_PROJECT", 1L, 7L);
+        assertEquals(List.of("insert"), mapperCalls);
+        assertSnapshotMatchesDatabase(1L);
+
+        service.updateStatus(1L, "RUNNING", 0);
+        for (int progress : new int[]{30, 60, 80}) {
+            service.updateStatus(1L, "RUNNING", progress);
+            TaskExecution live = service.getLatestByAppId(1L);
+            assertEquals(taskId, live.getId());
+            assertEquals("RUNNING", live.getStatus());
+            assertEquals(progress, live.getProgress());
+            assertNotNull(live.getStartTime());
+        }
+        service.finishTask(1L, "SUCCESS", 100, "http://localhost/app/");
+
+        // 创建、开始执行、完成各一次写库，进度变化与查询不访问数据库
+        assertEquals(List.of("insert", "update", "update"), mapperCalls);
+        TaskExecution finished = assertSnapshotMatchesDatabase(1L);
+        assertEquals("SUCCESS", finished.getStatus());
+        assertEquals(100, finished.getProgress());
+        assertEquals("http://localhost/app/", finished.getResult());
+        assertEquals("BUILD_VUE_PROJECT", finished.getTaskType());
+        assertEquals(7L, finished.getUserId());
+        assertNotNull(finished.getEndTime());
+    }
+
+    /**
+     * 重试等状态变化都写库；新任务覆盖上一个任务的快照
+     */
+    @Test
+    public void testStatusChangesArePersisted() {
+        service.createTask("BUILD_VUE_PROJECT", 2L, 7L);
+        service.updateStatus(2L, "RUNNING", 0);
+        service.updateStatus(2L, "RUNNING", 30);
+        service.updateStatus(2L, "RETRYING", 0);
+        assertEquals("RETRYING", realMapper.selectOneById(service.getLatestByAppId(2L).getId()).getStatus());
+        service.updateStatus(2L, "RUNNING", 0);
+        service.finishTask(2L, "FAILED", 0, "构建失败");
+        assertEquals(List.of("insert", "update", "update", "update", "update"), mapperCalls);
+        assertSnapshotMatchesDatabase(2L);
+
+        Long screenshotTaskId = service.createTask("GENERATE_SCREENSHOT", 2L, null);
+        assertEquals(screenshotTaskId, service.getLatestByAppId(2L).getId());
+        assertEquals("PENDING", service.getLatestByAppId(2L).getStatus());
+    }
+
+    /**
+     * 快照丢失时回退到数据库并重建快照；快照不可写时每次更新都写库
+     */
+    @Test
+    public void testFallsBackToDatabaseWithoutSnapshot() throws Exception {
+        service.createTask("BUILD_VUE_PROJECT", 3L, 7L);
+        service.updateStatus(3L, "RUNNING", 0);
+        stringRedisTemplate.delete("task:status:3");
+        mapperCalls.clear();
+
+        TaskExecution fromDatabase = service.getLatestByAppId(3L);
+        assertEquals("RUNNING", fromDatabase.getStatus());
+        assertEquals(List.of("selectOneByQuery"), mapperCalls);
+        service.getLatestByAppId(3L);
+        assertEquals(1, mapperCalls.size());
+
+        // Redis 不可用：进度更新直接写库
+        connectionFactory.destroy();
+        redisServer.stop();
+        mapperCalls.clear();
+        service.updateStatus(3L, "RUNNING", 30);
+        assertEquals(List.of("selectOneByQuery", "update"), mapperCalls);
+        TaskExecution latest = service.getLatestByAppId(3L);
+        assertEquals(30, latest.getProgress());
+
+        // 重新启动以便 tearDown 正常关闭
+        redisServer = RedisServer.newRedisServer().start();
+    }
+
+    /**
+     * 接口返回的快照与数据库中的记录字段完全一致
+     */
+    private TaskExecution assertSnapshotMatchesDatabase(Long appId) {
+        TaskExecution snapshot = service.getLatestByAppId(appId);
+        assertNotNull(snapshot);
+        assertEquals(realMapper.selectOneById(snapshot.getId()), snapshot);
+        return snapshot;
+    }
+
+    private TaskExecutionMapper countingMapper() {
+        return (TaskExecutionMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TaskExecutionMapper.class}, (proxy, method, args) -> {
+                    mapperCalls.add(method.getName());
+                    try {
+                        return method.invoke(realMapper, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
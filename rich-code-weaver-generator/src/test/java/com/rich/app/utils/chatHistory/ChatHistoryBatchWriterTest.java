@@ -0,0 +1,241 @@
+package com.rich.app.utils.chatHistory;
+
+import com.rich.app.mapper.ChatHistoryMapper;
+import com.rich.model.entity.ChatHistory;
+import com.rich.model.enums.ChatHistoryTypeEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 对话历史批量写入器测试
+ * 使用内存版 Mapper 记录插入的消息与批次，校验批量合并、写入延迟、关闭时不丢消息与同一产物的消息顺序
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class ChatHistoryBatchWriterTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    /**
+     * 已落库的消息（按写入顺序）
+     */
+    private final List<ChatHistory> persisted = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger singleInserts = new AtomicInteger();
+
+    /**
+     * 每批插入的耗时（毫秒），模拟数据库延迟
+     */
+    private volatile long insertLatencyMillis;
+
+    /**
+     * 包含该内容的消息插入失败
+     */
+    private volatile String poisonMessage;
+
+    private ChatHistoryBatchWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        writer = new ChatHistoryBatchWriter();
+        ReflectionTestUtils.setField(writer, "chatHistoryMapper", fakeMapper());
+        ReflectionTestUtils.setField(writer, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(writer, "flushIntervalMillis", FLUSH_INTERVAL_MILLIS);
+        writer.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writer.shutdown();
+    }
+
+    /**
+     * 大量异步写入合并为少量批次，每批不超过 batch-size
+     */
+    @Test
+    public void testMessagesAreBatched() {
+        insertLatencyMillis = 20;
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(writer.write(message(i % 5, i), false));
+        }
+        results.forEach(result -> assertTrue(result.join()));
+
+        assertEquals(500, persisted.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= BATCH_SIZE), batchSizes.toString());
+        assertTrue(batchSizes.size() <= 500 / BATCH_SIZE + 2, batchSizes.toString());
+    }
+
+    /**
+     * 单条异步消息最迟约一个写入间隔后落库；立即写入的消息不等待间隔
+     */
+    @Test
+    public void testFlushOnTimeThreshold() {
+        long start = System.nanoTime();
+        assertTrue(writer.write(message(1, 0), false).join());
+        long asyncMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(asyncMillis >= FLUSH_INTERVAL_MILLIS / 2 && asyncMillis < FLUSH_INTERVAL_MILLIS * 10,
+                "async flush after " + asyncMillis + "ms");
+
+        writer.write(message(1, 1), false);
+        start = System.nanoTime();
+        assertTrue(writer.write(message(1, 2), true).join());
+        long immediateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(immediateMillis < FLUSH_INTERVAL_MILLIS, "immediate flush after " + immediateMillis + "ms");
+        // 立即写入的消息会带上此前入队的消息
+        assertEquals(3, persisted.size());
+    }
+
+    /**
+     * 关闭时队列中的消息全部落库，同一产物的消息保持调用顺序；关闭后的写入同步落库
+     */
+    @Test
+    public void testDurableOnShutdown() throws Exception {
+        insertLatencyMillis = 30;
+        int apps = 8;
+        int messagesPerApp = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(apps);
+        List<CompletableFuture<Boolean>> results = Collections.synchronizedList(new ArrayList<>());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int app = 1; app <= apps; app++) {
+                long appId = app;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < messagesPerApp; i++) {
+                        results.add(writer.write(message(appId, i), false));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 此时绝大部分消息仍在队列中
+        assertTrue(persisted.size() < apps * messagesPerApp, "persisted before shutdown: " + persisted.size());
+
+        writer.shutdown();
+
+        assertEquals(apps * messagesPerApp, persisted.size());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+        Map<Long, Integer> lastIndex = new HashMap<>();
+        for (ChatHistory chatHistory : persisted) {
+            int index = Integer.parseInt(chatHistory.getMessage());
+            Integer previous = lastIndex.put(chatHistory.getAppId(), index);
+            assertEquals(previous == null ? 0 : previous + 1, index, "out of order for app " + chatHistory.getAppId());
+        }
+
+        assertTrue(writer.write(message(1, messagesPerApp), false).isDone());
+        assertEquals(apps * messagesPerApp + 1, persisted.size());
+    }
+
+    /**
+     * 批量插入失败时逐条重试，只有失败的消息返回 false
+     */
+    @Test
+    public void testBatchFailureFallsBackToSingleInserts() {
+        poisonMessage = "3";
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(writer.write(message(1, i), i == 5));
+        }
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i != 3, results.get(i).join(), "message " + i);
+        }
+        assertEquals(5, persisted.size());
+        assertTrue(singleInserts.get() > 0);
+    }
+
+    /**
+     * flush 等待此前入队的消息全部落库
+     */
+    @Test
+    public void testFlushWaitsForQueuedMessages() {
+        for (int i = 0; i < 10; i++) {
+            writer.write(message(2, i), false);
+        }
+        writer.flush();
+        assertEquals(10, persisted.size());
+    }
+
+    private static ChatHistory message(long appId, int index) {
+        return ChatHistory.builder()
+                .appId(appId)
+                .userId(1L)
+                .messageType(ChatHistoryTypeEnum.AI.getValue())
+                .message(String.valueOf(index))
+                .build();
+    }
+
+    /**
+     * 内存版 Mapper：只实现批量写入器使用的 insertBatch 与 insert
+     */
+    @SuppressWarnings("unchecked")
+    private ChatHistoryMapper fakeMapper() {
+        return (ChatHistoryMapper) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ChatHistoryMapper.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "insertBatch" -> {
+                        Collection<ChatHistory> chatHistories = (Collection<ChatHistory>) args[0];
+                        sleep(insertLatencyMillis);
+                        if (chatHistories.stream().anyMatch(this::isPoison)) {
+                            throw new IllegalStateException("Data too long for column 'message'");
+                        }
+                        batchSizes.add(chatHistories.size());
+                        persisted.addAll(chatHistories);
+                        yield chatHistories.size();
+                    }
+                    case "insert" -> {
+                        singleInserts.incrementAndGet();
+                        ChatHistory chatHistory = (ChatHistory) args[0];
+                        if (isPoison(chatHistory)) {
+                            throw new IllegalStateException("Data too long for column 'message'");
+                        }
+                        persisted.add(chatHistory);
+                        yield 1;
+                    }
+                    case "toString" -> "fakeChatHistoryMapper";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private boolean isPoison(ChatHistory chatHistory) {
+        return chatHistory.getMessage().equals(poisonMessage);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.rich.app.utils.codeDownload;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 代码下载压缩包缓存测试
+ * 在遍历目录时修改、删除文件，模拟打包期间代码被重新生成，验证缓存的压缩包始终与其指纹一致
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class CodeZipCacheTest {
+
+    @TempDir
+    Path workDir;
+
+    private Path projectDir;
+
+    private Path cacheDir;
+
+    private CodeZipCache cache;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        projectDir = Files.createDirectories(workDir.resolve("project"));
+        cacheDir = workDir.resolve("cache");
+        // 文件放在项目根目录，过滤条件只在遍历到文件本身时调用
+        Files.writeString(projectDir.resolve("index.html"), "<html></html>");
+        Files.writeString(projectDir.resolve("main.js"), "console.log('main');");
+        Files.writeString(projectDir.resolve("style.css"), "body {}");
+        cache = new CodeZipCache();
+        ReflectionTestUtils.setField(cache, "rootDir", cacheDir.toString());
+    }
+
+    /**
+     * 打包期间文件被修改：丢弃按旧指纹写出的压缩包，按修改后的目录重新打包
+     */
+    @Test
+    public void testArchiveIsDiscardedWhenFilesChangeWhileZipping() throws IOException {
+        AtomicInteger visits = new AtomicInteger();
+        CodeZipCache.Archive archive = cache.getOrCreate("app_1", projectDir,
+                onVisit("index.html", () -> {
+                    if (visits.incrementAndGet() == 1) {
+                        Files.writeString(projectDir.resolve("index.html"), "<html><body>regenerated</body></html>");
+                    }
+                }));
+
+        assertEquals(currentFingerprint(), archive.fingerprint());
+        assertEquals("<html><body>regenerated</body></html>", unzip(archive.file()).get("index.html"));
+        assertEquals(1, cachedArchives());
+    }
+
+    /**
+     * 打包期间文件被删除：重新遍历后重试一次
+     */
+    @Test
+    public void testDeletedFileIsRetriedOnce() throws IOException {
+        AtomicInteger visits = new AtomicInteger();
+        CodeZipCache.Archive archive = cache.getOrCreate("app_1", projectDir,
+                onVisit("main.js", () -> {
+                    if (visits.incrementAndGet() == 1) {
+                        Files.delete(projectDir.resolve("main.js"));
+                    }
+                }));
+
+        assertEquals(currentFingerprint(), archive.fingerprint());
+        assertEquals(Map.of("index.html", "<html></html>", "style.css", "body {}"), unzip(archive.file()));
+        assertEquals(1, cachedArchives());
+    }
+
+    /**
+     * 重试后目录仍在变化时放弃，不缓存内容与指纹不符的压缩包
+     */
+    @Test
+    public void testKeepsFailingWhileDirectoryKeepsChanging() throws IOException {
+        AtomicInteger visits = new AtomicInteger();
+        Predicate<Path> filter = onVisit("index.html",
+                () -> Files.writeString(projectDir.resolve("index.html"), "x".repeat(visits.incrementAndGet())));
+
+        assertThrows(IOException.class, () -> cache.getOrCreate("app_1", projectDir, filter));
+        assertEquals(0, cachedArchives());
+    }
+
+    /**
+     * 遍历到指定文件时执行动作，所有路径都参与打包
+     */
+    private Predicate<Path> onVisit(String fileName, IOAction action) {
+        return path -> {
+            if (path.equals(projectDir.resolve(fileName))) {
+                try {
+                    action.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return true;
+        };
+    }
+
+    private String currentFingerprint() throws IOException {
+        return CodeZipCache.fingerprint(CodeZipCache.listEntries(projectDir, path -> true));
+    }
+
+    /**
+     * 缓存目录中的文件数（含未清理的临时文件）
+     */
+    private long cachedArchives() throws IOException {
+        if (!Files.isDirectory(cacheDir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.count();
+        }
+    }
+
+    private static Map<String, String> unzip(Path archive) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
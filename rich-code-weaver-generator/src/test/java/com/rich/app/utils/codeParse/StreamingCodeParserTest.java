@@ -0,0 +1,298 @@
+package com.rich.app.utils.codeParse;
+
+import cn.hutool.core.io.FileUtil;
+import com.rich.ai.model.codeResponse.HtmlCodeResponse;
+import com.rich.ai.model.codeResponse.MultiFileCodeResponse;
+import com.rich.app.utils.codeSave.CodeResultSaveToFileTemplate;
+import com.rich.app.utils.codeSave.HtmlCodeSaver;
+import com.rich.app.utils.codeSave.MultiFileCodeSaver;
+import com.rich.common.exception.BusinessException;
+import com.rich.model.enums.CodeGeneratorTypeEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 代码流增量解析器测试
+ * 将 AI 输出按任意位置切分后流式输入，校验生成的文件与原正则解析保存结果逐字节一致，
+ * 以及生成中断时不破坏上一版本的文件
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class StreamingCodeParserTest {
+
+    /**
+     * 原解析逻辑（整体正则解析后保存）使用的产物id
+     */
+    private static final long LEGACY_APP_ID = 990_000_001L;
+
+    /**
+     * 流式解析使用的产物id
+     */
+    private static final long STREAMING_APP_ID = 990_000_002L;
+
+    private static final String[] FRAGMENTS = {
+            "```", "`", "``", "html", "HTML", "css", "js", "javascript", "java", "\n", "\n\n", " ", "\t", "\r\n",
+            "<div>", "</div>", "body { color: red; }", "let a = `x`;", "中文", "😀", "a", "\u0001"
+    };
+
+    private static final String HTML_ANSWER = """
+            好的，下面是完整的页面代码：
+
+            ```html
+              <!DOCTYPE html>
+            <html>
+            <body><pre>``inline``</pre><h1>你好 😀</h1></body>
+            </html>
+
+            ```
+            希望对你有帮助。
+            """;
+
+    private static final String MULTI_FILE_ANSWER = """
+            这是页面结构：
+            ```HTML \t
+            \r
+            <div id="app">Hello</div>
+            ```
+            样式：
+            ```css
+            body { margin: 0; }
+            ```
+            ```css
+            .ignored { color: red; }
+            ```
+            脚本：
+            ```javascript
+            const tpl = `<p>${name}</p>`;
+            console.log("done");
+            ```
+            """;
+
+    @TempDir
+    Path outputRoot;
+
+    private final HtmlCodeSaver htmlCodeSaver = new HtmlCodeSaver();
+
+    private final MultiFileCodeSaver multiFileCodeSaver = new MultiFileCodeSaver();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(htmlCodeSaver, "codeOutputRootDir", outputRoot.toString());
+        ReflectionTestUtils.setField(multiFileCodeSaver, "codeOutputRootDir", outputRoot.toString());
+    }
+
+    /**
+     * HTML 单文件：标准代码块、无代码块、空代码块、未结束代码块
+     */
+    @Test
+    public void testHtmlMatchesRegexParser() {
+        List<String> answers = List.of(
+                HTML_ANSWER,
+                "  <html><body>没有代码块标记</body></html>\n",
+                "前言\n```html\n   \n```\n<p>空代码块之后的内容</p>\n",
+                "前言\n```html\n<p>未结束的代码块</p>\n  ``",
+                "```html\n\n  \t",
+                "```htmlx\n<p>x</p>```\n```html <b>\n```html\n<i>第二个</i>```",
+                "````html\n<p>多一个反引号</p>\n````",
+                ""
+        );
+        for (String answer : answers) {
+            assertStreamingMatchesLegacy(answer, CodeGeneratorTypeEnum.HTML, new Random(answer.hashCode()));
+        }
+    }
+
+    /**
+     * 多文件：大小写、\r\n、重复代码块只取第一个、javascript 别名
+     */
+    @Test
+    public void testMultiFileMatchesRegexParser() {
+        assertStreamingMatchesLegacy(MULTI_FILE_ANSWER, CodeGeneratorTypeEnum.MULTI_FILE, new Random(1));
+        assertStreamingMatchesLegacy(MULTI_FILE_ANSWER.replace("```javascript", "```js"),
+                CodeGeneratorTypeEnum.MULTI_FILE, new Random(2));
+        // 结束围栏紧跟语言标记时，正则仍会从该位置识别出下一个代码块
+        assertStreamingMatchesLegacy("```css\na{}\n```html\n<p>x</p>\n```\n```js\nf()\n```",
+                CodeGeneratorTypeEnum.MULTI_FILE, new Random(3));
+    }
+
+    /**
+     * 缺少代码块时与原逻辑一致，保存阶段抛出业务异常
+     */
+    @Test
+    public void testMultiFileMissingBlockFails() {
+        String answer = "```html\n<p>x</p>\n```\n```js\nf()\n```";
+        assertThrows(BusinessException.class, () -> saveLegacy(answer, CodeGeneratorTypeEnum.MULTI_FILE));
+        assertThrows(BusinessException.class,
+                () -> saveStreaming(List.of(answer), CodeGeneratorTypeEnum.MULTI_FILE));
+    }
+
+    /**
+     * 代码块结束时文件即已完整写入，无需等待流结束；代码块结束前不出现不完整的文件
+     */
+    @Test
+    public void testFileWrittenWhenBlockCloses() {
+        StreamingCodeParser parser = openStreamingParser(CodeGeneratorTypeEnum.MULTI_FILE);
+        File outputDir = streamingDir(CodeGeneratorTypeEnum.MULTI_FILE);
+        parser.append("```html\n<div>");
+        assertFalse(new File(outputDir, "index.html").exists());
+        parser.append("</div>\n``");
+        parser.append("`\n```css\n");
+        assertEquals("<div></div>", FileUtil.readUtf8String(new File(outputDir, "index.html")));
+        assertFalse(new File(outputDir, "style.css").exists());
+        parser.append("a{}\n```\n```js\nf()\n```");
+        parser.finish();
+        assertEquals("a{}", FileUtil.readUtf8String(new File(outputDir, "style.css")));
+        assertEquals("f()", FileUtil.readUtf8String(new File(outputDir, "script.js")));
+        assertEquals(List.of("index.html", "script.js", "style.css"), List.copyOf(readFiles(outputDir).keySet()));
+    }
+
+    /**
+     * 生成中途取消：未结束的代码块不覆盖上一版本的文件，且不残留临时文件
+     */
+    @Test
+    public void testCancelMidBlockKeepsPreviousFiles() {
+        saveStreaming(List.of("```html\n<p>v1</p>\n```\n```css\na{}\n```\n```js\nf()\n```"),
+                CodeGeneratorTypeEnum.MULTI_FILE);
+        File outputDir = streamingDir(CodeGeneratorTypeEnum.MULTI_FILE);
+        TreeMap<String, String> previous = readFiles(outputDir);
+
+        StreamingCodeParser parser = openStreamingParser(CodeGeneratorTypeEnum.MULTI_FILE);
+        parser.append("```html\n<p>v2 尚未写完");
+        // 与 doFinally 一致：取消时只释放资源
+        parser.close();
+        assertEquals(previous, readFiles(outputDir));
+
+        // 已结束的代码块生效，未结束的代码块保持上一版本
+        parser = openStreamingParser(CodeGeneratorTypeEnum.MULTI_FILE);
+        parser.append("```html\n<p>v2</p>\n```\n```css\nb{");
+        parser.close();
+        assertEquals("<p>v2</p>", FileUtil.readUtf8String(new File(outputDir, "index.html")));
+        assertEquals("a{}", FileUtil.readUtf8String(new File(outputDir, "style.css")));
+        assertEquals(List.of("index.html", "script.js", "style.css"), List.copyOf(readFiles(outputDir).keySet()));
+    }
+
+    /**
+     * 随机拼接的输出按随机位置切分，结果（含异常）与原逻辑一致
+     */
+    @Test
+    public void testRandomOutputsMatchRegexParser() {
+        Random random = new Random(20261018L);
+        for (int i = 0; i < 400; i++) {
+            StringBuilder answer = new StringBuilder();
+            int fragmentCount = random.nextInt(40);
+            for (int j = 0; j < fragmentCount; j++) {
+                answer.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            CodeGeneratorTypeEnum type = i % 2 == 0 ? CodeGeneratorTypeEnum.HTML : CodeGeneratorTypeEnum.MULTI_FILE;
+            assertStreamingMatchesLegacy(answer.toString(), type, random);
+        }
+    }
+
+    private void assertStreamingMatchesLegacy(String answer, CodeGeneratorTypeEnum type, Random random) {
+        cleanOutputDirs();
+        BusinessException legacyError = null;
+        try {
+            saveLegacy(answer, type);
+        } catch (BusinessException e) {
+            legacyError = e;
+        }
+        // 逐字符切分与随机切分各验证一次
+        for (List<String> chunks : List.of(splitEveryChar(answer), splitRandomly(answer, random))) {
+            BusinessException streamingError = null;
+            try {
+                saveStreaming(chunks, type);
+            } catch (BusinessException e) {
+                streamingError = e;
+            }
+            assertEquals(legacyError == null, streamingError == null, "异常行为不一致，输入：" + answer);
+            if (legacyError == null) {
+                assertEquals(readFiles(legacyDir(type)), readFiles(streamingDir(type)), "文件内容不一致，输入：" + answer);
+            }
+        }
+    }
+
+    /**
+     * 与 CodeResultSaveExecutor#executeSaver 一致的保存策略，输出到临时目录
+     */
+    private void saveLegacy(String answer, CodeGeneratorTypeEnum type) {
+        Object codeResult = CodeParseExecutor.executeParseCode(answer, type);
+        if (type == CodeGeneratorTypeEnum.HTML) {
+            htmlCodeSaver.saveCodeResult((HtmlCodeResponse) codeResult, LEGACY_APP_ID);
+        } else {
+            multiFileCodeSaver.saveCodeResult((MultiFileCodeResponse) codeResult, LEGACY_APP_ID);
+        }
+    }
+
+    /**
+     * 与 CodeResultSaveExecutor#openStreamingParser 一致的流式解析器，输出到临时目录
+     */
+    private StreamingCodeParser openStreamingParser(CodeGeneratorTypeEnum type) {
+        CodeResultSaveToFileTemplate<?> codeSaver = type == CodeGeneratorTypeEnum.HTML ? htmlCodeSaver : multiFileCodeSaver;
+        return new StreamingCodeParser(type, codeSaver.openStreamingSink(STREAMING_APP_ID, type.getValue()));
+    }
+
+    private void saveStreaming(List<String> chunks, CodeGeneratorTypeEnum type) {
+        StreamingCodeParser parser = openStreamingParser(type);
+        try {
+            chunks.forEach(parser::append);
+            parser.finish();
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static List<String> splitEveryChar(String answer) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < answer.length(); i++) {
+            chunks.add(answer.substring(i, i + 1));
+        }
+        return chunks;
+    }
+
+    private static List<String> splitRandomly(String answer, Random random) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < answer.length()) {
+            int end = Math.min(answer.length(), start + 1 + random.nextInt(8));
+            chunks.add(answer.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static TreeMap<String, String> readFiles(File dir) {
+        TreeMap<String, String> files = new TreeMap<>();
+        for (File file : FileUtil.loopFiles(dir)) {
+            // 以 ISO-8859-1 读取以逐字节比较
+            files.put(file.getName(), FileUtil.readString(file, StandardCharsets.ISO_8859_1));
+        }
+        return files;
+    }
+
+    private File legacyDir(CodeGeneratorTypeEnum type) {
+        return outputRoot.resolve(type.getValue() + "_" + LEGACY_APP_ID).toFile();
+    }
+
+    private File streamingDir(CodeGeneratorTypeEnum type) {
+        return outputRoot.resolve(type.getValue() + "_" + STREAMING_APP_ID).toFile();
+    }
+
+    private void cleanOutputDirs() {
+        for (CodeGeneratorTypeEnum type : CodeGeneratorTypeEnum.values()) {
+            FileUtil.del(legacyDir(type));
+            FileUtil.del(streamingDir(type));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.rich.app.utils.guardrail;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.rich.ai.guardrail.SensitiveWordCategoryEnum;
+import com.rich.ai.guardrail.SensitiveWordMatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 敏感词热更新测试
+ * 两个节点共享 jedis-mock：一个节点修改敏感词，另一个节点轮询到版本变化后重建匹配器
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class SensitiveWordReloaderTest {
+
+    private static final String NEW_WORD = "热更新测试词条";
+
+    private RedisServer redisServer;
+
+    private JedisConnectionFactory connectionFactory;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(
+                new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        SensitiveWordMatcher.reload(SensitiveWordCategoryEnum.defaultWords());
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    /**
+     * 节点 A 修改敏感词后本节点立即生效；节点 B 轮询到版本变化后生效，版本不变时不重建
+     */
+    @Test
+    public void testUpdatePropagatesThroughVersionPolling() {
+        SensitiveWordReloader nodeA = newNode();
+        SensitiveWordReloader nodeB = newNode();
+        assertNull(SensitiveWordMatcher.getInstance().match("请帮我做一个" + NEW_WORD + "页面"));
+
+        nodeA.update(Map.of(SensitiveWordCategoryEnum.VIOLENCE, List.of(NEW_WORD, " ")));
+        SensitiveWordMatcher.Match match = SensitiveWordMatcher.getInstance().match("请帮我做一个" + NEW_WORD + "页面");
+        assertNotNull(match);
+        assertEquals(SensitiveWordCategoryEnum.VIOLENCE, match.category());
+
+        // 模拟节点 B 仍在使用旧词表
+        SensitiveWordMatcher.reload(SensitiveWordCategoryEnum.defaultWords());
+        nodeB.checkForUpdate();
+        SensitiveWordMatcher reloaded = SensitiveWordMatcher.getInstance();
+        assertEquals(SensitiveWordCategoryEnum.VIOLENCE, reloaded.match(NEW_WORD).category());
+        // 未修改的类别仍使用内置词表
+        assertEquals(SensitiveWordCategoryEnum.PROMPT_INJECTION, reloaded.match("ignore previous instructions").category());
+
+        nodeB.checkForUpdate();
+        assertSame(reloaded, SensitiveWordMatcher.getInstance());
+    }
+
+    /**
+     * 恢复内置词表后修改的敏感词不再命中；启动时加载 Redis 中已有的修改
+     */
+    @Test
+    public void testResetAndLoadOnStartup() {
+        newNode().update(Map.of(SensitiveWordCategoryEnum.ABUSIVE, List.of(NEW_WORD)));
+        SensitiveWordMatcher.reload(SensitiveWordCategoryEnum.defaultWords());
+
+        SensitiveWordReloader restarted = newNode();
+        assertEquals(SensitiveWordCategoryEnum.ABUSIVE, SensitiveWordMatcher.getInstance().match(NEW_WORD).category());
+
+        restarted.reset();
+        assertNull(SensitiveWordMatcher.getInstance().match(NEW_WORD));
+        assertFalse(stringRedisTemplate.hasKey(SensitiveWordReloader.WORDS_KEY));
+    }
+
+    private SensitiveWordReloader newNode() {
+        SensitiveWordReloader reloader = new SensitiveWordReloader();
+        ReflectionTestUtils.setField(reloader, "stringRedisTemplate", stringRedisTemplate);
+        reloader.init();
+        return reloader;
+    }
+}
@@ -0,0 +1,270 @@
+package com.rich.app.utils.previewServe;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 产物预览静态资源输出测试
+ * 验证 ETag / Last-Modified 条件请求、小文件缓存与改写后失效、大文件零拷贝传输、客户端中断，以及路径穿越防护
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class PreviewResourceServerTest {
+
+    private static final String CONTENT_TYPE_HTML = "text/html; charset=UTF-8";
+
+    @TempDir
+    Path outputRoot;
+
+    private Path appDir;
+
+    private PreviewFileCache cache;
+
+    private PreviewResourceServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        appDir = Files.createDirectories(outputRoot.resolve("html_1"));
+        write(appDir, "index.html", "<html>v1</html>");
+        write(outputRoot.resolve("html_12"), "secret.html", "<html>other app</html>");
+        write(outputRoot, "secret.txt", "outside");
+
+        cache = new PreviewFileCache();
+        ReflectionTestUtils.setField(cache, "maxFileBytes", 1024L);
+        server = new PreviewResourceServer();
+        ReflectionTestUtils.setField(server, "previewFileCache", cache);
+    }
+
+    /**
+     * 响应携带强 ETag 与 Last-Modified；If-None-Match 或 If-Modified-Since 命中时返回 304 且不输出内容
+     */
+    @Test
+    public void testConditionalRequests() throws Exception {
+        MockHttpServletResponse first = serve("/index.html", Map.of());
+        assertEquals(200, first.getStatus());
+        assertEquals("<html>v1</html>", first.getContentAsString());
+        assertEquals(CONTENT_TYPE_HTML, first.getContentType());
+        assertEquals("no-cache", first.getHeader("Cache-Control"));
+        String etag = first.getHeader("ETag");
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+        String lastModified = first.getHeader("Last-Modified");
+        assertNotNull(lastModified);
+
+        MockHttpServletResponse byEtag = serve("/index.html", Map.of("If-None-Match", "\"other\", " + etag));
+        assertEquals(304, byEtag.getStatus());
+        assertEquals(etag, byEtag.getHeader("ETag"));
+        assertEquals(0, byEtag.getContentAsByteArray().length);
+        assertEquals(304, serve("/index.html", Map.of("If-Modified-Since", lastModified)).getStatus());
+        // If-None-Match 不匹配时忽略 If-Modified-Since
+        assertEquals(200, serve("/index.html", Map.of("If-None-Match", "\"other\"",
+                "If-Modified-Since", lastModified)).getStatus());
+
+        // 内容变化后 ETag 变化，旧的条件请求返回新内容
+        write(appDir, "index.html", "<html>v2 changed</html>");
+        MockHttpServletResponse changed = serve("/index.html", Map.of("If-None-Match", etag));
+        assertEquals(200, changed.getStatus());
+        assertEquals("<html>v2 changed</html>", changed.getContentAsString());
+        assertNotEquals(etag, changed.getHeader("ETag"));
+
+        MockHttpServletRequest head = request("/index.html", Map.of());
+        head.setMethod("HEAD");
+        MockHttpServletResponse headResponse = serve(head, List.of("/index.html"));
+        assertEquals(200, headResponse.getStatus());
+        assertEquals(changed.getContentAsByteArray().length, headResponse.getContentLength());
+        assertEquals(0, headResponse.getContentAsByteArray().length);
+    }
+
+    /**
+     * 小文件命中缓存；文件改写后自动重新加载，重新生成后按产物目录清除；总字节数超过上限时淘汰最久未访问的文件
+     */
+    @Test
+    public void testSmallFilesAreCachedAndInvalidated() throws Exception {
+        write(appDir, "app.js", "console.log(1);");
+        assertEquals("<html>v1</html>", serve("/index.html", Map.of()).getContentAsString());
+        assertEquals("console.log(1);", serve("/app.js", Map.of()).getContentAsString());
+        assertEquals(2, cache.size());
+
+        // 缓存命中时不读取磁盘：改写内容但保留大小与修改时间，仍返回缓存的内容
+        Path index = appDir.resolve("index.html");
+        FileTime mtime = Files.getLastModifiedTime(index);
+        Files.writeString(index, "<html>v9</html>");
+        Files.setLastModifiedTime(index, mtime);
+        assertEquals("<html>v1</html>", serve("/index.html", Map.of()).getContentAsString());
+
+        // 代码重新生成后清除产物目录的缓存
+        cache.invalidate(appDir);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.totalBytes());
+        assertEquals("<html>v9</html>", serve("/index.html", Map.of()).getContentAsString());
+
+        // 修改时间变化（AI 修改文件）无需主动清除
+        write(appDir, "app.js", "console.log(2);");
+        Files.setLastModifiedTime(appDir.resolve("app.js"), FileTime.fromMillis(mtime.toMillis() + 1000));
+        assertEquals("console.log(2);", serve("/app.js", Map.of()).getContentAsString());
+        assertEquals("<html>v9</html>".length() + "console.log(2);".length(), cache.totalBytes());
+
+        // 其他产物目录的清除不影响本产物
+        cache.invalidate(outputRoot.resolve("html_12"));
+        assertEquals(2, cache.size());
+
+        ReflectionTestUtils.setField(cache, "maxTotalBytes", 21L);
+        write(appDir, "style.css", "body{}");
+        serve("/style.css", Map.of());
+        assertEquals(List.of(appDir.resolve("app.js").toRealPath(), appDir.resolve("style.css").toRealPath()),
+                List.copyOf(cachedPaths()));
+        assertTrue(cache.totalBytes() <= 21);
+    }
+
+    /**
+     * 超过单文件上限的文件不进入缓存：支持 sendfile 时交由容器零拷贝传输，否则通过 FileChannel 传输
+     */
+    @Test
+    public void testLargeFilesAreTransferredWithoutCaching() throws Exception {
+        byte[] image = new byte[4096];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) i;
+        }
+        Path imageFile = Files.write(Files.createDirectories(appDir.resolve("dist/assets")).resolve("logo.png"), image);
+
+        MockHttpServletResponse streamed = serve("/dist/assets/logo.png", Map.of());
+        assertEquals(200, streamed.getStatus());
+        assertArrayEquals(image, streamed.getContentAsByteArray());
+        assertEquals(image.length, streamed.getContentLengthLong());
+        assertEquals(0, cache.size());
+        String etag = streamed.getHeader("ETag");
+        assertEquals(304, serve("/dist/assets/logo.png", Map.of("If-None-Match", etag)).getStatus());
+
+        MockHttpServletRequest request = request("/dist/assets/logo.png", Map.of());
+        request.setAttribute(PreviewResourceServer.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+        MockHttpServletResponse sendfile = serve(request, List.of("/dist/assets/logo.png"));
+        assertEquals(200, sendfile.getStatus());
+        assertEquals(image.length, sendfile.getContentLengthLong());
+        assertEquals(0, sendfile.getContentAsByteArray().length);
+        assertEquals(imageFile.toRealPath().toString(), request.getAttribute(PreviewResourceServer.SENDFILE_FILENAME_ATTR));
+        assertEquals(0L, request.getAttribute(PreviewResourceServer.SENDFILE_START_ATTR));
+        assertEquals((long) image.length, request.getAttribute(PreviewResourceServer.SENDFILE_END_ATTR));
+
+        // 优先使用第一个存在的候选路径（Vue 工程的 dist 目录）
+        write(appDir, "dist/index.html", "<html>built</html>");
+        assertEquals("<html>built</html>", serve(request("/index.html", Map.of()),
+                List.of("/dist/index.html", "/index.html")).getContentAsString());
+        assertEquals("<html>v1</html>", serve(request("/index.html", Map.of()),
+                List.of("/dist/main.html", "/index.html")).getContentAsString());
+    }
+
+    /**
+     * 客户端中断连接时输出失败不向上抛出（避免调用方按系统错误记录 ERROR），缓存与大文件传输均如此
+     */
+    @Test
+    public void testClientAbortIsNotPropagated() throws Exception {
+        Files.write(appDir.resolve("logo.png"), new byte[4096]);
+        for (String path : List.of("/index.html", "/logo.png")) {
+            MockHttpServletResponse response = new MockHttpServletResponse() {
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return new AbortedOutputStream();
+                }
+            };
+            assertDoesNotThrow(() -> server.serve(appDir, List.of(path), CONTENT_TYPE_HTML,
+                    request(path, Map.of()), response));
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * 路径穿越：上级目录、名称前缀相同的其他产物目录、绝对路径、空字符与指向目录外的符号链接均被拒绝
+     */
+    @Test
+    public void testPathTraversalIsRejected() throws Exception {
+        assertEquals(403, serve("/../secret.txt", Map.of()).getStatus());
+        assertEquals(403, serve("/../html_12/secret.html", Map.of()).getStatus());
+        assertEquals(403, serve("/dist/../../html_12/secret.html", Map.of()).getStatus());
+        assertEquals(403, serve("//" + outputRoot.resolve("secret.txt"), Map.of()).getStatus());
+        assertEquals(403, serve("/index.html\0.png", Map.of()).getStatus());
+        assertEquals(403, serve("/..", Map.of()).getStatus());
+        // 候选路径中任一越界即拒绝
+        assertEquals(403, serve(request("/index.html", Map.of()), List.of("/../secret.txt", "/index.html")).getStatus());
+        // 反斜杠在类 Unix 系统上是文件名的一部分
+        assertEquals(404, serve("/..\\html_12\\secret.html", Map.of()).getStatus());
+        assertEquals(404, serve("/missing.html", Map.of()).getStatus());
+        assertEquals(404, serve("/", Map.of()).getStatus());
+
+        // 规范化后仍在产物目录内的路径正常访问
+        assertEquals(200, serve("/dist/../index.html", Map.of()).getStatus());
+
+        Files.createSymbolicLink(appDir.resolve("link.txt"), outputRoot.resolve("secret.txt"));
+        assertEquals(403, serve("/link.txt", Map.of()).getStatus());
+        assertFalse(cachedPaths().contains(outputRoot.resolve("secret.txt").toRealPath()));
+    }
+
+    private MockHttpServletResponse serve(String path, Map<String, String> headers) throws IOException {
+        return serve(request(path, headers), List.of(path));
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request, List<String> candidates) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        server.serve(appDir, candidates, CONTENT_TYPE_HTML, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, Map<String, String> headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/generator/app/view/1" + path);
+        headers.forEach(request::addHeader);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Path> cachedPaths() {
+        return ((Map<Path, ?>) ReflectionTestUtils.getField(cache, "files")).keySet();
+    }
+
+    private static void write(Path dir, String relativePath, String content) throws IOException {
+        Path file = dir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 模拟客户端已断开的输出流
+     */
+    private static class AbortedOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
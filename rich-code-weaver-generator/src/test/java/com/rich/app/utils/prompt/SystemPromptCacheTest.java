@@ -0,0 +1,190 @@
+package com.rich.app.utils.prompt;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.rich.client.innerService.InnerSystemPromptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 系统提示词本地缓存测试
+ * 使用可控时间源与内存版提示词服务，校验远程调用次数与修改后的最大陈旧时间
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class SystemPromptCacheTest {
+
+    private static final String KEY = "html-system-prompt";
+
+    private static final long CHECK_INTERVAL_SECONDS = 5;
+
+    private static final long MAX_STALE_SECONDS = 600;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private FakePromptService promptService;
+
+    private SystemPromptCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        promptService = new FakePromptService();
+        promptService.prompts.put(KEY, "v1");
+        cache = new SystemPromptCache();
+        ReflectionTestUtils.setField(cache, "innerSystemPromptService", promptService);
+        ReflectionTestUtils.setField(cache, "versionCheckIntervalSeconds", CHECK_INTERVAL_SECONDS);
+        ReflectionTestUtils.setField(cache, "maxStaleSeconds", MAX_STALE_SECONDS);
+        ReflectionTestUtils.setField(cache, "ticker", (Ticker) nanos::get);
+        cache.init();
+    }
+
+    /**
+     * 轮询间隔内的重复读取只产生一次内容调用与一次版本调用
+     */
+    @Test
+    public void testRepeatedReadsHitLocalCache() {
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("v1", cache.getPromptContentByKey(KEY));
+            advance(Duration.ofMillis(1));
+        }
+        assertEquals(1, promptService.contentCalls.get());
+        assertEquals(1, promptService.versionCalls.get());
+
+        // 之后每个轮询间隔最多一次版本调用，版本不变时不重新加载内容
+        for (int i = 0; i < 60; i++) {
+            advance(Duration.ofSeconds(1));
+            cache.getPromptContentByKey(KEY);
+        }
+        assertEquals(1, promptService.contentCalls.get());
+        assertTrue(promptService.versionCalls.get() <= 1 + 60 / CHECK_INTERVAL_SECONDS + 1,
+                "version calls: " + promptService.versionCalls.get());
+    }
+
+    /**
+     * 管理后台修改提示词后最迟一个轮询间隔内读取到新内容
+     */
+    @Test
+    public void testEditVisibleWithinCheckInterval() {
+        for (long offsetMillis : new long[]{0, 1_000, 2_500, 4_999}) {
+            setUp();
+            assertEquals("v1", cache.getPromptContentByKey(KEY));
+            advance(Duration.ofMillis(offsetMillis));
+            promptService.edit(KEY, "v2");
+            long editedAt = nanos.get();
+
+            // 逐毫秒推进时间，记录首次读取到新内容的时刻
+            while (!"v2".equals(cache.getPromptContentByKey(KEY))) {
+                advance(Duration.ofMillis(1));
+                assertTrue(nanos.get() - editedAt <= Duration.ofSeconds(CHECK_INTERVAL_SECONDS).toNanos(),
+                        "stale beyond check interval, offset=" + offsetMillis);
+            }
+        }
+    }
+
+    /**
+     * 版本号不可用或绕过管理后台修改时，最迟在最大陈旧时间后读取到新内容，期间不报错
+     */
+    @Test
+    public void testStaleBoundWithoutVersionChange() {
+        assertEquals("v1", cache.getPromptContentByKey(KEY));
+        promptService.prompts.put(KEY, "v2");
+        promptService.versionAvailable = false;
+
+        advance(Duration.ofSeconds(MAX_STALE_SECONDS - 1));
+        assertEquals("v1", cache.getPromptContentByKey(KEY));
+        advance(Duration.ofSeconds(1));
+        assertEquals("v2", cache.getPromptContentByKey(KEY));
+    }
+
+    /**
+     * 不存在的提示词不缓存，新增后立即可用
+     */
+    @Test
+    public void testMissingPromptIsNotCached() {
+        assertNull(cache.getPromptContentByKey("vue-project-system-prompt"));
+        promptService.prompts.put("vue-project-system-prompt", "vue");
+        assertEquals("vue", cache.getPromptContentByKey("vue-project-system-prompt"));
+    }
+
+    /**
+     * 大量并发读取只产生少量远程调用
+     */
+    @Test
+    public void testConcurrentReads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getPromptContentByKey(KEY);
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertEquals("v1", future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, promptService.versionCalls.get());
+        // 首次版本调用期间到达的读取可能以未知版本各加载一次，之后全部命中
+        assertTrue(promptService.contentCalls.get() <= 2, "content calls: " + promptService.contentCalls.get());
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    /**
+     * 内存版提示词服务，统计远程调用次数
+     */
+    private static class FakePromptService implements InnerSystemPromptService {
+
+        private final Map<String, String> prompts = new ConcurrentHashMap<>();
+
+        private final AtomicInteger contentCalls = new AtomicInteger();
+
+        private final AtomicInteger versionCalls = new AtomicInteger();
+
+        private final AtomicLong version = new AtomicLong(1);
+
+        private volatile boolean versionAvailable = true;
+
+        @Override
+        public String getPromptContentByKey(String promptKey) {
+            contentCalls.incrementAndGet();
+            return prompts.get(promptKey);
+        }
+
+        @Override
+        public long getPromptVersion() {
+            versionCalls.incrementAndGet();
+            if (!versionAvailable) {
+                throw new IllegalStateException("prompt service unavailable");
+            }
+            return version.get();
+        }
+
+        private void edit(String promptKey, String content) {
+            prompts.put(promptKey, content);
+            version.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.rich.app.utils.rateLimit;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分布式限流器测试
+ * 使用 jedis-mock（进程内 Redis 服务端）模拟多个节点共享同一 Redis，验证并发调用下的放行数量
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class DistributedRateLimiterTest {
+
+    private static final String KEY = "rate_limit:user:1";
+
+    private RedisServer redisServer;
+
+    private final List<RedissonClient> clients = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        clients.forEach(RedissonClient::shutdown);
+        clients.clear();
+        redisServer.stop();
+    }
+
+    /**
+     * 两个节点的大量并发调用共享同一窗口，放行总数恰好等于限流速率
+     */
+    @Test
+    public void testConcurrentCallersAcrossNodes() throws Exception {
+        for (boolean localEnabled : new boolean[]{true, false}) {
+            String key = KEY + ":" + localEnabled;
+            List<DistributedRateLimiter> nodes = List.of(newLimiter(localEnabled), newLimiter(localEnabled));
+            int allowed = concurrentAcquire(nodes, key, 20, 60, 400);
+            assertEquals(20, allowed, "localEnabled=" + localEnabled);
+        }
+    }
+
+    /**
+     * 不同限流 key 互不影响
+     */
+    @Test
+    public void testKeysAreIsolated() throws Exception {
+        DistributedRateLimiter limiter = newLimiter(true);
+        assertEquals(5, concurrentAcquire(List.of(limiter), "rate_limit:user:1", 5, 60, 100));
+        assertEquals(5, concurrentAcquire(List.of(limiter), "rate_limit:user:2", 5, 60, 100));
+        assertEquals(5, concurrentAcquire(List.of(limiter), "rate_limit:ip:10.0.0.1", 5, 60, 100));
+    }
+
+    /**
+     * 窗口滑过后恢复放行
+     */
+    @Test
+    public void testWindowSlides() throws Exception {
+        DistributedRateLimiter nodeA = newLimiter(true);
+        DistributedRateLimiter nodeB = newLimiter(true);
+        assertTrue(nodeA.tryAcquire(KEY, 2, 1));
+        assertTrue(nodeB.tryAcquire(KEY, 2, 1));
+        assertFalse(nodeA.tryAcquire(KEY, 2, 1));
+        assertFalse(nodeB.tryAcquire(KEY, 2, 1));
+
+        Thread.sleep(1100);
+        assertTrue(nodeA.tryAcquire(KEY, 2, 1));
+        assertTrue(nodeB.tryAcquire(KEY, 2, 1));
+        assertFalse(nodeA.tryAcquire(KEY, 2, 1));
+    }
+
+    /**
+     * 本节点已用完窗口内的许可时，由本地预检直接拒绝，不再访问 Redis
+     */
+    @Test
+    public void testLocalPreCheckRejectsWithoutRedis() throws Exception {
+        DistributedRateLimiter limiter = newLimiter(true);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(KEY, 5, 60));
+        }
+        // Redis 不可用时，超限调用仍被本地拒绝且不抛出异常
+        clients.remove(0).shutdown();
+        for (int i = 0; i < 100; i++) {
+            assertFalse(limiter.tryAcquire(KEY, 5, 60));
+        }
+    }
+
+    /**
+     * 被 Redis 拒绝的调用归还本地令牌，本地预检不会比分布式限流更严格
+     */
+    @Test
+    public void testRejectedCallsDoNotConsumeLocalTokens() throws Exception {
+        DistributedRateLimiter nodeA = newLimiter(true);
+        DistributedRateLimiter nodeB = newLimiter(true);
+        // 节点 B 用完窗口内的许可，节点 A 的调用均被 Redis 拒绝
+        for (int i = 0; i < 2; i++) {
+            assertTrue(nodeB.tryAcquire(KEY, 2, 1));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertFalse(nodeA.tryAcquire(KEY, 2, 1));
+        }
+        // 窗口滑过后节点 A 仍可获得全部许可
+        Thread.sleep(1100);
+        assertTrue(nodeA.tryAcquire(KEY, 2, 1));
+        assertTrue(nodeA.tryAcquire(KEY, 2, 1));
+        assertFalse(nodeA.tryAcquire(KEY, 2, 1));
+    }
+
+    /**
+     * 多线程并发调用，返回放行的数量
+     */
+    private int concurrentAcquire(List<DistributedRateLimiter> nodes, String key, int rate, int window, int calls)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger allowed = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                DistributedRateLimiter node = nodes.get(i % nodes.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (node.tryAcquire(key, rate, window)) {
+                        allowed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return allowed.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DistributedRateLimiter newLimiter(boolean localEnabled) {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://" + redisServer.getHost() + ":" + redisServer.getBindPort())
+                .setRetryAttempts(0)
+                .setTimeout(1000);
+        RedissonClient client = Redisson.create(config);
+        clients.add(client);
+        DistributedRateLimiter limiter = new DistributedRateLimiter();
+        ReflectionTestUtils.setField(limiter, "redissonClient", client);
+        ReflectionTestUtils.setField(limiter, "localEnabled", localEnabled);
+        return limiter;
+    }
+}
@@ -0,0 +1,52 @@
+package com.rich.app.utils.streamHandle;
+
+import cn.hutool.json.JSONUtil;
+import com.rich.common.constant.StreamEventConstant;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SSE 数据块 JSON 编码器测试
+ * 校验输出与原先的 JSONUtil.toJsonStr(Map.of("b", ...)) 逐字节一致
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class StreamBlockJsonEncoderTest {
+
+    /**
+     * 所有 BMP 字符单独编码结果一致
+     */
+    @Test
+    public void testEveryCharMatchesHutool() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            String block = String.valueOf((char) c);
+            assertEquals(legacyEncode(block), StreamBlockJsonEncoder.encode(block), "字符: " + Integer.toHexString(c));
+        }
+    }
+
+    /**
+     * 典型代码片段与空串编码结果一致
+     */
+    @Test
+    public void testTypicalBlocksMatchHutool() {
+        String[] blocks = {
+                "",
+                " ",
+                "\n\n",
+                "<script>const a = \"</script>\";</script>",
+                "路径：C:\\Users\\rich\\app\t完成 ✅ 😀",
+                "```vue\n<template>\n  <div class=\"app\">{{ msg }}</div>\n</template>\n```"
+        };
+        for (String block : blocks) {
+            assertEquals(legacyEncode(block), StreamBlockJsonEncoder.encode(block));
+        }
+    }
+
+    private static String legacyEncode(String block) {
+        return JSONUtil.toJsonStr(Map.of(StreamEventConstant.DATA_BLOCK_KEY, block));
+    }
+}
@@ -0,0 +1,112 @@
+package com.rich.app.utils.streamHandle;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.rich.ai.model.msgResponse.StreamAiChatMsgResponse;
+import com.rich.ai.model.msgResponse.StreamMsgResponse;
+import com.rich.common.constant.StreamEventConstant;
+import com.rich.model.enums.ReasoningStreamMsgTypeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import reactor.core.publisher.Flux;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式消息流水线基准测试
+ * 在 10 万 token 的合成流上对比：
+ * 原流水线（每个 token 序列化为 JSON → 反序列化两次 → 再包装为 {"b": ...}）
+ * 与类型化消息流水线（消息对象直接流转，只在 SSE 出口序列化一次）的输出一致；
+ * 吞吐量对比依赖机器负载，默认跳过，通过 -Dbenchmark=true 运行，只输出结果不做断言
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+@Slf4j
+public class StreamMessagePipelineBenchmarkTest {
+
+    private static final int TOKEN_COUNT = 100_000;
+
+    private static final String[] TOKENS = {
+            "<template>", "\n  ", "<div class=\"app\">", "{{ msg }}", "</div>", "\n", "const ", "count",
+            " = ", "ref(0);", "\n\n", "// 计数器", "  ", "console.log(`done`)", "\\n", "😀", "接下来我将创建文件："
+    };
+
+    private final JsonStreamHandler jsonStreamHandler = new JsonStreamHandler();
+
+    /**
+     * 两条流水线输出的 SSE 数据逐条一致
+     */
+    @Test
+    public void testTypedPipelineMatchesLegacy() {
+        List<String> typedEvents = runTypedPipeline(TOKEN_COUNT);
+        assertEquals(TOKEN_COUNT, typedEvents.size());
+        assertEquals(runLegacyPipeline(TOKEN_COUNT), typedEvents, "两条流水线输出的 SSE 数据应一致");
+    }
+
+    /**
+     * 吞吐量对比（mvn test -Dtest=StreamMessagePipelineBenchmarkTest -Dbenchmark=true）
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmarkTypedPipelineThroughput() {
+        // 预热
+        runLegacyPipeline(TOKEN_COUNT / 10);
+        runTypedPipeline(TOKEN_COUNT / 10);
+
+        long legacyStart = System.nanoTime();
+        List<String> legacyEvents = runLegacyPipeline(TOKEN_COUNT);
+        long legacyNanos = System.nanoTime() - legacyStart;
+
+        long typedStart = System.nanoTime();
+        List<String> typedEvents = runTypedPipeline(TOKEN_COUNT);
+        long typedNanos = System.nanoTime() - typedStart;
+        assertEquals(legacyEvents, typedEvents, "两条流水线输出的 SSE 数据应一致");
+
+        double legacyTokensPerSecond = TOKEN_COUNT * 1e9 / legacyNanos;
+        double typedTokensPerSecond = TOKEN_COUNT * 1e9 / typedNanos;
+        log.info("流式消息流水线基准（{} tokens）：原流水线 {} tokens/s，类型化流水线 {} tokens/s，提升 {} 倍",
+                TOKEN_COUNT,
+                String.format("%.0f", legacyTokensPerSecond),
+                String.format("%.0f", typedTokensPerSecond),
+                String.format("%.1f", typedTokensPerSecond / legacyTokensPerSecond));
+    }
+
+    /**
+     * 原流水线：转换器序列化 → 处理器按基础类型、具体类型各反序列化一次 → 包装为 {"b": ...}
+     */
+    private static List<String> runLegacyPipeline(int tokenCount) {
+        return Flux.range(0, tokenCount)
+                .map(i -> JSONUtil.toJsonStr(new StreamAiChatMsgResponse(TOKENS[i % TOKENS.length])))
+                .map(chunk -> {
+                    StreamMsgResponse streamMsgResponse = JSONUtil.toBean(chunk, StreamMsgResponse.class);
+                    ReasoningStreamMsgTypeEnum type = ReasoningStreamMsgTypeEnum.getEnumByValue(streamMsgResponse.getType());
+                    assertSame(ReasoningStreamMsgTypeEnum.AI_RESPONSE, type);
+                    return JSONUtil.toBean(chunk, StreamAiChatMsgResponse.class).getData();
+                })
+                .filter(StrUtil::isNotEmpty)
+                .map(block -> JSONUtil.toJsonStr(Map.of(StreamEventConstant.DATA_BLOCK_KEY, block)))
+                .collectList()
+                .block();
+    }
+
+    /**
+     * 类型化流水线：消息对象直接流转，只在 SSE 出口编码一次
+     */
+    private List<String> runTypedPipeline(int tokenCount) {
+        Set<String> seenToolIds = new HashSet<>();
+        return Flux.range(0, tokenCount)
+                .<StreamMsgResponse>map(i -> new StreamAiChatMsgResponse(TOKENS[i % TOKENS.length]))
+                .map(message -> jsonStreamHandler.parseMessage(message, seenToolIds))
+                .filter(StrUtil::isNotEmpty)
+                .map(StreamBlockJsonEncoder::encode)
+                .collectList()
+                .block();
+    }
+}
@@ -66,6 +66,12 @@ public class AppHotStat implements Serializable {
     @Column("commentCount")
     private Integer commentCount;
 
+    /**
+     * 最近一次计数刷盘的批次id（用于刷盘重试幂等）
+     */
+    @Column("lastFlushId")
+    private Long lastFlushId;
+
     /**
      * 创建时间
      */
@@ -63,6 +63,7 @@ public class SystemPromptController {
 
         boolean saved = systemPromptService.save(systemPrompt);
         ThrowUtils.throwIf(!saved, ErrorCode.OPERATION_ERROR, "新增系统提示词失败");
+        systemPromptService.bumpPromptVersion();
 
         log.info("新增系统提示词: id={}, promptName={}, promptKey={}",
                 systemPrompt.getId(), systemPrompt.getPromptName(), systemPrompt.getPromptKey());
@@ -90,6 +91,7 @@ public class SystemPromptController {
 
         boolean updated = systemPromptService.updateById(updateEntity);
         ThrowUtils.throwIf(!updated, ErrorCode.OPERATION_ERROR, "更新系统提示词失败");
+        systemPromptService.bumpPromptVersion();
 
         log.info("更新系统提示词: id={}", updateRequest.getId());
         return ResultUtils.success(true);
@@ -113,6 +115,7 @@ public class SystemPromptController {
 
         boolean removed = systemPromptService.removeById(deleteRequest.getId());
         ThrowUtils.throwIf(!removed, ErrorCode.OPERATION_ERROR, "删除系统提示词失败");
+        systemPromptService.bumpPromptVersion();
 
         log.info("删除系统提示词: id={}, promptName={}", deleteRequest.getId(), existing.getPromptName());
         return ResultUtils.success(true);
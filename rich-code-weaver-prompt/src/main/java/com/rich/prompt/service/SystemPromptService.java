@@ -46,4 +46,16 @@ public interface SystemPromptService extends IService<SystemPrompt> {
      * @return 提示词内容，若不存在则返回 null
      */
     String getPromptContentByKey(String promptKey);
+
+    /**
+     * 获取系统提示词版本号
+     *
+     * @return 版本号
+     */
+    long getPromptVersion();
+
+    /**
+     * 提示词发生变更后更新版本号，通知调用方的本地缓存失效
+     */
+    void bumpPromptVersion();
 }
@@ -21,4 +21,9 @@ public class InnerSystemPromptServiceImpl implements InnerSystemPromptService {
     public String getPromptContentByKey(String promptKey) {
         return systemPromptService.getPromptContentByKey(promptKey);
     }
+
+    @Override
+    public long getPromptVersion() {
+        return systemPromptService.getPromptVersion();
+    }
 }
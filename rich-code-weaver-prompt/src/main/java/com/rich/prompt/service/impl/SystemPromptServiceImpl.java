@@ -8,7 +8,9 @@ import com.rich.model.entity.SystemPrompt;
 import com.rich.model.vo.SystemPromptVO;
 import com.rich.prompt.mapper.SystemPromptMapper;
 import com.rich.prompt.service.SystemPromptService;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -24,6 +26,14 @@ import java.util.stream.Collectors;
 public class SystemPromptServiceImpl extends ServiceImpl<SystemPromptMapper, SystemPrompt>
         implements SystemPromptService {
 
+    /**
+     * 系统提示词版本号的 Redis key
+     */
+    private static final String PROMPT_VERSION_KEY = "system_prompt:version";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
     @Override
     public SystemPromptVO getSystemPromptVO(SystemPrompt systemPrompt) {
         if (systemPrompt == null) {
@@ -90,4 +100,25 @@ public class SystemPromptServiceImpl extends ServiceImpl<SystemPromptMapper, Sys
         }
         return systemPrompt.getPromptContent();
     }
+
+    @Override
+    public long getPromptVersion() {
+        String version = stringRedisTemplate.opsForValue().get(PROMPT_VERSION_KEY);
+        if (version == null) {
+            // 版本号丢失（如 Redis 被清空）时以当前时间初始化，调用方会视为发生变更并重新加载
+            stringRedisTemplate.opsForValue().setIfAbsent(PROMPT_VERSION_KEY, String.valueOf(System.currentTimeMillis()));
+            version = stringRedisTemplate.opsForValue().get(PROMPT_VERSION_KEY);
+        }
+        return Long.parseLong(version);
+    }
+
+    @Override
+    public void bumpPromptVersion() {
+        try {
+            stringRedisTemplate.opsForValue().increment(PROMPT_VERSION_KEY);
+        } catch (Exception e) {
+            // 数据库已更新，不影响本次操作结果；调用方缓存最迟在过期时间后读取到新内容
+            log.warn("更新系统提示词版本号失败: {}", e.getMessage());
+        }
+    }
 }
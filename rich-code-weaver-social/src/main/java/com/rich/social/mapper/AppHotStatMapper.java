@@ -1,7 +1,14 @@
 package com.rich.social.mapper;
 
 import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.row.Row;
 import com.rich.model.entity.AppHotStat;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 产物热点统计 映射层
@@ -12,4 +19,50 @@ import com.rich.model.entity.AppHotStat;
  */
 public interface AppHotStatMapper extends BaseMapper<AppHotStat> {
 
+    /**
+     * 按刷盘批次累加计数（记录不存在时创建，计数不低于0）
+     * 同一批次重复提交时（lastFlushId 相同）不再累加，保证崩溃后重试幂等
+     */
+    @Insert("INSERT INTO app_hot_stat (appId, likeCount, shareCount, favoriteCount, commentCount, lastFlushId) " +
+            "VALUES (#{appId}, GREATEST(#{likeDelta}, 0), GREATEST(#{shareDelta}, 0), " +
+            "GREATEST(#{favoriteDelta}, 0), GREATEST(#{commentDelta}, 0), #{flushId}) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "likeCount = CASE WHEN lastFlushId = #{flushId} THEN likeCount ELSE GREATEST(likeCount + #{likeDelta}, 0) END, " +
+            "shareCount = CASE WHEN lastFlushId = #{flushId} THEN shareCount ELSE GREATEST(shareCount + #{shareDelta}, 0) END, " +
+            "favoriteCount = CASE WHEN lastFlushId = #{flushId} THEN favoriteCount ELSE GREATEST(favoriteCount + #{favoriteDelta}, 0) END, " +
+            "commentCount = CASE WHEN lastFlushId = #{flushId} THEN commentCount ELSE GREATEST(commentCount + #{commentDelta}, 0) END, " +
+            "lastFlushId = #{flushId}")
+    int upsertDelta(@Param("appId") Long appId,
+                    @Param("likeDelta") long likeDelta,
+                    @Param("shareDelta") long shareDelta,
+                    @Param("favoriteDelta") long favoriteDelta,
+                    @Param("commentDelta") long commentDelta,
+                    @Param("flushId") long flushId);
+
+    /**
+     * 按互动记录计算各产物的时间衰减热度分（用于重建热门排行）
+     * 每条点赞/收藏/转发/评论贡献 权重 * decayBase^(互动时间 - since)，只统计 since 之前（不含 since）的记录，since 及之后的互动由排行增量计入
+     * decayBase 为每秒衰减系数 2^(1 / 半衰期秒数)，以浮点数参与幂运算，避免整数除法截断
+     *
+     * @return 每行包含 appId 与 score
+     */
+    @Select("SELECT appId, SUM(score) AS score FROM (" +
+            "SELECT appId, #{likeWeight} * POWER(#{decayBase}, TIMESTAMPDIFF(SECOND, #{since}, createTime)) AS score " +
+            "FROM app_like WHERE createTime < #{since} " +
+            "UNION ALL " +
+            "SELECT appId, #{favoriteWeight} * POWER(#{decayBase}, TIMESTAMPDIFF(SECOND, #{since}, createTime)) " +
+            "FROM app_favorite WHERE createTime < #{since} " +
+            "UNION ALL " +
+            "SELECT appId, #{shareWeight} * POWER(#{decayBase}, TIMESTAMPDIFF(SECOND, #{since}, createTime)) " +
+            "FROM app_share WHERE createTime < #{since} " +
+            "UNION ALL " +
+            "SELECT appId, #{commentWeight} * POWER(#{decayBase}, TIMESTAMPDIFF(SECOND, #{since}, createTime)) " +
+            "FROM app_comment WHERE isDelete = 0 AND createTime < #{since}" +
+            ") t GROUP BY appId")
+    List<Row> selectDecayedScores(@Param("since") LocalDateTime since,
+                                  @Param("decayBase") double decayBase,
+                                  @Param("likeWeight") double likeWeight,
+                                  @Param("favoriteWeight") double favoriteWeight,
+                                  @Param("shareWeight") double shareWeight,
+                                  @Param("commentWeight") double commentWeight);
 }
@@ -2,9 +2,29 @@ package com.rich.social.mapper;
 
 import com.mybatisflex.core.BaseMapper;
 import com.rich.model.entity.CommunityReply;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 社区回复数据访问层。
  */
 public interface CommunityReplyMapper extends BaseMapper<CommunityReply> {
+
+    /**
+     * 批量查询多个帖子下各自最新的若干条回复。
+     * 按帖子分区取前 limit 条，一次查询替代逐帖分页；结果按帖子 ID、回复由新到旧排列。
+     */
+    @Select("<script>" +
+            "SELECT id, postId, userId, content, likeCount, createTime, updateTime, isDelete FROM (" +
+            "SELECT r.*, ROW_NUMBER() OVER (PARTITION BY r.postId ORDER BY r.createTime DESC, r.id DESC) AS rn " +
+            "FROM community_reply r WHERE r.isDelete = 0 AND r.postId IN " +
+            "<foreach item='postId' collection='postIds' open='(' separator=',' close=')'>" +
+            "#{postId}" +
+            "</foreach>" +
+            ") t WHERE t.rn &lt;= #{limit} ORDER BY t.postId, t.rn" +
+            "</script>")
+    List<CommunityReply> selectLatestByPostIds(@Param("postIds") Collection<Long> postIds, @Param("limit") int limit);
 }
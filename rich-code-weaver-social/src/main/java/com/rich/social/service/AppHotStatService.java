@@ -5,6 +5,8 @@ import com.mybatisflex.core.service.IService;
 import com.rich.model.entity.AppHotStat;
 import com.rich.model.vo.AppHotStatVO;
 
+import java.time.LocalDateTime;
+
 /**
  * 产物热点统计 服务层
  * 提供热点数据的查询与增减操作
@@ -23,13 +25,6 @@ public interface AppHotStatService extends IService<AppHotStat> {
      */
     AppHotStatVO getHotStatVO(Long appId, Long userId);
 
-    /**
-     * 确保热点统计记录存在（不存在则初始化）
-     *
-     * @param appId 产物id
-     */
-    void ensureStatExists(Long appId);
-
     /**
      * 递增指定计数字段
      *
@@ -47,7 +42,16 @@ public interface AppHotStatService extends IService<AppHotStat> {
     void decrementField(Long appId, String fieldName);
 
     /**
-     * 分页查询热门产物（按综合热度得分降序）
+     * 递减指定计数字段（不会低于0），并从热门排行中扣除原互动计入的热度
+     *
+     * @param appId      产物id
+     * @param fieldName  字段名（likeCount/shareCount/favoriteCount/commentCount）
+     * @param occurredAt 被撤销互动的发生时间（如点赞记录的创建时间）
+     */
+    void decrementField(Long appId, String fieldName, LocalDateTime occurredAt);
+
+    /**
+     * 分页查询热门产物（按时间衰减热度降序）
      *
      * @param pageNum  页码
      * @param pageSize 每页数量
@@ -3,6 +3,9 @@ package com.rich.social.service;
 import com.mybatisflex.core.service.IService;
 import com.rich.model.entity.CommunityPostLike;
 
+import java.util.Collection;
+import java.util.Set;
+
 /**
  * 社区帖子点赞服务接口。
  */
@@ -17,4 +20,9 @@ public interface CommunityPostLikeService extends IService<CommunityPostLike> {
      * 判断当前用户是否已点赞帖子。
      */
     boolean hasLiked(Long postId, Long userId);
+
+    /**
+     * 批量查询当前用户已点赞的帖子 ID，列表场景一次查询替代逐条判断。
+     */
+    Set<Long> listLikedPostIds(Collection<Long> postIds, Long userId);
 }
@@ -3,6 +3,9 @@ package com.rich.social.service;
 import com.mybatisflex.core.service.IService;
 import com.rich.model.entity.CommunityReplyLike;
 
+import java.util.Collection;
+import java.util.Set;
+
 /**
  * 社区回复点赞服务接口。
  */
@@ -17,4 +20,9 @@ public interface CommunityReplyLikeService extends IService<CommunityReplyLike>
      * 判断当前用户是否已点赞回复。
      */
     boolean hasLiked(Long replyId, Long userId);
+
+    /**
+     * 批量查询当前用户已点赞的回复 ID，列表场景一次查询替代逐条判断。
+     */
+    Set<Long> listLikedReplyIds(Collection<Long> replyIds, Long userId);
 }
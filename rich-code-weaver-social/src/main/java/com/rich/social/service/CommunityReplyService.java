@@ -4,8 +4,11 @@ import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.service.IService;
 import com.rich.model.entity.CommunityReply;
 import com.rich.model.vo.CommunityReplyVO;
+import com.rich.model.vo.UserVO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 社区回复服务接口。
@@ -27,8 +30,23 @@ public interface CommunityReplyService extends IService<CommunityReply> {
      */
     List<CommunityReplyVO> listLatestReplies(Long postId, Long currentUserId, int limit);
 
+    /**
+     * 批量获取多个帖子下的最新回复，一次查询返回 帖子 ID -> 回复列表（由新到旧）。
+     */
+    Map<Long, List<CommunityReply>> listLatestReplyMap(Collection<Long> postIds, int limit);
+
     /**
      * 将回复实体转换为前端展示对象。
      */
     CommunityReplyVO getReplyVO(CommunityReply reply, Long currentUserId);
+
+    /**
+     * 批量将回复实体转换为前端展示对象，用户信息与点赞状态各批量查询一次。
+     */
+    List<CommunityReplyVO> getReplyVOList(List<CommunityReply> replies, Long currentUserId);
+
+    /**
+     * 使用已查询的用户信息批量转换回复，适用于调用方已一并查询回复作者的场景。
+     */
+    List<CommunityReplyVO> getReplyVOList(List<CommunityReply> replies, Long currentUserId, Map<Long, UserVO> userVOMap);
 }
@@ -89,7 +89,7 @@ public class AppCommentServiceImpl extends ServiceImpl<AppCommentMapper, AppComm
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权删除该评论");
         }
         removeById(commentId);
-        appHotStatService.decrementField(comment.getAppId(), "commentCount");
+        appHotStatService.decrementField(comment.getAppId(), "commentCount", comment.getCreateTime());
     }
 
     /**
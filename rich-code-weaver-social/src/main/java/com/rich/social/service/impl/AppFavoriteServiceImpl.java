@@ -59,7 +59,7 @@ public class AppFavoriteServiceImpl extends ServiceImpl<AppFavoriteMapper, AppFa
             if (existing != null) {
                 // 取消收藏
                 removeById(existing.getId());
-                appHotStatService.decrementField(appId, "favoriteCount");
+                appHotStatService.decrementField(appId, "favoriteCount", existing.getCreateTime());
                 return false;
             } else {
                 // 新增收藏
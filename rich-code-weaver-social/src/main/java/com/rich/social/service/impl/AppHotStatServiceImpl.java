@@ -3,23 +3,33 @@ package com.rich.social.service.impl;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
-import com.mybatisflex.core.update.UpdateChain;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.rich.common.exception.BusinessException;
+import com.rich.common.exception.ErrorCode;
 import com.rich.model.entity.AppHotStat;
 import com.rich.model.vo.AppHotStatVO;
 import com.rich.social.mapper.AppHotStatMapper;
 import com.rich.social.service.AppFavoriteService;
 import com.rich.social.service.AppHotStatService;
 import com.rich.social.service.AppLikeService;
-import com.rich.social.utils.SocialRedisHelper;
+import com.rich.social.utils.AppHotRanking;
+import com.rich.social.utils.AppHotStatCounter;
 import jakarta.annotation.Resource;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 产物热点统计 服务实现
- * 实现热点数据的查询与原子增减操作，支持并发安全的统计数据更新
+ * 实现热点数据的查询与增减操作；增减先累加到 Redis，由 AppHotStatCounter 定时批量写入数据库，
+ * 查询时合并数据库中的值与尚未写入的增量；热门列表按 AppHotRanking 维护的时间衰减热度排序
  *
  * @author DuRuiChi
  * @create 2026-03-25
@@ -37,11 +47,14 @@ public class AppHotStatServiceImpl extends ServiceImpl<AppHotStatMapper, AppHotS
     private AppFavoriteService appFavoriteService;
 
     @Resource
-    private SocialRedisHelper socialRedisHelper;
+    private AppHotStatCounter appHotStatCounter;
+
+    @Resource
+    private AppHotRanking appHotRanking;
 
     /**
      * 获取产物热点统计VO（含当前用户的点赞/收藏状态）
-     * 若统计记录不存在则自动创建初始记录
+     * 计数为数据库中的值加上尚未写入数据库的增量；统计记录由首次刷盘创建，不存在时计数为0
      *
      * @param appId  产物id
      * @param userId 当前用户id（可为null，未登录用户）
@@ -49,18 +62,23 @@ public class AppHotStatServiceImpl extends ServiceImpl<AppHotStatMapper, AppHotS
      */
     @Override
     public AppHotStatVO getHotStatVO(Long appId, Long userId) {
-        ensureStatExists(appId);
+        // 先读取待刷盘增量再读取数据库：期间完成的刷盘批次可通过 lastFlushId 识别，不会重复累加
+        AppHotStatCounter.PendingCounts pending = appHotStatCounter.readPending(List.of(appId)).get(appId);
         QueryWrapper query = QueryWrapper.create()
                 .from(AppHotStat.class)
                 .where("appId = ?", appId);
         AppHotStat stat = getOne(query);
+        if (stat == null) {
+            stat = emptyStat(appId);
+        }
+        applyPending(stat, pending);
 
         AppHotStatVO vo = new AppHotStatVO();
         vo.setAppId(appId);
-        vo.setLikeCount(stat != null ? stat.getLikeCount() : 0);
-        vo.setShareCount(stat != null ? stat.getShareCount() : 0);
-        vo.setFavoriteCount(stat != null ? stat.getFavoriteCount() : 0);
-        vo.setCommentCount(stat != null ? stat.getCommentCount() : 0);
+        vo.setLikeCount(stat.getLikeCount());
+        vo.setShareCount(stat.getShareCount());
+        vo.setFavoriteCount(stat.getFavoriteCount());
+        vo.setCommentCount(stat.getCommentCount());
 
         // 填充当前用户的交互状态
         if (userId != null) {
@@ -74,90 +92,77 @@ public class AppHotStatServiceImpl extends ServiceImpl<AppHotStatMapper, AppHotS
     }
 
     /**
-     * 确保热点统计记录存在（不存在则初始化）
-     * 使用 Redis 分布式锁 + 双重检查 + DuplicateKeyException 捕获三重保障防止并发初始化
+     * 递增指定计数字段
+     * 增量累加到 Redis，由 AppHotStatCounter 定时聚合后批量写入数据库
      *
-     * @param appId 产物id
+     * @param appId     产物id
+     * @param fieldName 字段名（likeCount/shareCount/favoriteCount/commentCount）
      */
     @Override
-    public void ensureStatExists(Long appId) {
-        QueryWrapper query = QueryWrapper.create()
-                .from(AppHotStat.class)
-                .where("appId = ?", appId);
-        if (count(query) == 0) {
-            // 使用 Redis 分布式锁 + DuplicateKeyException 双重保障防止并发初始化
-            String lockKey = SocialRedisHelper.hotStatInitLockKey(appId);
-            boolean locked = socialRedisHelper.tryLock(lockKey);
-            if (locked) {
-                try {
-                    // 再次检查（双重检查）
-                    if (count(query) == 0) {
-                        AppHotStat stat = AppHotStat.builder()
-                                .appId(appId)
-                                .likeCount(0)
-                                .shareCount(0)
-                                .favoriteCount(0)
-                                .commentCount(0)
-                                .build();
-                        try {
-                            save(stat);
-                        } catch (DuplicateKeyException ignored) {
-                            // 并发场景下另一线程已插入，安全忽略
-                        }
-                    }
-                } finally {
-                    socialRedisHelper.releaseLock(lockKey);
-                }
-            }
-            // 若未获取到锁，说明其他线程正在初始化，可安全跳过
-        }
+    public void incrementField(Long appId, String fieldName) {
+        addDelta(appId, fieldName, 1, null);
     }
 
     /**
-     * 原子递增指定计数字段
-     * 使用 MyBatis-Flex UpdateChain.setRaw() 生成数据库级原子操作
+     * 递减指定计数字段（不会低于0）
+     * 增量累加到 Redis，写入数据库时通过 GREATEST 函数保证非负
      *
      * @param appId     产物id
      * @param fieldName 字段名（likeCount/shareCount/favoriteCount/commentCount）
      */
     @Override
-    public void incrementField(Long appId, String fieldName) {
-        ensureStatExists(appId);
-        // 使用 UpdateChain 进行原子递增
-        UpdateChain.of(AppHotStat.class)
-                .setRaw(fieldName, fieldName + " + 1")
-                .where("appId = ?", appId)
-                .update();
+    public void decrementField(Long appId, String fieldName) {
+        addDelta(appId, fieldName, -1, null);
     }
 
     /**
-     * 原子递减指定计数字段（不会低于0）
-     * 使用 MyBatis-Flex UpdateChain.setRaw() 生成数据库级原子操作，通过 GREATEST 函数保证非负
+     * 递减指定计数字段（不会低于0），并从热门排行中扣除原互动按其发生时间计入的热度
      *
-     * @param appId     产物id
-     * @param fieldName 字段名（likeCount/shareCount/favoriteCount/commentCount）
+     * @param appId      产物id
+     * @param fieldName  字段名（likeCount/shareCount/favoriteCount/commentCount）
+     * @param occurredAt 被撤销互动的发生时间（为空时按当前时间）
      */
     @Override
-    public void decrementField(Long appId, String fieldName) {
-        ensureStatExists(appId);
-        // 使用 UpdateChain 进行原子递减，不低于0
-        UpdateChain.of(AppHotStat.class)
-                .setRaw(fieldName, "GREATEST(" + fieldName + " - 1, 0)")
-                .where("appId = ?", appId)
-                .update();
+    public void decrementField(Long appId, String fieldName, LocalDateTime occurredAt) {
+        addDelta(appId, fieldName, -1, occurredAt);
     }
 
     /**
-     * 分页查询热门产物列表（按综合热度得分降序）
-     * 综合热度得分 = likeCount + shareCount + favoriteCount + commentCount
-     * 使用 QueryColumn 算术运算以通过 MyBatis-Flex SQL 安全检查
+     * 分页查询热门产物列表（按时间衰减热度降序）
+     * 排行由 AppHotRanking 在 Redis 有序集合中维护，按页取出产物id后批量查询统计记录；
+     * 排行尚未建立（如首次部署、Redis 数据丢失）时按综合热度得分降序查询数据库
      *
      * @param pageNum  页码（从1开始）
      * @param pageSize 每页数量
-     * @return 分页热点统计数据，按热度降序、更新时间降序排列
+     * @return 分页热点统计数据
      */
     @Override
     public Page<AppHotStat> listHotApps(long pageNum, long pageSize) {
+        long total = appHotRanking.size();
+        if (total == 0) {
+            return listHotAppsByCounts(pageNum, pageSize);
+        }
+        List<Long> appIds = appHotRanking.listTop(Math.max(0, pageNum - 1) * pageSize, pageSize);
+        Map<Long, AppHotStat> statMap = appIds.isEmpty() ? Map.of() : list(QueryWrapper.create()
+                .from(AppHotStat.class)
+                .where(new QueryColumn("appId").in(appIds)))
+                .stream()
+                .collect(Collectors.toMap(AppHotStat::getAppId, Function.identity()));
+        // 统计记录由首次刷盘创建，尚未刷盘的产物计数为0（随后合并待刷盘增量）
+        List<AppHotStat> records = appIds.stream()
+                .map(appId -> statMap.getOrDefault(appId, emptyStat(appId)))
+                .toList();
+        Map<Long, AppHotStatCounter.PendingCounts> pendingMap = appHotStatCounter.readPending(appIds);
+        records.forEach(stat -> applyPending(stat, pendingMap.get(stat.getAppId())));
+        return new Page<>(records, pageNum, pageSize, total);
+    }
+
+    /**
+     * 按综合热度得分降序分页查询（排行未建立时的兜底）
+     * 综合热度得分 = likeCount + shareCount + favoriteCount + commentCount
+     * 使用 QueryColumn 算术运算以通过 MyBatis-Flex SQL 安全检查
+     */
+    private Page<AppHotStat> listHotAppsByCounts(long pageNum, long pageSize) {
         QueryColumn likeCount = new QueryColumn("likeCount");
         QueryColumn shareCount = new QueryColumn("shareCount");
         QueryColumn favoriteCount = new QueryColumn("favoriteCount");
@@ -170,6 +175,55 @@ public class AppHotStatServiceImpl extends ServiceImpl<AppHotStatMapper, AppHotS
                         likeCount.add(shareCount).add(favoriteCount).add(commentCount).desc(),
                         updateTime.desc()
                 );
-        return page(Page.of(pageNum, pageSize), query);
+        Page<AppHotStat> page = page(Page.of(pageNum, pageSize), query);
+        // 合并尚未写入数据库的增量（排序仍以数据库中的值为准）
+        Map<Long, AppHotStatCounter.PendingCounts> pendingMap = appHotStatCounter.readPending(
+                page.getRecords().stream().map(AppHotStat::getAppId).toList());
+        page.getRecords().forEach(stat -> applyPending(stat, pendingMap.get(stat.getAppId())));
+        return page;
+    }
+
+    /**
+     * 累加计数增量并更新热门排行
+     * 处于事务中时（如点赞记录与计数一同变更）在事务提交后累加，事务回滚时计数与排行不变
+     */
+    private void addDelta(Long appId, String fieldName, int delta, LocalDateTime occurredAt) {
+        if (!AppHotStatCounter.FIELDS.contains(fieldName)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "不支持的统计字段");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    appHotStatCounter.increment(appId, fieldName, delta);
+                    appHotRanking.record(appId, fieldName, delta, occurredAt);
+                }
+            });
+        } else {
+            appHotStatCounter.increment(appId, fieldName, delta);
+            appHotRanking.record(appId, fieldName, delta, occurredAt);
+        }
+    }
+
+    private static AppHotStat emptyStat(Long appId) {
+        return AppHotStat.builder().appId(appId).likeCount(0).shareCount(0).favoriteCount(0).commentCount(0).build();
+    }
+
+    /**
+     * 将尚未写入数据库的增量合并到统计记录（计数不低于0）
+     */
+    private static void applyPending(AppHotStat stat, AppHotStatCounter.PendingCounts pending) {
+        if (pending == null) {
+            return;
+        }
+        Long flushId = stat.getLastFlushId();
+        stat.setLikeCount(withPending(stat.getLikeCount(), pending.get("likeCount", flushId)));
+        stat.setShareCount(withPending(stat.getShareCount(), pending.get("shareCount", flushId)));
+        stat.setFavoriteCount(withPending(stat.getFavoriteCount(), pending.get("favoriteCount", flushId)));
+        stat.setCommentCount(withPending(stat.getCommentCount(), pending.get("commentCount", flushId)));
+    }
+
+    private static int withPending(Integer persisted, long pending) {
+        return (int) Math.max(0, (persisted == null ? 0 : persisted) + pending);
     }
 }
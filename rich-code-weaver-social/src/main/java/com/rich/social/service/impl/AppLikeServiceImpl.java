@@ -58,7 +58,7 @@ public class AppLikeServiceImpl extends ServiceImpl<AppLikeMapper, AppLike>
             if (existing != null) {
                 // 取消点赞
                 removeById(existing.getId());
-                appHotStatService.decrementField(appId, "likeCount");
+                appHotStatService.decrementField(appId, "likeCount", existing.getCreateTime());
                 return false;
             } else {
                 // 新增点赞
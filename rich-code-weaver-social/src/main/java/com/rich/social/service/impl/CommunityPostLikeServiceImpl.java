@@ -1,5 +1,6 @@
 package com.rich.social.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.update.UpdateChain;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
@@ -16,6 +17,10 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * 社区帖子点赞服务实现。
  * 通过 Redis 分布式锁保证点赞 / 取消点赞在并发场景下的安全性。
@@ -88,4 +93,20 @@ public class CommunityPostLikeServiceImpl extends ServiceImpl<CommunityPostLikeM
                 .where("postId = ? AND userId = ?", postId, userId);
         return count(query) > 0;
     }
+
+    /**
+     * 批量查询用户已点赞的帖子 ID。
+     */
+    @Override
+    public Set<Long> listLikedPostIds(Collection<Long> postIds, Long userId) {
+        if (userId == null || CollUtil.isEmpty(postIds)) {
+            return new HashSet<>();
+        }
+        QueryWrapper query = QueryWrapper.create()
+                .select("postId")
+                .from(CommunityPostLike.class)
+                .where("userId = ?", userId)
+                .in("postId", postIds);
+        return new HashSet<>(listAs(query, Long.class));
+    }
 }
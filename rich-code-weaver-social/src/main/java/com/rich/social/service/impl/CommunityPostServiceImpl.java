@@ -1,6 +1,7 @@
 package com.rich.social.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
@@ -11,6 +12,7 @@ import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.model.entity.*;
 import com.rich.model.vo.CommunityPostVO;
+import com.rich.model.vo.CommunityReplyVO;
 import com.rich.model.vo.UserVO;
 import com.rich.social.mapper.CommunityPostMapper;
 import com.rich.social.service.CommunityPostLikeService;
@@ -23,7 +25,12 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -35,6 +42,11 @@ import java.util.stream.Collectors;
 public class CommunityPostServiceImpl extends ServiceImpl<CommunityPostMapper, CommunityPost>
         implements CommunityPostService {
 
+    /**
+     * 帖子列表中每个帖子展示的最新评论条数
+     */
+    private static final int LATEST_REPLY_PREVIEW_SIZE = 2;
+
     @Resource
     @Lazy
     private CommunityPostLikeService communityPostLikeService;
@@ -99,9 +111,7 @@ public class CommunityPostServiceImpl extends ServiceImpl<CommunityPostMapper, C
             query.orderBy("isTop DESC, updateTime DESC, createTime DESC");
         }
         Page<CommunityPost> postPage = page(Page.of(pageNum, pageSize), query);
-        List<CommunityPostVO> voList = postPage.getRecords().stream()
-                .map(post -> convertToVO(post, currentUserId, true))
-                .collect(Collectors.toList());
+        List<CommunityPostVO> voList = convertToVOList(postPage.getRecords(), currentUserId, true);
         return new Page<>(voList, pageNum, pageSize, postPage.getTotalRow());
     }
 
@@ -114,7 +124,7 @@ public class CommunityPostServiceImpl extends ServiceImpl<CommunityPostMapper, C
         if (post == null) {
             throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "帖子不存在");
         }
-        return convertToVO(post, currentUserId, false);
+        return convertToVOList(List.of(post), currentUserId, false).get(0);
     }
 
     /**
@@ -192,27 +202,57 @@ public class CommunityPostServiceImpl extends ServiceImpl<CommunityPostMapper, C
     }
 
     /**
-     * 将帖子实体转换为帖子展示对象。
-     * 根据场景决定是否附带最新评论预览，避免详情页做无意义的额外查询。
+     * 将帖子实体批量转换为帖子展示对象。
+     * 整页帖子的作者与评论作者合并为一次远程调用，帖子点赞状态、最新评论、评论点赞状态各一次查询，
+     * 调用次数与每页帖子数无关；详情页不附带最新评论预览，避免无意义的额外查询。
      */
-    private CommunityPostVO convertToVO(CommunityPost post, Long currentUserId, boolean withLatestReplies) {
-        if (post == null) {
-            return null;
+    private List<CommunityPostVO> convertToVOList(List<CommunityPost> posts, Long currentUserId,
+                                                  boolean withLatestReplies) {
+        if (CollUtil.isEmpty(posts)) {
+            return new ArrayList<>();
         }
-        CommunityPostVO vo = new CommunityPostVO();
-        BeanUtil.copyProperties(post, vo);
-        try {
-            User user = innerUserService.getById(post.getUserId());
-            if (user != null) {
-                UserVO userVO = innerUserService.getUserVO(user);
-                vo.setUser(userVO);
+        List<Long> postIds = posts.stream().map(CommunityPost::getId).toList();
+        Map<Long, List<CommunityReply>> latestReplyMap = withLatestReplies
+                ? communityReplyService.listLatestReplyMap(postIds, LATEST_REPLY_PREVIEW_SIZE)
+                : new HashMap<>();
+        List<CommunityReply> latestReplies = latestReplyMap.values().stream()
+                .flatMap(List::stream)
+                .toList();
+
+        Set<Long> userIds = new HashSet<>();
+        posts.forEach(post -> userIds.add(post.getUserId()));
+        latestReplies.forEach(reply -> userIds.add(reply.getUserId()));
+        Map<Long, UserVO> userVOMap = loadUserVOMap(userIds);
+        Set<Long> likedPostIds = communityPostLikeService.listLikedPostIds(postIds, currentUserId);
+        Map<Long, List<CommunityReplyVO>> latestReplyVOMap = communityReplyService
+                .getReplyVOList(latestReplies, currentUserId, userVOMap).stream()
+                .collect(Collectors.groupingBy(CommunityReplyVO::getPostId));
+
+        List<CommunityPostVO> voList = new ArrayList<>(posts.size());
+        for (CommunityPost post : posts) {
+            CommunityPostVO vo = new CommunityPostVO();
+            BeanUtil.copyProperties(post, vo);
+            vo.setUser(userVOMap.get(post.getUserId()));
+            vo.setHasLiked(likedPostIds.contains(post.getId()));
+            if (withLatestReplies) {
+                vo.setLatestReplies(latestReplyVOMap.getOrDefault(post.getId(), new ArrayList<>()));
             }
-        } catch (Exception ignored) {
+            voList.add(vo);
         }
-        vo.setHasLiked(currentUserId != null && communityPostLikeService.hasLiked(post.getId(), currentUserId));
-        if (withLatestReplies) {
-            vo.setLatestReplies(communityReplyService.listLatestReplies(post.getId(), currentUserId, 2));
+        return voList;
+    }
+
+    /**
+     * 批量获取用户信息，用户服务不可用时不影响帖子展示。
+     */
+    private Map<Long, UserVO> loadUserVOMap(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return innerUserService.getUserVOMapByIds(userIds);
+        } catch (Exception ignored) {
+            return new HashMap<>();
         }
-        return vo;
     }
 }
@@ -1,5 +1,6 @@
 package com.rich.social.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.update.UpdateChain;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
@@ -16,6 +17,10 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * 社区回复点赞服务实现。
  * 通过 Redis 分布式锁确保回复点赞切换的并发安全。
@@ -88,4 +93,20 @@ public class CommunityReplyLikeServiceImpl extends ServiceImpl<CommunityReplyLik
                 .where("replyId = ? AND userId = ?", replyId, userId);
         return count(query) > 0;
     }
+
+    /**
+     * 批量查询用户已点赞的回复 ID。
+     */
+    @Override
+    public Set<Long> listLikedReplyIds(Collection<Long> replyIds, Long userId) {
+        if (userId == null || CollUtil.isEmpty(replyIds)) {
+            return new HashSet<>();
+        }
+        QueryWrapper query = QueryWrapper.create()
+                .select("replyId")
+                .from(CommunityReplyLike.class)
+                .where("userId = ?", userId)
+                .in("replyId", replyIds);
+        return new HashSet<>(listAs(query, Long.class));
+    }
 }
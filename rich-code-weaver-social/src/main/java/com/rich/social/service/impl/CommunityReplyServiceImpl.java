@@ -1,6 +1,7 @@
 package com.rich.social.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.update.UpdateChain;
@@ -10,7 +11,6 @@ import com.rich.common.exception.BusinessException;
 import com.rich.common.exception.ErrorCode;
 import com.rich.model.entity.CommunityPost;
 import com.rich.model.entity.CommunityReply;
-import com.rich.model.entity.User;
 import com.rich.model.vo.CommunityReplyVO;
 import com.rich.model.vo.UserVO;
 import com.rich.social.mapper.CommunityReplyMapper;
@@ -23,7 +23,13 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -79,9 +85,7 @@ public class CommunityReplyServiceImpl extends ServiceImpl<CommunityReplyMapper,
                 .where("postId = ?", postId)
                 .orderBy("createTime ASC");
         Page<CommunityReply> replyPage = page(Page.of(pageNum, pageSize), query);
-        List<CommunityReplyVO> voList = replyPage.getRecords().stream()
-                .map(reply -> getReplyVO(reply, currentUserId))
-                .collect(Collectors.toList());
+        List<CommunityReplyVO> voList = getReplyVOList(replyPage.getRecords(), currentUserId);
         return new Page<>(voList, pageNum, pageSize, replyPage.getTotalRow());
     }
 
@@ -93,11 +97,22 @@ public class CommunityReplyServiceImpl extends ServiceImpl<CommunityReplyMapper,
         QueryWrapper query = QueryWrapper.create()
                 .from(CommunityReply.class)
                 .where("postId = ?", postId)
-                .orderBy("createTime DESC");
+                .orderBy("createTime DESC, id DESC");
         Page<CommunityReply> replyPage = page(Page.of(1, limit), query);
-        return replyPage.getRecords().stream()
-                .map(reply -> getReplyVO(reply, currentUserId))
-                .collect(Collectors.toList());
+        return getReplyVOList(replyPage.getRecords(), currentUserId);
+    }
+
+    /**
+     * 批量查询多个帖子下最近的若干条回复，用于帖子列表页的评论预览。
+     * 按帖子分区取前 limit 条，整页帖子只需一次查询。
+     */
+    @Override
+    public Map<Long, List<CommunityReply>> listLatestReplyMap(Collection<Long> postIds, int limit) {
+        if (CollUtil.isEmpty(postIds) || limit <= 0) {
+            return new HashMap<>();
+        }
+        return getMapper().selectLatestByPostIds(postIds, limit).stream()
+                .collect(Collectors.groupingBy(CommunityReply::getPostId, LinkedHashMap::new, Collectors.toList()));
     }
 
     /**
@@ -108,17 +123,56 @@ public class CommunityReplyServiceImpl extends ServiceImpl<CommunityReplyMapper,
         if (reply == null) {
             return null;
         }
-        CommunityReplyVO vo = new CommunityReplyVO();
-        BeanUtil.copyProperties(reply, vo);
+        return getReplyVOList(List.of(reply), currentUserId).get(0);
+    }
+
+    /**
+     * 批量转换回复，回复作者通过一次远程调用批量获取。
+     */
+    @Override
+    public List<CommunityReplyVO> getReplyVOList(List<CommunityReply> replies, Long currentUserId) {
+        if (CollUtil.isEmpty(replies)) {
+            return new ArrayList<>();
+        }
+        Set<Long> userIds = replies.stream()
+                .map(CommunityReply::getUserId)
+                .collect(Collectors.toSet());
+        return getReplyVOList(replies, currentUserId, loadUserVOMap(userIds));
+    }
+
+    /**
+     * 批量转换回复，当前用户的点赞状态一次查询得到。
+     */
+    @Override
+    public List<CommunityReplyVO> getReplyVOList(List<CommunityReply> replies, Long currentUserId,
+                                                 Map<Long, UserVO> userVOMap) {
+        if (CollUtil.isEmpty(replies)) {
+            return new ArrayList<>();
+        }
+        Set<Long> likedReplyIds = communityReplyLikeService.listLikedReplyIds(
+                replies.stream().map(CommunityReply::getId).toList(), currentUserId);
+        List<CommunityReplyVO> voList = new ArrayList<>(replies.size());
+        for (CommunityReply reply : replies) {
+            CommunityReplyVO vo = new CommunityReplyVO();
+            BeanUtil.copyProperties(reply, vo);
+            vo.setUser(userVOMap.get(reply.getUserId()));
+            vo.setHasLiked(likedReplyIds.contains(reply.getId()));
+            voList.add(vo);
+        }
+        return voList;
+    }
+
+    /**
+     * 批量获取用户信息，用户服务不可用时不影响回复展示。
+     */
+    private Map<Long, UserVO> loadUserVOMap(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
         try {
-            User user = innerUserService.getById(reply.getUserId());
-            if (user != null) {
-                UserVO userVO = innerUserService.getUserVO(user);
-                vo.setUser(userVO);
-            }
+            return innerUserService.getUserVOMapByIds(userIds);
         } catch (Exception ignored) {
+            return new HashMap<>();
         }
-        vo.setHasLiked(currentUserId != null && communityReplyLikeService.hasLiked(reply.getId(), currentUserId));
-        return vo;
     }
 }
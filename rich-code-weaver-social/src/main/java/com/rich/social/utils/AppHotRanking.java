@@ -0,0 +1,354 @@
+package com.rich.social.utils;
+
+import com.mybatisflex.core.row.Row;
+import com.rich.social.mapper.AppHotStatMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产物热门排行（时间衰减热度，Redis 有序集合）
+ * 每次互动贡献 权重 * 2^(-(当前时间 - 互动时间) / 半衰期)，热度随时间指数衰减，旧的热门产物会逐渐让位于新的热门产物。
+ * 1. 所有产物的热度按同一比例衰减，因此有序集合中保存相对固定基准时间（epoch）的分数
+ * 权重 * 2^((互动时间 - epoch) / 半衰期)，互动时 ZINCRBY 增量更新，无需定时衰减全部分数；
+ * 2. 前 N 名通过 ZREVRANGE 获取，复杂度 O(log n + N)，不再每次对全表排序；
+ * 3. 定时从数据库的点赞/收藏/转发/评论记录重建排行，并将 epoch 前移到重建时间，避免分数指数增长溢出；
+ * 重建期间发生的互动同时计入新排行，重建完成后原子替换
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class AppHotRanking {
+
+    /**
+     * 各计数字段的热度权重（相同权重，与原综合热度“四项计数之和”一致）
+     */
+    public static final Map<String, Double> FIELD_WEIGHTS = Map.of(
+            "likeCount", 1.0,
+            "shareCount", 1.0,
+            "favoriteCount", 1.0,
+            "commentCount", 1.0);
+
+    private static final String RANK_KEY = "social:hotRank";
+
+    private static final String EPOCH_KEY = "social:hotRank:epoch";
+
+    private static final String REBUILD_RANK_KEY = "social:hotRank:rebuild";
+
+    private static final String REBUILD_SINCE_KEY = "social:hotRank:rebuild:since";
+
+    /**
+     * 重建标记的最长保留时间（毫秒），重建节点崩溃后标记自动失效
+     */
+    private static final long REBUILD_MARKER_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 排行保留的最低分数（约为 40 个半衰期前的一次互动），低于该值的产物移出排行，
+     * 同时清除撤销全部互动后残留的浮点误差
+     */
+    private static final double MIN_SCORE = 1e-12;
+
+    /**
+     * 检查是否需要重建的间隔（分钟）
+     */
+    private static final long REBUILD_CHECK_MINUTES = 5;
+
+    /**
+     * 单次写入重建排行的产物数
+     */
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    /**
+     * 记录一次互动：累加到排行（分数低于最低分数时移除）；重建期间不早于快照时间的互动（按秒取整后比较，与数据库时间精度一致）同时计入新排行
+     * KEYS[1]=排行 KEYS[2]=epoch KEYS[3]=重建中的排行 KEYS[4]=重建快照时间；
+     * ARGV[1]=appId ARGV[2]=带符号权重 ARGV[3]=互动时间 ARGV[4]=半衰期 ARGV[5]=当前时间（毫秒） ARGV[6]=最低分数
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            local epoch = redis.call('GET', KEYS[2])
+            if not epoch then
+              epoch = ARGV[5]
+              redis.call('SET', KEYS[2], epoch)
+            end
+            local weight = tonumber(ARGV[2])
+            local occurredAt = tonumber(ARGV[3])
+            local halfLife = tonumber(ARGV[4])
+            local minScore = tonumber(ARGV[6])
+            -- 增量按 17 位有效数字传入，避免数字转字符串时丢失精度
+            local score = tonumber(redis.call('ZINCRBY', KEYS[1], string.format('%.17g', weight * 2 ^ ((occurredAt - tonumber(epoch)) / halfLife)), ARGV[1]))
+            if score < minScore then
+              redis.call('ZREM', KEYS[1], ARGV[1])
+            end
+            local since = redis.call('GET', KEYS[4])
+            if since and math.floor(occurredAt / 1000) * 1000 >= tonumber(since) then
+              local rebuildScore = tonumber(redis.call('ZINCRBY', KEYS[3], string.format('%.17g', weight * 2 ^ ((occurredAt - tonumber(since)) / halfLife)), ARGV[1]))
+              if rebuildScore < minScore then
+                redis.call('ZREM', KEYS[3], ARGV[1])
+              end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 开始重建：清空重建中的排行并记录快照时间
+     * KEYS[1]=重建中的排行 KEYS[2]=重建快照时间；ARGV[1]=快照时间 ARGV[2]=标记有效期（毫秒）
+     */
+    private static final RedisScript<Long> BEGIN_REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    /**
+     * 写入快照分数（ZINCRBY，保留重建期间已计入的新互动）
+     * KEYS[1]=重建中的排行；ARGV 依次为 appId、分数
+     */
+    private static final RedisScript<Long> ADD_SNAPSHOT_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV, 2 do
+              redis.call('ZINCRBY', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 完成重建：替换排行并将 epoch 前移到快照时间
+     * KEYS[1]=重建中的排行 KEYS[2]=排行 KEYS[3]=epoch KEYS[4]=重建快照时间；ARGV[1]=快照时间
+     */
+    private static final RedisScript<Long> FINISH_REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[4]) ~= ARGV[1] then
+              return 0
+            end
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+              redis.call('RENAME', KEYS[1], KEYS[2])
+            else
+              redis.call('DEL', KEYS[2])
+            end
+            redis.call('SET', KEYS[3], ARGV[1])
+            redis.call('DEL', KEYS[4])
+            return 1
+            """, Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private SocialRedisHelper socialRedisHelper;
+
+    @Resource
+    private AppHotStatMapper appHotStatMapper;
+
+    /**
+     * 热度半衰期（小时）
+     */
+    @Value("${app-hot-stat.ranking.half-life-hours:72}")
+    private double halfLifeHours = 72;
+
+    /**
+     * 从数据库重建排行的间隔（小时）
+     */
+    @Value("${app-hot-stat.ranking.rebuild-interval-hours:24}")
+    private long rebuildIntervalHours = 24;
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    @PostConstruct
+    public void init() {
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("app-hot-rank-rebuilder")
+                .daemon(true)
+                .factory());
+        rebuildExecutor.scheduleWithFixedDelay(this::rebuildIfStale, 0, REBUILD_CHECK_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 记录一次互动对热度的影响
+     *
+     * @param appId      产物id
+     * @param field      计数字段（likeCount/shareCount/favoriteCount/commentCount）
+     * @param sign       1=新增互动，-1=撤销互动（如取消点赞）
+     * @param occurredAt 互动发生时间；撤销时传入原互动时间，扣除的正是当初计入的热度
+     */
+    public void record(Long appId, String field, int sign, LocalDateTime occurredAt) {
+        Double weight = FIELD_WEIGHTS.get(field);
+        if (weight == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long occurredAtMillis = occurredAt == null ? now : toMillis(occurredAt);
+        stringRedisTemplate.execute(RECORD_SCRIPT, List.of(RANK_KEY, EPOCH_KEY, REBUILD_RANK_KEY, REBUILD_SINCE_KEY),
+                String.valueOf(appId), String.valueOf(sign * weight), String.valueOf(occurredAtMillis),
+                String.valueOf(halfLifeMillis()), String.valueOf(now), String.valueOf(MIN_SCORE));
+    }
+
+    /**
+     * 按热度降序获取一段排行
+     *
+     * @param offset 起始位置（从0开始）
+     * @param count  数量
+     * @return 产物id列表
+     */
+    public List<Long> listTop(long offset, long count) {
+        List<Long> appIds = new ArrayList<>();
+        if (count <= 0) {
+            return appIds;
+        }
+        Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(RANK_KEY, offset, offset + count - 1);
+        if (members != null) {
+            members.forEach(member -> appIds.add(Long.parseLong(member)));
+        }
+        return appIds;
+    }
+
+    /**
+     * 按热度降序获取一段排行及分数（分数只用于比较，不同 epoch 下的分数相差一个固定倍数）
+     */
+    public Map<Long, Double> listTopWithScores(long offset, long count) {
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        if (count <= 0) {
+            return scores;
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(RANK_KEY, offset, offset + count - 1);
+        if (tuples != null) {
+            tuples.forEach(tuple -> scores.put(Long.parseLong(tuple.getValue()), tuple.getScore()));
+        }
+        return scores;
+    }
+
+    /**
+     * 排行中的产物数
+     */
+    public long size() {
+        Long size = stringRedisTemplate.opsForZSet().zCard(RANK_KEY);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 从数据库的互动记录重建排行
+     * 快照时间之前的互动由数据库聚合计算，之后的互动由 record 同时计入新排行，完成后原子替换
+     *
+     * @return 是否完成重建（其他节点正在重建时返回 false）
+     */
+    public boolean rebuild() {
+        String lockKey = SocialRedisHelper.hotRankRebuildLockKey();
+        if (!socialRedisHelper.tryLock(lockKey, TimeUnit.MILLISECONDS.toSeconds(REBUILD_MARKER_TTL_MILLIS))) {
+            return false;
+        }
+        try {
+            // 快照时间取下一个整秒（数据库时间精度为秒），边界两侧的互动各计入一次：
+            // 数据库聚合 createTime < since 的互动，按秒取整后 >= since 的互动由 record 计入新排行；
+            // 等到快照时间之后再查询数据库，开始重建到快照时间之间的互动已写入数据库
+            long sinceEpochMillis = (System.currentTimeMillis() / 1000 + 1) * 1000;
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(sinceEpochMillis), ZoneId.systemDefault());
+            String sinceMillis = String.valueOf(sinceEpochMillis);
+            stringRedisTemplate.execute(BEGIN_REBUILD_SCRIPT, List.of(REBUILD_RANK_KEY, REBUILD_SINCE_KEY),
+                    sinceMillis, String.valueOf(REBUILD_MARKER_TTL_MILLIS));
+            if (!sleepUntil(sinceEpochMillis)) {
+                log.warn("【热门排行】等待快照时间时被中断，放弃本次重建");
+                return false;
+            }
+
+            double decayBase = Math.pow(2, 1000.0 / halfLifeMillis());
+            List<Row> rows = appHotStatMapper.selectDecayedScores(since, decayBase,
+                    FIELD_WEIGHTS.get("likeCount"), FIELD_WEIGHTS.get("favoriteCount"),
+                    FIELD_WEIGHTS.get("shareCount"), FIELD_WEIGHTS.get("commentCount"));
+            List<String> args = new ArrayList<>();
+            for (Row row : rows) {
+                // 不同数据库返回的列名大小写不同
+                double score = ((Number) row.getIgnoreCase("score")).doubleValue();
+                if (score >= MIN_SCORE) {
+                    args.add(String.valueOf(row.getIgnoreCase("appId")));
+                    args.add(String.valueOf(score));
+                }
+                if (args.size() >= REBUILD_CHUNK_SIZE * 2) {
+                    stringRedisTemplate.execute(ADD_SNAPSHOT_SCRIPT, List.of(REBUILD_RANK_KEY), args.toArray());
+                    args.clear();
+                }
+            }
+            if (!args.isEmpty()) {
+                stringRedisTemplate.execute(ADD_SNAPSHOT_SCRIPT, List.of(REBUILD_RANK_KEY), args.toArray());
+            }
+
+            Long finished = stringRedisTemplate.execute(FINISH_REBUILD_SCRIPT,
+                    List.of(REBUILD_RANK_KEY, RANK_KEY, EPOCH_KEY, REBUILD_SINCE_KEY), sinceMillis);
+            if (finished == null || finished == 0) {
+                log.warn("【热门排行】重建标记已失效，放弃本次重建");
+                return false;
+            }
+            log.info("【热门排行】已从数据库重建，共 {} 个产物", rows.size());
+            return true;
+        } finally {
+            socialRedisHelper.releaseLock(lockKey);
+        }
+    }
+
+    /**
+     * 排行不存在或距上次重建超过重建间隔时重建
+     */
+    private void rebuildIfStale() {
+        try {
+            String epoch = stringRedisTemplate.opsForValue().get(EPOCH_KEY);
+            boolean stale = epoch == null || Boolean.FALSE.equals(stringRedisTemplate.hasKey(RANK_KEY))
+                    || System.currentTimeMillis() - Long.parseLong(epoch) >= TimeUnit.HOURS.toMillis(rebuildIntervalHours);
+            if (stale) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("【热门排行】重建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 等待到指定时间
+     *
+     * @return 是否等到（被中断时返回 false）
+     */
+    private static boolean sleepUntil(long epochMillis) {
+        long waitMillis = epochMillis - System.currentTimeMillis();
+        if (waitMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(waitMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long halfLifeMillis() {
+        return (long) (halfLifeHours * TimeUnit.HOURS.toMillis(1));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
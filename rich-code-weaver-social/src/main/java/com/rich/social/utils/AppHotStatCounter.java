@@ -0,0 +1,362 @@
+package com.rich.social.utils;
+
+import com.mybatisflex.core.row.Db;
+import com.rich.social.mapper.AppHotStatMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产物热点统计计数器（write-behind）
+ * 点赞、转发、收藏、评论的增减先累加到 Redis，由后台线程定时聚合后批量写入 app_hot_stat，
+ * 热门产物的计数不再每次操作都竞争同一行数据库记录。
+ * 1. 增减：HINCRBY 累加到 social:hotStat:delta:{appId}，并将 appId 记入待刷盘集合；
+ * 2. 刷盘：将增量哈希原子改名为 social:hotStat:flushing:{appId} 并分配随机批次 ID，
+ * 按批次 ID 幂等地写入数据库（INSERT ... ON DUPLICATE KEY UPDATE，记录 lastFlushId），写入成功后删除；
+ * 3. 崩溃恢复：写库前后崩溃遗留的 flushing 哈希在租约到期后由任意节点重新提交，
+ * 已写入的批次因 lastFlushId 相同被跳过，计数不会丢失也不会重复；
+ * 4. 读取：数据库中的值加上尚未刷盘的增量（flushing 批次已写入数据库时不重复累加）
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ **/
+@Slf4j
+@Component
+public class AppHotStatCounter {
+
+    /**
+     * 可计数的字段（同时作为数据库列名）
+     */
+    public static final List<String> FIELDS = List.of("likeCount", "shareCount", "favoriteCount", "commentCount");
+
+    private static final String DIRTY_KEY = "social:hotStat:dirty";
+
+    private static final String FLUSH_ID_FIELD = "_id";
+
+    /**
+     * 累加增量并标记待刷盘
+     * KEYS[1]=增量哈希 KEYS[2]=待刷盘集合；ARGV[1]=字段 ARGV[2]=增量 ARGV[3]=appId
+     */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('SADD', KEYS[2], ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * 领取待刷盘批次：存在未完成的批次时（租约已过期）重新领取，否则将增量哈希改名为新批次
+     * KEYS[1]=增量哈希 KEYS[2]=批次哈希；ARGV[1]=新批次 ID ARGV[2]=当前时间 ARGV[3]=租约到期时间
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+              local lease = tonumber(redis.call('HGET', KEYS[2], '_lease') or '0')
+              if lease > tonumber(ARGV[2]) then
+                return {}
+              end
+              redis.call('HSET', KEYS[2], '_lease', ARGV[3])
+              return redis.call('HGETALL', KEYS[2])
+            end
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              return {}
+            end
+            redis.call('RENAME', KEYS[1], KEYS[2])
+            redis.call('HSET', KEYS[2], '_id', ARGV[1])
+            redis.call('HSET', KEYS[2], '_lease', ARGV[3])
+            return redis.call('HGETALL', KEYS[2])
+            """, List.class);
+
+    /**
+     * 确认批次已写入数据库：删除批次哈希，没有新增量时移出待刷盘集合
+     * KEYS[1]=批次哈希 KEYS[2]=增量哈希 KEYS[3]=待刷盘集合；ARGV[1]=批次 ID ARGV[2]=appId
+     */
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HGET', KEYS[1], '_id') == ARGV[1] then
+              redis.call('DEL', KEYS[1])
+            end
+            if redis.call('EXISTS', KEYS[1]) == 0 and redis.call('EXISTS', KEYS[2]) == 0 then
+              redis.call('SREM', KEYS[3], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 读取多个产物的增量与进行中的批次，字段名前缀为 {序号}:d: / {序号}:f:
+     * KEYS[2i-1]=增量哈希 KEYS[2i]=批次哈希
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SCRIPT = new DefaultRedisScript<>("""
+            local result = {}
+            for i = 1, #KEYS, 2 do
+              local index = tostring((i + 1) / 2)
+              local delta = redis.call('HGETALL', KEYS[i])
+              for j = 1, #delta, 2 do
+                table.insert(result, index .. ':d:' .. delta[j])
+                table.insert(result, delta[j + 1])
+              end
+              local flushing = redis.call('HGETALL', KEYS[i + 1])
+              for j = 1, #flushing, 2 do
+                table.insert(result, index .. ':f:' .. flushing[j])
+                table.insert(result, flushing[j + 1])
+              end
+            end
+            return result
+            """, List.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 刷盘间隔（毫秒）
+     */
+    @Value("${app-hot-stat.write-behind.flush-interval-millis:1000}")
+    private long flushIntervalMillis = 1000;
+
+    /**
+     * 单批写入数据库的产物数
+     */
+    @Value("${app-hot-stat.write-behind.batch-size:200}")
+    private int batchSize = 200;
+
+    /**
+     * 批次租约（毫秒）：领取后超过该时间未确认的批次视为节点崩溃遗留，可被重新领取
+     */
+    @Value("${app-hot-stat.write-behind.claim-lease-millis:30000}")
+    private long claimLeaseMillis = 30000;
+
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void init() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("app-hot-stat-flusher")
+                .daemon(true)
+                .factory());
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 应用关闭：停止定时刷盘，写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            try {
+                flushExecutor.awaitTermination(flushIntervalMillis * 10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+    }
+
+    /**
+     * 累加计数增量
+     *
+     * @param appId 产物id
+     * @param field 字段名（likeCount/shareCount/favoriteCount/commentCount）
+     * @param delta 增量（可为负数）
+     */
+    public void increment(Long appId, String field, long delta) {
+        stringRedisTemplate.execute(INCREMENT_SCRIPT, List.of(deltaKey(appId), DIRTY_KEY),
+                field, String.valueOf(delta), String.valueOf(appId));
+    }
+
+    /**
+     * 读取尚未写入数据库的计数
+     *
+     * @param appIds 产物id集合
+     * @return appId -> 待刷盘计数（没有待刷盘计数的产物不包含在内）
+     */
+    public Map<Long, PendingCounts> readPending(Collection<Long> appIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(appIds));
+        Map<Long, PendingCounts> pendingMap = new HashMap<>();
+        if (ids.isEmpty()) {
+            return pendingMap;
+        }
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        for (Long appId : ids) {
+            keys.add(deltaKey(appId));
+            keys.add(flushingKey(appId));
+        }
+        List<Object> result = stringRedisTemplate.execute(READ_SCRIPT, keys);
+        List<String> entries = toStringList(result);
+        Map<Long, Map<String, Long>> deltaMap = new HashMap<>();
+        Map<Long, Map<String, Long>> flushingMap = new HashMap<>();
+        for (int i = 0; i + 1 < entries.size(); i += 2) {
+            String[] parts = entries.get(i).split(":", 3);
+            Long appId = ids.get(Integer.parseInt(parts[0]) - 1);
+            Map<Long, Map<String, Long>> target = "d".equals(parts[1]) ? deltaMap : flushingMap;
+            target.computeIfAbsent(appId, id -> new HashMap<>()).put(parts[2], Long.parseLong(entries.get(i + 1)));
+        }
+        for (Long appId : ids) {
+            Map<String, Long> delta = deltaMap.getOrDefault(appId, Map.of());
+            Map<String, Long> flushing = flushingMap.getOrDefault(appId, Map.of());
+            if (!delta.isEmpty() || !flushing.isEmpty()) {
+                pendingMap.put(appId, new PendingCounts(delta, flushing.getOrDefault(FLUSH_ID_FIELD, 0L), flushing));
+            }
+        }
+        return pendingMap;
+    }
+
+    /**
+     * 将待刷盘集合中的全部增量写入数据库
+     * 同一节点同一时间只有一个刷盘过程；多节点之间由批次租约避免重复领取
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Long> appIds = new ArrayList<>();
+            try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                    .scan(DIRTY_KEY, ScanOptions.scanOptions().count(batchSize).build())) {
+                cursor.forEachRemaining(appId -> appIds.add(Long.parseLong(appId)));
+            }
+            for (int from = 0; from < appIds.size(); from += batchSize) {
+                List<PendingFlush> batch = new ArrayList<>();
+                for (Long appId : appIds.subList(from, Math.min(from + batchSize, appIds.size()))) {
+                    PendingFlush pendingFlush = claim(appId);
+                    if (pendingFlush != null) {
+                        batch.add(pendingFlush);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                apply(batch);
+                batch.forEach(this::ack);
+                log.debug("【热点统计】批量写入 {} 个产物的计数", batch.size());
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // 未确认的批次在租约到期后重新提交
+            log.error("【热点统计】计数刷盘失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 领取产物的待刷盘批次
+     *
+     * @return 批次；没有增量或批次正由其他节点处理时返回 null
+     */
+    PendingFlush claim(Long appId) {
+        long now = System.currentTimeMillis();
+        long newFlushId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        List<Object> result = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(deltaKey(appId), flushingKey(appId)),
+                String.valueOf(newFlushId), String.valueOf(now), String.valueOf(now + claimLeaseMillis));
+        List<String> entries = toStringList(result);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        long flushId = 0;
+        Map<String, Long> deltas = new HashMap<>();
+        for (int i = 0; i + 1 < entries.size(); i += 2) {
+            String field = entries.get(i);
+            if (FLUSH_ID_FIELD.equals(field)) {
+                flushId = Long.parseLong(entries.get(i + 1));
+            } else if (FIELDS.contains(field)) {
+                deltas.put(field, Long.parseLong(entries.get(i + 1)));
+            }
+        }
+        return new PendingFlush(appId, flushId, deltas);
+    }
+
+    /**
+     * 按批次 ID 幂等地批量写入数据库
+     */
+    void apply(List<PendingFlush> batch) {
+        Db.executeBatch(batch, AppHotStatMapper.class, (mapper, pendingFlush) -> mapper.upsertDelta(
+                pendingFlush.appId(),
+                pendingFlush.delta("likeCount"),
+                pendingFlush.delta("shareCount"),
+                pendingFlush.delta("favoriteCount"),
+                pendingFlush.delta("commentCount"),
+                pendingFlush.flushId()));
+    }
+
+    void ack(PendingFlush pendingFlush) {
+        Long appId = pendingFlush.appId();
+        stringRedisTemplate.execute(ACK_SCRIPT, List.of(flushingKey(appId), deltaKey(appId), DIRTY_KEY),
+                String.valueOf(pendingFlush.flushId()), String.valueOf(appId));
+    }
+
+    /**
+     * 脚本返回空表时部分客户端会解析为空 Map，统一转换为字符串列表
+     */
+    private static List<String> toStringList(Object result) {
+        List<String> entries = new ArrayList<>();
+        if (result instanceof List<?> list) {
+            list.forEach(item -> entries.add(String.valueOf(item)));
+        }
+        return entries;
+    }
+
+    private static String deltaKey(Long appId) {
+        return "social:hotStat:delta:" + appId;
+    }
+
+    private static String flushingKey(Long appId) {
+        return "social:hotStat:flushing:" + appId;
+    }
+
+    /**
+     * 待写入数据库的批次
+     */
+    record PendingFlush(Long appId, long flushId, Map<String, Long> deltas) {
+
+        long delta(String field) {
+            return deltas.getOrDefault(field, 0L);
+        }
+    }
+
+    /**
+     * 尚未写入数据库的计数
+     *
+     * @param delta    尚未领取的增量
+     * @param flushId  已领取批次的 ID（0 表示没有进行中的批次）
+     * @param flushing 已领取、可能尚未写入数据库的批次
+     */
+    public record PendingCounts(Map<String, Long> delta, long flushId, Map<String, Long> flushing) {
+
+        /**
+         * 获取字段的待刷盘计数
+         *
+         * @param field          字段名
+         * @param appliedFlushId 数据库中记录的最近一次写入批次 ID
+         * @return 待刷盘计数
+         */
+        public long get(String field, Long appliedFlushId) {
+            long pending = delta.getOrDefault(field, 0L);
+            if (flushId != 0 && (appliedFlushId == null || flushId != appliedFlushId)) {
+                pending += flushing.getOrDefault(field, 0L);
+            }
+            return pending;
+        }
+    }
+}
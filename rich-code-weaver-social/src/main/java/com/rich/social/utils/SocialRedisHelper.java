@@ -85,14 +85,13 @@ public class SocialRedisHelper {
     }
 
     /**
-     * 生成热点统计初始化锁key
-     * 格式: social:lock:hotStatInit:{appId}
+     * 生成热门排行重建锁key
+     * 格式: social:lock:hotRankRebuild
      *
-     * @param appId 产物id
      * @return 锁key
      */
-    public static String hotStatInitLockKey(Long appId) {
-        return "social:lock:hotStatInit:" + appId;
+    public static String hotRankRebuildLockKey() {
+        return "social:lock:hotRankRebuild";
     }
 
     /**
@@ -104,8 +103,20 @@ public class SocialRedisHelper {
      * @return true=获取锁成功, false=锁已被占用
      */
     public boolean tryLock(String lockKey) {
+        return tryLock(lockKey, LOCK_EXPIRE_SECONDS);
+    }
+
+    /**
+     * 获取分布式锁（非阻塞，指定过期时间）
+     * 适用于持有时间较长的操作（如重建排行）
+     *
+     * @param lockKey       锁的key
+     * @param expireSeconds 过期时间（秒）
+     * @return true=获取锁成功, false=锁已被占用
+     */
+    public boolean tryLock(String lockKey, long expireSeconds) {
         Boolean result = stringRedisTemplate.opsForValue()
-                .setIfAbsent(lockKey, "1", LOCK_EXPIRE_SECONDS, TimeUnit.SECONDS);
+                .setIfAbsent(lockKey, "1", expireSeconds, TimeUnit.SECONDS);
         return Boolean.TRUE.equals(result);
     }
 
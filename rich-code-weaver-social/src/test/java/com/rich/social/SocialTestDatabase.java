@@ -0,0 +1,186 @@
+package com.rich.social;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.rich.social.mapper.AppHotStatMapper;
+import com.rich.social.mapper.CommunityPostLikeMapper;
+import com.rich.social.mapper.CommunityPostMapper;
+import com.rich.social.mapper.CommunityReplyLikeMapper;
+import com.rich.social.mapper.CommunityReplyMapper;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 社区模块测试数据库
+ * H2（MySQL 兼容模式）内存库与 MyBatis-Flex 在同一 JVM 中只初始化一次，各测试类共用；
+ * 数据源会统计执行的 SQL 语句数
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public final class SocialTestDatabase {
+
+    /**
+     * 已执行的 SQL 语句数
+     */
+    public static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    private static JdbcDataSource dataSource;
+
+    private static MybatisFlexBootstrap bootstrap;
+
+    private SocialTestDatabase() {
+    }
+
+    /**
+     * 初始化数据库（仅首次调用时建表）
+     */
+    public static synchronized void start() throws Exception {
+        if (bootstrap != null) {
+            return;
+        }
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:social;MODE=MySQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE community_post (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      title varchar(200) NOT NULL,
+                      content text NOT NULL,
+                      category varchar(32) NOT NULL DEFAULT 'discuss',
+                      userId bigint NOT NULL,
+                      viewCount int NOT NULL DEFAULT 0,
+                      likeCount int NOT NULL DEFAULT 0,
+                      replyCount int NOT NULL DEFAULT 0,
+                      isTop tinyint NOT NULL DEFAULT 0,
+                      createTime datetime NOT NULL,
+                      updateTime datetime NOT NULL,
+                      isDelete tinyint NOT NULL DEFAULT 0
+                    )""");
+            statement.execute("""
+                    CREATE TABLE community_post_like (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      postId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )""");
+            statement.execute("""
+                    CREATE TABLE community_reply (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      postId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      content text NOT NULL,
+                      likeCount int NOT NULL DEFAULT 0,
+                      createTime datetime NOT NULL,
+                      updateTime datetime NOT NULL,
+                      isDelete tinyint NOT NULL DEFAULT 0
+                    )""");
+            statement.execute("""
+                    CREATE TABLE community_reply_like (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      replyId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )""");
+            statement.execute("""
+                    CREATE TABLE app_hot_stat (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      appId bigint NOT NULL,
+                      likeCount int NOT NULL DEFAULT 0,
+                      shareCount int NOT NULL DEFAULT 0,
+                      favoriteCount int NOT NULL DEFAULT 0,
+                      commentCount int NOT NULL DEFAULT 0,
+                      lastFlushId bigint NOT NULL DEFAULT 0,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                      updateTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                      CONSTRAINT uk_appId UNIQUE (appId)
+                    )""");
+            statement.execute("""
+                    CREATE TABLE app_like (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      appId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )""");
+            statement.execute("""
+                    CREATE TABLE app_favorite (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      appId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )""");
+            statement.execute("""
+                    CREATE TABLE app_share (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      appId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )""");
+            statement.execute("""
+                    CREATE TABLE app_comment (
+                      id bigint AUTO_INCREMENT PRIMARY KEY,
+                      appId bigint NOT NULL,
+                      userId bigint NOT NULL,
+                      content varchar(500) NOT NULL,
+                      likeCount int NOT NULL DEFAULT 0,
+                      createTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                      updateTime datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                      isDelete tinyint NOT NULL DEFAULT 0
+                    )""");
+        }
+        bootstrap = MybatisFlexBootstrap.getInstance()
+                .setDataSource(countingDataSource(dataSource))
+                .addMapper(CommunityPostMapper.class)
+                .addMapper(CommunityPostLikeMapper.class)
+                .addMapper(CommunityReplyMapper.class)
+                .addMapper(CommunityReplyLikeMapper.class)
+                .addMapper(AppHotStatMapper.class)
+                .start();
+    }
+
+    /**
+     * 不经过统计的原始数据源，用于准备测试数据
+     */
+    public static DataSource dataSource() {
+        return dataSource;
+    }
+
+    public static <M> M getMapper(Class<M> mapperClass) {
+        return bootstrap.getMapper(mapperClass);
+    }
+
+    /**
+     * 统计 SQL 执行次数的数据源
+     */
+    private static DataSource countingDataSource(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Connection connection) {
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                                (connectionProxy, connectionMethod, connectionArgs) -> {
+                                    if (connectionMethod.getName().startsWith("prepare")
+                                            || connectionMethod.getName().equals("createStatement")) {
+                                        STATEMENTS.incrementAndGet();
+                                    }
+                                    return invoke(connection, connectionMethod, connectionArgs);
+                                });
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.rich.social.service.impl;
+
+import com.mybatisflex.core.paginate.Page;
+import com.rich.client.innerService.InnerUserService;
+import com.rich.model.vo.CommunityPostVO;
+import com.rich.model.vo.CommunityReplyVO;
+import com.rich.model.vo.UserVO;
+import com.rich.social.SocialTestDatabase;
+import com.rich.social.mapper.CommunityPostLikeMapper;
+import com.rich.social.mapper.CommunityPostMapper;
+import com.rich.social.mapper.CommunityReplyLikeMapper;
+import com.rich.social.mapper.CommunityReplyMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 社区帖子列表组装测试
+ * 在 H2（MySQL 兼容模式）中生成帖子、回复与点赞数据，统计每页的 SQL 执行次数与用户服务调用次数，
+ * 并与逐帖查询（hasLiked / listLatestReplies）的结果对比
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class CommunityPostServiceImplListTest {
+
+    private static final long CURRENT_USER_ID = 7L;
+
+    private static final int POST_COUNT = 60;
+
+    private static final int USER_COUNT = 12;
+
+    /**
+     * 用户服务（远程调用）调用次数
+     */
+    private static final AtomicInteger USER_CALLS = new AtomicInteger();
+
+    private static CommunityPostServiceImpl communityPostService;
+
+    private static CommunityPostLikeServiceImpl communityPostLikeService;
+
+    private static CommunityReplyServiceImpl communityReplyService;
+
+    @BeforeAll
+    public static void setUpDatabase() throws Exception {
+        SocialTestDatabase.start();
+        generateData(SocialTestDatabase.dataSource());
+
+        communityPostLikeService = new CommunityPostLikeServiceImpl();
+        ReflectionTestUtils.setField(communityPostLikeService, "mapper", SocialTestDatabase.getMapper(CommunityPostLikeMapper.class));
+        CommunityReplyLikeServiceImpl communityReplyLikeService = new CommunityReplyLikeServiceImpl();
+        ReflectionTestUtils.setField(communityReplyLikeService, "mapper", SocialTestDatabase.getMapper(CommunityReplyLikeMapper.class));
+        InnerUserService innerUserService = fakeInnerUserService();
+
+        communityReplyService = new CommunityReplyServiceImpl();
+        ReflectionTestUtils.setField(communityReplyService, "mapper", SocialTestDatabase.getMapper(CommunityReplyMapper.class));
+        ReflectionTestUtils.setField(communityReplyService, "communityReplyLikeService", communityReplyLikeService);
+        ReflectionTestUtils.setField(communityReplyService, "innerUserService", innerUserService);
+
+        communityPostService = new CommunityPostServiceImpl();
+        ReflectionTestUtils.setField(communityPostService, "mapper", SocialTestDatabase.getMapper(CommunityPostMapper.class));
+        ReflectionTestUtils.setField(communityPostService, "communityPostLikeService", communityPostLikeService);
+        ReflectionTestUtils.setField(communityPostService, "communityReplyService", communityReplyService);
+        ReflectionTestUtils.setField(communityPostService, "communityReplyLikeService", communityReplyLikeService);
+        ReflectionTestUtils.setField(communityPostService, "innerUserService", innerUserService);
+    }
+
+    @BeforeEach
+    public void resetCounters() {
+        SocialTestDatabase.STATEMENTS.set(0);
+        USER_CALLS.set(0);
+    }
+
+    /**
+     * 每页的 SQL 次数与用户服务调用次数固定，与每页帖子数无关
+     */
+    @Test
+    public void testQueriesPerPageAreConstant() {
+        for (int pageSize : new int[]{5, 10, 20, 50}) {
+            resetCounters();
+            Page<CommunityPostVO> page = communityPostService.listPostByPage(null, null, null, null,
+                    CURRENT_USER_ID, 1, pageSize);
+            assertEquals(pageSize, page.getRecords().size());
+            // 分页（计数 + 查询）、最新回复、帖子点赞状态、回复点赞状态
+            assertEquals(5, SocialTestDatabase.STATEMENTS.get(), "statements for page size " + pageSize);
+            // 帖子作者与回复作者合并为一次调用
+            assertEquals(1, USER_CALLS.get(), "user calls for page size " + pageSize);
+        }
+
+        // 未登录时不查询点赞状态
+        resetCounters();
+        communityPostService.listPostByPage(null, null, null, null, null, 1, 20);
+        assertEquals(3, SocialTestDatabase.STATEMENTS.get());
+        assertEquals(1, USER_CALLS.get());
+
+        // 详情页不查询最新回复
+        resetCounters();
+        communityPostService.getPostVO(1L, CURRENT_USER_ID);
+        assertEquals(2, SocialTestDatabase.STATEMENTS.get());
+        assertEquals(1, USER_CALLS.get());
+    }
+
+    /**
+     * 批量组装的结果与逐帖查询一致：作者、点赞状态、最新两条回复及其作者与点赞状态
+     */
+    @Test
+    public void testBatchAssemblyMatchesPerPostLookups() {
+        for (Long userId : new Long[]{CURRENT_USER_ID, 3L, null}) {
+            for (long pageNum = 1; pageNum <= 4; pageNum++) {
+                Page<CommunityPostVO> page = communityPostService.listPostByPage(null, null, "replies", "descend",
+                        userId, pageNum, 20);
+                for (CommunityPostVO post : page.getRecords()) {
+                    assertEquals(post.getUserId(), post.getUser().getId());
+                    assertEquals(communityPostLikeService.hasLiked(post.getId(), userId), post.getHasLiked());
+
+                    List<CommunityReplyVO> expected = communityReplyService.listLatestReplies(post.getId(), userId, 2);
+                    List<CommunityReplyVO> actual = post.getLatestReplies();
+                    assertEquals(expected.stream().map(CommunityReplyVO::getId).toList(),
+                            actual.stream().map(CommunityReplyVO::getId).toList(), "post " + post.getId());
+                    for (int i = 0; i < actual.size(); i++) {
+                        assertEquals(expected.get(i).getHasLiked(), actual.get(i).getHasLiked());
+                        assertEquals(actual.get(i).getUserId(), actual.get(i).getUser().getId());
+                        assertEquals(post.getId(), actual.get(i).getPostId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 帖子、回复（部分帖子无回复、部分回复已删除）与点赞数据
+     */
+    private static void generateData(DataSource dataSource) throws Exception {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2026, 4, 1, 0, 0);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement post = connection.prepareStatement(
+                     "INSERT INTO community_post (title, content, userId, replyCount, isTop, createTime, updateTime) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement reply = connection.prepareStatement(
+                     "INSERT INTO community_reply (postId, userId, content, createTime, updateTime, isDelete) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement postLike = connection.prepareStatement(
+                     "INSERT INTO community_post_like (postId, userId) VALUES (?, ?)");
+             PreparedStatement replyLike = connection.prepareStatement(
+                     "INSERT INTO community_reply_like (replyId, userId) VALUES (?, ?)")) {
+            long replyId = 0;
+            for (long postId = 1; postId <= POST_COUNT; postId++) {
+                int replies = (int) (postId % 6);
+                Timestamp createTime = Timestamp.valueOf(base.plusHours(postId));
+                post.setString(1, "帖子 " + postId);
+                post.setString(2, "内容 " + postId);
+                post.setLong(3, 1 + random.nextInt(USER_COUNT));
+                post.setInt(4, replies);
+                post.setInt(5, postId % 17 == 0 ? 1 : 0);
+                post.setTimestamp(6, createTime);
+                post.setTimestamp(7, createTime);
+                post.executeUpdate();
+                for (long userId = 1; userId <= USER_COUNT; userId++) {
+                    if (random.nextInt(3) == 0) {
+                        postLike.setLong(1, postId);
+                        postLike.setLong(2, userId);
+                        postLike.executeUpdate();
+                    }
+                }
+                for (int i = 0; i < replies; i++) {
+                    replyId++;
+                    // 部分回复创建时间相同，按 ID 区分先后
+                    Timestamp replyTime = Timestamp.valueOf(base.plusDays(5).plusMinutes(postId * 10 + i / 2));
+                    reply.setLong(1, postId);
+                    reply.setLong(2, 1 + random.nextInt(USER_COUNT));
+                    reply.setString(3, "回复 " + replyId);
+                    reply.setTimestamp(4, replyTime);
+                    reply.setTimestamp(5, replyTime);
+                    reply.setInt(6, random.nextInt(5) == 0 ? 1 : 0);
+                    reply.executeUpdate();
+                    for (long userId = 1; userId <= USER_COUNT; userId++) {
+                        if (random.nextInt(3) == 0) {
+                            replyLike.setLong(1, replyId);
+                            replyLike.setLong(2, userId);
+                            replyLike.executeUpdate();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 用户服务：只实现批量接口，逐条接口被调用时直接失败
+     */
+    @SuppressWarnings("unchecked")
+    private static InnerUserService fakeInnerUserService() {
+        return (InnerUserService) Proxy.newProxyInstance(InnerUserService.class.getClassLoader(),
+                new Class<?>[]{InnerUserService.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUserVOMapByIds" -> {
+                        USER_CALLS.incrementAndGet();
+                        Map<Long, UserVO> userVOMap = new HashMap<>();
+                        for (Long id : (Collection<Long>) args[0]) {
+                            UserVO userVO = new UserVO();
+                            userVO.setId(id);
+                            userVO.setUserName("用户 " + id);
+                            userVOMap.put(id, userVO);
+                        }
+                        yield userVOMap;
+                    }
+                    case "toString" -> "fakeInnerUserService";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,289 @@
+package com.rich.social.utils;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.mybatisflex.core.paginate.Page;
+import com.rich.model.entity.AppHotStat;
+import com.rich.social.SocialTestDatabase;
+import com.rich.social.mapper.AppHotStatMapper;
+import com.rich.social.service.impl.AppHotStatServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 产物热门排行测试
+ * 使用 jedis-mock（进程内 Redis 服务端）与 H2（MySQL 兼容模式）生成随机互动，
+ * 将增量维护与从数据库重建得到的排行与直接按定义计算的参考热度对比
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class AppHotRankingTest {
+
+    private static final int APPS = 20;
+
+    private static final double HALF_LIFE_HOURS = 6;
+
+    private static final Map<String, String> FIELD_TABLES = Map.of(
+            "likeCount", "app_like",
+            "favoriteCount", "app_favorite",
+            "shareCount", "app_share",
+            "commentCount", "app_comment");
+
+    private RedisServer redisServer;
+
+    private JedisConnectionFactory connectionFactory;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private AppHotRanking ranking;
+
+    /**
+     * 数据库中仍然有效的互动
+     */
+    private final List<Event> events = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(
+                new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        SocialTestDatabase.start();
+        try (Connection connection = SocialTestDatabase.dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM app_hot_stat");
+            for (String table : FIELD_TABLES.values()) {
+                statement.execute("DELETE FROM " + table);
+            }
+        }
+
+        SocialRedisHelper socialRedisHelper = new SocialRedisHelper();
+        ReflectionTestUtils.setField(socialRedisHelper, "stringRedisTemplate", stringRedisTemplate);
+        ranking = new AppHotRanking();
+        ReflectionTestUtils.setField(ranking, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(ranking, "socialRedisHelper", socialRedisHelper);
+        ReflectionTestUtils.setField(ranking, "appHotStatMapper", SocialTestDatabase.getMapper(AppHotStatMapper.class));
+        ReflectionTestUtils.setField(ranking, "halfLifeHours", HALF_LIFE_HOURS);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    /**
+     * 随机互动（含撤销）增量维护的排行、从数据库重建后的排行以及重建后继续增量维护的排行均与参考计算一致
+     */
+    @Test
+    public void testRankingMatchesReferenceComputation() throws Exception {
+        Random random = new Random(20);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<String> fields = List.copyOf(AppHotRanking.FIELD_WEIGHTS.keySet());
+        for (int i = 0; i < 600; i++) {
+            if (!events.isEmpty() && random.nextInt(10) == 0) {
+                // 撤销一次历史互动，按原互动时间扣除
+                Event removed = events.remove(random.nextInt(events.size()));
+                delete(removed);
+                ranking.record(removed.appId(), removed.field(), -1, removed.occurredAt());
+                continue;
+            }
+            Event event = new Event(1 + random.nextInt(APPS), fields.get(random.nextInt(fields.size())),
+                    now.minusSeconds(random.nextInt((int) TimeUnit.DAYS.toSeconds(2))));
+            insert(event);
+            events.add(event);
+            ranking.record(event.appId(), event.field(), 1, event.occurredAt());
+        }
+        assertMatchesReference();
+
+        assertTrue(ranking.rebuild());
+        assertMatchesReference();
+
+        // 重建后发生的互动继续按新的基准时间累加
+        LocalDateTime later = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        for (int i = 0; i < 50; i++) {
+            Event event = new Event(1 + random.nextInt(APPS), fields.get(random.nextInt(fields.size())),
+                    later.plusSeconds(random.nextInt(60)));
+            insert(event);
+            events.add(event);
+            ranking.record(event.appId(), event.field(), 1, event.occurredAt());
+        }
+        assertMatchesReference();
+    }
+
+    /**
+     * 少量近期互动排在大量早期互动之前；热门列表按排行顺序返回并合并待刷盘计数
+     */
+    @Test
+    public void testRecentInteractionsOutrankOldOnes() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        AppHotStatCounter counter = new AppHotStatCounter();
+        ReflectionTestUtils.setField(counter, "stringRedisTemplate", stringRedisTemplate);
+        for (int i = 0; i < 10; i++) {
+            Event old = new Event(1L, "likeCount", now.minusDays(3).plusMinutes(i));
+            insert(old);
+            ranking.record(old.appId(), old.field(), 1, old.occurredAt());
+            counter.increment(old.appId(), old.field(), 1);
+        }
+        AppHotStatServiceImpl service = new AppHotStatServiceImpl();
+        ReflectionTestUtils.setField(service, "mapper", SocialTestDatabase.getMapper(AppHotStatMapper.class));
+        ReflectionTestUtils.setField(service, "appHotStatCounter", counter);
+        ReflectionTestUtils.setField(service, "appHotRanking", ranking);
+        for (int i = 0; i < 2; i++) {
+            insert(new Event(2L, "likeCount", now));
+            service.incrementField(2L, "likeCount");
+        }
+
+        assertEquals(List.of(2L, 1L), ranking.listTop(0, 10));
+        Page<AppHotStat> page = service.listHotApps(1, 10);
+        assertEquals(2, page.getTotalRow());
+        assertEquals(List.of(2L, 1L), page.getRecords().stream().map(AppHotStat::getAppId).toList());
+        assertEquals(2, page.getRecords().get(0).getLikeCount());
+        assertEquals(10, page.getRecords().get(1).getLikeCount());
+        assertEquals(List.of(1L), service.listHotApps(2, 1).getRecords().stream().map(AppHotStat::getAppId).toList());
+
+        assertTrue(ranking.rebuild());
+        assertEquals(List.of(2L, 1L), ranking.listTop(0, 10));
+
+        // 撤销全部互动后产物移出排行
+        service.decrementField(2L, "likeCount", now);
+        service.decrementField(2L, "likeCount", now);
+        assertEquals(List.of(1L), ranking.listTop(0, 10));
+    }
+
+    /**
+     * 重建期间落在快照时间边界两侧的互动只计入一次：数据库记录的时间精度为秒，record 传入的是毫秒时间
+     */
+    @Test
+    public void testInteractionsAtRebuildBoundaryCountedOnce() {
+        AppHotStatMapper realMapper = SocialTestDatabase.getMapper(AppHotStatMapper.class);
+        AppHotStatMapper mapper = (AppHotStatMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{AppHotStatMapper.class}, (proxy, method, args) -> {
+                    if ("selectDecayedScores".equals(method.getName())) {
+                        LocalDateTime since = (LocalDateTime) args[0];
+                        // 快照时间所在的一秒内与前一秒内各发生一次互动（开始重建之后、查询数据库之前）
+                        interact(1L, since, since.plusNanos(TimeUnit.MILLISECONDS.toNanos(300)));
+                        interact(2L, since.minusSeconds(1), since.minusNanos(TimeUnit.MILLISECONDS.toNanos(300)));
+                    }
+                    try {
+                        return method.invoke(realMapper, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        ReflectionTestUtils.setField(ranking, "appHotStatMapper", mapper);
+
+        assertTrue(ranking.rebuild());
+        // 重建后 epoch 为快照时间，一次互动的分数约等于权重，重复计入时约为两倍
+        double weight = AppHotRanking.FIELD_WEIGHTS.get("likeCount");
+        Map<Long, Double> scores = ranking.listTopWithScores(0, APPS);
+        assertEquals(Set.of(1L, 2L), scores.keySet());
+        assertEquals(weight, scores.get(1L), weight * 1e-3);
+        assertEquals(weight, scores.get(2L), weight * 1e-3);
+    }
+
+    /**
+     * 排行顺序与参考热度一致，且排行分数与参考热度成固定比例（两者只相差基准时间带来的倍数）
+     */
+    private void assertMatchesReference() {
+        Map<Long, Double> reference = referenceScores();
+        List<Long> expectedOrder = reference.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()))
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Double> actual = ranking.listTopWithScores(0, APPS * 2);
+        assertEquals(expectedOrder, List.copyOf(actual.keySet()));
+        assertEquals(expectedOrder.size(), ranking.size());
+        assertEquals(expectedOrder.subList(5, 10), ranking.listTop(5, 5));
+
+        double ratio = actual.get(expectedOrder.get(0)) / reference.get(expectedOrder.get(0));
+        for (Long appId : expectedOrder) {
+            assertEquals(1.0, actual.get(appId) / reference.get(appId) / ratio, 1e-9, "app " + appId);
+        }
+    }
+
+    /**
+     * 按定义计算当前热度：每次有效互动贡献 权重 * 2^(-(当前时间 - 互动时间) / 半衰期)
+     */
+    private Map<Long, Double> referenceScores() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        double halfLifeSeconds = HALF_LIFE_HOURS * 3600;
+        Map<Long, Double> scores = new HashMap<>();
+        for (Event event : events) {
+            double age = ChronoUnit.MILLIS.between(event.occurredAt(), now) / 1000.0;
+            scores.merge(event.appId(), AppHotRanking.FIELD_WEIGHTS.get(event.field()) * Math.pow(2, -age / halfLifeSeconds),
+                    Double::sum);
+        }
+        return scores;
+    }
+
+    private void insert(Event event) throws Exception {
+        String table = FIELD_TABLES.get(event.field());
+        String sql = "app_comment".equals(table)
+                ? "INSERT INTO app_comment (appId, userId, content, createTime, updateTime) VALUES (?, 1, 'comment', ?, ?)"
+                : "INSERT INTO " + table + " (appId, userId, createTime) VALUES (?, 1, ?)";
+        try (Connection connection = SocialTestDatabase.dataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, event.appId());
+            statement.setTimestamp(2, Timestamp.valueOf(event.occurredAt()));
+            if ("app_comment".equals(table)) {
+                statement.setTimestamp(3, Timestamp.valueOf(event.occurredAt()));
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * 发生一次点赞：数据库记录整秒时间，排行按毫秒时间记录
+     */
+    private void interact(long appId, LocalDateTime storedAt, LocalDateTime occurredAt) throws Exception {
+        insert(new Event(appId, "likeCount", storedAt));
+        ranking.record(appId, "likeCount", 1, occurredAt);
+    }
+
+    /**
+     * 删除一条互动记录（评论为逻辑删除）
+     */
+    private void delete(Event event) throws Exception {
+        String table = FIELD_TABLES.get(event.field());
+        String sql = "app_comment".equals(table)
+                ? "UPDATE app_comment SET isDelete = 1 WHERE id = (SELECT MIN(id) FROM app_comment WHERE appId = ? AND createTime = ? AND isDelete = 0)"
+                : "DELETE FROM " + table + " WHERE id = (SELECT MIN(id) FROM " + table + " WHERE appId = ? AND createTime = ?)";
+        try (Connection connection = SocialTestDatabase.dataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, event.appId());
+            statement.setTimestamp(2, Timestamp.valueOf(event.occurredAt()));
+            assertEquals(1, statement.executeUpdate());
+        }
+    }
+
+    private record Event(long appId, String field, LocalDateTime occurredAt) {
+    }
+}
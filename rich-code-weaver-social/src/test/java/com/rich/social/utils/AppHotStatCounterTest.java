@@ -0,0 +1,261 @@
+package com.rich.social.utils;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.rich.model.entity.AppHotStat;
+import com.rich.model.vo.AppHotStatVO;
+import com.rich.social.SocialTestDatabase;
+import com.rich.social.mapper.AppHotStatMapper;
+import com.rich.social.service.impl.AppHotStatServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 产物热点统计计数器测试
+ * 使用 jedis-mock（进程内 Redis 服务端）与 H2（MySQL 兼容模式）校验并发计数、读取合并与崩溃恢复后的计数准确性
+ *
+ * @author DuRuiChi
+ * @create 2026/10/18
+ */
+public class AppHotStatCounterTest {
+
+    private static final int APPS = 5;
+
+    private RedisServer redisServer;
+
+    private final List<JedisConnectionFactory> connectionFactories = new ArrayList<>();
+
+    private final List<AppHotStatCounter> counters = new ArrayList<>();
+
+    private AppHotStatMapper appHotStatMapper;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        SocialTestDatabase.start();
+        try (Connection connection = SocialTestDatabase.dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM app_hot_stat");
+        }
+        appHotStatMapper = SocialTestDatabase.getMapper(AppHotStatMapper.class);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        counters.forEach(AppHotStatCounter::shutdown);
+        connectionFactories.forEach(JedisConnectionFactory::destroy);
+        redisServer.stop();
+    }
+
+    /**
+     * 两个节点、多个线程并发增减，定时刷盘期间读取不为负，关闭后数据库计数与操作次数完全一致且没有遗留增量
+     */
+    @Test
+    public void testConcurrentIncrementsAreExactAfterFlush() throws Exception {
+        List<AppHotStatServiceImpl> services = List.of(
+                service(newCounter(20, 30000, true)),
+                service(newCounter(20, 30000, true)));
+        int threads = 8;
+        int operations = 300;
+        AtomicLongArray expected = new AtomicLongArray(APPS * AppHotStatCounter.FIELDS.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random(thread);
+                    AppHotStatServiceImpl service = services.get(thread % services.size());
+                    for (int i = 0; i < operations; i++) {
+                        long appId = 1 + random.nextInt(APPS);
+                        int field = random.nextInt(AppHotStatCounter.FIELDS.size());
+                        String fieldName = AppHotStatCounter.FIELDS.get(field);
+                        int index = (int) (appId - 1) * AppHotStatCounter.FIELDS.size() + field;
+                        service.incrementField(appId, fieldName);
+                        expected.incrementAndGet(index);
+                        // 取消刚才的操作（如取消点赞），每个线程的计数始终不为负
+                        if (i % 3 == 0) {
+                            service.decrementField(appId, fieldName);
+                            expected.decrementAndGet(index);
+                        }
+                        if (i % 50 == 0) {
+                            AppHotStatVO vo = service.getHotStatVO(appId, null);
+                            assertTrue(vo.getLikeCount() >= 0 && vo.getShareCount() >= 0
+                                    && vo.getFavoriteCount() >= 0 && vo.getCommentCount() >= 0);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        counters.forEach(AppHotStatCounter::shutdown);
+        for (long appId = 1; appId <= APPS; appId++) {
+            AppHotStat stat = persisted(appId);
+            long[] counts = {stat.getLikeCount(), stat.getShareCount(), stat.getFavoriteCount(), stat.getCommentCount()};
+            for (int field = 0; field < counts.length; field++) {
+                int index = (int) (appId - 1) * AppHotStatCounter.FIELDS.size() + field;
+                assertEquals(expected.get(index), counts[field], "app " + appId + " " + AppHotStatCounter.FIELDS.get(field));
+            }
+        }
+        StringRedisTemplate redis = redisTemplate();
+        assertTrue(redis.keys("social:hotStat:*").isEmpty(), String.valueOf(redis.keys("social:hotStat:*")));
+    }
+
+    /**
+     * 未刷盘的增量在读取时与数据库中的值合并
+     */
+    @Test
+    public void testReadsCombinePersistedAndPendingCounts() {
+        AppHotStatCounter counter = newCounter(60000, 30000, false);
+        AppHotStatServiceImpl service = service(counter);
+        for (int i = 0; i < 3; i++) {
+            service.incrementField(1L, "likeCount");
+        }
+        service.incrementField(1L, "commentCount");
+        counter.flush();
+        service.incrementField(1L, "likeCount");
+        service.decrementField(1L, "commentCount");
+        service.incrementField(1L, "shareCount");
+
+        assertEquals(3, persisted(1L).getLikeCount());
+        AppHotStatVO vo = service.getHotStatVO(1L, null);
+        assertEquals(4, vo.getLikeCount());
+        assertEquals(1, vo.getShareCount());
+        assertEquals(0, vo.getCommentCount());
+        assertEquals(0, vo.getFavoriteCount());
+        assertEquals(4, service.listHotApps(1, 10).getRecords().get(0).getLikeCount());
+
+        // 没有任何记录的产物计数为0
+        assertEquals(0, service.getHotStatVO(2L, null).getLikeCount());
+    }
+
+    /**
+     * 领取批次后、写入数据库前崩溃：租约到期后由其他节点提交，计数不丢失
+     */
+    @Test
+    public void testRecoverAfterCrashBeforeDatabaseWrite() throws Exception {
+        AppHotStatCounter crashed = newCounter(60000, 200, false);
+        AppHotStatServiceImpl service = service(crashed);
+        for (int i = 0; i < 5; i++) {
+            service.incrementField(1L, "likeCount");
+        }
+        assertNotNull(crashed.claim(1L));
+        // 崩溃后新的增量继续累加
+        service.incrementField(1L, "likeCount");
+
+        AppHotStatCounter survivor = newCounter(60000, 200, false);
+        survivor.flush();
+        // 租约未到期，批次不会被重复领取
+        assertNull(persisted(1L));
+        assertEquals(6, service(survivor).getHotStatVO(1L, null).getLikeCount());
+
+        Thread.sleep(300);
+        survivor.flush();
+        // 第一次刷盘提交遗留批次，新增量在遗留批次确认后的下一次刷盘写入
+        survivor.flush();
+        assertEquals(6, persisted(1L).getLikeCount());
+        assertEquals(6, service(survivor).getHotStatVO(1L, null).getLikeCount());
+        assertTrue(redisTemplate().keys("social:hotStat:*").isEmpty());
+    }
+
+    /**
+     * 写入数据库后、确认前崩溃：读取不重复累加，重新提交时因批次 ID 相同被跳过，计数不重复
+     */
+    @Test
+    public void testRecoverAfterCrashAfterDatabaseWrite() throws Exception {
+        AppHotStatCounter crashed = newCounter(60000, 200, false);
+        AppHotStatServiceImpl service = service(crashed);
+        for (int i = 0; i < 5; i++) {
+            service.incrementField(1L, "likeCount");
+        }
+        service.incrementField(1L, "shareCount");
+        AppHotStatCounter.PendingFlush pendingFlush = crashed.claim(1L);
+        crashed.apply(List.of(pendingFlush));
+        assertEquals(5, persisted(1L).getLikeCount());
+        assertEquals(5, service.getHotStatVO(1L, null).getLikeCount());
+
+        service.incrementField(1L, "likeCount");
+        Thread.sleep(300);
+        AppHotStatCounter survivor = newCounter(60000, 200, false);
+        survivor.flush();
+        survivor.flush();
+        AppHotStat stat = persisted(1L);
+        assertEquals(6, stat.getLikeCount());
+        assertEquals(1, stat.getShareCount());
+        assertEquals(6, service(survivor).getHotStatVO(1L, null).getLikeCount());
+        assertTrue(redisTemplate().keys("social:hotStat:*").isEmpty());
+    }
+
+    private AppHotStat persisted(long appId) {
+        return appHotStatMapper.selectOneByQuery(QueryWrapper.create()
+                .from(AppHotStat.class)
+                .where("appId = ?", appId));
+    }
+
+    private AppHotStatServiceImpl service(AppHotStatCounter counter) {
+        AppHotStatServiceImpl service = new AppHotStatServiceImpl();
+        ReflectionTestUtils.setField(service, "mapper", appHotStatMapper);
+        ReflectionTestUtils.setField(service, "appHotStatCounter", counter);
+        AppHotRanking ranking = new AppHotRanking();
+        ReflectionTestUtils.setField(ranking, "stringRedisTemplate", redisTemplate());
+        ReflectionTestUtils.setField(service, "appHotRanking", ranking);
+        return service;
+    }
+
+    /**
+     * 模拟一个节点上的计数器
+     *
+     * @param flushIntervalMillis 刷盘间隔
+     * @param claimLeaseMillis    批次租约
+     * @param scheduled           是否启动定时刷盘
+     */
+    private AppHotStatCounter newCounter(long flushIntervalMillis, long claimLeaseMillis, boolean scheduled) {
+        AppHotStatCounter counter = new AppHotStatCounter();
+        ReflectionTestUtils.setField(counter, "stringRedisTemplate", redisTemplate());
+        ReflectionTestUtils.setField(counter, "flushIntervalMillis", flushIntervalMillis);
+        ReflectionTestUtils.setField(counter, "claimLeaseMillis", claimLeaseMillis);
+        ReflectionTestUtils.setField(counter, "batchSize", 2);
+        if (scheduled) {
+            counter.init();
+            counters.add(counter);
+        }
+        return counter;
+    }
+
+    private StringRedisTemplate redisTemplate() {
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory(
+                new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+        return new StringRedisTemplate(connectionFactory);
+    }
+}
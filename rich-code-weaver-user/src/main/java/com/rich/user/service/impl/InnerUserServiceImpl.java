@@ -1,5 +1,6 @@
 package com.rich.user.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import com.rich.client.innerService.InnerUserService;
 import com.rich.model.entity.User;
 import com.rich.model.vo.UserVO;
@@ -9,7 +10,10 @@ import org.apache.dubbo.config.annotation.DubboService;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 提供外部调用用户服务的实现类
@@ -36,6 +40,15 @@ public class InnerUserServiceImpl implements InnerUserService {
         return userService.listByIds(ids);
     }
 
+    @Override
+    public Map<Long, UserVO> getUserVOMapByIds(Collection<Long> ids) {
+        if (CollUtil.isEmpty(ids)) {
+            return new HashMap<>();
+        }
+        return userService.listByIds(ids).stream()
+                .collect(Collectors.toMap(User::getId, userService::getUserVO, (a, b) -> a, HashMap::new));
+    }
+
     @Override
     public User getById(Serializable id) {
         return userService.getById(id);
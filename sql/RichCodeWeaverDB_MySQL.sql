@@ -40,7 +40,9 @@ CREATE TABLE `app` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_deployKey` (`deployKey`),
   KEY `idx_appName` (`appName`),
-  KEY `idx_userId` (`userId`)
+  KEY `idx_userId` (`userId`),
+  KEY `idx_userId_isDelete_createTime` (`userId`,`isDelete`,`createTime`),
+  KEY `idx_userId_isDelete_updateTime` (`userId`,`isDelete`,`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=404866191602196481 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='产物';
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -190,6 +192,7 @@ CREATE TABLE `app_hot_stat` (
   `shareCount` int NOT NULL DEFAULT '0' COMMENT '转发量',
   `favoriteCount` int NOT NULL DEFAULT '0' COMMENT '收藏量',
   `commentCount` int NOT NULL DEFAULT '0' COMMENT '评论量',
+  `lastFlushId` bigint NOT NULL DEFAULT '0' COMMENT '最近一次计数刷盘批次id',
   `createTime` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updateTime` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`),
@@ -203,7 +206,7 @@ CREATE TABLE `app_hot_stat` (
 
 LOCK TABLES `app_hot_stat` WRITE;
 /*!40000 ALTER TABLE `app_hot_stat` DISABLE KEYS */;
-INSERT INTO `app_hot_stat` VALUES (1,394027647220396032,56,15,1,2,'2026-03-25 18:17:04','2026-04-11 19:06:03'),(2,393222100686508032,24,9,1,1,'2026-03-25 18:18:51','2026-04-11 19:06:03'),(3,393221828492955648,21,3,2,0,'2026-03-25 18:34:09','2026-04-11 19:06:03'),(4,393219349504102400,23,2,1,0,'2026-03-25 18:34:12','2026-04-11 19:06:03'),(5,395002924146741248,54,1,0,0,'2026-03-27 13:01:37','2026-04-11 19:06:02'),(6,395426007491915776,55,0,0,0,'2026-03-28 17:02:49','2026-04-11 19:06:03'),(7,395426299868356608,16,6,1,0,'2026-03-28 17:03:56','2026-04-11 19:06:02'),(8,395702039918698496,64,0,0,0,'2026-03-29 11:19:39','2026-04-11 19:06:03'),(9,395704799699517440,24,0,0,0,'2026-03-29 11:30:36','2026-04-11 19:06:03'),(10,395705664237858816,19,0,0,0,'2026-03-29 11:34:02','2026-04-11 19:06:02'),(11,395712139727241216,28,0,0,0,'2026-03-29 11:59:46','2026-04-11 19:06:03'),(12,395720848251678720,37,4,2,0,'2026-03-29 12:34:23','2026-04-11 19:06:03'),(13,395728636113711104,35,0,0,0,'2026-03-29 13:05:19','2026-04-11 19:06:03'),(14,396116188939202560,24,0,0,0,'2026-03-30 14:45:19','2026-04-11 19:06:03'),(15,396170222941261824,31,0,0,0,'2026-03-30 18:20:02','2026-04-11 19:06:03'),(16,396171329558061056,24,0,0,0,'2026-03-30 18:24:25','2026-04-11 19:06:02'),(17,396532652817031168,26,3,0,0,'2026-03-31 18:20:11','2026-04-22 12:44:04'),(18,400121552298835968,28,3,1,0,'2026-04-10 16:01:12','2026-04-13 20:39:33'),(19,404412190792327168,0,2,0,0,'2026-04-22 12:10:40','2026-04-22 18:30:54'),(20,404861945699868672,0,0,0,0,'2026-04-23 17:57:50','2026-04-23 17:57:50'),(21,404862798993268736,0,0,0,0,'2026-04-23 18:01:13','2026-04-23 18:01:13'),(22,404865280377069568,0,0,0,0,'2026-04-23 18:11:05','2026-04-23 18:11:05'),(23,404866191602196480,1,2,1,1,'2026-04-23 18:14:42','2026-04-23 19:10:10');
+INSERT INTO `app_hot_stat` VALUES (1,394027647220396032,56,15,1,2,0,'2026-03-25 18:17:04','2026-04-11 19:06:03'),(2,393222100686508032,24,9,1,1,0,'2026-03-25 18:18:51','2026-04-11 19:06:03'),(3,393221828492955648,21,3,2,0,0,'2026-03-25 18:34:09','2026-04-11 19:06:03'),(4,393219349504102400,23,2,1,0,0,'2026-03-25 18:34:12','2026-04-11 19:06:03'),(5,395002924146741248,54,1,0,0,0,'2026-03-27 13:01:37','2026-04-11 19:06:02'),(6,395426007491915776,55,0,0,0,0,'2026-03-28 17:02:49','2026-04-11 19:06:03'),(7,395426299868356608,16,6,1,0,0,'2026-03-28 17:03:56','2026-04-11 19:06:02'),(8,395702039918698496,64,0,0,0,0,'2026-03-29 11:19:39','2026-04-11 19:06:03'),(9,395704799699517440,24,0,0,0,0,'2026-03-29 11:30:36','2026-04-11 19:06:03'),(10,395705664237858816,19,0,0,0,0,'2026-03-29 11:34:02','2026-04-11 19:06:02'),(11,395712139727241216,28,0,0,0,0,'2026-03-29 11:59:46','2026-04-11 19:06:03'),(12,395720848251678720,37,4,2,0,0,'2026-03-29 12:34:23','2026-04-11 19:06:03'),(13,395728636113711104,35,0,0,0,0,'2026-03-29 13:05:19','2026-04-11 19:06:03'),(14,396116188939202560,24,0,0,0,0,'2026-03-30 14:45:19','2026-04-11 19:06:03'),(15,396170222941261824,31,0,0,0,0,'2026-03-30 18:20:02','2026-04-11 19:06:03'),(16,396171329558061056,24,0,0,0,0,'2026-03-30 18:24:25','2026-04-11 19:06:02'),(17,396532652817031168,26,3,0,0,0,'2026-03-31 18:20:11','2026-04-22 12:44:04'),(18,400121552298835968,28,3,1,0,0,'2026-04-10 16:01:12','2026-04-13 20:39:33'),(19,404412190792327168,0,2,0,0,0,'2026-04-22 12:10:40','2026-04-22 18:30:54'),(20,404861945699868672,0,0,0,0,0,'2026-04-23 17:57:50','2026-04-23 17:57:50'),(21,404862798993268736,0,0,0,0,0,'2026-04-23 18:01:13','2026-04-23 18:01:13'),(22,404865280377069568,0,0,0,0,0,'2026-04-23 18:11:05','2026-04-23 18:11:05'),(23,404866191602196480,1,2,1,1,0,'2026-04-23 18:14:42','2026-04-23 19:10:10');
 /*!40000 ALTER TABLE `app_hot_stat` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -443,7 +446,8 @@ CREATE TABLE `community_reply` (
   `isDelete` tinyint NOT NULL DEFAULT '0' COMMENT '是否删除: 0=否, 1=是',
   PRIMARY KEY (`id`),
   KEY `idx_postId` (`postId`),
-  KEY `idx_userId` (`userId`)
+  KEY `idx_userId` (`userId`),
+  KEY `idx_postId_isDelete_createTime` (`postId`,`isDelete`,`createTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=22 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='社区回复表';
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -0,0 +1,4 @@
+-- 产物热点统计计数改为先累加到 Redis、定时批量写入数据库
+-- lastFlushId 记录最近一次写入的批次id，节点崩溃后重试同一批次时不会重复累加
+ALTER TABLE `app_hot_stat`
+    ADD COLUMN `lastFlushId` bigint NOT NULL DEFAULT '0' COMMENT '最近一次计数刷盘批次id' AFTER `commentCount`;
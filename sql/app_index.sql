@@ -0,0 +1,13 @@
+-- “我的产物”分页与用户相关产物查询索引
+-- 查询条件：(userId = ? OR id IN (协作产物ID)) AND isDelete = 0，按 createTime / updateTime 排序后分页；
+-- 执行计划（MySQL 8）：
+--   - 无协作产物时条件为 userId = ? AND isDelete = 0，计数与筛选只扫描本用户在以下索引中的区间；
+--     按 createTime / updateTime 升序时索引顺序（末尾隐含主键 id）即排序顺序，无需 filesort，
+--     降序时与 id 升序的次级排序方向不一致，按名称、优先级排序时排序列不在索引中，均需 filesort；
+--   - 有协作产物时 OR 条件最好情况下为 index_merge（以下索引的 userId 前缀 ∪ 主键），否则退化为全表扫描；
+--     排序包含“自己的产物在前”的 CASE 表达式，始终 filesort。
+-- 两种情况 filesort 的行数都只是该用户可访问的产物数，而不是全表；若单个用户的产物多到 filesort 成为瓶颈，
+-- 可拆为 userId 与主键两条子查询 UNION ALL 后再排序分页
+ALTER TABLE `app`
+    ADD INDEX `idx_userId_isDelete_createTime` (`userId`, `isDelete`, `createTime`),
+    ADD INDEX `idx_userId_isDelete_updateTime` (`userId`, `isDelete`, `updateTime`);
@@ -0,0 +1,5 @@
+-- 社区帖子列表最新回复预览索引
+-- 查询条件：postId IN (当前页帖子ID) AND isDelete = 0，按帖子分区、createTime DESC, id DESC 取前 N 条；
+-- 每个帖子的回复可直接按索引顺序读取，无需额外排序
+ALTER TABLE `community_reply`
+    ADD INDEX `idx_postId_isDelete_createTime` (`postId`, `isDelete`, `createTime`);